@@ -18,6 +18,7 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.pentaho.platform.api.scheduler2.ComplexJobTrigger;
 import org.pentaho.platform.api.scheduler2.CronJobTrigger;
 import org.pentaho.platform.api.scheduler2.IBlockoutManager;
+import org.pentaho.platform.api.scheduler2.IJob;
 import org.pentaho.platform.api.scheduler2.IScheduler;
 import org.pentaho.platform.api.scheduler2.Job;
 import org.pentaho.platform.api.scheduler2.SchedulerException;
@@ -30,18 +31,31 @@ import org.pentaho.platform.api.importexport.ExportException;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.ExportManifest;
 import org.pentaho.platform.scheduler2.messsages.Messages;
 import org.pentaho.platform.repository.RepositoryFilenameUtils;
+import org.pentaho.platform.scheduler2.quartz.QuartzScheduler;
 import org.pentaho.platform.web.http.api.resources.JobScheduleParam;
 import org.pentaho.platform.web.http.api.resources.JobScheduleRequest;
 import org.pentaho.platform.web.http.api.resources.RepositoryFileStreamProvider;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ScheduleExportUtil implements IExportHelper {
   public static final String RUN_PARAMETERS_KEY = "parameters";
 
+  /**
+   * The number of jobs loaded and converted at a time when exporting the schedules of the Quartz scheduler.
+   */
+  static final int EXPORT_PAGE_SIZE = 100;
+
   private ExportManifest exportManifest;
   protected IRepositoryExportLogger log;
 
@@ -60,6 +74,17 @@ public class ScheduleExportUtil implements IExportHelper {
     }
     IScheduler scheduler = PentahoSystem.get( IScheduler.class, "IScheduler2", null ); //$NON-NLS-1$
     assert scheduler != null;
+    return createJobScheduleRequest( job, scheduler );
+  }
+
+  /**
+   * Same as {@link #createJobScheduleRequest(Job)}, with the scheduler already looked up.
+   */
+  public static JobScheduleRequest createJobScheduleRequest( Job job, IScheduler scheduler ) throws ExportException {
+    if ( job == null ) {
+      throw new IllegalArgumentException(
+          Messages.getInstance().getString( "ScheduleExportUtil.JOB_MUST_NOT_BE_NULL" ) );
+    }
     JobScheduleRequest schedule = (JobScheduleRequest) scheduler.createJobScheduleRequest();
     schedule.setJobName( job.getJobName() );
     schedule.setDuration( job.getJobTrigger().getDuration() );
@@ -181,30 +206,45 @@ public class ScheduleExportUtil implements IExportHelper {
       if ( scheduler == null ) {
         throw new ExportException( " Unable to retrieve scheduler service. Failed to export schedules" );
       }
-      List<Job> jobs = (List<Job>) (List<?>) scheduler.getJobs( null );
-      if ( jobs != null ) {
-        jobListSize = jobs.size();
-      }
-      log.info( Messages.getInstance().getString( "PentahoPlatformExporter.INFO_COUNT_SCHEDULE_TO_EXPORT", jobListSize ) );
-
-      for ( Job job : jobs ) {
-        if ( job.getJobName().equals( "PentahoSystemVersionCheck" ) ) {
-          // don't bother exporting the Version Checker schedule, it gets created automatically on server start
-          // if it doesn't exist and fails if you try to import it due to a null ActionClass
-          log.debug( " Skipping the version check schedule [ " + job.getJobName() + " ]" );
-          continue;
-        }
+      if ( scheduler instanceof QuartzScheduler ) {
+        QuartzScheduler quartzScheduler = (QuartzScheduler) scheduler;
+        List<String> jobIds = quartzScheduler.getJobIds();
+        jobListSize = jobIds.size();
+        log.info( Messages.getInstance().getString( "PentahoPlatformExporter.INFO_COUNT_SCHEDULE_TO_EXPORT", jobListSize ) );
+
+        // the pages are loaded and converted in parallel, and added to the manifest in order as they complete; only
+        // a bounded number of pages is held in memory at any time
+        int threads = Math.max( 1, Math.min( Runtime.getRuntime().availableProcessors(),
+          ( jobListSize + EXPORT_PAGE_SIZE - 1 ) / EXPORT_PAGE_SIZE ) );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
         try {
+          Deque<Future<List<ExportedSchedule>>> pages = new ArrayDeque<>();
+          for ( int from = 0; from < jobListSize; from += EXPORT_PAGE_SIZE ) {
+            List<String> page = jobIds.subList( from, Math.min( from + EXPORT_PAGE_SIZE, jobListSize ) );
+            pages.add( executor.submit( () -> convertPage( quartzScheduler, page ) ) );
+            if ( pages.size() >= 2 * threads ) {
+              successfulJobExportCount += addToManifest( awaitPage( pages.poll() ) );
+            }
+          }
+          while ( !pages.isEmpty() ) {
+            successfulJobExportCount += addToManifest( awaitPage( pages.poll() ) );
+          }
+        } finally {
+          executor.shutdownNow();
+        }
+      } else {
+        List<Job> jobs = (List<Job>) (List<?>) scheduler.getJobs( null );
+        if ( jobs != null ) {
+          jobListSize = jobs.size();
+        }
+        log.info( Messages.getInstance().getString( "PentahoPlatformExporter.INFO_COUNT_SCHEDULE_TO_EXPORT", jobListSize ) );
+
+        for ( Job job : jobs ) {
+          if ( !isExported( job ) ) {
+            continue;
+          }
           log.trace( " Creating a job scheduling request for [ " + job.getJobName() + " ]" );
-          JobScheduleRequest scheduleRequest = ScheduleExportUtil.createJobScheduleRequest( job );
-          log.trace( " Successfully finish creating a job scheduling request for [ " + job.getJobName() + " ]" );
-          exportManifest.addSchedule( scheduleRequest );
-          successfulJobExportCount++;
-          log.trace( " Successfully added job scheduling request to manifest [ " + job.getJobName() + " ]" );
-          log.debug( " Successfully added schedule [ " + job.getJobName() + " ] to the manifest" );
-        } catch ( IllegalArgumentException e ) {
-          log.info( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_SCHEDULE_EXPORT", job.getJobName(), e.getMessage() ) );
-          log.debug( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_SCHEDULE_EXPORT", job.getJobName(), e.getMessage(), e ) );
+          successfulJobExportCount += addToManifest( convert( job, scheduler ) );
         }
       }
     } catch ( SchedulerException e ) {
@@ -216,6 +256,93 @@ public class ScheduleExportUtil implements IExportHelper {
     }
   }
 
+  private boolean isExported( Job job ) {
+    if ( job.getJobName().equals( "PentahoSystemVersionCheck" ) ) {
+      // don't bother exporting the Version Checker schedule, it gets created automatically on server start
+      // if it doesn't exist and fails if you try to import it due to a null ActionClass
+      log.debug( " Skipping the version check schedule [ " + job.getJobName() + " ]" );
+      return false;
+    }
+    return true;
+  }
+
+  private static List<ExportedSchedule> convertPage( QuartzScheduler scheduler, List<String> jobIds )
+    throws SchedulerException, ExportException {
+    List<ExportedSchedule> schedules = new ArrayList<>( jobIds.size() );
+    for ( IJob job : scheduler.getJobsById( jobIds ) ) {
+      schedules.add( convert( (Job) job, scheduler ) );
+    }
+    return schedules;
+  }
+
+  private static ExportedSchedule convert( Job job, IScheduler scheduler ) throws ExportException {
+    try {
+      return new ExportedSchedule( job, createJobScheduleRequest( job, scheduler ), null );
+    } catch ( IllegalArgumentException e ) {
+      return new ExportedSchedule( job, null, e );
+    }
+  }
+
+  private List<ExportedSchedule> awaitPage( Future<List<ExportedSchedule>> page )
+    throws SchedulerException, ExportException {
+    try {
+      return page.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new ExportException( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_EXPORTING_JOBS" ), e );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof SchedulerException ) {
+        throw (SchedulerException) e.getCause();
+      }
+      if ( e.getCause() instanceof ExportException ) {
+        throw (ExportException) e.getCause();
+      }
+      if ( e.getCause() instanceof RuntimeException ) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ExportException( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_EXPORTING_JOBS" ), e );
+    }
+  }
+
+  private int addToManifest( List<ExportedSchedule> schedules ) {
+    int added = 0;
+    for ( ExportedSchedule schedule : schedules ) {
+      if ( isExported( schedule.job ) ) {
+        added += addToManifest( schedule );
+      }
+    }
+    return added;
+  }
+
+  private int addToManifest( ExportedSchedule schedule ) {
+    Job job = schedule.job;
+    if ( schedule.error != null ) {
+      log.info( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_SCHEDULE_EXPORT", job.getJobName(), schedule.error.getMessage() ) );
+      log.debug( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_SCHEDULE_EXPORT", job.getJobName(), schedule.error.getMessage(), schedule.error ) );
+      return 0;
+    }
+    log.trace( " Successfully finish creating a job scheduling request for [ " + job.getJobName() + " ]" );
+    exportManifest.addSchedule( schedule.request );
+    log.trace( " Successfully added job scheduling request to manifest [ " + job.getJobName() + " ]" );
+    log.debug( " Successfully added schedule [ " + job.getJobName() + " ] to the manifest" );
+    return 1;
+  }
+
+  /**
+   * A job converted to its manifest entry, or the reason it cannot be exported.
+   */
+  private static class ExportedSchedule {
+    private final Job job;
+    private final JobScheduleRequest request;
+    private final IllegalArgumentException error;
+
+    ExportedSchedule( Job job, JobScheduleRequest request, IllegalArgumentException error ) {
+      this.job = job;
+      this.request = request;
+      this.error = error;
+    }
+  }
+
   @Override
   public void doExport( Object exportArg ) throws ExportException {
     PentahoPlatformExporter exporter = (PentahoPlatformExporter) exportArg;
@@ -24,6 +24,7 @@ import org.pentaho.platform.api.scheduler2.IJobTrigger;
 import org.pentaho.platform.api.scheduler2.IScheduler;
 import org.pentaho.platform.api.scheduler2.ISchedulerResource;
 import org.pentaho.platform.api.scheduler2.JobState;
+import org.pentaho.platform.api.scheduler2.SchedulerException;
 import org.pentaho.platform.api.scheduler2.SimpleJobTrigger;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.plugin.services.importexport.ImportSession;
@@ -31,11 +32,18 @@ import org.pentaho.platform.plugin.services.messages.Messages;
 
 import jakarta.ws.rs.core.Response;
 import org.pentaho.platform.scheduler2.quartz.QuartzScheduler;
+import org.pentaho.platform.web.http.api.resources.JobCreationResult;
+import org.pentaho.platform.web.http.api.resources.JobScheduleRequest;
+import org.pentaho.platform.web.http.api.resources.JobScheduleRequests;
+import org.pentaho.platform.web.http.api.resources.JobsRequest;
+import org.pentaho.platform.web.http.api.resources.SchedulerResource;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -61,132 +69,84 @@ public class ScheduleImportUtil implements IImportHelper {
       if ( solutionImportHandler.isPerformingRestore() ) {
         solutionImportHandler.getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_COUNT_SCHEDULUE", scheduleList.size() ) );
       }
-      int successfulScheduleImportCount = 0;
       IScheduler scheduler = PentahoSystem.get( IScheduler.class, "IScheduler2", null ); //$NON-NLS-1$
       ISchedulerResource schedulerResource = scheduler.createSchedulerResource();
-      if ( solutionImportHandler.isPerformingRestore() ) {
-        solutionImportHandler.getLogger().debug( "Pausing the scheduler before the start of the restore process" );
-      }
-      schedulerResource.pause();
-      if ( solutionImportHandler.isPerformingRestore() ) {
-        solutionImportHandler.getLogger().debug( "Successfully paused the scheduler" );
+      // the Quartz scheduler keeps firing the other jobs while the imported ones are staged
+      QuartzScheduler quartzScheduler = scheduler instanceof QuartzScheduler ? (QuartzScheduler) scheduler : null;
+      if ( quartzScheduler == null ) {
+        if ( solutionImportHandler.isPerformingRestore() ) {
+          solutionImportHandler.getLogger().debug( "Pausing the scheduler before the start of the restore process" );
+        }
+        schedulerResource.pause();
+        if ( solutionImportHandler.isPerformingRestore() ) {
+          solutionImportHandler.getLogger().debug( "Successfully paused the scheduler" );
+        }
       }
+
+      // the existing jobs are listed once and looked up by lineage id, rather than listed and scanned per schedule
+      Map<Serializable, String> jobIdsByLineage = getJobIdsByLineage( schedulerResource.getJobsList() );
+      // keyed by lineage id, so that a schedule listed twice in the manifest is created once; schedules without a
+      // lineage id get a key of their own
+      Map<Object, IJobScheduleRequest> schedulesToCreate = new LinkedHashMap<>();
+      List<String> jobIdsToRemove = new ArrayList<>();
+
       for ( IJobScheduleRequest jobScheduleRequest : scheduleList ) {
         if ( solutionImportHandler.isPerformingRestore() ) {
           solutionImportHandler.getLogger().debug( "Restoring schedule name [ " + jobScheduleRequest.getJobName() + "] inputFile [ " + jobScheduleRequest.getInputFile() + " ] outputFile [ " + jobScheduleRequest.getOutputFile() + "]" );
         }
-        boolean jobExists = false;
-
-        List<IJob> jobs = schedulerResource.getJobsList();
-        if ( jobs != null ) {
+        Serializable lineageId = getLineageId( jobScheduleRequest );
 
-          //paramRequest to map<String, Serializable>
-          Map<String, Serializable> mapParamsRequest = new HashMap<>();
-          for ( IJobScheduleParam paramRequest : jobScheduleRequest.getJobParameters() ) {
-            mapParamsRequest.put( paramRequest.getName(), paramRequest.getValue() );
+        // We will check the existing job in the repository. If the job being imported exists, we will remove it from the repository
+        if ( lineageId != null
+          && ( jobIdsByLineage.containsKey( lineageId ) || schedulesToCreate.containsKey( lineageId ) ) ) {
+          if ( !solutionImportHandler.isOverwriteFile() ) {
+            solutionImportHandler.getLogger().info( Messages.getInstance()
+              .getString( "DefaultImportHandler.ERROR_0009_OVERWRITE_CONTENT", jobScheduleRequest.toString() ) );
+            continue;
           }
-
-          // We will check the existing job in the repository. If the job being imported exists, we will remove it from the repository
-          for ( IJob job : jobs ) {
-
-            if ( ( mapParamsRequest.get( RESERVEDMAPKEY_LINEAGE_ID ) != null )
-              && ( mapParamsRequest.get( RESERVEDMAPKEY_LINEAGE_ID )
-              .equals( job.getJobParams().get( RESERVEDMAPKEY_LINEAGE_ID ) ) ) ) {
-              jobExists = true;
-            }
-
-            if ( solutionImportHandler.isOverwriteFile() && jobExists ) {
-              if ( solutionImportHandler.isPerformingRestore() ) {
-                solutionImportHandler.getLogger().debug( "Schedule  [ " + jobScheduleRequest.getJobName() + "] already exists and overwrite flag is set to true. Removing the job so we can add it again" );
-              }
-              IJobRequest jobRequest = scheduler.createJobRequest();
-              jobRequest.setJobId( job.getJobId() );
-              schedulerResource.removeJob( jobRequest );
-              jobExists = false;
-              break;
-            }
+          if ( solutionImportHandler.isPerformingRestore() ) {
+            solutionImportHandler.getLogger().debug( "Schedule  [ " + jobScheduleRequest.getJobName() + "] already exists and overwrite flag is set to true. Removing the job so we can add it again" );
           }
+          String jobId = jobIdsByLineage.remove( lineageId );
+          if ( jobId != null ) {
+            jobIdsToRemove.add( jobId );
+          }
+          schedulesToCreate.remove( lineageId );
         }
 
         boolean canImport = convertFromPreTimeZoneTrigger( jobScheduleRequest, solutionImportHandler );
         if ( !canImport ) {
           continue;
         }
+        schedulesToCreate.put( lineageId != null ? lineageId : new Object(), jobScheduleRequest );
+      }
 
-        if ( !jobExists ) {
-          try {
-            Response response = createSchedulerJob( schedulerResource, jobScheduleRequest );
-            if ( response.getStatus() == Response.Status.OK.getStatusCode() ) {
-              if ( response.getEntity() != null ) {
-                // get the schedule job id from the response and add it to the import session
-                ImportSession.getSession().addImportedScheduleJobId( response.getEntity().toString() );
-                if ( solutionImportHandler.isPerformingRestore() ) {
-                  solutionImportHandler.getLogger().debug( "Successfully restored schedule [ " + jobScheduleRequest.getJobName() + " ] " );
-                }
-                successfulScheduleImportCount++;
-              }
-            } else {
-              solutionImportHandler.getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_SCHEDULE", jobScheduleRequest.getJobName(), response.getEntity() != null
-                ? response.getEntity().toString() : "" ) );
-            }
-          } catch ( Exception e ) {
-            // there is a scenario where if the file scheduled has a space in the file name, that it won't work. the
-            // di server
+      List<IJobScheduleRequest> activeSchedules = new ArrayList<>();
+      List<IJobScheduleRequest> pausedSchedules = new ArrayList<>();
+      for ( IJobScheduleRequest jobScheduleRequest : schedulesToCreate.values() ) {
+        ( jobScheduleRequest.getJobState() == JobState.NORMAL ? activeSchedules : pausedSchedules )
+          .add( jobScheduleRequest );
+      }
 
-            // replaces spaces with underscores and the export mechanism can't determine if it needs this to happen
-            // or not
-            // so, if we failed to import and there is a space in the path, try again but this time with replacing
-            // the space(s)
-            if ( jobScheduleRequest.getInputFile().contains( " " ) || jobScheduleRequest.getOutputFile()
-              .contains( " " ) ) {
-              solutionImportHandler.getLogger().debug( Messages.getInstance()
-                .getString( "SolutionImportHandler.SchedulesWithSpaces", jobScheduleRequest.getInputFile() ) );
-              File inFile = new File( jobScheduleRequest.getInputFile() );
-              File outFile = new File( jobScheduleRequest.getOutputFile() );
-              String inputFileName = inFile.getParent() + RepositoryFile.SEPARATOR
-                + inFile.getName().replace( " ", "_" );
-              String outputFileName = outFile.getParent() + RepositoryFile.SEPARATOR
-                + outFile.getName().replace( " ", "_" );
-              jobScheduleRequest.setInputFile( inputFileName );
-              jobScheduleRequest.setOutputFile( outputFileName );
-              try {
-                if ( !File.separator.equals( RepositoryFile.SEPARATOR ) ) {
-                  // on windows systems, the backslashes will result in the file not being found in the repository
-                  jobScheduleRequest.setInputFile( inputFileName.replace( File.separator, RepositoryFile.SEPARATOR ) );
-                  jobScheduleRequest
-                    .setOutputFile( outputFileName.replace( File.separator, RepositoryFile.SEPARATOR ) );
-                }
-                Response response = createSchedulerJob( schedulerResource, jobScheduleRequest );
-                if ( response.getStatus() == Response.Status.OK.getStatusCode() ) {
-                  if ( response.getEntity() != null ) {
-                    // get the schedule job id from the response and add it to the import session
-                    ImportSession.getSession().addImportedScheduleJobId( response.getEntity().toString() );
-                    successfulScheduleImportCount++;
-                  }
-                }
-              } catch ( Exception ex ) {
-                // log it and keep going. we shouldn't stop processing all schedules just because one fails.
-                solutionImportHandler.getLogger().error( Messages.getInstance()
-                  .getString( "SolutionImportHandler.ERROR_0001_ERROR_CREATING_SCHEDULE", "[ " + jobScheduleRequest.getJobName() + " ] cause [ " + ex.getMessage() + " ]" ), ex );
-              }
-            } else {
-              // log it and keep going. we shouldn't stop processing all schedules just because one fails.
-              solutionImportHandler.getLogger().error( Messages.getInstance()
-                .getString( "SolutionImportHandler.ERROR_0001_ERROR_CREATING_SCHEDULE", "[ " + jobScheduleRequest.getJobName() + " ]" ) );
-            }
-          }
-        } else {
-          solutionImportHandler.getLogger().info( Messages.getInstance()
-            .getString( "DefaultImportHandler.ERROR_0009_OVERWRITE_CONTENT", jobScheduleRequest.toString() ) );
-        }
+      removeJobs( scheduler, schedulerResource, jobIdsToRemove );
+      // paused schedules are not staged, as activating the staged jobs resumes all of them
+      int successfulScheduleImportCount = createSchedulerJobs( schedulerResource, pausedSchedules, solutionImportHandler );
+      if ( quartzScheduler != null ) {
+        successfulScheduleImportCount +=
+          createStagedSchedulerJobs( quartzScheduler, schedulerResource, activeSchedules, solutionImportHandler );
+      } else {
+        successfulScheduleImportCount += createSchedulerJobs( schedulerResource, activeSchedules, solutionImportHandler );
       }
+
       if ( solutionImportHandler.isPerformingRestore() ) {
         solutionImportHandler.getLogger().info( Messages.getInstance()
           .getString( "SolutionImportHandler.INFO_SUCCESSFUL_SCHEDULE_IMPORT_COUNT", successfulScheduleImportCount, scheduleList.size() ) );
       }
-      schedulerResource.start();
-      if ( solutionImportHandler.isPerformingRestore() ) {
-        solutionImportHandler.getLogger().debug( "Successfully started the scheduler" );
+      if ( quartzScheduler == null ) {
+        schedulerResource.start();
+        if ( solutionImportHandler.isPerformingRestore() ) {
+          solutionImportHandler.getLogger().debug( "Successfully started the scheduler" );
+        }
       }
     }
     if ( solutionImportHandler.isPerformingRestore() ) {
@@ -194,15 +154,211 @@ public class ScheduleImportUtil implements IImportHelper {
     }
   }
 
+  private static Map<Serializable, String> getJobIdsByLineage( List<IJob> jobs ) {
+    Map<Serializable, String> jobIdsByLineage = new HashMap<>();
+    if ( jobs != null ) {
+      for ( IJob job : jobs ) {
+        Object lineageId = job.getJobParams().get( RESERVEDMAPKEY_LINEAGE_ID );
+        if ( lineageId instanceof Serializable ) {
+          jobIdsByLineage.putIfAbsent( (Serializable) lineageId, job.getJobId() );
+        }
+      }
+    }
+    return jobIdsByLineage;
+  }
+
+  private static Serializable getLineageId( IJobScheduleRequest jobScheduleRequest ) {
+    Serializable lineageId = null;
+    if ( jobScheduleRequest.getJobParameters() == null ) {
+      return null;
+    }
+    for ( IJobScheduleParam paramRequest : jobScheduleRequest.getJobParameters() ) {
+      if ( RESERVEDMAPKEY_LINEAGE_ID.equals( paramRequest.getName() ) ) {
+        lineageId = paramRequest.getValue();
+      }
+    }
+    return lineageId;
+  }
+
+  private void removeJobs( IScheduler scheduler, ISchedulerResource schedulerResource, List<String> jobIds ) {
+    if ( jobIds.isEmpty() ) {
+      return;
+    }
+    if ( schedulerResource instanceof SchedulerResource ) {
+      JobsRequest jobsRequest = new JobsRequest();
+      jobsRequest.setJobIds( jobIds );
+      ( (SchedulerResource) schedulerResource ).removeJobs( jobsRequest );
+      return;
+    }
+    for ( String jobId : jobIds ) {
+      IJobRequest jobRequest = scheduler.createJobRequest();
+      jobRequest.setJobId( jobId );
+      schedulerResource.removeJob( jobRequest );
+    }
+  }
+
+  /**
+   * Creates the schedules, all in one bulk creation when the scheduler resource supports it. The schedules the bulk
+   * creation rejects are created one by one, as when the bulk creation is not supported.
+   *
+   * @return the number of schedules created
+   */
+  private int createSchedulerJobs( ISchedulerResource schedulerResource, List<IJobScheduleRequest> jobScheduleRequests,
+                                   IImportHelper.ImportContext solutionImportHandler ) {
+    List<JobCreationResult> results = null;
+    if ( schedulerResource instanceof SchedulerResource
+      && jobScheduleRequests.stream().allMatch( JobScheduleRequest.class::isInstance ) ) {
+      JobScheduleRequests bulkRequest = new JobScheduleRequests();
+      jobScheduleRequests.forEach( request -> bulkRequest.getJobScheduleRequests().add( (JobScheduleRequest) request ) );
+      try {
+        results = ( (SchedulerResource) schedulerResource ).createJobs( bulkRequest ).getResults();
+      } catch ( Exception e ) {
+        solutionImportHandler.getLogger().debug( "Bulk schedule creation failed, creating the schedules one by one", e );
+      }
+    }
+
+    int successfulScheduleImportCount = 0;
+    for ( int i = 0; i < jobScheduleRequests.size(); i++ ) {
+      IJobScheduleRequest jobScheduleRequest = jobScheduleRequests.get( i );
+      boolean created;
+      if ( results == null ) {
+        created = importSchedule( schedulerResource, jobScheduleRequest, solutionImportHandler );
+      } else if ( JobCreationResult.CREATED.equals( results.get( i ).getStatus() ) ) {
+        pauseIfNotNormal( schedulerResource, jobScheduleRequest, results.get( i ).getJobId() );
+        addImportedSchedule( jobScheduleRequest, results.get( i ).getJobId(), solutionImportHandler );
+        created = true;
+      } else {
+        // retry the schedule on its own, so that only the schedules that really cannot be created are reported
+        solutionImportHandler.getLogger().debug( "Bulk creation of schedule [ " + jobScheduleRequest.getJobName()
+          + " ] failed, creating it on its own: " + results.get( i ).getMessage() );
+        created = importSchedule( schedulerResource, jobScheduleRequest, solutionImportHandler );
+      }
+      if ( created ) {
+        successfulScheduleImportCount++;
+      }
+    }
+    return successfulScheduleImportCount;
+  }
+
+  /**
+   * Creates the schedules paused and resumes them all at once when they are all created, so that the schedules of a
+   * manifest start firing together while the other jobs keep firing throughout the import.
+   *
+   * @return the number of schedules created
+   */
+  private int createStagedSchedulerJobs( QuartzScheduler quartzScheduler, ISchedulerResource schedulerResource,
+                                         List<IJobScheduleRequest> jobScheduleRequests,
+                                         IImportHelper.ImportContext solutionImportHandler ) {
+    if ( jobScheduleRequests.isEmpty() ) {
+      return 0;
+    }
+    try {
+      quartzScheduler.stageJobs();
+    } catch ( SchedulerException e ) {
+      solutionImportHandler.getLogger().warn( "Could not stage the imported schedules, they start as they are created", e );
+      return createSchedulerJobs( schedulerResource, jobScheduleRequests, solutionImportHandler );
+    }
+    try {
+      return createSchedulerJobs( schedulerResource, jobScheduleRequests, solutionImportHandler );
+    } finally {
+      try {
+        quartzScheduler.activateStagedJobs();
+        if ( solutionImportHandler.isPerformingRestore() ) {
+          solutionImportHandler.getLogger().debug( "Successfully activated the imported schedules" );
+        }
+      } catch ( SchedulerException e ) {
+        solutionImportHandler.getLogger().error( "Could not activate the imported schedules", e );
+      }
+    }
+  }
+
+  private boolean importSchedule( ISchedulerResource schedulerResource, IJobScheduleRequest jobScheduleRequest,
+                                  IImportHelper.ImportContext solutionImportHandler ) {
+    try {
+      Response response = createSchedulerJob( schedulerResource, jobScheduleRequest );
+      if ( response.getStatus() == Response.Status.OK.getStatusCode() ) {
+        if ( response.getEntity() != null ) {
+          addImportedSchedule( jobScheduleRequest, response.getEntity().toString(), solutionImportHandler );
+          return true;
+        }
+      } else {
+        solutionImportHandler.getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_SCHEDULE", jobScheduleRequest.getJobName(), response.getEntity() != null
+          ? response.getEntity().toString() : "" ) );
+      }
+    } catch ( Exception e ) {
+      if ( hasSpaces( jobScheduleRequest ) ) {
+        return importScheduleWithoutSpaces( schedulerResource, jobScheduleRequest, solutionImportHandler );
+      }
+      // log it and keep going. we shouldn't stop processing all schedules just because one fails.
+      solutionImportHandler.getLogger().error( Messages.getInstance()
+        .getString( "SolutionImportHandler.ERROR_0001_ERROR_CREATING_SCHEDULE", "[ " + jobScheduleRequest.getJobName() + " ]" ) );
+    }
+    return false;
+  }
+
+  // there is a scenario where if the file scheduled has a space in the file name, that it won't work. the di server
+  // replaces spaces with underscores and the export mechanism can't determine if it needs this to happen or not
+  // so, if we failed to import and there is a space in the path, try again but this time with replacing the space(s)
+  private static boolean hasSpaces( IJobScheduleRequest jobScheduleRequest ) {
+    return jobScheduleRequest.getInputFile().contains( " " ) || jobScheduleRequest.getOutputFile().contains( " " );
+  }
+
+  private boolean importScheduleWithoutSpaces( ISchedulerResource schedulerResource,
+                                               IJobScheduleRequest jobScheduleRequest,
+                                               IImportHelper.ImportContext solutionImportHandler ) {
+    solutionImportHandler.getLogger().debug( Messages.getInstance()
+      .getString( "SolutionImportHandler.SchedulesWithSpaces", jobScheduleRequest.getInputFile() ) );
+    File inFile = new File( jobScheduleRequest.getInputFile() );
+    File outFile = new File( jobScheduleRequest.getOutputFile() );
+    String inputFileName = inFile.getParent() + RepositoryFile.SEPARATOR
+      + inFile.getName().replace( " ", "_" );
+    String outputFileName = outFile.getParent() + RepositoryFile.SEPARATOR
+      + outFile.getName().replace( " ", "_" );
+    jobScheduleRequest.setInputFile( inputFileName );
+    jobScheduleRequest.setOutputFile( outputFileName );
+    try {
+      if ( !File.separator.equals( RepositoryFile.SEPARATOR ) ) {
+        // on windows systems, the backslashes will result in the file not being found in the repository
+        jobScheduleRequest.setInputFile( inputFileName.replace( File.separator, RepositoryFile.SEPARATOR ) );
+        jobScheduleRequest
+          .setOutputFile( outputFileName.replace( File.separator, RepositoryFile.SEPARATOR ) );
+      }
+      Response response = createSchedulerJob( schedulerResource, jobScheduleRequest );
+      if ( response.getStatus() == Response.Status.OK.getStatusCode() && response.getEntity() != null ) {
+        // get the schedule job id from the response and add it to the import session
+        ImportSession.getSession().addImportedScheduleJobId( response.getEntity().toString() );
+        return true;
+      }
+    } catch ( Exception ex ) {
+      // log it and keep going. we shouldn't stop processing all schedules just because one fails.
+      solutionImportHandler.getLogger().error( Messages.getInstance()
+        .getString( "SolutionImportHandler.ERROR_0001_ERROR_CREATING_SCHEDULE", "[ " + jobScheduleRequest.getJobName() + " ] cause [ " + ex.getMessage() + " ]" ), ex );
+    }
+    return false;
+  }
+
+  private void addImportedSchedule( IJobScheduleRequest jobScheduleRequest, String jobId,
+                                    IImportHelper.ImportContext solutionImportHandler ) {
+    // get the schedule job id from the response and add it to the import session
+    ImportSession.getSession().addImportedScheduleJobId( jobId );
+    if ( solutionImportHandler.isPerformingRestore() ) {
+      solutionImportHandler.getLogger().debug( "Successfully restored schedule [ " + jobScheduleRequest.getJobName() + " ] " );
+    }
+  }
+
   public Response createSchedulerJob( ISchedulerResource scheduler, IJobScheduleRequest jobScheduleRequest )
     throws IOException {
     Response rs = scheduler != null ? (Response) scheduler.createJob( jobScheduleRequest ) : null;
-    if ( jobScheduleRequest.getJobState() != JobState.NORMAL ) {
+    pauseIfNotNormal( scheduler, jobScheduleRequest, rs != null && rs.getEntity() != null ? rs.getEntity().toString() : null );
+    return rs;
+  }
+
+  private void pauseIfNotNormal( ISchedulerResource scheduler, IJobScheduleRequest jobScheduleRequest, String jobId ) {
+    if ( jobId != null && jobScheduleRequest.getJobState() != JobState.NORMAL ) {
       IJobRequest jobRequest = PentahoSystem.get( IScheduler.class, "IScheduler2", null ).createJobRequest();
-      jobRequest.setJobId( rs.getEntity().toString() );
+      jobRequest.setJobId( jobId );
       scheduler.pauseJob( jobRequest );
     }
-    return rs;
   }
 
   protected List<IJobScheduleRequest> getScheduleList() {
@@ -30,20 +30,18 @@ import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.scheduler2.IBackgroundExecutionStreamProvider;
 import org.pentaho.platform.api.scheduler2.SchedulerException;
-import org.pentaho.platform.engine.core.output.FileContentItem;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.services.solution.ActionSequenceCompatibilityFormatter;
 import org.pentaho.platform.scheduler2.ISchedulerOutputPathResolver;
 import org.pentaho.platform.scheduler2.messsages.Messages;
+import org.pentaho.platform.scheduler2.workitem.WorkItemLifecycleEventDispatcher;
 import org.pentaho.platform.util.ActionUtil;
 import org.pentaho.platform.util.beans.ActionHarness;
 import org.pentaho.platform.util.messages.LocaleHelper;
-import org.pentaho.platform.workitem.WorkItemLifecycleEventUtil;
 import org.pentaho.platform.workitem.WorkItemLifecyclePhase;
 
 import java.io.OutputStream;
-import java.io.Serializable;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -101,12 +99,12 @@ public class ActionRunner implements IActionRunner {
     try {
       final ExecutionResult result = callImpl();
       if ( result.isSuccess() ) {
-        WorkItemLifecycleEventUtil.publish( workItemName, params, WorkItemLifecyclePhase.SUCCEEDED );
+        WorkItemLifecycleEventDispatcher.publish( workItemName, params, WorkItemLifecyclePhase.SUCCEEDED );
       } else {
         if ( !isRetry() ) {
           ActionUtil.sendFailureEmail( params, null );
         }
-        WorkItemLifecycleEventUtil.publish( workItemName, params, WorkItemLifecyclePhase.FAILED );
+        WorkItemLifecycleEventDispatcher.publish( workItemName, params, WorkItemLifecyclePhase.FAILED );
       }
       return result.updateRequired();
     } catch ( final Throwable t ) {
@@ -118,7 +116,7 @@ public class ActionRunner implements IActionRunner {
       synchronized ( lock ) {
         lock.notifyAll();
       }
-      WorkItemLifecycleEventUtil.publish( workItemName, params, WorkItemLifecyclePhase.FAILED, t.toString() );
+      WorkItemLifecycleEventDispatcher.publish( workItemName, params, WorkItemLifecyclePhase.FAILED, t.toString() );
       // We should not distinguish between checked and unchecked exceptions here. All job execution failures
       // should result in a rethrow of the exception
       throw new ActionInvocationException( Messages.getInstance().getActionFailedToExecute( actionBean //$NON-NLS-1$
@@ -143,8 +141,7 @@ public class ActionRunner implements IActionRunner {
     // sync job params to the action bean
     ActionHarness actionHarness = new ActionHarness( actionBean );
 
-    final Map<String, Object> actionParams = new HashMap<>();
-    actionParams.putAll( params );
+    final Map<String, Object> actionParams = new LayeredParameterMap( params );
     if ( streamProvider != null ) {
       actionParams.put( "inputStream", streamProvider.getInputStream() );
     }
@@ -180,7 +177,7 @@ public class ActionRunner implements IActionRunner {
         return new ExecutionResult( true, true );
       }
 
-      stream = streamProvider.getOutputStream();
+      stream = createOutputStream();
       if ( stream instanceof ISourcesStreamEvents ) {
         ( (ISourcesStreamEvents) stream ).addListener( new IStreamListener() {
           public void fileCreated( final String filePath ) {
@@ -209,6 +206,10 @@ public class ActionRunner implements IActionRunner {
     if ( stream != null ) {
       IOUtils.closeQuietly( stream );
     }
+    if ( stream instanceof LazyOutputStream ) {
+      // an output stream the action never wrote to has no file to wait for
+      waitForFileCreated = ( (LazyOutputStream) stream ).isSourcingStreamEvents();
+    }
 
     if ( waitForFileCreated ) {
       synchronized ( lock ) {
@@ -216,9 +217,10 @@ public class ActionRunner implements IActionRunner {
           lock.wait( 1000 );
         }
       }
-      if ( executionStatus ) {
+      if ( executionStatus && outputFilePath != null ) {
         sendEmail( actionParams );
       }
+      indexOutputFile();
       deleteFileIfEmpty();
     }
     if ( actionBean instanceof IPostProcessingAction ) {
@@ -239,6 +241,16 @@ public class ActionRunner implements IActionRunner {
     return FilenameUtils.getFullPathNoEndSeparator( path );
   }
 
+  /**
+   * Creates the output stream handed to the action. The repository file behind
+   * {@link IBackgroundExecutionStreamProvider#getOutputStream()} is only created once the action writes its first
+   * byte, so executions without output cost no repository I/O.
+   * @return the output stream of the action
+   */
+  protected OutputStream createOutputStream() {
+    return new LazyOutputStream( streamProvider::getOutputStream );
+  }
+
   /**
    * Add JCR related key/values.
    * @param actionParams
@@ -299,6 +311,16 @@ public class ActionRunner implements IActionRunner {
     ActionUtil.sendEmail( actionParams, params, outputFilePath );
   }
 
+  /**
+   * Records the output file in the {@link GeneratedContentIndex} under the lineage id of this execution.
+   */
+  protected void indexOutputFile() {
+    GeneratedContentIndex index = GeneratedContentIndex.getInstance();
+    if ( index != null && outputFilePath != null ) {
+      index.add( (String) params.get( ActionUtil.QUARTZ_LINEAGE_ID ), outputFilePath );
+    }
+  }
+
   /**
    * Deletes repository file if the file size is zero.
    */
@@ -310,6 +332,10 @@ public class ActionRunner implements IActionRunner {
     RepositoryFile file = repo.getFile( outputFilePath );
     if ( file.getFileSize().equals( 0L ) ) {
       repo.deleteFile( file.getId(), true, null );
+      GeneratedContentIndex index = GeneratedContentIndex.getInstance();
+      if ( index != null ) {
+        index.remove( outputFilePath );
+      }
     }
   }
 
@@ -322,34 +348,26 @@ public class ActionRunner implements IActionRunner {
   private void markContentAsGenerated( IPostProcessingAction actionBean ) {
     IUnifiedRepository repo = PentahoSystem.get( IUnifiedRepository.class );
     String lineageId = (String) params.get( ActionUtil.QUARTZ_LINEAGE_ID );
-    for ( IContentItem contentItem : actionBean.getActionOutputContents() ) {
-      RepositoryFile sourceFile = getRepositoryFileSafe( repo, contentItem.getPath() );
-      // add metadata if we have access and we have file
-      if ( sourceFile != null ) {
-        Map<String, Serializable> metadata = repo.getFileMetadata( sourceFile.getId() );
-        metadata.put( ActionUtil.QUARTZ_LINEAGE_ID, lineageId );
-        repo.setFileMetadata( sourceFile.getId(), metadata );
-      } else {
-        String fileName = getFSFileNameSafe( contentItem );
-        logger.warn( Messages.getInstance().getSkipRemovingOutputFile( fileName ) );
+    GeneratedContentMetadataWriter metadataWriter = createMetadataWriter( repo, lineageId );
+    metadataWriter.addAll( actionBean.getActionOutputContents() );
+    List<RepositoryFile> generatedFiles = metadataWriter.flush();
+
+    GeneratedContentIndex index = GeneratedContentIndex.getInstance();
+    if ( index != null ) {
+      for ( RepositoryFile generatedFile : generatedFiles ) {
+        index.add( lineageId, generatedFile.getPath() );
       }
     }
   }
 
-  private RepositoryFile getRepositoryFileSafe( IUnifiedRepository repo, String path ) {
-    try {
-      return repo.getFile( path );
-    } catch ( Exception e ) {
-      logger.debug( Messages.getInstance().getCannotGetRepoFile( path, e.getMessage() ) );
-      return null;
-    }
-  }
-
-  private String getFSFileNameSafe( IContentItem contentItem ) {
-    if ( contentItem instanceof FileContentItem ) {
-      return ( (FileContentItem) contentItem ).getFile().getName();
-    }
-    return null;
+  /**
+   * Instantiates the {@link GeneratedContentMetadataWriter} used to tag the generated content of this execution.
+   * @param repo
+   * @param lineageId
+   * @return
+   */
+  protected GeneratedContentMetadataWriter createMetadataWriter( IUnifiedRepository repo, String lineageId ) {
+    return new GeneratedContentMetadataWriter( repo, lineageId );
   }
 
   /**
@@ -0,0 +1,241 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.util.ActionUtil;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the repository files generated by each schedule, keyed by lineage id.
+ *
+ * <p>Files are added when {@link ActionRunner} tags generated content and removed when the scheduler deletes them.
+ * The index is kept in memory, so it only knows about content generated since startup. A folder is only answered from
+ * the index once it has been fully {@link #seed(String, String, Collection) seeded} for a lineage id, typically from
+ * the result of a repository search; until then {@link #lookup(IUnifiedRepository, String, String)} returns
+ * {@code null} and callers must fall back to searching the repository. Files deleted outside the scheduler are pruned
+ * when a lookup finds they no longer exist or no longer carry the lineage id.</p>
+ *
+ * <p>The index holds the files of at most {@link #setMaxLineages(int) maxLineages} lineage ids; the least recently used
+ * lineage is dropped beyond that, and its folders are searched again on the next lookup. A node of a scheduler cluster
+ * does not see the files generated on the other nodes, so the index is {@link #setEnabled(boolean) disabled} there
+ * and {@link #getInstance()} returns {@code null}.</p>
+ */
+public class GeneratedContentIndex {
+
+  /**
+   * The default number of lineage ids whose files are indexed.
+   */
+  public static final int DEFAULT_MAX_LINEAGES = 1000;
+
+  private final Map<String, String> lineageByPath = new ConcurrentHashMap<>();
+
+  // in access order, guarded by itself
+  private final Map<String, Lineage> lineages = new LinkedHashMap<String, Lineage>( 16, 0.75f, true ) {
+    private static final long serialVersionUID = 4182313358373625906L;
+
+    @Override
+    protected boolean removeEldestEntry( final Map.Entry<String, Lineage> eldest ) {
+      if ( size() <= maxLineages ) {
+        return false;
+      }
+      for ( String path : eldest.getValue().paths ) {
+        lineageByPath.remove( path, eldest.getKey() );
+      }
+      return true;
+    }
+  };
+
+  private volatile int maxLineages = DEFAULT_MAX_LINEAGES;
+  private volatile boolean enabled = true;
+
+  /**
+   * @return the index registered with the platform, or {@code null} if none is or it is disabled
+   */
+  public static GeneratedContentIndex getInstance() {
+    GeneratedContentIndex index = PentahoSystem.get( GeneratedContentIndex.class );
+    return index == null || !index.isEnabled() ? null : index;
+  }
+
+  /**
+   * @param maxLineages the number of lineage ids whose files are indexed, the least recently used being dropped
+   *                    beyond that
+   */
+  public void setMaxLineages( final int maxLineages ) {
+    this.maxLineages = Math.max( 1, maxLineages );
+  }
+
+  public int getMaxLineages() {
+    return maxLineages;
+  }
+
+  /**
+   * Enables or disables the index. A disabled index forgets its content and is not returned by {@link #getInstance()},
+   * so that callers search the repository instead.
+   *
+   * @param enabled {@code false} to disable the index, e.g. on a node of a scheduler cluster
+   */
+  public void setEnabled( final boolean enabled ) {
+    this.enabled = enabled;
+    if ( !enabled ) {
+      synchronized ( lineages ) {
+        lineages.clear();
+        lineageByPath.clear();
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records a file generated for the given lineage id.
+   *
+   * @param lineageId the lineage id of the schedule that generated the file
+   * @param path      the repository path of the generated file
+   */
+  public void add( final String lineageId, final String path ) {
+    if ( lineageId == null || path == null ) {
+      return;
+    }
+    String previous = lineageByPath.put( path, lineageId );
+    if ( previous != null && !previous.equals( lineageId ) ) {
+      removeFromLineage( previous, path );
+    }
+    getLineage( lineageId, true ).paths.add( path );
+  }
+
+  /**
+   * Forgets a generated file, e.g. because it was deleted.
+   *
+   * @param path the repository path of the file
+   */
+  public void remove( final String path ) {
+    if ( path == null ) {
+      return;
+    }
+    String lineageId = lineageByPath.remove( path );
+    if ( lineageId != null ) {
+      removeFromLineage( lineageId, path );
+    }
+  }
+
+  /**
+   * Records the complete set of files generated for a lineage id in a folder, after which lookups for that folder are
+   * answered from the index.
+   *
+   * @param lineageId the lineage id
+   * @param folder    the folder that was searched
+   * @param paths     the paths of every file in the folder carrying the lineage id
+   */
+  public void seed( final String lineageId, final String folder, final Collection<String> paths ) {
+    if ( lineageId == null || folder == null ) {
+      return;
+    }
+    for ( String path : paths ) {
+      add( lineageId, path );
+    }
+    getLineage( lineageId, true ).seededFolders.add( normalizeFolder( folder ) );
+  }
+
+  /**
+   * Returns the files generated for a lineage id that are direct children of the given folder.
+   *
+   * @param repository the repository used to resolve the indexed paths, as the current user
+   * @param folder     the folder to look in
+   * @param lineageId  the lineage id
+   * @return the generated files, or {@code null} if the folder has not been seeded for the lineage id
+   */
+  public List<RepositoryFile> lookup( final IUnifiedRepository repository, final String folder,
+                                      final String lineageId ) {
+    if ( lineageId == null || folder == null ) {
+      return null;
+    }
+    Lineage lineage = getLineage( lineageId, false );
+    String normalizedFolder = normalizeFolder( folder );
+    if ( lineage == null || !lineage.seededFolders.contains( normalizedFolder ) ) {
+      return null;
+    }
+
+    List<RepositoryFile> files = new ArrayList<>();
+    for ( String path : lineage.paths ) {
+      if ( !normalizedFolder.equals( getParentFolder( path ) ) ) {
+        continue;
+      }
+      RepositoryFile file = repository.getFile( path );
+      if ( file == null || file.isFolder() ) {
+        remove( path );
+        continue;
+      }
+      Map<String, Serializable> metadata = repository.getFileMetadata( file.getId() );
+      if ( metadata == null || !lineageId.equals( metadata.get( ActionUtil.QUARTZ_LINEAGE_ID ) ) ) {
+        remove( path );
+        continue;
+      }
+      files.add( file );
+    }
+    return files;
+  }
+
+  /**
+   * @return the entry of a lineage id, marked as the most recently used, or {@code null} if there is none and it is
+   * not to be created
+   */
+  private Lineage getLineage( final String lineageId, final boolean create ) {
+    synchronized ( lineages ) {
+      Lineage lineage = lineages.get( lineageId );
+      if ( lineage == null && create ) {
+        lineage = new Lineage();
+        lineages.put( lineageId, lineage );
+      }
+      return lineage;
+    }
+  }
+
+  private void removeFromLineage( final String lineageId, final String path ) {
+    Lineage lineage = getLineage( lineageId, false );
+    if ( lineage != null ) {
+      lineage.paths.remove( path );
+    }
+  }
+
+  static String getParentFolder( final String path ) {
+    int index = path.lastIndexOf( RepositoryFile.SEPARATOR );
+    return index <= 0 ? RepositoryFile.SEPARATOR : path.substring( 0, index );
+  }
+
+  static String normalizeFolder( final String folder ) {
+    if ( folder.length() > 1 && folder.endsWith( RepositoryFile.SEPARATOR ) ) {
+      return folder.substring( 0, folder.length() - 1 );
+    }
+    return folder;
+  }
+
+  private static class Lineage {
+    private final Set<String> paths = ConcurrentHashMap.newKeySet();
+    private final Set<String> seededFolders = ConcurrentHashMap.newKeySet();
+  }
+}
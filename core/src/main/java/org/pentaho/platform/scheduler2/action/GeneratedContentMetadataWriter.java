@@ -0,0 +1,134 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.repository.IContentItem;
+import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.engine.core.output.FileContentItem;
+import org.pentaho.platform.scheduler2.messsages.Messages;
+import org.pentaho.platform.util.ActionUtil;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Collects the content generated by a single execution and tags it with the execution's lineage id.
+ *
+ * <p>The repository has no call covering several files, so each distinct file still costs a file lookup, a metadata
+ * read and, unless it already carries the lineage id, a metadata write. What this saves is repeated work: items are
+ * de-duplicated by repository path, so burst and multi-output actions that report the same file more than once cost
+ * a single lookup, and files that already carry the lineage id are not rewritten.</p>
+ */
+public class GeneratedContentMetadataWriter {
+
+  private static final Log logger = LogFactory.getLog( GeneratedContentMetadataWriter.class );
+
+  private final IUnifiedRepository repository;
+  private final String lineageId;
+  private final Map<String, IContentItem> pending = new LinkedHashMap<>();
+  private final List<IContentItem> pathless = new ArrayList<>();
+
+  public GeneratedContentMetadataWriter( final IUnifiedRepository repository, final String lineageId ) {
+    this.repository = repository;
+    this.lineageId = lineageId;
+  }
+
+  /**
+   * Queues a generated content item to be tagged on the next {@link #flush()}.
+   *
+   * @param contentItem the generated content item
+   */
+  public void add( final IContentItem contentItem ) {
+    if ( contentItem == null ) {
+      return;
+    }
+    String path = contentItem.getPath();
+    if ( path == null ) {
+      pathless.add( contentItem );
+    } else {
+      pending.putIfAbsent( path, contentItem );
+    }
+  }
+
+  /**
+   * Queues all the given generated content items.
+   *
+   * @param contentItems the generated content items
+   */
+  public void addAll( final Iterable<IContentItem> contentItems ) {
+    if ( contentItems != null ) {
+      for ( IContentItem contentItem : contentItems ) {
+        add( contentItem );
+      }
+    }
+  }
+
+  /**
+   * Applies the lineage id to every queued item that can be resolved in the repository.
+   *
+   * @return the repository files that were resolved, in the order they were queued
+   */
+  public List<RepositoryFile> flush() {
+    if ( pending.isEmpty() && pathless.isEmpty() ) {
+      return Collections.emptyList();
+    }
+
+    List<RepositoryFile> tagged = new ArrayList<>( pending.size() );
+    for ( Map.Entry<String, IContentItem> entry : pending.entrySet() ) {
+      RepositoryFile sourceFile = getRepositoryFileSafe( entry.getKey() );
+      // add metadata if we have access and we have file
+      if ( sourceFile != null ) {
+        Map<String, Serializable> metadata = repository.getFileMetadata( sourceFile.getId() );
+        if ( !Objects.equals( lineageId, metadata.get( ActionUtil.QUARTZ_LINEAGE_ID ) ) ) {
+          metadata.put( ActionUtil.QUARTZ_LINEAGE_ID, lineageId );
+          repository.setFileMetadata( sourceFile.getId(), metadata );
+        }
+        tagged.add( sourceFile );
+      } else {
+        logSkipped( entry.getValue() );
+      }
+    }
+    for ( IContentItem contentItem : pathless ) {
+      logSkipped( contentItem );
+    }
+
+    pending.clear();
+    pathless.clear();
+    return tagged;
+  }
+
+  private RepositoryFile getRepositoryFileSafe( final String path ) {
+    try {
+      return repository.getFile( path );
+    } catch ( Exception e ) {
+      logger.debug( Messages.getInstance().getCannotGetRepoFile( path, e.getMessage() ) );
+      return null;
+    }
+  }
+
+  private void logSkipped( final IContentItem contentItem ) {
+    String fileName = contentItem instanceof FileContentItem ? ( (FileContentItem) contentItem ).getFile().getName()
+      : null;
+    logger.warn( Messages.getInstance().getSkipRemovingOutputFile( fileName ) );
+  }
+}
@@ -0,0 +1,215 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A parameter map that overlays runtime changes on a base map without copying it.
+ *
+ * <p>Reads fall through to the base map unless the key was put or removed through this view. Writes and removals are
+ * recorded in the view only, the base map is never modified. This lets each stage of a job execution adjust the job
+ * parameters without copying the whole map, as long as the base map is not modified while the view is in use.</p>
+ *
+ * <p>The entry iterator returns the entries of the base map as they are, without wrapping them: change a value with
+ * {@link #put(String, Object)} rather than {@link Map.Entry#setValue(Object)} on such an entry, which would write
+ * through to the base map.</p>
+ *
+ * <p>The view serializes as a plain {@link HashMap} of its visible entries.</p>
+ */
+public class LayeredParameterMap extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 2367187329455434523L;
+
+  private final transient Map<String, Object> base;
+  private transient Map<String, Object> overlay;
+  private transient Set<String> removed;
+  private transient Set<Map.Entry<String, Object>> entrySet;
+
+  public LayeredParameterMap( final Map<String, Object> base ) {
+    this.base = base;
+  }
+
+  @Override
+  public Object get( final Object key ) {
+    if ( overlay != null && overlay.containsKey( key ) ) {
+      return overlay.get( key );
+    }
+    if ( removed != null && removed.contains( key ) ) {
+      return null;
+    }
+    return base.get( key );
+  }
+
+  @Override
+  public boolean containsKey( final Object key ) {
+    if ( overlay != null && overlay.containsKey( key ) ) {
+      return true;
+    }
+    return ( removed == null || !removed.contains( key ) ) && base.containsKey( key );
+  }
+
+  @Override
+  public Object put( final String key, final Object value ) {
+    Object previous = get( key );
+    if ( overlay == null ) {
+      overlay = new HashMap<>();
+    }
+    overlay.put( key, value );
+    if ( removed != null ) {
+      removed.remove( key );
+    }
+    return previous;
+  }
+
+  @Override
+  public Object remove( final Object key ) {
+    Object previous = get( key );
+    if ( overlay != null ) {
+      overlay.remove( key );
+    }
+    hideBaseKey( key );
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    if ( overlay != null ) {
+      overlay.clear();
+    }
+    if ( !base.isEmpty() ) {
+      if ( removed == null ) {
+        removed = new HashSet<>();
+      }
+      removed.addAll( base.keySet() );
+    }
+  }
+
+  @Override
+  public int size() {
+    int size = overlay == null ? 0 : overlay.size();
+    for ( String key : base.keySet() ) {
+      if ( isVisibleBaseKey( key ) ) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    if ( entrySet == null ) {
+      entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return LayeredParameterMap.this.size();
+        }
+      };
+    }
+    return entrySet;
+  }
+
+  private boolean isVisibleBaseKey( final Object key ) {
+    return ( overlay == null || !overlay.containsKey( key ) ) && ( removed == null || !removed.contains( key ) );
+  }
+
+  private void hideBaseKey( final Object key ) {
+    if ( key instanceof String && base.containsKey( key ) ) {
+      if ( removed == null ) {
+        removed = new HashSet<>();
+      }
+      removed.add( (String) key );
+    }
+  }
+
+  private Object writeReplace() throws ObjectStreamException {
+    return new HashMap<>( this );
+  }
+
+  /**
+   * Iterates the overlay entries first, then the base entries that are neither overridden nor removed.
+   */
+  private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+    private final Iterator<Map.Entry<String, Object>> overlayIterator =
+      overlay == null ? null : overlay.entrySet().iterator();
+    private final Iterator<Map.Entry<String, Object>> baseIterator = base.entrySet().iterator();
+    private Map.Entry<String, Object> next;
+    private Map.Entry<String, Object> current;
+    private boolean currentFromOverlay;
+    private boolean nextFromOverlay;
+
+    @Override
+    public boolean hasNext() {
+      if ( next != null ) {
+        return true;
+      }
+      if ( overlayIterator != null && overlayIterator.hasNext() ) {
+        next = overlayIterator.next();
+        nextFromOverlay = true;
+        return true;
+      }
+      while ( baseIterator.hasNext() ) {
+        Map.Entry<String, Object> entry = baseIterator.next();
+        if ( isVisibleBaseKey( entry.getKey() ) ) {
+          next = entry;
+          nextFromOverlay = false;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if ( !hasNext() ) {
+        throw new NoSuchElementException();
+      }
+      current = next;
+      currentFromOverlay = nextFromOverlay;
+      next = null;
+      return current;
+    }
+
+    @Override
+    public void remove() {
+      if ( current == null ) {
+        throw new IllegalStateException();
+      }
+      if ( currentFromOverlay ) {
+        if ( next != null ) {
+          // the overlay iterator has already moved past the current entry
+          throw new IllegalStateException( "remove() must directly follow next()" );
+        }
+        overlayIterator.remove();
+      }
+      hideBaseKey( current.getKey() );
+      current = null;
+    }
+  }
+}
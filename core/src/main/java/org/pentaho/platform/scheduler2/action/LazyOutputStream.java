@@ -0,0 +1,127 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import org.pentaho.platform.api.repository2.unified.ISourcesStreamEvents;
+import org.pentaho.platform.api.repository2.unified.IStreamListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link OutputStream} that defers opening the underlying stream until the first byte is written. Opening a
+ * background execution output stream creates a repository file, so an execution that produces no output never touches
+ * the repository when written through this wrapper.
+ *
+ * <p>Listeners registered through {@link #addListener(IStreamListener)} are forwarded to the underlying stream once it
+ * is opened, if it sources stream events. No event is signalled for a stream that was never opened: there is no file
+ * to report, so callers check {@link #isSourcingStreamEvents()} before waiting for one.</p>
+ */
+public class LazyOutputStream extends OutputStream implements ISourcesStreamEvents {
+
+  /**
+   * Opens the underlying stream on demand.
+   */
+  @FunctionalInterface
+  public interface StreamFactory {
+    OutputStream open() throws Exception;
+  }
+
+  private final StreamFactory streamFactory;
+  private final List<IStreamListener> listeners = new ArrayList<>();
+  private OutputStream delegate;
+  private boolean closed = false;
+
+  public LazyOutputStream( final StreamFactory streamFactory ) {
+    this.streamFactory = streamFactory;
+  }
+
+  @Override
+  public synchronized void addListener( final IStreamListener listener ) {
+    listeners.add( listener );
+    if ( delegate instanceof ISourcesStreamEvents ) {
+      ( (ISourcesStreamEvents) delegate ).addListener( listener );
+    }
+  }
+
+  /**
+   * @return {@code true} if the underlying stream has been opened, i.e. at least one byte was written
+   */
+  public synchronized boolean isOpened() {
+    return delegate != null;
+  }
+
+  /**
+   * @return {@code true} if the underlying stream has been opened and sources stream events, i.e. the registered
+   * listeners will be told about the file it writes
+   */
+  public synchronized boolean isSourcingStreamEvents() {
+    return delegate instanceof ISourcesStreamEvents;
+  }
+
+  @Override
+  public synchronized void write( final int b ) throws IOException {
+    getDelegate().write( b );
+  }
+
+  @Override
+  public synchronized void write( final byte[] b, final int off, final int len ) throws IOException {
+    if ( len == 0 ) {
+      return;
+    }
+    getDelegate().write( b, off, len );
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    if ( delegate != null ) {
+      delegate.flush();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    if ( delegate != null ) {
+      delegate.close();
+    }
+  }
+
+  private OutputStream getDelegate() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" ); //$NON-NLS-1$
+    }
+    if ( delegate == null ) {
+      try {
+        delegate = streamFactory.open();
+      } catch ( IOException e ) {
+        throw e;
+      } catch ( Exception e ) {
+        throw new IOException( e );
+      }
+      if ( delegate instanceof ISourcesStreamEvents ) {
+        for ( IStreamListener listener : listeners ) {
+          ( (ISourcesStreamEvents) delegate ).addListener( listener );
+        }
+      }
+    }
+    return delegate;
+  }
+}
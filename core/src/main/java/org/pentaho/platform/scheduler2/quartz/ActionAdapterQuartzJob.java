@@ -23,18 +23,17 @@ import org.pentaho.platform.api.scheduler2.IBackgroundExecutionStreamProvider;
 import org.pentaho.platform.api.scheduler2.IBlockoutManager;
 import org.pentaho.platform.api.scheduler2.IJobTrigger;
 import org.pentaho.platform.api.scheduler2.IScheduler;
-import org.pentaho.platform.api.scheduler2.SimpleJobTrigger;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
-import org.pentaho.platform.engine.security.SecurityHelper;
 import org.pentaho.platform.scheduler2.action.DefaultActionInvoker;
+import org.pentaho.platform.scheduler2.action.LayeredParameterMap;
 import org.pentaho.platform.scheduler2.blockout.BlockoutAction;
 import org.pentaho.platform.scheduler2.messsages.Messages;
 import org.pentaho.platform.scheduler2.ws.ListParamValue;
 import org.pentaho.platform.scheduler2.ws.MapParamValue;
 import org.pentaho.platform.scheduler2.ws.StringParamValue;
+import org.pentaho.platform.scheduler2.workitem.WorkItemLifecycleEventDispatcher;
 import org.pentaho.platform.util.ActionUtil;
 import org.pentaho.platform.util.StringUtil;
-import org.pentaho.platform.workitem.WorkItemLifecycleEventUtil;
 import org.pentaho.platform.workitem.WorkItemLifecyclePhase;
 import org.quartz.Job;
 import org.quartz.JobDataMap;
@@ -44,12 +43,9 @@ import org.quartz.JobExecutionException;
 import java.io.Serializable;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Callable;
 
 /**
  * A Quartz job that is responsible for executing the {@link IAction} referred to in the job context.
@@ -108,23 +104,21 @@ public class ActionAdapterQuartzJob implements Job {
     invokeAction( actionClass, actionId, actionUser, context, params );
   }
 
+  /**
+   * Returns a view of the job parameters in which the web service parameter wrappers are replaced by plain collections
+   * and strings. The job parameters themselves are not copied or modified.
+   */
   private static Map<String, Object> getSerializableMap( final Map<String, Object> originalMap ) {
-    //This map is no longer serializeable
-    final Map<String, Object> serializableMap = new HashMap<>( );
+    final Map<String, Object> serializableMap = new LayeredParameterMap( originalMap );
 
-    final Iterator<Map.Entry<String, Object>> iter = originalMap.entrySet().iterator();
-    while ( iter.hasNext() ) {
-      final Map.Entry<String, Object> entry = iter.next();
-      final String key = entry.getKey();
+    for ( final Map.Entry<String, Object> entry : originalMap.entrySet() ) {
       final Object value = entry.getValue();
       if ( value instanceof MapParamValue ) {
-        serializableMap.put( key, new HashMap<String, Serializable>( (MapParamValue) value ) );
+        serializableMap.put( entry.getKey(), new HashMap<String, Serializable>( (MapParamValue) value ) );
       } else if ( value instanceof ListParamValue ) {
-        serializableMap.put( key, new ArrayList<Serializable>( (ListParamValue) value ) );
+        serializableMap.put( entry.getKey(), new ArrayList<Serializable>( (ListParamValue) value ) );
       } else if ( value instanceof StringParamValue ) {
-        serializableMap.put( key, ( (StringParamValue) value ).getStringValue() );
-      } else {
-        serializableMap.put( key, value );
+        serializableMap.put( entry.getKey(), ( (StringParamValue) value ).getStringValue() );
       }
     }
 
@@ -133,8 +127,8 @@ public class ActionAdapterQuartzJob implements Job {
 
   /**
    * Invokes the {@link IAction} bean that is created from the provided {@code actionClassName} and {@code actionId} as
-   * the provided {@code actionUser}. If the {@code IAction} execution fails as-is, the scheduler attempts to re-create
-   * the job that will try to invoke the {@link IAction} again.
+   * the provided {@code actionUser}. If the {@code IAction} execution fails as-is, the {@link RetryScheduler} triggers
+   * the job again to invoke the {@link IAction} again, as allowed by its {@link RetryPolicy}.
    *
    * @param actionClassName The class name of the {@link IAction} bean; used as a backup, if the {@code actionId} is not
    *                        available or vald
@@ -156,7 +150,7 @@ public class ActionAdapterQuartzJob implements Job {
       // If this fails it's OK since jobName is not strictly needed
     }
 
-    WorkItemLifecycleEventUtil.publish( workItemName, params, WorkItemLifecyclePhase.SUBMITTED );
+    WorkItemLifecycleEventDispatcher.publish( workItemName, params, WorkItemLifecyclePhase.SUBMITTED );
 
     // creates an instance of IActionInvoker, which knows how to invoke this IAction - if the IActionInvoker bean is
     // not defined through spring, fall back on the default action invoker
@@ -169,7 +163,7 @@ public class ActionAdapterQuartzJob implements Job {
       final String failureMessage = Messages.getInstance().getErrorString(
         "ActionAdapterQuartzJob.ERROR_0002_FAILED_TO_CREATE_ACTION", //$NON-NLS-1$
         getActionIdentifier( null, actionClassName, actionId ), StringUtil.getMapAsPrettyString( params ) );
-      WorkItemLifecycleEventUtil.publish( workItemName, params, WorkItemLifecyclePhase.FAILED, failureMessage );
+      WorkItemLifecycleEventDispatcher.publish( workItemName, params, WorkItemLifecyclePhase.FAILED, failureMessage );
       throw new LoggingJobExecutionException( failureMessage );
     }
 
@@ -208,34 +202,16 @@ public class ActionAdapterQuartzJob implements Job {
     }
     final IBackgroundExecutionStreamProvider streamProvider = sp;
 
-
-    final Map<String, Object> jobParams = new HashMap<>( params ); // shallow copy
-
     final IScheduler scheduler = PentahoSystem.getObjectFactory().get( IScheduler.class, "IScheduler2", null );
     if ( throwable != null ) {
-      Object restartFlag = jobParams.get( QuartzScheduler.RESERVEDMAPKEY_RESTART_FLAG );
-      if ( restartFlag == null ) {
-        final SimpleJobTrigger trigger = new SimpleJobTrigger( new Date(), null, 0, 1 );
-        trigger.setUiPassParam( "RUN_ONCE" );
-        final Class<IAction> iaction = (Class<IAction>) actionBean.getClass();
-        // recreate the job in the context of the original creator
-        SecurityHelper.getInstance().runAsUser( actionUser, new Callable<Void>() {
-          @Override
-          public Void call() throws Exception {
-            if ( streamProvider != null ) {
-              streamProvider.setStreamingAction( null ); // remove generated content
-            }
-            QuartzJobKey jobKey = QuartzJobKey.parse( context.getJobDetail().getKey().getName() );
-            String jobName = jobKey.getJobName();
-            jobParams.put( QuartzScheduler.RESERVEDMAPKEY_RESTART_FLAG, Boolean.TRUE );
-            WorkItemLifecycleEventUtil.publish( workItemName, params, WorkItemLifecyclePhase.RESTARTED );
-            scheduler.createJob( jobName, iaction, jobParams, trigger, streamProvider );
-            log.warn( "New RunOnce job created for " + jobName + " -> possible startup synchronization error" );
-            return null;
-          }
-        } );
+      // retry the job itself, the retry scheduler decides whether and when
+      final String jobId = context.getJobDetail().getKey().getName();
+      final int attempt = RetryScheduler.getAttempt( params ) + 1;
+      final RetryScheduler retryScheduler = getRetryScheduler();
+      if ( retryScheduler != null && retryScheduler.scheduleRetry( context.getJobDetail(), attempt ) ) {
+        WorkItemLifecycleEventDispatcher.publish( workItemName, params, WorkItemLifecyclePhase.RESTARTED );
       } else {
-        log.warn( "RunOnce already created, skipping" );
+        log.warn( "Job " + jobId + " failed and will not be retried after " + ( attempt - 1 ) + " retries" );
       }
       throw new JobExecutionException( throwable );
     }
@@ -245,26 +221,26 @@ public class ActionAdapterQuartzJob implements Job {
     if ( requiresUpdate ) {
       log.warn( "Output path for job: " + context.getJobDetail().getKey().getName() + " has changed. Job requires update" );
       try {
-        final IJobTrigger trigger = scheduler.getJob( context.getJobDetail().getKey().getName() ).getJobTrigger();
-        final Class<IAction> iaction = (Class<IAction>) actionBean.getClass();
-
-        // remove job with outdated/invalid output path
-        scheduler.removeJob( context.getJobDetail().getKey().getName() );
-
-        // recreate the job in the context of the original creator
-        SecurityHelper.getInstance().runAsUser( actionUser, new Callable<Void>() {
-          @Override
-          public Void call() throws Exception {
-            streamProvider.setStreamingAction( null ); // remove generated content
-            QuartzJobKey jobKey = QuartzJobKey.parse( context.getJobDetail().getKey().getName() );
-            String jobName = jobKey.getJobName();
-            WorkItemLifecycleEventUtil.publish( workItemName, params, WorkItemLifecyclePhase.RESTARTED );
-            org.pentaho.platform.api.scheduler2.Job j =
-              (org.pentaho.platform.api.scheduler2.Job) scheduler.createJob( jobName, iaction, jobParams, trigger, streamProvider );
-            log.warn( "New Job: " + j.getJobId() + " created" );
-            return null;
-          }
-        } );
+        final String jobId = context.getJobDetail().getKey().getName();
+        // the job data only: params also holds the trigger data, which must not be stored with the job
+        final Map<String, Object> jobParams =
+          new HashMap<>( context.getJobDetail().getJobDataMap().getWrappedMap() ); // shallow copy
+        final org.pentaho.platform.api.scheduler2.Job job = scheduler.getJob( jobId );
+        if ( job == null ) {
+          // not stored, e.g. run by the background dispatcher, or removed since
+          log.warn( "Job: " + jobId + " no longer exists and is not updated" );
+        } else {
+          final IJobTrigger trigger = job.getJobTrigger();
+
+          // update the job in place with the corrected output path, keeping its id and lineage
+          streamProvider.setStreamingAction( null ); // remove generated content
+          jobParams.put( IScheduler.RESERVEDMAPKEY_STREAMPROVIDER, streamProvider );
+          jobParams.remove( IScheduler.RESERVEDMAPKEY_RESTART_FLAG );
+          jobParams.remove( RetryScheduler.RETRY_ATTEMPT_KEY );
+          WorkItemLifecycleEventDispatcher.publish( workItemName, params, WorkItemLifecyclePhase.RESTARTED );
+          scheduler.updateJob( jobId, jobParams, trigger );
+          log.warn( "Job: " + jobId + " updated" );
+        }
       } catch ( Exception e ) {
         log.error( e.getMessage(), e );
       }
@@ -292,6 +268,10 @@ public class ActionAdapterQuartzJob implements Job {
 
   }
 
+  RetryScheduler getRetryScheduler() {
+    return RetryScheduler.getInstance();
+  }
+
   public IActionInvoker getActionInvoker() {
     return actionInvoker;
   }
@@ -0,0 +1,296 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+import org.pentaho.platform.engine.core.audit.AuditHelper;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the audit records of scheduled executions on a background thread, so that job worker threads do not wait on
+ * the audit store.
+ *
+ * <p>Records are queued in a bounded queue and written by a single daemon thread in the order they were submitted.
+ * When the queue is full the {@link OverflowPolicy} decides whether the record is discarded, the default, so that job
+ * worker threads never wait on the audit store, or written by the submitting thread. Records still queued on {@link #shutdown(long)} are written before the writer thread exits, and records
+ * submitted after shutdown are written by the submitting thread.</p>
+ *
+ * <p>The writer is configured through the plugin settings:</p>
+ * <ul>
+ *   <li>{@code audit-async} - {@code true} to write audit records in the background (default {@code true})</li>
+ *   <li>{@code audit-queue-capacity} - maximum number of queued records (default 10000)</li>
+ *   <li>{@code audit-batch-size} - maximum number of records taken from the queue per pass (default 100)</li>
+ *   <li>{@code audit-overflow-policy} - {@code DISCARD} or {@code CALLER_RUNS} (default {@code DISCARD})</li>
+ * </ul>
+ */
+public class AsyncAuditWriter {
+
+  private static final Log logger = LogFactory.getLog( AsyncAuditWriter.class );
+
+  private static final String ASYNC_SETTING_KEY = "settings/audit-async";
+  private static final String QUEUE_CAPACITY_SETTING_KEY = "settings/audit-queue-capacity";
+  private static final String BATCH_SIZE_SETTING_KEY = "settings/audit-batch-size";
+  private static final String OVERFLOW_POLICY_SETTING_KEY = "settings/audit-overflow-policy";
+
+  private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final long POLL_INTERVAL_MILLIS = 500;
+  private static final long DISCARD_WARNING_INTERVAL = 1000;
+
+  private static AsyncAuditWriter instance;
+  private static boolean configured = false;
+
+  /**
+   * What to do with a record submitted while the queue is full.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Write the record on the submitting thread.
+     */
+    CALLER_RUNS,
+    /**
+     * Drop the record and count it in {@link #getDiscardedCount()}.
+     */
+    DISCARD
+  }
+
+  /**
+   * Destination of the audit records, {@link AuditHelper} unless replaced for testing.
+   */
+  @FunctionalInterface
+  interface AuditSink {
+    void write( AuditRecord record );
+  }
+
+  /**
+   * The arguments of a single {@link AuditHelper#audit} call, captured on the submitting thread.
+   */
+  public static final class AuditRecord {
+    private final String instanceId;
+    private final String userId;
+    private final String actionName;
+    private final String objectType;
+    private final String processId;
+    private final String messageType;
+    private final String messageName;
+    private final float duration;
+
+    public AuditRecord( final String instanceId, final String userId, final String actionName, final String objectType,
+                        final String processId, final String messageType, final String messageName,
+                        final float duration ) {
+      this.instanceId = instanceId;
+      this.userId = userId;
+      this.actionName = actionName;
+      this.objectType = objectType;
+      this.processId = processId;
+      this.messageType = messageType;
+      this.messageName = messageName;
+      this.duration = duration;
+    }
+
+    public String getMessageType() {
+      return messageType;
+    }
+
+    void write() {
+      AuditHelper.audit( instanceId, userId, actionName, objectType, processId, messageType, messageName, null,
+        duration, null ); //$NON-NLS-1$
+    }
+  }
+
+  private final BlockingQueue<AuditRecord> queue;
+  private final int batchSize;
+  private final OverflowPolicy overflowPolicy;
+  private final AuditSink sink;
+  private final AtomicLong discarded = new AtomicLong();
+  private final Thread writerThread;
+  private volatile boolean running = true;
+
+  public AsyncAuditWriter( final int queueCapacity, final int batchSize, final OverflowPolicy overflowPolicy ) {
+    this( queueCapacity, batchSize, overflowPolicy, AuditRecord::write );
+  }
+
+  AsyncAuditWriter( final int queueCapacity, final int batchSize, final OverflowPolicy overflowPolicy,
+                    final AuditSink sink ) {
+    this.queue = new ArrayBlockingQueue<>( Math.max( 1, queueCapacity ) );
+    this.batchSize = Math.max( 1, batchSize );
+    this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.DISCARD;
+    this.sink = sink;
+    this.writerThread = new Thread( this::run, "scheduler-audit-writer" ); //$NON-NLS-1$
+    this.writerThread.setDaemon( true );
+    this.writerThread.start();
+  }
+
+  /**
+   * Returns the shared writer, creating it from the plugin settings on first use.
+   *
+   * @return the shared writer, or {@code null} if audit records should be written synchronously
+   */
+  public static synchronized AsyncAuditWriter getInstance() {
+    if ( !configured ) {
+      configured = true;
+      instance = createFromSettings();
+    }
+    return instance;
+  }
+
+  /**
+   * Stops the shared writer, if any, writing the records still queued.
+   */
+  public static synchronized void shutdownInstance() {
+    if ( instance != null ) {
+      instance.shutdown( TimeUnit.SECONDS.toMillis( 30 ) );
+      instance = null;
+    }
+  }
+
+  private static AsyncAuditWriter createFromSettings() {
+    IPluginResourceLoader resourceLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+    if ( resourceLoader == null ) {
+      return null;
+    }
+    if ( !Boolean.parseBoolean( resourceLoader.getPluginSetting( AsyncAuditWriter.class, ASYNC_SETTING_KEY, "true" ) ) ) {
+      return null;
+    }
+    int queueCapacity = parseInt( resourceLoader.getPluginSetting( AsyncAuditWriter.class,
+      QUEUE_CAPACITY_SETTING_KEY, null ), DEFAULT_QUEUE_CAPACITY );
+    int batchSize = parseInt( resourceLoader.getPluginSetting( AsyncAuditWriter.class, BATCH_SIZE_SETTING_KEY, null ),
+      DEFAULT_BATCH_SIZE );
+    OverflowPolicy overflowPolicy = OverflowPolicy.DISCARD;
+    String policySetting = resourceLoader.getPluginSetting( AsyncAuditWriter.class, OVERFLOW_POLICY_SETTING_KEY, null );
+    if ( policySetting != null ) {
+      try {
+        overflowPolicy = OverflowPolicy.valueOf( policySetting.trim().toUpperCase() );
+      } catch ( IllegalArgumentException e ) {
+        logger.warn( "Unknown audit overflow policy '" + policySetting + "', using " + overflowPolicy );
+      }
+    }
+    return new AsyncAuditWriter( queueCapacity, batchSize, overflowPolicy );
+  }
+
+  private static int parseInt( final String value, final int defaultValue ) {
+    try {
+      return value == null ? defaultValue : Integer.parseInt( value.trim() );
+    } catch ( NumberFormatException e ) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Queues a record for writing. Never blocks; see {@link OverflowPolicy} for what happens when the queue is full.
+   *
+   * @param record the audit record
+   */
+  public void submit( final AuditRecord record ) {
+    if ( !running ) {
+      writeSafe( record );
+      return;
+    }
+    if ( queue.offer( record ) ) {
+      if ( !running && queue.remove( record ) ) {
+        // shut down while queueing, the writer thread may already be gone
+        writeSafe( record );
+      }
+      return;
+    }
+    if ( overflowPolicy == OverflowPolicy.DISCARD ) {
+      long count = discarded.incrementAndGet();
+      if ( count % DISCARD_WARNING_INTERVAL == 1 ) {
+        logger.warn( "Audit queue is full, " + count + " audit record(s) discarded so far" );
+      }
+    } else {
+      writeSafe( record );
+    }
+  }
+
+  /**
+   * @return the number of records discarded because the queue was full
+   */
+  public long getDiscardedCount() {
+    return discarded.get();
+  }
+
+  /**
+   * @return the number of records waiting to be written
+   */
+  public int getQueuedCount() {
+    return queue.size();
+  }
+
+  /**
+   * Stops accepting records into the queue and waits for the queued ones to be written.
+   *
+   * @param timeoutMillis how long to wait for the queue to drain
+   * @return {@code true} if the queue was drained within the timeout
+   */
+  public boolean shutdown( final long timeoutMillis ) {
+    running = false;
+    try {
+      writerThread.join( timeoutMillis );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    if ( !writerThread.isAlive() ) {
+      // records that raced with the writer thread exiting
+      for ( AuditRecord record = queue.poll(); record != null; record = queue.poll() ) {
+        writeSafe( record );
+      }
+    } else {
+      logger.warn( "Audit writer did not finish within " + timeoutMillis + "ms, " + queue.size()
+        + " audit record(s) were not written" );
+      return false;
+    }
+    return true;
+  }
+
+  private void run() {
+    List<AuditRecord> batch = new ArrayList<>( batchSize );
+    while ( running || !queue.isEmpty() ) {
+      try {
+        AuditRecord first = queue.poll( POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS );
+        if ( first == null ) {
+          continue;
+        }
+        batch.add( first );
+        queue.drainTo( batch, batchSize - 1 );
+        for ( AuditRecord record : batch ) {
+          writeSafe( record );
+        }
+      } catch ( InterruptedException e ) {
+        // keep draining until shutdown
+        Thread.interrupted();
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void writeSafe( final AuditRecord record ) {
+    try {
+      sink.write( record );
+    } catch ( Exception e ) {
+      logger.warn( "Failed to write " + record.getMessageType() + " audit record", e );
+    }
+  }
+}
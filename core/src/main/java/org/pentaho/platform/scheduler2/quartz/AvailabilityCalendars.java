@@ -0,0 +1,189 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.Calendar;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+
+/**
+ * Shares {@link QuartzSchedulerAvailability} calendars between the triggers having the same availability window.
+ *
+ * <p>A window is stored once, under a name derived from its start and end time, and counts the triggers using it;
+ * the calendar is deleted when its last trigger releases it. The counts are built from the job store the first time
+ * they are needed. The job store refuses to delete a calendar that a trigger still refers to, so counts gone stale
+ * (e.g. when another cluster node scheduled a job using the same window) never delete a calendar in use. Calendars
+ * left behind, such as the one calendar per job stored by earlier versions for jobs Quartz removed after their last
+ * fire, are deleted by {@link #deleteUnused(Scheduler)} at startup.</p>
+ *
+ * <p>As the name of a shared calendar determines its content, shared calendars are read from the job store once and
+ * then served from memory.</p>
+ */
+class AvailabilityCalendars {
+
+  static final String NAME_PREFIX = "availability\t";
+
+  private static final Log logger = LogFactory.getLog( AvailabilityCalendars.class );
+
+  private final Map<String, Integer> references = new HashMap<>();
+
+  private final Map<String, QuartzSchedulerAvailability> calendars = new ConcurrentHashMap<>();
+
+  private boolean loaded;
+
+  private boolean clustered;
+
+  /**
+   * @param availability the availability window
+   * @return the name under which the window is shared
+   */
+  static String getCalendarName( QuartzSchedulerAvailability availability ) {
+    return NAME_PREFIX + toName( availability.getStartTime() ) + "\t" + toName( availability.getEndTime() );
+  }
+
+  private static String toName( Date date ) {
+    return date == null ? "-" : Long.toString( date.getTime() );
+  }
+
+  static boolean isShared( String calendarName ) {
+    return calendarName != null && calendarName.startsWith( NAME_PREFIX );
+  }
+
+  /**
+   * Stores the calendar of a window, unless it already exists, and counts one more trigger using it.
+   *
+   * @return the name to set as the calendar name of the trigger
+   */
+  synchronized String acquire( Scheduler scheduler, QuartzSchedulerAvailability availability )
+    throws SchedulerException {
+    load( scheduler );
+    String calendarName = getCalendarName( availability );
+    // in a cluster, another server may have deleted the calendar since it was counted here
+    if ( ( clustered || !references.containsKey( calendarName ) ) && scheduler.getCalendar( calendarName ) == null ) {
+      try {
+        scheduler.addCalendar( calendarName, availability, false, false );
+      } catch ( ObjectAlreadyExistsException e ) {
+        // stored meanwhile by another server; the same name is the same window
+      }
+    }
+    references.merge( calendarName, 1, Integer::sum );
+    calendars.putIfAbsent( calendarName, availability );
+    return calendarName;
+  }
+
+  /**
+   * Counts one trigger less using a calendar, and deletes the calendar once no trigger uses it.
+   *
+   * @param calendarName the calendar name of the trigger, may be {@code null}
+   */
+  synchronized void release( Scheduler scheduler, String calendarName ) throws SchedulerException {
+    if ( calendarName == null ) {
+      return;
+    }
+    load( scheduler );
+    Integer count = references.get( calendarName );
+    if ( count != null && count > 1 ) {
+      references.put( calendarName, count - 1 );
+      return;
+    }
+    references.remove( calendarName );
+    calendars.remove( calendarName );
+    delete( scheduler, calendarName );
+  }
+
+  /**
+   * Returns a calendar by name, serving shared calendars from memory once read.
+   */
+  Calendar getCalendar( Scheduler scheduler, String calendarName ) throws SchedulerException {
+    if ( !isShared( calendarName ) ) {
+      return scheduler.getCalendar( calendarName );
+    }
+    QuartzSchedulerAvailability availability = calendars.get( calendarName );
+    if ( availability != null ) {
+      return availability;
+    }
+    Calendar calendar = scheduler.getCalendar( calendarName );
+    if ( calendar instanceof QuartzSchedulerAvailability ) {
+      calendars.put( calendarName, (QuartzSchedulerAvailability) calendar );
+    }
+    return calendar;
+  }
+
+  /**
+   * Recounts the triggers using each calendar and deletes the calendars no trigger uses.
+   *
+   * @return the number of calendars deleted
+   */
+  synchronized int deleteUnused( Scheduler scheduler ) throws SchedulerException {
+    loaded = false;
+    load( scheduler );
+    int deleted = 0;
+    for ( String calendarName : scheduler.getCalendarNames() ) {
+      if ( !references.containsKey( calendarName ) && delete( scheduler, calendarName ) ) {
+        calendars.remove( calendarName );
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Set when other servers share the job store, so that the counts kept here are not the only users of a calendar.
+   */
+  synchronized void setClustered( boolean clustered ) {
+    this.clustered = clustered;
+  }
+
+  synchronized int getReferenceCount( String calendarName ) {
+    return references.getOrDefault( calendarName, 0 );
+  }
+
+  private void load( Scheduler scheduler ) throws SchedulerException {
+    if ( loaded ) {
+      return;
+    }
+    references.clear();
+    for ( String group : scheduler.getTriggerGroupNames() ) {
+      for ( TriggerKey triggerKey : scheduler.getTriggerKeys( GroupMatcher.triggerGroupEquals( group ) ) ) {
+        Trigger trigger = scheduler.getTrigger( triggerKey );
+        if ( trigger != null && trigger.getCalendarName() != null ) {
+          references.merge( trigger.getCalendarName(), 1, Integer::sum );
+        }
+      }
+    }
+    loaded = true;
+  }
+
+  private static boolean delete( Scheduler scheduler, String calendarName ) {
+    try {
+      return scheduler.deleteCalendar( calendarName );
+    } catch ( SchedulerException e ) {
+      // still referenced by a trigger
+      logger.debug( "Calendar " + calendarName + " was not deleted: " + e.getMessage() );
+      return false;
+    }
+  }
+}
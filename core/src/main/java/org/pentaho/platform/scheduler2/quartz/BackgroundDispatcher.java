@@ -0,0 +1,543 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.quartz.InterruptableJob;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionException;
+import org.quartz.Scheduler;
+import org.quartz.TriggerBuilder;
+import org.quartz.UnableToInterruptJobException;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the jobs of "Run in background" requests right away on its own threads, instead of storing each of them with a
+ * run once trigger for the Quartz threads to acquire.
+ *
+ * <p>A dispatched job runs as a {@link BlockingQuartzJob}, the job class of every stored job, with an execution context
+ * built here: its execution, blockout check, audit records, lineage id, timeout and retries are those of a stored
+ * job. A job whose execution fails and is retried is stored in the job store for its retry, as the
+ * {@link RetryScheduler} does for any job without a trigger left.</p>
+ *
+ * <p>Waiting jobs are held in a bounded in-memory queue. Each dispatched job is also appended to a journal file, synced
+ * before {@link #dispatch(JobDetail)} returns, so that jobs still waiting when the server stops or crashes run once the
+ * scheduler starts again. Jobs dispatched at the same time share one sync of the journal. A job is marked as started
+ * in the journal when it starts; a job that was running when the server stopped is not run again, unless the server
+ * crashed before its mark reached the disk.</p>
+ *
+ * <p>A dispatched job is not fired by Quartz: the Quartz trigger, job and scheduler listeners, such as the
+ * {@link MisfireGovernor}, are not called for it.</p>
+ */
+public class BackgroundDispatcher {
+
+  private static final Log logger = LogFactory.getLog( BackgroundDispatcher.class );
+
+  private static final String DIRECT_DISPATCH_SETTING_KEY = "settings/background-direct-dispatch";
+  private static final String THREADS_SETTING_KEY = "settings/background-threads";
+  private static final String QUEUE_CAPACITY_SETTING_KEY = "settings/background-queue-capacity";
+  private static final String JOURNAL_SETTING_KEY = "settings/background-journal";
+  private static final String DEFAULT_JOURNAL = "system/tmp/scheduler-background.journal";
+
+  private static final int DEFAULT_THREADS = 4;
+  private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+  private static final byte RECORD_DISPATCHED = 'S';
+  private static final byte RECORD_STARTED = 'R';
+  private static final byte RECORD_DONE = 'D';
+  private static final int MIN_COMPACTION_RECORDS = 100;
+
+  private static boolean configured;
+  private static BackgroundDispatcher instance;
+
+  /**
+   * Source of the Quartz scheduler handed to the dispatched jobs, the one of the {@link QuartzScheduler} unless
+   * replaced for testing.
+   */
+  @FunctionalInterface
+  interface SchedulerSource {
+    Scheduler get() throws Exception;
+  }
+
+  private final File journal;
+  private final SchedulerSource schedulerSource;
+  private final Supplier<InterruptableJob> jobFactory;
+  private final ThreadPoolExecutor executor;
+  private final Map<String, JobDetail> pending = new LinkedHashMap<>();
+  private final Map<String, InterruptableJob> running = new ConcurrentHashMap<>();
+  // the pending jobs marked as started in the journal
+  private final Set<String> started = new HashSet<>();
+  private int journalRecords;
+  // the journal opened for appending, the number of records appended and how many of them the last compaction wrote
+  private FileOutputStream journalOut;
+  private long appendedRecords;
+  private long compactedRecords;
+  // held to sync the journal, before the monitor of the dispatcher if both are held
+  private final Object syncLock = new Object();
+  private long syncedRecords;
+
+  /**
+   * @param threads         the number of jobs running at once
+   * @param queueCapacity   the number of jobs waiting for a thread, beyond which jobs are no longer dispatched
+   * @param journal         the journal file, {@code null} to keep waiting jobs in memory only
+   * @param schedulerSource the Quartz scheduler of the execution contexts
+   * @param jobFactory      creates the job running each dispatched job
+   */
+  BackgroundDispatcher( final int threads, final int queueCapacity, final File journal,
+                        final SchedulerSource schedulerSource, final Supplier<InterruptableJob> jobFactory ) {
+    this.journal = journal;
+    this.schedulerSource = schedulerSource;
+    this.jobFactory = jobFactory;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor( threads, threads, 0, TimeUnit.MILLISECONDS,
+      new LinkedBlockingQueue<>( queueCapacity ), runnable -> {
+        Thread thread = new Thread( runnable, "scheduler-background-" + threadNumber.incrementAndGet() ); //$NON-NLS-1$
+        thread.setDaemon( true );
+        return thread;
+      } );
+  }
+
+  /**
+   * Returns the shared dispatcher, creating it from the plugin settings on first use. Jobs journaled before the
+   * previous shutdown are dispatched again when it is created.
+   *
+   * @return the shared dispatcher, or {@code null} if background executions should be stored as run once jobs
+   */
+  public static synchronized BackgroundDispatcher getInstance() {
+    if ( !configured ) {
+      configured = true;
+      instance = createFromSettings();
+      if ( instance != null ) {
+        instance.recover();
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Stops the shared dispatcher, if any. Running jobs are left to finish, waiting jobs stay in the journal and run
+   * after the next start.
+   */
+  public static synchronized void shutdownInstance() {
+    if ( instance != null ) {
+      instance.shutdown();
+      instance = null;
+    }
+    configured = false;
+  }
+
+  private static BackgroundDispatcher createFromSettings() {
+    IPluginResourceLoader resourceLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+    if ( resourceLoader == null || !Boolean.parseBoolean( resourceLoader.getPluginSetting(
+      BackgroundDispatcher.class, DIRECT_DISPATCH_SETTING_KEY, "true" ) ) ) {
+      return null;
+    }
+    int threads = parseInt( resourceLoader.getPluginSetting( BackgroundDispatcher.class, THREADS_SETTING_KEY, null ),
+      DEFAULT_THREADS );
+    int queueCapacity = parseInt( resourceLoader.getPluginSetting( BackgroundDispatcher.class,
+      QUEUE_CAPACITY_SETTING_KEY, null ), DEFAULT_QUEUE_CAPACITY );
+    String journalPath =
+      resourceLoader.getPluginSetting( BackgroundDispatcher.class, JOURNAL_SETTING_KEY, DEFAULT_JOURNAL );
+    File journal = null;
+    if ( !StringUtils.isBlank( journalPath ) ) {
+      journal = new File( journalPath.trim() );
+      if ( !journal.isAbsolute() && PentahoSystem.getApplicationContext() != null ) {
+        journal = new File( PentahoSystem.getApplicationContext().getSolutionPath( journalPath.trim() ) );
+      }
+    }
+    return new BackgroundDispatcher( Math.max( 1, threads ), Math.max( 1, queueCapacity ), journal, () -> {
+      IScheduler scheduler = PentahoSystem.get( IScheduler.class, "IScheduler2", null ); //$NON-NLS-1$
+      return scheduler instanceof QuartzScheduler ? ( (QuartzScheduler) scheduler ).getQuartzScheduler() : null;
+    }, BlockingQuartzJob::new );
+  }
+
+  private static int parseInt( final String value, final int defaultValue ) {
+    try {
+      return value == null ? defaultValue : Integer.parseInt( value.trim() );
+    } catch ( NumberFormatException e ) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Queues a job to run once, as soon as a thread is free.
+   *
+   * @param jobDetail the job, as it would be stored
+   * @return {@code true} if the job is queued, {@code false} if the queue is full or the dispatcher stopped, in which
+   * case the job should be stored instead
+   */
+  public boolean dispatch( final JobDetail jobDetail ) {
+    String jobId = jobDetail.getKey().getName();
+    long record;
+    synchronized ( this ) {
+      if ( executor.isShutdown() || executor.getQueue().remainingCapacity() == 0 || pending.containsKey( jobId ) ) {
+        return false;
+      }
+      record = appendDispatched( jobId, jobDetail );
+      if ( !submit( jobId, jobDetail ) ) {
+        appendDone( jobId );
+        return false;
+      }
+    }
+    if ( record > 0 ) {
+      try {
+        sync( record );
+      } catch ( IOException e ) {
+        logger.warn( "Failed to sync the journal of background job '" + jobId
+          + "', it will be lost if the server stops before it runs", e );
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Interrupts a running dispatched job, the same way {@link QuartzScheduler#interruptJob(String)} interrupts a stored
+   * one.
+   *
+   * @param jobId the job id
+   * @return {@code true} if the job was running and has been interrupted
+   */
+  public boolean interrupt( final String jobId ) {
+    InterruptableJob job = running.get( jobId );
+    if ( job == null ) {
+      return false;
+    }
+    try {
+      job.interrupt();
+      return true;
+    } catch ( UnableToInterruptJobException e ) {
+      logger.warn( "Failed to interrupt background job '" + jobId + "'", e );
+      return false;
+    }
+  }
+
+  /**
+   * @return the number of dispatched jobs waiting for a thread or running
+   */
+  public synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  private boolean submit( final String jobId, final JobDetail jobDetail ) {
+    pending.put( jobId, jobDetail );
+    try {
+      executor.execute( () -> run( jobId, jobDetail ) );
+      return true;
+    } catch ( RejectedExecutionException e ) {
+      pending.remove( jobId );
+      return false;
+    }
+  }
+
+  private void run( final String jobId, final JobDetail jobDetail ) {
+    InterruptableJob job = jobFactory.get();
+    running.put( jobId, job );
+    synchronized ( this ) {
+      started.add( jobId );
+      appendStarted( jobId );
+    }
+    try {
+      Date now = new Date();
+      OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+        .withIdentity( jobId, jobDetail.getKey().getGroup() )
+        .forJob( jobDetail )
+        .startAt( now )
+        .build();
+      job.execute( new JobExecutionContextImpl( schedulerSource.get(),
+        new TriggerFiredBundle( jobDetail, trigger, null, false, now, now, null, null ), job ) );
+    } catch ( JobExecutionException e ) {
+      logger.warn( "Background job '" + jobId + "' failed", e );
+    } catch ( Exception e ) {
+      logger.error( "Background job '" + jobId + "' could not be run", e );
+    } finally {
+      running.remove( jobId );
+      synchronized ( this ) {
+        started.remove( jobId );
+        if ( pending.remove( jobId ) != null ) {
+          appendDone( jobId );
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops taking jobs. The jobs not started yet stay in the journal.
+   */
+  void shutdown() {
+    List<Runnable> waiting = new ArrayList<>();
+    executor.getQueue().drainTo( waiting );
+    executor.shutdown();
+    if ( !waiting.isEmpty() ) {
+      logger.info( waiting.size() + " background jobs were not started and will run after the next start" );
+    }
+    synchronized ( this ) {
+      if ( journalOut != null ) {
+        try {
+          journalOut.getFD().sync();
+        } catch ( IOException e ) {
+          logger.warn( "Failed to sync background job journal " + journal, e );
+        }
+      }
+      closeJournal();
+    }
+  }
+
+  /**
+   * Dispatches the jobs found in the journal that had not started and rewrites the journal with them only.
+   */
+  synchronized void recover() {
+    if ( journal == null || !journal.isFile() ) {
+      return;
+    }
+    Map<String, JobDetail> journaled = new LinkedHashMap<>();
+    Set<String> interrupted = new HashSet<>();
+    try ( DataInputStream in = new DataInputStream( new FileInputStream( journal ) ) ) {
+      while ( true ) {
+        byte type;
+        try {
+          type = in.readByte();
+        } catch ( EOFException e ) {
+          break;
+        }
+        String jobId = in.readUTF();
+        if ( type == RECORD_DONE ) {
+          journaled.remove( jobId );
+          interrupted.remove( jobId );
+        } else if ( type == RECORD_STARTED ) {
+          interrupted.add( jobId );
+        } else {
+          byte[] detail = new byte[ in.readInt() ];
+          in.readFully( detail );
+          journaled.put( jobId, RetryScheduler.readJobDetail( detail ) );
+        }
+      }
+    } catch ( IOException | ClassNotFoundException | RuntimeException e ) {
+      // a record cut short by a crash ends the journal
+      logger.warn( "Background job journal " + journal + " is truncated or unreadable, " + journaled.size()
+        + " jobs recovered", e );
+    }
+    for ( String jobId : interrupted ) {
+      if ( journaled.remove( jobId ) != null ) {
+        logger.warn( "Background job '" + jobId + "' was running when the server stopped and is not run again" );
+      }
+    }
+    for ( Map.Entry<String, JobDetail> entry : journaled.entrySet() ) {
+      if ( !submit( entry.getKey(), entry.getValue() ) ) {
+        logger.warn( "Background job '" + entry.getKey() + "' could not be queued again and is dropped" );
+      }
+    }
+    compactJournal();
+    if ( !journaled.isEmpty() ) {
+      logger.info( journaled.size() + " background jobs recovered from " + journal );
+    }
+  }
+
+  /**
+   * @return the number of the journal record, to sync it, or 0 if not journaled
+   */
+  private long appendDispatched( final String jobId, final JobDetail jobDetail ) {
+    if ( journal == null ) {
+      return 0;
+    }
+    try {
+      byte[] detail = RetryScheduler.writeJobDetail( jobDetail );
+      return append( out -> {
+        out.writeByte( RECORD_DISPATCHED );
+        out.writeUTF( jobId );
+        out.writeInt( detail.length );
+        out.write( detail );
+      } );
+    } catch ( IOException e ) {
+      logger.warn( "Failed to journal background job '" + jobId
+        + "', it will be lost if the server stops before it runs", e );
+      return 0;
+    }
+  }
+
+  private void appendStarted( final String jobId ) {
+    if ( journal == null ) {
+      return;
+    }
+    try {
+      append( out -> {
+        out.writeByte( RECORD_STARTED );
+        out.writeUTF( jobId );
+      } );
+    } catch ( IOException e ) {
+      logger.warn( "Failed to journal background job '" + jobId + "' as started", e );
+    }
+  }
+
+  private void appendDone( final String jobId ) {
+    if ( journal == null ) {
+      return;
+    }
+    if ( pending.isEmpty() || journalRecords > Math.max( MIN_COMPACTION_RECORDS, 4 * pending.size() ) ) {
+      compactJournal();
+      return;
+    }
+    try {
+      append( out -> {
+        out.writeByte( RECORD_DONE );
+        out.writeUTF( jobId );
+      } );
+    } catch ( IOException e ) {
+      logger.warn( "Failed to journal background job '" + jobId + "' as run", e );
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write( DataOutputStream out ) throws IOException;
+  }
+
+  /**
+   * Appends a record to the journal without syncing it. Called holding the monitor.
+   *
+   * @return the number of the record, to sync it
+   */
+  private long append( final RecordWriter writer ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    writer.write( new DataOutputStream( bytes ) );
+    if ( journalOut == null ) {
+      File parent = journal.getAbsoluteFile().getParentFile();
+      if ( parent != null && !parent.isDirectory() && !parent.mkdirs() ) {
+        throw new IOException( "Cannot create " + parent );
+      }
+      journalOut = new FileOutputStream( journal, true );
+    }
+    bytes.writeTo( journalOut );
+    journalRecords++;
+    return ++appendedRecords;
+  }
+
+  /**
+   * Syncs the journal up to a record, unless done already: a thread syncing the journal covers the records the other
+   * threads appended until then.
+   */
+  private void sync( final long record ) throws IOException {
+    synchronized ( syncLock ) {
+      if ( syncedRecords >= record ) {
+        return;
+      }
+      FileOutputStream out;
+      long appended;
+      synchronized ( this ) {
+        out = journalOut;
+        appended = appendedRecords;
+      }
+      try {
+        if ( out != null ) {
+          out.getFD().sync();
+        }
+      } catch ( IOException e ) {
+        synchronized ( this ) {
+          // closed by a compaction, which wrote the record again in the journal it synced
+          if ( compactedRecords < record ) {
+            throw e;
+          }
+        }
+      }
+      syncedRecords = appended;
+    }
+  }
+
+  private void closeJournal() {
+    if ( journalOut != null ) {
+      try {
+        journalOut.close();
+      } catch ( IOException e ) {
+        logger.warn( "Failed to close background job journal " + journal, e );
+      }
+      journalOut = null;
+    }
+  }
+
+  /**
+   * Rewrites the journal with the pending jobs only, and the marks of those started.
+   */
+  private void compactJournal() {
+    if ( journal == null ) {
+      return;
+    }
+    closeJournal();
+    File compacted = new File( journal.getPath() + ".tmp" );
+    try {
+      if ( pending.isEmpty() ) {
+        if ( journal.exists() && !journal.delete() ) {
+          throw new IOException( "Cannot delete " + journal );
+        }
+        journalRecords = 0;
+        compactedRecords = appendedRecords;
+        return;
+      }
+      try ( FileOutputStream file = new FileOutputStream( compacted );
+            DataOutputStream out = new DataOutputStream( file ) ) {
+        for ( Map.Entry<String, JobDetail> entry : pending.entrySet() ) {
+          byte[] detail = RetryScheduler.writeJobDetail( entry.getValue() );
+          out.writeByte( RECORD_DISPATCHED );
+          out.writeUTF( entry.getKey() );
+          out.writeInt( detail.length );
+          out.write( detail );
+          if ( started.contains( entry.getKey() ) ) {
+            out.writeByte( RECORD_STARTED );
+            out.writeUTF( entry.getKey() );
+          }
+        }
+        out.flush();
+        file.getFD().sync();
+      }
+      // the journal is either the old or the compacted one, should the server stop meanwhile
+      Files.move( compacted.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE );
+      journalRecords = pending.size() + started.size();
+      compactedRecords = appendedRecords;
+    } catch ( IOException e ) {
+      logger.warn( "Failed to compact background job journal " + journal, e );
+    }
+  }
+}
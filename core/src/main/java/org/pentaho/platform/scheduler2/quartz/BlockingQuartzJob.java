@@ -18,25 +18,36 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.pentaho.platform.api.scheduler2.IBlockoutManager;
 import org.pentaho.platform.api.scheduler2.IScheduler;
-import org.pentaho.platform.engine.core.audit.AuditHelper;
 import org.pentaho.platform.engine.core.audit.MDCUtil;
 import org.pentaho.platform.engine.core.audit.MessageTypes;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.scheduler2.blockout.BlockoutAction;
 import org.pentaho.platform.scheduler2.blockout.PentahoBlockoutManager;
+import org.quartz.InterruptableJob;
 import org.quartz.Job;
 import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.UnableToInterruptJobException;
+
+import java.util.concurrent.ScheduledFuture;
 
 /**
  * A Quartz job that checks if execution is currently suspended before passing on to the underlying job
+ * <p>
+ * The underlying job can be cancelled through {@link #interrupt()}, which interrupts the thread running it, and is
+ * interrupted by the {@link ExecutionWatchdog} when it runs longer than its execution timeout.
  * 
  * @author kwalker
  */
-public class BlockingQuartzJob implements Job {
+public class BlockingQuartzJob implements InterruptableJob {
+  private final Object executionLock = new Object();
+  private Thread executingThread;
+  private boolean interruptRequested;
+
   public void execute( final JobExecutionContext jobExecutionContext ) throws JobExecutionException {
     JobDataMap jobDataMap = null;
     if ( jobExecutionContext.getJobDetail() != null && jobExecutionContext.getJobDetail().getJobDataMap() != null ) {
@@ -46,7 +57,8 @@ public class BlockingQuartzJob implements Job {
     if ( jobDataMap != null ) {
       MDCUtil.setupSchedulerMDC( jobDataMap.get( QuartzScheduler.RESERVEDMAPKEY_ACTIONUSER ), jobDataMap.get(
           "lineage-id" ) );
-      jobRestarted = jobDataMap.getBooleanValue( QuartzScheduler.RESERVEDMAPKEY_RESTART_FLAG );
+      jobRestarted = isRetry( jobExecutionContext )
+        || jobDataMap.getBooleanValue( QuartzScheduler.RESERVEDMAPKEY_RESTART_FLAG );
     }
     String messageType = jobRestarted ? MessageTypes.RECREATED_INSTANCE_START : MessageTypes.INSTANCE_START;
     long start = System.currentTimeMillis();
@@ -56,7 +68,7 @@ public class BlockingQuartzJob implements Job {
         makeAuditRecord( 0, messageType, jobExecutionContext );
         // Record the actual execution time - this ensures Last Run is updated ONLY when the job actually executes
         recordExecutionTime( jobExecutionContext );
-        createUnderlyingJob().execute( jobExecutionContext );
+        executeUnderlyingJob( jobExecutionContext, jobDataMap );
         end = System.currentTimeMillis();
         messageType = jobRestarted ? MessageTypes.RECREATED_INSTANCE_END : MessageTypes.INSTANCE_END;
       } else {
@@ -75,7 +87,7 @@ public class BlockingQuartzJob implements Job {
       getLogger().warn(
           "Got Exception retrieving the Blockout Manager for job '" + jobExecutionContext.getJobDetail().getKey().getName()
               + "'. Executing the underlying job anyway", e );
-      createUnderlyingJob().execute( jobExecutionContext );
+      executeUnderlyingJob( jobExecutionContext, jobDataMap );
       end = System.currentTimeMillis();
       messageType = jobRestarted ? MessageTypes.RECREATED_INSTANCE_END : MessageTypes.INSTANCE_END;
     } finally {
@@ -83,6 +95,58 @@ public class BlockingQuartzJob implements Job {
     }
   }
 
+  /**
+   * Interrupts the thread running the underlying job, if it is running. The job is expected to notice the interrupt and
+   * stop; this does not wait for it to do so.
+   */
+  @Override
+  public void interrupt() throws UnableToInterruptJobException {
+    synchronized ( executionLock ) {
+      if ( executingThread == null ) {
+        return;
+      }
+      interruptRequested = true;
+      executingThread.interrupt();
+    }
+  }
+
+  private void executeUnderlyingJob( final JobExecutionContext jobExecutionContext, final JobDataMap jobDataMap )
+    throws JobExecutionException {
+    ScheduledFuture<?> deadline = null;
+    synchronized ( executionLock ) {
+      executingThread = Thread.currentThread();
+      interruptRequested = false;
+    }
+    try {
+      if ( !isBlockoutAction( jobExecutionContext ) ) {
+        ExecutionWatchdog watchdog = getExecutionWatchdog();
+        deadline = watchdog.watch( this, jobExecutionContext.getJobDetail().getKey().getName(),
+          watchdog.getTimeoutMillis( jobDataMap == null ? null : jobDataMap.getWrappedMap() ) );
+      }
+      createUnderlyingJob().execute( jobExecutionContext );
+    } finally {
+      if ( deadline != null ) {
+        deadline.cancel( false );
+      }
+      synchronized ( executionLock ) {
+        executingThread = null;
+        if ( interruptRequested ) {
+          // do not hand an interrupted thread back to the Quartz worker pool
+          Thread.interrupted();
+          interruptRequested = false;
+        }
+      }
+    }
+  }
+
+  ExecutionWatchdog getExecutionWatchdog() {
+    return ExecutionWatchdog.getInstance();
+  }
+
+  AsyncAuditWriter getAuditWriter() {
+    return AsyncAuditWriter.getInstance();
+  }
+
   IBlockoutManager getBlockoutManager() throws SchedulerException {
     return new PentahoBlockoutManager();
   }
@@ -95,6 +159,15 @@ public class BlockingQuartzJob implements Job {
     return LogFactory.getLog( BlockingQuartzJob.class );
   }
 
+  /**
+   * @return {@code true} if this execution was fired by the {@link RetryScheduler}
+   */
+  protected boolean isRetry( JobExecutionContext ctx ) {
+    Trigger trigger = ctx.getTrigger();
+    return trigger != null && trigger.getJobDataMap() != null
+      && trigger.getJobDataMap().containsKey( RetryScheduler.RETRY_ATTEMPT_KEY );
+  }
+
   protected boolean isBlockoutAction( JobExecutionContext ctx ) {
     try {
       String actionClass = ctx.getJobDetail().getJobDataMap().getString( QuartzScheduler.RESERVEDMAPKEY_ACTIONCLASS );
@@ -115,16 +188,22 @@ public class BlockingQuartzJob implements Job {
         return;
       }
 
-      AuditHelper.audit( PentahoSessionHolder.getSession() != null ? PentahoSessionHolder.getSession().getId() : "",
+      AsyncAuditWriter.AuditRecord record = new AsyncAuditWriter.AuditRecord(
+        PentahoSessionHolder.getSession() != null ? PentahoSessionHolder.getSession().getId() : "",
         jobDataMap.get( QuartzScheduler.RESERVEDMAPKEY_ACTIONUSER ) != null ? jobDataMap.get( QuartzScheduler.RESERVEDMAPKEY_ACTIONUSER ).toString() : "",
         jobDataMap.get( QuartzScheduler.RESERVEDMAPKEY_STREAMPROVIDER ) != null ? jobDataMap.get( QuartzScheduler.RESERVEDMAPKEY_STREAMPROVIDER ).toString() : "",
         jobExecutionContext.getJobDetail().getJobClass() != null ? jobExecutionContext.getJobDetail().getJobClass().getName() : "",
         jobDataMap.get( QuartzScheduler.RESERVEDMAPKEY_ACTIONID ) != null ? jobDataMap.get( QuartzScheduler.RESERVEDMAPKEY_ACTIONID ).toString() : "",
         messageType,
         jobDataMap.get( "lineage-id" ) != null ? jobDataMap.get( "lineage-id" ).toString() : "",
-        null,
-        time,
-        null ); //$NON-NLS-1$
+        time );
+
+      AsyncAuditWriter auditWriter = getAuditWriter();
+      if ( auditWriter != null ) {
+        auditWriter.submit( record );
+      } else {
+        record.write();
+      }
     }
   }
 
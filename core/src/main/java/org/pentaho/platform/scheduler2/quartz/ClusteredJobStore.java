@@ -0,0 +1,198 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.JobPersistenceException;
+import org.quartz.TriggerKey;
+import org.quartz.impl.jdbcjobstore.DriverDelegate;
+import org.quartz.impl.jdbcjobstore.JobStoreTX;
+import org.quartz.impl.jdbcjobstore.NoSuchDelegateException;
+import org.quartz.impl.jdbcjobstore.SchedulerStateRecord;
+
+/**
+ * A {@link JobStoreTX} whose cluster nodes can split the triggers to fire between them by trigger group. The trigger
+ * group of a scheduled job is its owner, as is its job group.
+ *
+ * <p>With {@code partitionAcquisition} set on a clustered job store, each node acquires the triggers of the groups it
+ * owns only: a group belongs to one of the nodes checked in, chosen from the hash of the group name. The nodes no
+ * longer compete for the same trigger rows, and a user's jobs run on the same node. The triggers Quartz creates to fire
+ * a job at once are all in its default group.</p>
+ *
+ * <p>The nodes are counted again at each cluster check-in, so the groups of a node that stops are taken over once the
+ * cluster finds it failed. A trigger still waiting {@code partitionTakeoverDelay} milliseconds after its fire time is
+ * acquired by any node, in case its node is up but not firing, e.g. in standby.</p>
+ *
+ * <p>Without {@code partitionAcquisition}, or when not clustered, this is a {@link JobStoreTX}.</p>
+ */
+public class ClusteredJobStore extends JobStoreTX {
+
+  private static final Log logger = LogFactory.getLog( ClusteredJobStore.class );
+
+  private boolean partitionAcquisition;
+  private long partitionTakeoverDelay = 10000;
+
+  private volatile int partitionIndex;
+  private volatile int partitionCount = 1;
+
+  private DriverDelegate delegate;
+  private DriverDelegate partitionedDelegate;
+
+  public void setPartitionAcquisition( boolean partitionAcquisition ) {
+    this.partitionAcquisition = partitionAcquisition;
+  }
+
+  public boolean isPartitionAcquisition() {
+    return partitionAcquisition;
+  }
+
+  /**
+   * @param partitionTakeoverDelay how long after its fire time, in milliseconds, a trigger is acquired by any node
+   */
+  public void setPartitionTakeoverDelay( long partitionTakeoverDelay ) {
+    this.partitionTakeoverDelay = partitionTakeoverDelay;
+  }
+
+  public long getPartitionTakeoverDelay() {
+    return partitionTakeoverDelay;
+  }
+
+  int getPartitionIndex() {
+    return partitionIndex;
+  }
+
+  int getPartitionCount() {
+    return partitionCount;
+  }
+
+  /**
+   * Tells whether this node acquires the triggers of a trigger group.
+   */
+  boolean ownsGroup( String group ) {
+    int count = partitionCount;
+    return count <= 1 || Math.floorMod( group.hashCode(), count ) == partitionIndex;
+  }
+
+  /**
+   * Sets the partition of this node from the ids of the nodes checked in.
+   */
+  void updatePartitions( Set<String> instanceIds ) {
+    List<String> sorted = new ArrayList<>( instanceIds );
+    sorted.add( getInstanceId() );
+    sorted = new ArrayList<>( new LinkedHashSet<>( sorted ) );
+    Collections.sort( sorted );
+    int index = sorted.indexOf( getInstanceId() );
+    if ( index != partitionIndex || sorted.size() != partitionCount ) {
+      logger.info( "Scheduler node " + getInstanceId() + " acquires the triggers of partition " + ( index + 1 )
+        + " of " + sorted.size() );
+    }
+    partitionIndex = index;
+    partitionCount = sorted.size();
+  }
+
+  @Override
+  protected List<SchedulerStateRecord> clusterCheckIn( Connection conn ) throws JobPersistenceException {
+    List<SchedulerStateRecord> failedRecords = super.clusterCheckIn( conn );
+    if ( partitionAcquisition ) {
+      Set<String> failed = new HashSet<>();
+      for ( SchedulerStateRecord record : failedRecords ) {
+        failed.add( record.getSchedulerInstanceId() );
+      }
+      Set<String> alive = new HashSet<>();
+      try {
+        for ( SchedulerStateRecord record : getDelegate().selectSchedulerStateRecords( conn, null ) ) {
+          if ( !failed.contains( record.getSchedulerInstanceId() ) ) {
+            alive.add( record.getSchedulerInstanceId() );
+          }
+        }
+      } catch ( SQLException e ) {
+        throw new JobPersistenceException( "Failure reading the scheduler nodes: " + e.getMessage(), e );
+      }
+      updatePartitions( alive );
+    }
+    return failedRecords;
+  }
+
+  @Override
+  protected DriverDelegate getDelegate() throws NoSuchDelegateException {
+    DriverDelegate current = super.getDelegate();
+    if ( !partitionAcquisition || !isClustered() ) {
+      return current;
+    }
+    synchronized ( this ) {
+      if ( current != delegate ) {
+        delegate = current;
+        partitionedDelegate = partitioned( current );
+      }
+      return partitionedDelegate;
+    }
+  }
+
+  /**
+   * Wraps a driver delegate so that it selects the triggers to acquire of the groups this node owns only.
+   */
+  private DriverDelegate partitioned( DriverDelegate target ) {
+    return (DriverDelegate) Proxy.newProxyInstance( DriverDelegate.class.getClassLoader(),
+      new Class<?>[] { DriverDelegate.class }, ( proxy, method, args ) -> {
+        if ( "selectTriggerToAcquire".equals( method.getName() ) && args != null && args.length == 4 ) {
+          return selectTriggersToAcquire( target, (Connection) args[ 0 ], (Long) args[ 1 ], (Long) args[ 2 ],
+            (Integer) args[ 3 ] );
+        }
+        try {
+          return method.invoke( target, args );
+        } catch ( InvocationTargetException e ) {
+          throw e.getCause();
+        }
+      } );
+  }
+
+  List<TriggerKey> selectTriggersToAcquire( DriverDelegate target, Connection conn, long noLaterThan,
+                                            long noEarlierThan, int maxCount ) throws SQLException {
+    int count = partitionCount;
+    if ( count <= 1 ) {
+      return target.selectTriggerToAcquire( conn, noLaterThan, noEarlierThan, maxCount );
+    }
+    Set<TriggerKey> selected = new LinkedHashSet<>();
+    long overdue = System.currentTimeMillis() - partitionTakeoverDelay;
+    if ( overdue > noEarlierThan ) {
+      selected.addAll( target.selectTriggerToAcquire( conn, Math.min( noLaterThan, overdue ), noEarlierThan,
+        maxCount ) );
+    }
+    // the triggers of the other groups come first as often as not, so more are read than are acquired
+    int readCount = (int) Math.min( Integer.MAX_VALUE, (long) maxCount * count * 2 );
+    for ( TriggerKey triggerKey : target.selectTriggerToAcquire( conn, noLaterThan, noEarlierThan, readCount ) ) {
+      if ( selected.size() >= maxCount ) {
+        break;
+      }
+      if ( ownsGroup( triggerKey.getGroup() ) ) {
+        selected.add( triggerKey );
+      }
+    }
+    List<TriggerKey> triggerKeys = new ArrayList<>( selected );
+    return triggerKeys.size() > maxCount ? triggerKeys.subList( 0, maxCount ) : triggerKeys;
+  }
+}
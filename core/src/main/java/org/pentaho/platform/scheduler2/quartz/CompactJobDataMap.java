@@ -0,0 +1,261 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.pentaho.platform.api.scheduler2.IBlockoutManager;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.pentaho.platform.util.messages.LocaleHelper;
+import org.pentaho.platform.web.http.api.resources.RepositoryFileStreamProvider;
+import org.quartz.JobDataMap;
+
+/**
+ * A {@link JobDataMap} stored in a compact form by the job stores, instead of as a Java-serialized map.
+ *
+ * <p>The JDBC job stores serialize the job data map of a job into a blob on each write and deserialize it on each
+ * read. Serialized as usual, the map carries the class descriptors of the map and of each value, and the whole
+ * {@link RepositoryFileStreamProvider} of the job. Written by this class, the map is a version byte and its entries:
+ * the reserved keys as one byte, the common value types as a type byte and their content, and the stream provider
+ * as its paths. Values of other types are still serialized.</p>
+ *
+ * <p>Being {@link Externalizable}, the compact form is read back by any job store and driver delegate, and the maps
+ * stored before are read as they were. A job is stored in the compact form the next time it is written, which
+ * happens each time it runs.</p>
+ */
+public class CompactJobDataMap extends JobDataMap implements Externalizable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final byte VERSION = 1;
+
+  /**
+   * The keys written as their index in this array, plus one; only ever append to it.
+   */
+  static final String[] RESERVED_KEYS = {
+    IScheduler.RESERVEDMAPKEY_ACTIONCLASS,
+    IScheduler.RESERVEDMAPKEY_ACTIONUSER,
+    IScheduler.RESERVEDMAPKEY_ACTIONID,
+    IScheduler.RESERVEDMAPKEY_STREAMPROVIDER,
+    IScheduler.RESERVEDMAPKEY_UIPASSPARAM,
+    IScheduler.RESERVEDMAPKEY_LINEAGE_ID,
+    IScheduler.RESERVEDMAPKEY_RESTART_FLAG,
+    IScheduler.RESERVEDMAPKEY_AUTO_CREATE_UNIQUE_FILENAME,
+    IScheduler.RESERVEDMAPKEY_APPEND_DATE_FORMAT,
+    QuartzScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME,
+    RetryScheduler.RETRY_ATTEMPT_KEY,
+    LocaleHelper.USER_LOCALE_PARAM,
+    IBlockoutManager.TIME_ZONE_PARAM,
+    IBlockoutManager.DURATION_PARAM,
+    IScheduler.RESERVEDMAPKEY_START_TIME,
+    ScheduleSpread.CRON_STRING_AS_SET_KEY,
+    ScheduleSpread.START_OFFSET_KEY
+  };
+
+  private static final Map<String, Integer> RESERVED_KEY_INDEXES = new HashMap<>();
+
+  static {
+    for ( int i = 0; i < RESERVED_KEYS.length; i++ ) {
+      RESERVED_KEY_INDEXES.put( RESERVED_KEYS[ i ], i + 1 );
+    }
+  }
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte TRUE = 2;
+  private static final byte FALSE = 3;
+  private static final byte INTEGER = 4;
+  private static final byte LONG = 5;
+  private static final byte DOUBLE = 6;
+  private static final byte DATE = 7;
+  private static final byte LOCALE = 8;
+  private static final byte STREAM_PROVIDER = 9;
+  private static final byte SERIALIZED = 127;
+
+  /**
+   * For deserialization only.
+   */
+  public CompactJobDataMap() {
+    super();
+  }
+
+  public CompactJobDataMap( Map<?, ?> map ) {
+    super( map );
+  }
+
+  @Override
+  public void writeExternal( ObjectOutput out ) throws IOException {
+    out.writeByte( VERSION );
+    writeCount( out, size() );
+    for ( Map.Entry<String, Object> entry : getWrappedMap().entrySet() ) {
+      Integer keyIndex = RESERVED_KEY_INDEXES.get( entry.getKey() );
+      if ( keyIndex != null ) {
+        out.writeByte( keyIndex );
+      } else {
+        out.writeByte( 0 );
+        writeString( out, entry.getKey() );
+      }
+      writeValue( out, entry.getValue() );
+    }
+  }
+
+  @Override
+  public void readExternal( ObjectInput in ) throws IOException, ClassNotFoundException {
+    byte version = in.readByte();
+    if ( version > VERSION ) {
+      throw new InvalidObjectException( "Unsupported job data version " + version );
+    }
+    for ( int i = readCount( in ); i > 0; i-- ) {
+      int keyIndex = in.readUnsignedByte();
+      String key;
+      if ( keyIndex == 0 ) {
+        key = readString( in );
+      } else if ( keyIndex <= RESERVED_KEYS.length ) {
+        key = RESERVED_KEYS[ keyIndex - 1 ];
+      } else {
+        throw new InvalidObjectException( "Unknown job data key " + keyIndex );
+      }
+      put( key, readValue( in ) );
+    }
+    clearDirtyFlag();
+  }
+
+  private static void writeValue( ObjectOutput out, Object value ) throws IOException {
+    if ( value == null ) {
+      out.writeByte( NULL );
+    } else if ( value instanceof String ) {
+      out.writeByte( STRING );
+      writeString( out, (String) value );
+    } else if ( value instanceof Boolean ) {
+      out.writeByte( (Boolean) value ? TRUE : FALSE );
+    } else if ( value instanceof Integer ) {
+      out.writeByte( INTEGER );
+      out.writeInt( (Integer) value );
+    } else if ( value instanceof Long ) {
+      out.writeByte( LONG );
+      out.writeLong( (Long) value );
+    } else if ( value instanceof Double ) {
+      out.writeByte( DOUBLE );
+      out.writeDouble( (Double) value );
+    } else if ( value.getClass() == Date.class ) {
+      out.writeByte( DATE );
+      out.writeLong( ( (Date) value ).getTime() );
+    } else if ( value instanceof Locale ) {
+      Locale locale = (Locale) value;
+      out.writeByte( LOCALE );
+      writeString( out, locale.getLanguage() );
+      writeString( out, locale.getCountry() );
+      writeString( out, locale.getVariant() );
+    } else if ( value.getClass() == RepositoryFileStreamProvider.class ) {
+      // the paths and the output options are all a stored stream provider holds; the streaming action of a running
+      // job is never stored
+      RepositoryFileStreamProvider streamProvider = (RepositoryFileStreamProvider) value;
+      out.writeByte( STREAM_PROVIDER );
+      writeNullableString( out, streamProvider.getInputFilePath() );
+      writeNullableString( out, streamProvider.getOutputFilePath() );
+      out.writeBoolean( streamProvider.autoCreateUniqueFilename() );
+      writeNullableString( out, streamProvider.getAppendDateFormat() );
+    } else {
+      out.writeByte( SERIALIZED );
+      out.writeObject( value );
+    }
+  }
+
+  private static Object readValue( ObjectInput in ) throws IOException, ClassNotFoundException {
+    byte type = in.readByte();
+    switch ( type ) {
+      case NULL:
+        return null;
+      case STRING:
+        return readString( in );
+      case TRUE:
+        return Boolean.TRUE;
+      case FALSE:
+        return Boolean.FALSE;
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case DATE:
+        return new Date( in.readLong() );
+      case LOCALE:
+        return new Locale( readString( in ), readString( in ), readString( in ) );
+      case STREAM_PROVIDER:
+        return new RepositoryFileStreamProvider( readNullableString( in ), readNullableString( in ), in.readBoolean(),
+          readNullableString( in ) );
+      case SERIALIZED:
+        return in.readObject();
+      default:
+        throw new InvalidObjectException( "Unknown job data type " + type );
+    }
+  }
+
+  private static void writeString( ObjectOutput out, String value ) throws IOException {
+    byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+    writeCount( out, bytes.length );
+    out.write( bytes );
+  }
+
+  private static String readString( ObjectInput in ) throws IOException {
+    byte[] bytes = new byte[ readCount( in ) ];
+    in.readFully( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+
+  private static void writeNullableString( ObjectOutput out, String value ) throws IOException {
+    out.writeBoolean( value != null );
+    if ( value != null ) {
+      writeString( out, value );
+    }
+  }
+
+  private static String readNullableString( ObjectInput in ) throws IOException {
+    return in.readBoolean() ? readString( in ) : null;
+  }
+
+  /**
+   * Writes a count on one byte when below 128, as most key and value lengths are.
+   */
+  private static void writeCount( ObjectOutput out, int count ) throws IOException {
+    while ( ( count & ~0x7f ) != 0 ) {
+      out.writeByte( ( count & 0x7f ) | 0x80 );
+      count >>>= 7;
+    }
+    out.writeByte( count );
+  }
+
+  private static int readCount( ObjectInput in ) throws IOException {
+    int count = 0;
+    for ( int shift = 0; shift < 32; shift += 7 ) {
+      int b = in.readUnsignedByte();
+      count |= ( b & 0x7f ) << shift;
+      if ( ( b & 0x80 ) == 0 ) {
+        return count;
+      }
+    }
+    throw new InvalidObjectException( "Malformed job data count" );
+  }
+}
@@ -14,6 +14,9 @@
 
 package org.pentaho.platform.scheduler2.quartz;
 
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -24,7 +27,9 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -42,8 +47,13 @@ import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.core.system.PentahoSystemPublisher;
 import org.pentaho.platform.engine.services.connection.datasource.dbcp.JndiDatasourceService;
+import org.pentaho.platform.scheduler2.action.GeneratedContentIndex;
 import org.pentaho.platform.scheduler2.messsages.Messages;
+import org.pentaho.platform.scheduler2.workitem.WorkItemLifecycleEventDispatcher;
 import org.quartz.SchedulerException;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.jdbcjobstore.JobStoreSupport;
+import org.quartz.simpl.RAMJobStore;
 
 public class EmbeddedQuartzSystemListener implements IPluginLifecycleListener {
 
@@ -96,6 +106,10 @@ public class EmbeddedQuartzSystemListener implements IPluginLifecycleListener {
         result = false;
       } else {
         String dsName = quartzProps.getProperty( "org.quartz.dataSource.myDS.jndiURL" ); //$NON-NLS-1$
+        if ( dsName != null && !usesDatabase( quartzProps ) ) {
+          removeDatabaseProperties( quartzProps );
+          dsName = null;
+        }
         if ( dsName != null ) {
           IDBDatasourceService datasourceService = getQuartzDatasourceService( session );
           String boundDsName = datasourceService.getDSBoundName( dsName );
@@ -112,7 +126,18 @@ public class EmbeddedQuartzSystemListener implements IPluginLifecycleListener {
           logger.debug( "Quartz configured with properties" ); //$NON-NLS-1$
           quartzProps.store( System.out, "debugging" ); //$NON-NLS-1$
         }
-        scheduler.setQuartzSchedulerFactory( new org.quartz.impl.StdSchedulerFactory( quartzProps ) );
+        scheduler.setQuartzSchedulerFactory( ShardedSchedulerFactory.create( quartzProps ) );
+        if ( isClustered( quartzProps ) ) {
+          String jobStorePrefix = StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".";
+          scheduler.setClustered( quartzProps.getProperty( jobStorePrefix + "dataSource" ), //$NON-NLS-1$
+            quartzProps.getProperty( jobStorePrefix + "tablePrefix", "QRTZ_" ), //$NON-NLS-1$ //$NON-NLS-2$
+            quartzProps.getProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "QuartzScheduler" ) ); //$NON-NLS-1$
+          // the content generated on the other nodes never reaches the index of this one
+          GeneratedContentIndex generatedContentIndex = GeneratedContentIndex.getInstance();
+          if ( generatedContentIndex != null ) {
+            generatedContentIndex.setEnabled( false );
+          }
+        }
         waitForSystemToStart( scheduler );
       }
     } catch ( IOException ex ) {
@@ -192,7 +217,22 @@ public class EmbeddedQuartzSystemListener implements IPluginLifecycleListener {
         if ( logger.isDebugEnabled() ) {
           logger.debug( "System has properly initialized. Starting the scheduler now" );
         }
+        // spreads the catch-up executions of the jobs that misfired while the server was down
+        scheduler.addTriggerListener( MisfireGovernor.getInstance() );
+        scheduler.addSchedulerListener( MisfireGovernor.getInstance().getDeletionListener() );
         startScheduler( scheduler );
+        // fires the retries that were pending when the server last stopped
+        RetryScheduler.getInstance();
+        // runs the background executions that were waiting when the server last stopped
+        BackgroundDispatcher.getInstance();
+        int deletedCalendars = scheduler.deleteUnusedCalendars();
+        if ( deletedCalendars > 0 ) {
+          logger.info( "Deleted " + deletedCalendars + " unused scheduler calendars" );
+        }
+        int stagingGroups = scheduler.activateAbandonedStagedJobs();
+        if ( stagingGroups > 0 ) {
+          logger.info( "Activated the jobs of " + stagingGroups + " unfinished schedule imports" );
+        }
         if ( logger.isDebugEnabled() ) {
           logger.debug( "System has properly initialized. Finished starting the scheduler" );
         }
@@ -219,6 +259,62 @@ public class EmbeddedQuartzSystemListener implements IPluginLifecycleListener {
     }
   }
 
+  /**
+   * Tells whether the job store selected in the Quartz properties is one of the JDBC job stores.
+   */
+  static boolean usesDatabase( Properties quartzProps ) {
+    String jobStoreClass = quartzProps.getProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS );
+    if ( jobStoreClass == null ) {
+      // the RAM job store
+      return false;
+    }
+    try {
+      return JobStoreSupport.class.isAssignableFrom(
+        Class.forName( jobStoreClass.trim(), false, EmbeddedQuartzSystemListener.class.getClassLoader() ) );
+    } catch ( ClassNotFoundException e ) {
+      // reported by the scheduler factory
+      return true;
+    }
+  }
+
+  /**
+   * Tells whether the Quartz properties make the scheduler one node of a cluster sharing the Quartz database.
+   */
+  static boolean isClustered( Properties quartzProps ) {
+    return usesDatabase( quartzProps ) && Boolean.parseBoolean(
+      quartzProps.getProperty( StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".isClustered", "false" ).trim() );
+  }
+
+  /**
+   * Removes the data source and the job store properties the selected job store has no setter for, so that the
+   * database settings shipped in quartz.properties can stay there when switching to a job store keeping the jobs
+   * elsewhere.
+   */
+  static void removeDatabaseProperties( Properties quartzProps ) {
+    Set<String> jobStoreProperties = new HashSet<>();
+    try {
+      Class<?> jobStoreClass = Class.forName( quartzProps.getProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS,
+        RAMJobStore.class.getName() ).trim(), false, EmbeddedQuartzSystemListener.class.getClassLoader() );
+      for ( PropertyDescriptor descriptor : Introspector.getBeanInfo( jobStoreClass ).getPropertyDescriptors() ) {
+        if ( descriptor.getWriteMethod() != null ) {
+          jobStoreProperties.add( descriptor.getName() );
+        }
+      }
+    } catch ( ClassNotFoundException | IntrospectionException e ) {
+      return;
+    }
+    String jobStorePrefix = StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".";
+    for ( String name : quartzProps.stringPropertyNames() ) {
+      if ( name.startsWith( StdSchedulerFactory.PROP_DATASOURCE_PREFIX + "." ) ) {
+        quartzProps.remove( name );
+      } else if ( name.startsWith( jobStorePrefix ) && !name.equals( StdSchedulerFactory.PROP_JOB_STORE_CLASS )
+        && !name.substring( jobStorePrefix.length() ).contains( "." )
+        && !jobStoreProperties.contains( name.substring( jobStorePrefix.length() ) ) ) {
+        quartzProps.remove( name );
+      }
+    }
+  }
+
   protected boolean verifyQuartzIsConfigured( DataSource ds ) throws SQLException {
     boolean quartzIsConfigured = false;
     Connection conn = ds.getConnection();
@@ -321,6 +417,13 @@ public class EmbeddedQuartzSystemListener implements IPluginLifecycleListener {
       scheduler.getQuartzScheduler().shutdown();
     } catch ( SchedulerException e ) {
       e.printStackTrace();
+    } finally {
+      BackgroundDispatcher.shutdownInstance();
+      ExecutionWatchdog.shutdownInstance();
+      MisfireGovernor.shutdownInstance();
+      RetryScheduler.shutdownInstance();
+      AsyncAuditWriter.shutdownInstance();
+      WorkItemLifecycleEventDispatcher.shutdownInstance();
     }
   }
 
@@ -0,0 +1,196 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.quartz.InterruptableJob;
+import org.quartz.UnableToInterruptJobException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Interrupts scheduled executions that run longer than their execution timeout.
+ *
+ * <p>The timeout of an execution is, in order of precedence:</p>
+ * <ul>
+ *   <li>the {@value #EXECUTION_TIMEOUT_PARAM} job parameter, in seconds</li>
+ *   <li>the {@code execution-timeouts/<type>} plugin setting, in seconds, where the type is the part of the action id
+ *   before the first dot, e.g. {@code ktr} or {@code prpt}</li>
+ *   <li>the {@code execution-timeout} plugin setting, in seconds</li>
+ * </ul>
+ * <p>A timeout of zero or less means the execution is never interrupted.</p>
+ *
+ * <p>Interrupting is cooperative: the job thread is interrupted and the action is expected to stop. An action that
+ * ignores interrupts keeps its worker thread until it finishes.</p>
+ */
+public class ExecutionWatchdog {
+
+  /**
+   * Job parameter holding the execution timeout of a job, in seconds.
+   */
+  public static final String EXECUTION_TIMEOUT_PARAM = "executionTimeout";
+
+  private static final Log logger = LogFactory.getLog( ExecutionWatchdog.class );
+
+  private static final String TIMEOUT_SETTING_KEY = "settings/execution-timeout";
+  private static final String ACTION_TYPE_TIMEOUT_SETTING_PREFIX = "settings/execution-timeouts/";
+
+  private static final Pattern ACTION_TYPE_PATTERN = Pattern.compile( "[A-Za-z][A-Za-z0-9_-]*" );
+  private static final long NOT_SET = -1;
+
+  private static ExecutionWatchdog instance;
+
+  /**
+   * Source of the per action type timeouts, the plugin settings unless replaced for testing.
+   */
+  @FunctionalInterface
+  interface TimeoutSettings {
+    String get( String key );
+  }
+
+  private final long defaultTimeoutMillis;
+  private final TimeoutSettings settings;
+  private final Map<String, Long> actionTypeTimeouts = new ConcurrentHashMap<>();
+  private final ScheduledThreadPoolExecutor executor;
+  private final AtomicLong timedOut = new AtomicLong();
+
+  ExecutionWatchdog( final long defaultTimeoutMillis, final TimeoutSettings settings ) {
+    this.defaultTimeoutMillis = defaultTimeoutMillis;
+    this.settings = settings;
+    this.executor = new ScheduledThreadPoolExecutor( 1, runnable -> {
+      Thread thread = new Thread( runnable, "scheduler-execution-watchdog" ); //$NON-NLS-1$
+      thread.setDaemon( true );
+      return thread;
+    } );
+    this.executor.setRemoveOnCancelPolicy( true );
+  }
+
+  /**
+   * Returns the shared watchdog, creating it from the plugin settings on first use.
+   *
+   * @return the shared watchdog
+   */
+  public static synchronized ExecutionWatchdog getInstance() {
+    if ( instance == null ) {
+      IPluginResourceLoader resourceLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+      TimeoutSettings settings = resourceLoader == null ? key -> null
+        : key -> resourceLoader.getPluginSetting( ExecutionWatchdog.class, key, null );
+      instance = new ExecutionWatchdog( toMillis( parseSeconds( settings.get( TIMEOUT_SETTING_KEY ) ) ), settings );
+    }
+    return instance;
+  }
+
+  /**
+   * Stops the shared watchdog, if any. Running executions are no longer interrupted.
+   */
+  public static synchronized void shutdownInstance() {
+    if ( instance != null ) {
+      instance.executor.shutdownNow();
+      instance = null;
+    }
+  }
+
+  /**
+   * Resolves the execution timeout of a job.
+   *
+   * @param jobParams the job parameters
+   * @return the timeout in milliseconds, zero or less if the job should not be interrupted
+   */
+  public long getTimeoutMillis( final Map<String, ?> jobParams ) {
+    if ( jobParams != null ) {
+      long jobTimeout = parseSeconds( jobParams.get( EXECUTION_TIMEOUT_PARAM ) );
+      if ( jobTimeout != NOT_SET ) {
+        return toMillis( jobTimeout );
+      }
+      String actionType = getActionType( jobParams.get( IScheduler.RESERVEDMAPKEY_ACTIONID ) );
+      if ( actionType != null ) {
+        long typeTimeout = actionTypeTimeouts.computeIfAbsent( actionType,
+          type -> parseSeconds( settings.get( ACTION_TYPE_TIMEOUT_SETTING_PREFIX + type ) ) );
+        if ( typeTimeout != NOT_SET ) {
+          return toMillis( typeTimeout );
+        }
+      }
+    }
+    return defaultTimeoutMillis;
+  }
+
+  /**
+   * Interrupts a job if it is still being watched once the timeout elapses.
+   *
+   * @param job           the running job
+   * @param jobName       the job name, for logging
+   * @param timeoutMillis the timeout, nothing is watched if it is zero or less
+   * @return the deadline to cancel when the job finishes, {@code null} if nothing is watched
+   */
+  public ScheduledFuture<?> watch( final InterruptableJob job, final String jobName, final long timeoutMillis ) {
+    if ( timeoutMillis <= 0 || executor.isShutdown() ) {
+      return null;
+    }
+    return executor.schedule( () -> {
+      timedOut.incrementAndGet();
+      logger.warn( "Job '" + jobName + "' exceeded its execution timeout of " + timeoutMillis
+        + "ms and is being interrupted" );
+      try {
+        job.interrupt();
+      } catch ( UnableToInterruptJobException | RuntimeException e ) {
+        logger.warn( "Failed to interrupt job '" + jobName + "'", e );
+      }
+    }, timeoutMillis, TimeUnit.MILLISECONDS );
+  }
+
+  /**
+   * @return the number of executions interrupted because they exceeded their timeout
+   */
+  public long getTimedOutCount() {
+    return timedOut.get();
+  }
+
+  static String getActionType( final Object actionId ) {
+    if ( actionId == null ) {
+      return null;
+    }
+    String type = actionId.toString();
+    int dot = type.indexOf( '.' );
+    if ( dot >= 0 ) {
+      type = type.substring( 0, dot );
+    }
+    return ACTION_TYPE_PATTERN.matcher( type ).matches() ? type : null;
+  }
+
+  private static long parseSeconds( final Object value ) {
+    if ( value == null ) {
+      return NOT_SET;
+    }
+    try {
+      return Math.max( 0, Long.parseLong( value.toString().trim() ) );
+    } catch ( NumberFormatException e ) {
+      return NOT_SET;
+    }
+  }
+
+  private static long toMillis( final long seconds ) {
+    return seconds == NOT_SET ? 0 : TimeUnit.SECONDS.toMillis( seconds );
+  }
+}
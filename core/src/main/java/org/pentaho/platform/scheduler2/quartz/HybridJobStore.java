@@ -0,0 +1,623 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.JobPersistenceException;
+import org.quartz.SchedulerConfigException;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerKey;
+import org.quartz.impl.jdbcjobstore.JobStoreTX;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.simpl.RAMJobStore;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.SchedulerSignaler;
+import org.quartz.spi.TriggerFiredResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A JDBC job store that keeps the short lived one-shot jobs in memory. The recurring schedules are stored in the
+ * database as by {@link JobStoreTX}; the one-shot jobs due shortly, such as the background executions, their retries
+ * and the manual triggers of "Run now", never reach the database.
+ *
+ * <p>A job is kept in memory when it is not durable, has a single trigger that fires once, without a calendar, within
+ * {@link #setEphemeralMaxDelay(long) ephemeralMaxDelay} milliseconds of being stored, and its UI pass parameter is one
+ * of {@link #setEphemeralUiPassParams(String) ephemeralUiPassParams}. A manual trigger of a job stored in the
+ * database is kept in memory, with a copy of the job, when {@link #setEphemeralManualTriggers(boolean)
+ * ephemeralManualTriggers} is set.</p>
+ *
+ * <p>The jobs and triggers kept in memory are lost when the server stops. A one-shot job that has not fired by then,
+ * such as a background execution waiting for a free thread, is not run after the restart as it would be from the
+ * database, and a manual trigger that has not fired is dropped. Where that is not acceptable, set
+ * {@code ephemeralMaxDelay} to less than 0 so that every job is stored in the database.</p>
+ *
+ * <p>Both stores are seen as one: listing, pausing or removing jobs and triggers covers the jobs in memory as well.
+ * Calendars are stored in the database only, as the triggers kept in memory have none.</p>
+ *
+ * <p>Configured in {@code quartz.properties} in place of {@link JobStoreTX}, with the same JDBC properties:</p>
+ * <pre>
+ *   org.quartz.jobStore.class = org.pentaho.platform.scheduler2.quartz.HybridJobStore
+ *   org.quartz.jobStore.ephemeralMaxDelay = 60000
+ *   org.quartz.jobStore.ephemeralUiPassParams = RUN_ONCE
+ *   org.quartz.jobStore.ephemeralManualTriggers = true
+ * </pre>
+ */
+public class HybridJobStore extends ClusteredJobStore {
+
+  private static final Log logger = LogFactory.getLog( HybridJobStore.class );
+
+  private static final String MANUAL_TRIGGER_PREFIX = "MT_";
+
+  private final RAMJobStore ramJobStore = new RAMJobStore();
+
+  // jobs stored in the database, copied in memory for their manual triggers
+  private final Set<JobKey> manualTriggerJobs = ConcurrentHashMap.newKeySet();
+
+  private long ephemeralMaxDelay = 60000;
+  private Set<String> ephemeralUiPassParams = Collections.singleton( QuartzScheduler.UI_PASS_PARAM_RUN_ONCE );
+  private boolean ephemeralManualTriggers = true;
+
+  private final AtomicLong ephemeralJobCount = new AtomicLong();
+  private final AtomicLong ephemeralManualTriggerCount = new AtomicLong();
+
+  /**
+   * @param ephemeralMaxDelay the longest delay, in milliseconds, between storing a one-shot job and its execution for
+   *                          the job to be kept in memory; less than 0 to store every job in the database
+   */
+  public void setEphemeralMaxDelay( long ephemeralMaxDelay ) {
+    this.ephemeralMaxDelay = ephemeralMaxDelay;
+  }
+
+  public long getEphemeralMaxDelay() {
+    return ephemeralMaxDelay;
+  }
+
+  /**
+   * @param ephemeralUiPassParams the comma separated UI pass parameters of the one-shot jobs kept in memory, empty for
+   *                              any
+   */
+  public void setEphemeralUiPassParams( String ephemeralUiPassParams ) {
+    Set<String> uiPassParams = new HashSet<>();
+    for ( String uiPassParam : ephemeralUiPassParams.split( "," ) ) {
+      if ( !uiPassParam.trim().isEmpty() ) {
+        uiPassParams.add( uiPassParam.trim().toUpperCase( Locale.ROOT ) );
+      }
+    }
+    this.ephemeralUiPassParams = uiPassParams;
+  }
+
+  public String getEphemeralUiPassParams() {
+    return String.join( ",", ephemeralUiPassParams );
+  }
+
+  public void setEphemeralManualTriggers( boolean ephemeralManualTriggers ) {
+    this.ephemeralManualTriggers = ephemeralManualTriggers;
+  }
+
+  public boolean isEphemeralManualTriggers() {
+    return ephemeralManualTriggers;
+  }
+
+  /**
+   * @return the number of one-shot jobs kept in memory since the scheduler started, each one a job, a trigger and
+   * their fired trigger rows not written to the database
+   */
+  public long getEphemeralJobCount() {
+    return ephemeralJobCount.get();
+  }
+
+  /**
+   * @return the number of manual triggers kept in memory since the scheduler started
+   */
+  public long getEphemeralManualTriggerCount() {
+    return ephemeralManualTriggerCount.get();
+  }
+
+  /**
+   * Decides whether a new job is kept in memory.
+   */
+  boolean isEphemeral( JobDetail jobDetail, Trigger trigger, long now ) {
+    if ( ephemeralMaxDelay < 0 || jobDetail.isDurable() || trigger.getCalendarName() != null ) {
+      return false;
+    }
+    if ( !ephemeralUiPassParams.isEmpty() ) {
+      Object uiPassParam = jobDetail.getJobDataMap().get( IScheduler.RESERVEDMAPKEY_UIPASSPARAM );
+      if ( uiPassParam == null || !ephemeralUiPassParams.contains( uiPassParam.toString().toUpperCase( Locale.ROOT ) ) ) {
+        return false;
+      }
+    }
+    Date nextFireTime = trigger.getNextFireTime();
+    return nextFireTime != null && nextFireTime.getTime() <= now + ephemeralMaxDelay
+      && trigger.getFireTimeAfter( nextFireTime ) == null;
+  }
+
+  boolean isManualTrigger( Trigger trigger ) {
+    return ephemeralManualTriggers && trigger.getKey().getName().startsWith( MANUAL_TRIGGER_PREFIX );
+  }
+
+  /**
+   * @return {@code true} if the job is stored in memory only
+   */
+  private boolean isInMemory( JobKey jobKey ) {
+    return !manualTriggerJobs.contains( jobKey ) && ramJobStore.checkExists( jobKey );
+  }
+
+  /**
+   * Drops the in-memory copy of a database job once its manual triggers are gone.
+   */
+  private void releaseManualTriggerJob( JobKey jobKey ) throws JobPersistenceException {
+    synchronized ( manualTriggerJobs ) {
+      if ( manualTriggerJobs.contains( jobKey ) && ramJobStore.getTriggersForJob( jobKey ).isEmpty() ) {
+        ramJobStore.removeJob( jobKey );
+        manualTriggerJobs.remove( jobKey );
+      }
+    }
+  }
+
+  @Override
+  public void initialize( ClassLoadHelper loadHelper, SchedulerSignaler signaler ) throws SchedulerConfigException {
+    super.initialize( loadHelper, signaler );
+    ramJobStore.setMisfireThreshold( getMisfireThreshold() );
+    ramJobStore.initialize( loadHelper, signaler );
+  }
+
+  @Override
+  public void setInstanceId( String instanceId ) {
+    super.setInstanceId( instanceId );
+    ramJobStore.setInstanceId( instanceId );
+  }
+
+  @Override
+  public void setInstanceName( String instanceName ) {
+    super.setInstanceName( instanceName );
+    ramJobStore.setInstanceName( instanceName );
+  }
+
+  @Override
+  public void setThreadPoolSize( int poolSize ) {
+    super.setThreadPoolSize( poolSize );
+    ramJobStore.setThreadPoolSize( poolSize );
+  }
+
+  @Override
+  public void schedulerStarted() throws SchedulerException {
+    super.schedulerStarted();
+    ramJobStore.schedulerStarted();
+  }
+
+  @Override
+  public void schedulerPaused() {
+    super.schedulerPaused();
+    ramJobStore.schedulerPaused();
+  }
+
+  @Override
+  public void schedulerResumed() {
+    super.schedulerResumed();
+    ramJobStore.schedulerResumed();
+  }
+
+  @Override
+  public void shutdown() {
+    ramJobStore.shutdown();
+    super.shutdown();
+    logger.info( "Kept " + ephemeralJobCount.get() + " one-shot jobs and " + ephemeralManualTriggerCount.get()
+      + " manual triggers out of the database" );
+  }
+
+  @Override
+  public void storeJobAndTrigger( JobDetail newJob, OperableTrigger newTrigger ) throws JobPersistenceException {
+    if ( isEphemeral( newJob, newTrigger, System.currentTimeMillis() ) ) {
+      ramJobStore.storeJobAndTrigger( newJob, newTrigger );
+      ephemeralJobCount.incrementAndGet();
+    } else {
+      super.storeJobAndTrigger( newJob, newTrigger );
+    }
+  }
+
+  @Override
+  public void storeJobsAndTriggers( Map<JobDetail, Set<? extends Trigger>> triggersAndJobs, boolean replace )
+    throws JobPersistenceException {
+    Map<JobDetail, Set<? extends Trigger>> inMemory = new LinkedHashMap<>();
+    Map<JobDetail, Set<? extends Trigger>> inDatabase = new LinkedHashMap<>();
+    long now = System.currentTimeMillis();
+    for ( Map.Entry<JobDetail, Set<? extends Trigger>> entry : triggersAndJobs.entrySet() ) {
+      Set<? extends Trigger> triggers = entry.getValue();
+      if ( triggers.size() == 1 && isEphemeral( entry.getKey(), triggers.iterator().next(), now ) ) {
+        inMemory.put( entry.getKey(), triggers );
+      } else {
+        if ( replace && isInMemory( entry.getKey().getKey() ) ) {
+          ramJobStore.removeJob( entry.getKey().getKey() );
+        }
+        inDatabase.put( entry.getKey(), triggers );
+      }
+    }
+    if ( !inDatabase.isEmpty() ) {
+      super.storeJobsAndTriggers( inDatabase, replace );
+    }
+    if ( !inMemory.isEmpty() ) {
+      ramJobStore.storeJobsAndTriggers( inMemory, replace );
+      ephemeralJobCount.addAndGet( inMemory.size() );
+    }
+  }
+
+  @Override
+  public void storeJob( JobDetail newJob, boolean replaceExisting ) throws JobPersistenceException {
+    if ( isInMemory( newJob.getKey() ) ) {
+      ramJobStore.storeJob( newJob, replaceExisting );
+    } else {
+      super.storeJob( newJob, replaceExisting );
+    }
+  }
+
+  @Override
+  public boolean removeJob( JobKey jobKey ) throws JobPersistenceException {
+    if ( manualTriggerJobs.contains( jobKey ) ) {
+      synchronized ( manualTriggerJobs ) {
+        ramJobStore.removeJob( jobKey );
+        manualTriggerJobs.remove( jobKey );
+      }
+    } else if ( ramJobStore.removeJob( jobKey ) ) {
+      return true;
+    }
+    return super.removeJob( jobKey );
+  }
+
+  @Override
+  public boolean removeJobs( List<JobKey> jobKeys ) throws JobPersistenceException {
+    List<JobKey> inDatabase = new ArrayList<>( jobKeys.size() );
+    for ( JobKey jobKey : jobKeys ) {
+      if ( manualTriggerJobs.contains( jobKey ) ) {
+        synchronized ( manualTriggerJobs ) {
+          ramJobStore.removeJob( jobKey );
+          manualTriggerJobs.remove( jobKey );
+        }
+        inDatabase.add( jobKey );
+      } else if ( !ramJobStore.removeJob( jobKey ) ) {
+        inDatabase.add( jobKey );
+      }
+    }
+    return inDatabase.isEmpty() || super.removeJobs( inDatabase );
+  }
+
+  @Override
+  public JobDetail retrieveJob( JobKey jobKey ) throws JobPersistenceException {
+    return isInMemory( jobKey ) ? ramJobStore.retrieveJob( jobKey ) : super.retrieveJob( jobKey );
+  }
+
+  @Override
+  public boolean checkExists( JobKey jobKey ) throws JobPersistenceException {
+    return ramJobStore.checkExists( jobKey ) || super.checkExists( jobKey );
+  }
+
+  @Override
+  public void storeTrigger( OperableTrigger newTrigger, boolean replaceExisting ) throws JobPersistenceException {
+    JobKey jobKey = newTrigger.getJobKey();
+    if ( isInMemory( jobKey ) ) {
+      ramJobStore.storeTrigger( newTrigger, replaceExisting );
+      return;
+    }
+    if ( isManualTrigger( newTrigger ) && newTrigger.getCalendarName() == null ) {
+      JobDetail jobDetail = super.retrieveJob( jobKey );
+      if ( jobDetail != null ) {
+        synchronized ( manualTriggerJobs ) {
+          // durable, so that it is only dropped here once its manual triggers are done
+          ramJobStore.storeJob( jobDetail.getJobBuilder().storeDurably().build(), true );
+          manualTriggerJobs.add( jobKey );
+          ramJobStore.storeTrigger( newTrigger, replaceExisting );
+        }
+        ephemeralManualTriggerCount.incrementAndGet();
+        return;
+      }
+    }
+    super.storeTrigger( newTrigger, replaceExisting );
+  }
+
+  @Override
+  public boolean removeTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    OperableTrigger trigger = ramJobStore.retrieveTrigger( triggerKey );
+    if ( trigger != null ) {
+      boolean removed = ramJobStore.removeTrigger( triggerKey );
+      releaseManualTriggerJob( trigger.getJobKey() );
+      return removed;
+    }
+    return super.removeTrigger( triggerKey );
+  }
+
+  @Override
+  public boolean removeTriggers( List<TriggerKey> triggerKeys ) throws JobPersistenceException {
+    List<TriggerKey> inDatabase = new ArrayList<>( triggerKeys.size() );
+    for ( TriggerKey triggerKey : triggerKeys ) {
+      if ( ramJobStore.checkExists( triggerKey ) ) {
+        removeTrigger( triggerKey );
+      } else {
+        inDatabase.add( triggerKey );
+      }
+    }
+    return inDatabase.isEmpty() || super.removeTriggers( inDatabase );
+  }
+
+  @Override
+  public boolean replaceTrigger( TriggerKey triggerKey, OperableTrigger newTrigger ) throws JobPersistenceException {
+    return ramJobStore.checkExists( triggerKey ) ? ramJobStore.replaceTrigger( triggerKey, newTrigger )
+      : super.replaceTrigger( triggerKey, newTrigger );
+  }
+
+  @Override
+  public OperableTrigger retrieveTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    OperableTrigger trigger = ramJobStore.retrieveTrigger( triggerKey );
+    return trigger != null ? trigger : super.retrieveTrigger( triggerKey );
+  }
+
+  @Override
+  public boolean checkExists( TriggerKey triggerKey ) throws JobPersistenceException {
+    return ramJobStore.checkExists( triggerKey ) || super.checkExists( triggerKey );
+  }
+
+  @Override
+  public void clearAllSchedulingData() throws JobPersistenceException {
+    synchronized ( manualTriggerJobs ) {
+      ramJobStore.clearAllSchedulingData();
+      manualTriggerJobs.clear();
+    }
+    super.clearAllSchedulingData();
+  }
+
+  @Override
+  public int getNumberOfJobs() throws JobPersistenceException {
+    return super.getNumberOfJobs() + ramJobStore.getNumberOfJobs() - manualTriggerJobs.size();
+  }
+
+  @Override
+  public int getNumberOfTriggers() throws JobPersistenceException {
+    return super.getNumberOfTriggers() + ramJobStore.getNumberOfTriggers();
+  }
+
+  @Override
+  public Set<JobKey> getJobKeys( GroupMatcher<JobKey> matcher ) throws JobPersistenceException {
+    Set<JobKey> jobKeys = new HashSet<>( super.getJobKeys( matcher ) );
+    jobKeys.addAll( ramJobStore.getJobKeys( matcher ) );
+    return jobKeys;
+  }
+
+  @Override
+  public Set<TriggerKey> getTriggerKeys( GroupMatcher<TriggerKey> matcher ) throws JobPersistenceException {
+    Set<TriggerKey> triggerKeys = new HashSet<>( super.getTriggerKeys( matcher ) );
+    triggerKeys.addAll( ramJobStore.getTriggerKeys( matcher ) );
+    return triggerKeys;
+  }
+
+  @Override
+  public List<String> getJobGroupNames() throws JobPersistenceException {
+    Set<String> groupNames = new LinkedHashSet<>( super.getJobGroupNames() );
+    groupNames.addAll( ramJobStore.getJobGroupNames() );
+    return new ArrayList<>( groupNames );
+  }
+
+  @Override
+  public List<String> getTriggerGroupNames() throws JobPersistenceException {
+    Set<String> groupNames = new LinkedHashSet<>( super.getTriggerGroupNames() );
+    groupNames.addAll( ramJobStore.getTriggerGroupNames() );
+    return new ArrayList<>( groupNames );
+  }
+
+  @Override
+  public List<OperableTrigger> getTriggersForJob( JobKey jobKey ) throws JobPersistenceException {
+    if ( isInMemory( jobKey ) ) {
+      return ramJobStore.getTriggersForJob( jobKey );
+    }
+    List<OperableTrigger> triggers = super.getTriggersForJob( jobKey );
+    if ( manualTriggerJobs.contains( jobKey ) ) {
+      triggers = new ArrayList<>( triggers );
+      triggers.addAll( ramJobStore.getTriggersForJob( jobKey ) );
+    }
+    return triggers;
+  }
+
+  @Override
+  public TriggerState getTriggerState( TriggerKey triggerKey ) throws JobPersistenceException {
+    return ramJobStore.checkExists( triggerKey ) ? ramJobStore.getTriggerState( triggerKey )
+      : super.getTriggerState( triggerKey );
+  }
+
+  @Override
+  public void resetTriggerFromErrorState( TriggerKey triggerKey ) throws JobPersistenceException {
+    if ( ramJobStore.checkExists( triggerKey ) ) {
+      ramJobStore.resetTriggerFromErrorState( triggerKey );
+    } else {
+      super.resetTriggerFromErrorState( triggerKey );
+    }
+  }
+
+  @Override
+  public void pauseTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    if ( ramJobStore.checkExists( triggerKey ) ) {
+      ramJobStore.pauseTrigger( triggerKey );
+    } else {
+      super.pauseTrigger( triggerKey );
+    }
+  }
+
+  @Override
+  public void resumeTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    if ( ramJobStore.checkExists( triggerKey ) ) {
+      ramJobStore.resumeTrigger( triggerKey );
+    } else {
+      super.resumeTrigger( triggerKey );
+    }
+  }
+
+  @Override
+  public void pauseJob( JobKey jobKey ) throws JobPersistenceException {
+    if ( ramJobStore.checkExists( jobKey ) ) {
+      ramJobStore.pauseJob( jobKey );
+    }
+    if ( !isInMemory( jobKey ) ) {
+      super.pauseJob( jobKey );
+    }
+  }
+
+  @Override
+  public void resumeJob( JobKey jobKey ) throws JobPersistenceException {
+    if ( ramJobStore.checkExists( jobKey ) ) {
+      ramJobStore.resumeJob( jobKey );
+    }
+    if ( !isInMemory( jobKey ) ) {
+      super.resumeJob( jobKey );
+    }
+  }
+
+  @Override
+  public Set<String> pauseTriggers( GroupMatcher<TriggerKey> matcher ) throws JobPersistenceException {
+    Set<String> groupNames = new HashSet<>( super.pauseTriggers( matcher ) );
+    groupNames.addAll( ramJobStore.pauseTriggers( matcher ) );
+    return groupNames;
+  }
+
+  @Override
+  public Set<String> resumeTriggers( GroupMatcher<TriggerKey> matcher ) throws JobPersistenceException {
+    Set<String> groupNames = new HashSet<>( super.resumeTriggers( matcher ) );
+    groupNames.addAll( ramJobStore.resumeTriggers( matcher ) );
+    return groupNames;
+  }
+
+  @Override
+  public Set<String> pauseJobs( GroupMatcher<JobKey> matcher ) throws JobPersistenceException {
+    Set<String> groupNames = new HashSet<>( super.pauseJobs( matcher ) );
+    groupNames.addAll( ramJobStore.pauseJobs( matcher ) );
+    return groupNames;
+  }
+
+  @Override
+  public Set<String> resumeJobs( GroupMatcher<JobKey> matcher ) throws JobPersistenceException {
+    Set<String> groupNames = new HashSet<>( super.resumeJobs( matcher ) );
+    groupNames.addAll( ramJobStore.resumeJobs( matcher ) );
+    return groupNames;
+  }
+
+  @Override
+  public Set<String> getPausedTriggerGroups() throws JobPersistenceException {
+    Set<String> groupNames = new HashSet<>( super.getPausedTriggerGroups() );
+    groupNames.addAll( ramJobStore.getPausedTriggerGroups() );
+    return groupNames;
+  }
+
+  @Override
+  public void pauseAll() throws JobPersistenceException {
+    super.pauseAll();
+    ramJobStore.pauseAll();
+  }
+
+  @Override
+  public void resumeAll() throws JobPersistenceException {
+    super.resumeAll();
+    ramJobStore.resumeAll();
+  }
+
+  /**
+   * Acquires the triggers due in memory and, unless those fill the batch with triggers due right away, the ones due
+   * in the database; the earliest of both are kept and the others released.
+   */
+  @Override
+  public List<OperableTrigger> acquireNextTriggers( long noLaterThan, int maxCount, long timeWindow )
+    throws JobPersistenceException {
+    List<OperableTrigger> acquired =
+      new ArrayList<>( ramJobStore.acquireNextTriggers( noLaterThan, maxCount, timeWindow ) );
+    if ( acquired.size() < maxCount || acquired.get( acquired.size() - 1 ).getNextFireTime().getTime()
+      > System.currentTimeMillis() + timeWindow ) {
+      acquired.addAll( super.acquireNextTriggers( noLaterThan, maxCount, timeWindow ) );
+      acquired.sort( new Trigger.TriggerTimeComparator() );
+      while ( acquired.size() > maxCount ) {
+        releaseAcquiredTrigger( acquired.remove( acquired.size() - 1 ) );
+      }
+    }
+    return acquired;
+  }
+
+  @Override
+  public void releaseAcquiredTrigger( OperableTrigger trigger ) {
+    if ( ramJobStore.checkExists( trigger.getKey() ) ) {
+      ramJobStore.releaseAcquiredTrigger( trigger );
+    } else {
+      super.releaseAcquiredTrigger( trigger );
+    }
+  }
+
+  /**
+   * Fires the triggers in the store holding each, returning the results in the order of the triggers.
+   */
+  @Override
+  public List<TriggerFiredResult> triggersFired( List<OperableTrigger> triggers ) throws JobPersistenceException {
+    List<OperableTrigger> inMemory = new ArrayList<>();
+    List<OperableTrigger> inDatabase = new ArrayList<>();
+    boolean[] isInMemory = new boolean[ triggers.size() ];
+    for ( int i = 0; i < triggers.size(); i++ ) {
+      isInMemory[ i ] = ramJobStore.checkExists( triggers.get( i ).getKey() );
+      ( isInMemory[ i ] ? inMemory : inDatabase ).add( triggers.get( i ) );
+    }
+    if ( inDatabase.isEmpty() ) {
+      return ramJobStore.triggersFired( inMemory );
+    }
+    if ( inMemory.isEmpty() ) {
+      return super.triggersFired( inDatabase );
+    }
+    List<TriggerFiredResult> inMemoryResults = ramJobStore.triggersFired( inMemory );
+    List<TriggerFiredResult> inDatabaseResults = super.triggersFired( inDatabase );
+    TriggerFiredResult[] results = new TriggerFiredResult[ triggers.size() ];
+    int inMemoryIndex = 0;
+    int inDatabaseIndex = 0;
+    for ( int i = 0; i < results.length; i++ ) {
+      results[ i ] = isInMemory[ i ] ? inMemoryResults.get( inMemoryIndex++ )
+        : inDatabaseResults.get( inDatabaseIndex++ );
+    }
+    return Arrays.asList( results );
+  }
+
+  @Override
+  public void triggeredJobComplete( OperableTrigger trigger, JobDetail jobDetail,
+                                    CompletedExecutionInstruction triggerInstCode ) {
+    if ( !ramJobStore.checkExists( trigger.getKey() ) ) {
+      super.triggeredJobComplete( trigger, jobDetail, triggerInstCode );
+      return;
+    }
+    ramJobStore.triggeredJobComplete( trigger, jobDetail, triggerInstCode );
+    try {
+      releaseManualTriggerJob( trigger.getJobKey() );
+    } catch ( JobPersistenceException e ) {
+      logger.warn( "Failed to release the manual trigger copy of job '" + trigger.getJobKey() + "'", e );
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.util.Map;
+
+import org.pentaho.platform.api.scheduler2.IBackgroundExecutionStreamProvider;
+import org.pentaho.platform.api.scheduler2.IJobTrigger;
+
+/**
+ * A job to create with {@link QuartzScheduler#createJobs(java.util.List)}.
+ */
+public class JobDefinition {
+
+  private final String jobName;
+  private final Map<String, Object> jobParams;
+  private final IJobTrigger trigger;
+  private final IBackgroundExecutionStreamProvider streamProvider;
+
+  /**
+   * @param jobName        the job name
+   * @param jobParams      the job parameters, naming the action to run
+   * @param trigger        the trigger of the job
+   * @param streamProvider the output stream provider, may be {@code null}
+   */
+  public JobDefinition( String jobName, Map<String, Object> jobParams, IJobTrigger trigger,
+                        IBackgroundExecutionStreamProvider streamProvider ) {
+    this.jobName = jobName;
+    this.jobParams = jobParams;
+    this.trigger = trigger;
+    this.streamProvider = streamProvider;
+  }
+
+  public String getJobName() {
+    return jobName;
+  }
+
+  public Map<String, Object> getJobParams() {
+    return jobParams;
+  }
+
+  public IJobTrigger getTrigger() {
+    return trigger;
+  }
+
+  public IBackgroundExecutionStreamProvider getStreamProvider() {
+    return streamProvider;
+  }
+}
@@ -0,0 +1,169 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.impl.jdbcjobstore.LockException;
+import org.quartz.impl.jdbcjobstore.Semaphore;
+import org.quartz.impl.jdbcjobstore.StdRowLockSemaphore;
+import org.quartz.utils.DBConnectionManager;
+
+/**
+ * The lock {@link QuartzScheduler} holds while it reads a job and writes it back, e.g. to update its job data or to
+ * normalize its trigger.
+ *
+ * <p>When the job store is clustered, the write lock is also a row lock of the Quartz locks table, taken in a
+ * transaction of its own for as long as the lock is held, so that the same read and write on another server waits for
+ * it. The row is not one of the rows the job store locks itself, and the job store calls made while holding the lock
+ * run in their own transactions as usual. If the row lock cannot be taken, the lock is held on this server only and a
+ * warning is logged.</p>
+ *
+ * <p>Only {@link java.util.concurrent.locks.Lock#lock()} and {@link java.util.concurrent.locks.Lock#unlock()} of the
+ * write lock take and release the row lock.</p>
+ */
+class JobDetailLock extends ReentrantReadWriteLock {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Log logger = LogFactory.getLog( JobDetailLock.class );
+
+  static final String LOCK_NAME = "PENTAHO_JOB_ACCESS";
+
+  private final WriteLock writeLock = new ClusterWriteLock( this );
+
+  private transient volatile ClusterRowLock rowLock;
+
+  /**
+   * Makes the write lock exclusive across the servers sharing the Quartz database, or on this server only when
+   * {@code null}.
+   */
+  void setRowLock( ClusterRowLock rowLock ) {
+    this.rowLock = rowLock;
+  }
+
+  ClusterRowLock getRowLock() {
+    return rowLock;
+  }
+
+  @Override
+  public WriteLock writeLock() {
+    return writeLock;
+  }
+
+  private class ClusterWriteLock extends WriteLock {
+
+    private static final long serialVersionUID = 1L;
+
+    // the row lock taken by the current holder, if any
+    private transient ClusterRowLock heldRowLock;
+
+    ClusterWriteLock( ReentrantReadWriteLock lock ) {
+      super( lock );
+    }
+
+    @Override
+    public void lock() {
+      super.lock();
+      ClusterRowLock clusterLock = rowLock;
+      if ( getHoldCount() == 1 && clusterLock != null ) {
+        try {
+          clusterLock.lock();
+          heldRowLock = clusterLock;
+        } catch ( SQLException | LockException e ) {
+          logger.warn( "Unable to lock the scheduler jobs across the cluster, locking them on this server only", e );
+        }
+      }
+    }
+
+    @Override
+    public void unlock() {
+      if ( getHoldCount() == 1 && heldRowLock != null ) {
+        ClusterRowLock clusterLock = heldRowLock;
+        heldRowLock = null;
+        clusterLock.unlock();
+      }
+      super.unlock();
+    }
+  }
+
+  /**
+   * A row of the Quartz locks table, locked in a transaction of its own.
+   */
+  static class ClusterRowLock {
+    private final String dataSource;
+    private final Semaphore semaphore;
+
+    // the transaction holding the row lock; used by the holder of the write lock only
+    private Connection connection;
+
+    /**
+     * @param dataSource    the name of the Quartz data source
+     * @param tablePrefix   the prefix of the Quartz tables
+     * @param schedulerName the scheduler instance name shared by the cluster
+     */
+    ClusterRowLock( String dataSource, String tablePrefix, String schedulerName ) {
+      this.dataSource = dataSource;
+      this.semaphore = new StdRowLockSemaphore( tablePrefix, schedulerName, null );
+    }
+
+    void lock() throws SQLException, LockException {
+      Connection lockConnection = DBConnectionManager.getInstance().getConnection( dataSource );
+      try {
+        lockConnection.setAutoCommit( false );
+        semaphore.obtainLock( lockConnection, LOCK_NAME );
+      } catch ( SQLException | LockException | RuntimeException e ) {
+        close( lockConnection, false );
+        throw e;
+      }
+      connection = lockConnection;
+    }
+
+    void unlock() {
+      Connection lockConnection = connection;
+      connection = null;
+      try {
+        semaphore.releaseLock( LOCK_NAME );
+      } catch ( LockException e ) {
+        logger.warn( e.getMessage(), e );
+      }
+      if ( lockConnection != null ) {
+        close( lockConnection, true );
+      }
+    }
+
+    private static void close( Connection lockConnection, boolean commit ) {
+      try {
+        if ( commit ) {
+          lockConnection.commit();
+        } else {
+          lockConnection.rollback();
+        }
+      } catch ( SQLException e ) {
+        logger.warn( "Unable to release the scheduler cluster lock", e );
+      } finally {
+        try {
+          lockConnection.close();
+        } catch ( SQLException e ) {
+          logger.debug( e.getMessage(), e );
+        }
+      }
+    }
+  }
+}
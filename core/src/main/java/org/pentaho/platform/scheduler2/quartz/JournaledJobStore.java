@@ -0,0 +1,946 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.quartz.Calendar;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.JobPersistenceException;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.simpl.RAMJobStore;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.SchedulerSignaler;
+import org.quartz.spi.TriggerFiredResult;
+
+/**
+ * A job store for single server installations, keeping the jobs, triggers and calendars in memory like the
+ * {@link RAMJobStore} and journaling their changes to files instead of writing them to the Quartz database.
+ *
+ * <p>The changes made by one call are appended as one checksummed frame to a memory-mapped log, and the call returns
+ * once the frame is on disk. Concurrent calls share the same sync of the log, see {@link MappedAppendLog}. When the
+ * log is full, the whole state is written to a snapshot and a new log is started; the same happens at startup and
+ * shutdown. At startup, the latest complete snapshot is read and the logs written after it are replayed up to the
+ * first frame cut short by a crash.</p>
+ *
+ * <p>Each change is serialized on its own within its frame, so that a change which can no longer be read, e.g. a job
+ * of a class removed since, is skipped at startup without the other changes of its frame. The files such changes
+ * were read from are then kept in a subdirectory of the journal directory rather than deleted by the first
+ * snapshot.</p>
+ *
+ * <p>When a frame cannot be written to the log, the call fails and the store refuses every later change until the
+ * scheduler is restarted: the change is in memory already, and the journal would go on without it.</p>
+ *
+ * <p>Selected in quartz.properties with {@code org.quartz.jobStore.class}, and configured with the
+ * {@code org.quartz.jobStore.journalDirectory}, {@code logSize} and {@code syncCommits} properties.</p>
+ */
+public class JournaledJobStore extends RAMJobStore {
+
+  private static final Log logger = LogFactory.getLog( JournaledJobStore.class );
+
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String LOG_PREFIX = "log-";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+  private static final String UNRECOVERED_PREFIX = "unrecovered-";
+  private static final byte[] SNAPSHOT_END = "SNAPSHOT_END".getBytes( StandardCharsets.US_ASCII );
+
+  static final String DEFAULT_JOURNAL_DIRECTORY = "system/tmp/scheduler-store";
+
+  private static final int MIN_LOG_SIZE = 4096;
+  private static final int SNAPSHOT_BATCH_SIZE = 500;
+
+  static final byte END = 0;
+  static final byte JOB = 1;
+  static final byte JOB_REMOVED = 2;
+  static final byte TRIGGER = 3;
+  static final byte TRIGGER_REMOVED = 4;
+  static final byte CALENDAR = 5;
+  static final byte CALENDAR_REMOVED = 6;
+  static final byte PAUSE_TRIGGERS = 7;
+  static final byte RESUME_TRIGGERS = 8;
+  static final byte PAUSE_JOBS = 9;
+  static final byte RESUME_JOBS = 10;
+  static final byte PAUSE_ALL = 11;
+  static final byte RESUME_ALL = 12;
+  static final byte CLEAR_ALL = 13;
+
+  private String journalDirectory = DEFAULT_JOURNAL_DIRECTORY;
+  private int logSize = 16 * 1024 * 1024;
+  private boolean syncCommits = true;
+
+  private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+
+  private File directory;
+  private ClassLoadHelper loadHelper;
+  private MappedAppendLog log;
+  private long generation;
+  private boolean recovering;
+  private int skippedChanges;
+
+  // the failure to write to the log, after which no change is accepted
+  private volatile IOException journalFailure;
+
+  public void setJournalDirectory( String journalDirectory ) {
+    this.journalDirectory = journalDirectory;
+  }
+
+  public String getJournalDirectory() {
+    return journalDirectory;
+  }
+
+  /**
+   * The size of a log file, in bytes. The state is written to a new snapshot each time a log is full.
+   */
+  public void setLogSize( int logSize ) {
+    this.logSize = Math.max( MIN_LOG_SIZE, logSize );
+  }
+
+  public int getLogSize() {
+    return logSize;
+  }
+
+  /**
+   * When {@code false}, the changes are left for the operating system to write, and the changes of the last seconds
+   * may be lost if the server crashes.
+   */
+  public void setSyncCommits( boolean syncCommits ) {
+    this.syncCommits = syncCommits;
+  }
+
+  public boolean isSyncCommits() {
+    return syncCommits;
+  }
+
+  /**
+   * The number of the current log, increased by each snapshot.
+   */
+  long getGeneration() {
+    synchronized ( lock ) {
+      return generation;
+    }
+  }
+
+  @Override
+  public void initialize( ClassLoadHelper loadHelper, SchedulerSignaler signaler ) {
+    super.initialize( loadHelper, signaler );
+    this.loadHelper = loadHelper;
+    directory = new File( journalDirectory );
+    if ( !directory.isAbsolute() && PentahoSystem.getApplicationContext() != null ) {
+      directory = new File( PentahoSystem.getApplicationContext().getSolutionPath( journalDirectory ) );
+    }
+    synchronized ( lock ) {
+      try {
+        if ( !directory.isDirectory() && !directory.mkdirs() ) {
+          throw new IOException( "Unable to create " + directory );
+        }
+        recover();
+        if ( skippedChanges > 0 ) {
+          keepUnrecoveredFiles();
+        }
+        checkpoint();
+      } catch ( IOException e ) {
+        // the jobs would silently stop being persisted
+        throw new IllegalStateException( "Unable to open the scheduler journal in " + directory, e );
+      }
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    synchronized ( lock ) {
+      if ( log != null ) {
+        try {
+          if ( journalFailure == null ) {
+            // the next startup reads a snapshot only
+            checkpoint();
+          }
+          log.close();
+        } catch ( IOException e ) {
+          logger.error( "Unable to write the scheduler snapshot in " + directory, e );
+        }
+        log = null;
+      }
+    }
+    super.shutdown();
+  }
+
+  @Override
+  public void storeJobAndTrigger( JobDetail newJob, OperableTrigger newTrigger ) throws JobPersistenceException {
+    journaled( () -> {
+      super.storeJobAndTrigger( newJob, newTrigger );
+      return null;
+    } );
+  }
+
+  @Override
+  public void storeJobsAndTriggers( Map<JobDetail, Set<? extends Trigger>> triggersAndJobs, boolean replace )
+    throws JobPersistenceException {
+    journaled( () -> {
+      super.storeJobsAndTriggers( triggersAndJobs, replace );
+      return null;
+    } );
+  }
+
+  @Override
+  public void storeJob( JobDetail newJob, boolean replaceExisting ) throws ObjectAlreadyExistsException {
+    try {
+      journaled( () -> {
+        super.storeJob( newJob, replaceExisting );
+        recordJob( newJob.getKey() );
+        return null;
+      } );
+    } catch ( ObjectAlreadyExistsException e ) {
+      throw e;
+    } catch ( JobPersistenceException e ) {
+      throw new IllegalStateException( "Unable to journal the job " + newJob.getKey(), e );
+    }
+  }
+
+  @Override
+  public boolean removeJob( JobKey jobKey ) {
+    return journaledUnchecked( () -> {
+      List<OperableTrigger> triggers = getTriggersForJob( jobKey );
+      boolean removed = super.removeJob( jobKey );
+      recordJob( jobKey );
+      for ( OperableTrigger trigger : triggers ) {
+        recordTrigger( trigger.getKey() );
+      }
+      return removed;
+    } );
+  }
+
+  @Override
+  public boolean removeJobs( List<JobKey> jobKeys ) throws JobPersistenceException {
+    return journaled( () -> super.removeJobs( jobKeys ) );
+  }
+
+  @Override
+  public void storeTrigger( OperableTrigger newTrigger, boolean replaceExisting ) throws JobPersistenceException {
+    journaled( () -> {
+      super.storeTrigger( newTrigger, replaceExisting );
+      recordTrigger( newTrigger.getKey() );
+      return null;
+    } );
+  }
+
+  @Override
+  public boolean removeTrigger( TriggerKey triggerKey ) {
+    return journaledUnchecked( () -> {
+      OperableTrigger trigger = retrieveTrigger( triggerKey );
+      boolean removed = super.removeTrigger( triggerKey );
+      recordTrigger( triggerKey );
+      if ( trigger != null ) {
+        // removed along with its last trigger when not durable
+        recordJob( trigger.getJobKey() );
+      }
+      return removed;
+    } );
+  }
+
+  @Override
+  public boolean removeTriggers( List<TriggerKey> triggerKeys ) throws JobPersistenceException {
+    return journaled( () -> super.removeTriggers( triggerKeys ) );
+  }
+
+  @Override
+  public boolean replaceTrigger( TriggerKey triggerKey, OperableTrigger newTrigger ) throws JobPersistenceException {
+    return journaled( () -> {
+      boolean replaced = super.replaceTrigger( triggerKey, newTrigger );
+      recordTrigger( triggerKey );
+      recordTrigger( newTrigger.getKey() );
+      return replaced;
+    } );
+  }
+
+  @Override
+  public void clearAllSchedulingData() throws JobPersistenceException {
+    journaled( () -> {
+      super.clearAllSchedulingData();
+      recordOperation( CLEAR_ALL, null );
+      return null;
+    } );
+  }
+
+  @Override
+  public void storeCalendar( String name, Calendar calendar, boolean replaceExisting, boolean updateTriggers )
+    throws ObjectAlreadyExistsException {
+    try {
+      journaled( () -> {
+        super.storeCalendar( name, calendar, replaceExisting, updateTriggers );
+        recordCalendar( name );
+        if ( updateTriggers ) {
+          for ( TriggerKey triggerKey : getTriggerKeys( GroupMatcher.anyTriggerGroup() ) ) {
+            OperableTrigger trigger = retrieveTrigger( triggerKey );
+            if ( trigger != null && name.equals( trigger.getCalendarName() ) ) {
+              recordTrigger( triggerKey );
+            }
+          }
+        }
+        return null;
+      } );
+    } catch ( ObjectAlreadyExistsException e ) {
+      throw e;
+    } catch ( JobPersistenceException e ) {
+      throw new IllegalStateException( "Unable to journal the calendar " + name, e );
+    }
+  }
+
+  @Override
+  public boolean removeCalendar( String calName ) throws JobPersistenceException {
+    return journaled( () -> {
+      boolean removed = super.removeCalendar( calName );
+      recordCalendar( calName );
+      return removed;
+    } );
+  }
+
+  @Override
+  public void resetTriggerFromErrorState( TriggerKey triggerKey ) throws JobPersistenceException {
+    journaled( () -> {
+      super.resetTriggerFromErrorState( triggerKey );
+      recordTrigger( triggerKey );
+      return null;
+    } );
+  }
+
+  @Override
+  public void pauseTrigger( TriggerKey triggerKey ) {
+    journaledUnchecked( () -> {
+      super.pauseTrigger( triggerKey );
+      recordTrigger( triggerKey );
+      return null;
+    } );
+  }
+
+  @Override
+  public void resumeTrigger( TriggerKey triggerKey ) {
+    journaledUnchecked( () -> {
+      super.resumeTrigger( triggerKey );
+      recordTrigger( triggerKey );
+      return null;
+    } );
+  }
+
+  @Override
+  public void pauseJob( JobKey jobKey ) {
+    journaledUnchecked( () -> {
+      super.pauseJob( jobKey );
+      recordTriggersOfJob( jobKey );
+      return null;
+    } );
+  }
+
+  @Override
+  public void resumeJob( JobKey jobKey ) {
+    journaledUnchecked( () -> {
+      super.resumeJob( jobKey );
+      recordTriggersOfJob( jobKey );
+      return null;
+    } );
+  }
+
+  // the group operations are journaled as they are, since they also pause the triggers and jobs added to the groups
+  // later on
+
+  @Override
+  public List<String> pauseTriggers( GroupMatcher<TriggerKey> matcher ) {
+    return journaledUnchecked( () -> {
+      List<String> groups = new ArrayList<>( super.pauseTriggers( matcher ) );
+      recordOperation( PAUSE_TRIGGERS, matcher );
+      return groups;
+    } );
+  }
+
+  @Override
+  public List<String> resumeTriggers( GroupMatcher<TriggerKey> matcher ) {
+    return journaledUnchecked( () -> {
+      List<String> groups = new ArrayList<>( super.resumeTriggers( matcher ) );
+      recordOperation( RESUME_TRIGGERS, matcher );
+      return groups;
+    } );
+  }
+
+  @Override
+  public List<String> pauseJobs( GroupMatcher<JobKey> matcher ) {
+    return journaledUnchecked( () -> {
+      List<String> groups = new ArrayList<>( super.pauseJobs( matcher ) );
+      recordOperation( PAUSE_JOBS, matcher );
+      return groups;
+    } );
+  }
+
+  @Override
+  public List<String> resumeJobs( GroupMatcher<JobKey> matcher ) {
+    return journaledUnchecked( () -> {
+      List<String> groups = new ArrayList<>( super.resumeJobs( matcher ) );
+      recordOperation( RESUME_JOBS, matcher );
+      return groups;
+    } );
+  }
+
+  @Override
+  public void pauseAll() {
+    journaledUnchecked( () -> {
+      super.pauseAll();
+      recordOperation( PAUSE_ALL, null );
+      return null;
+    } );
+  }
+
+  @Override
+  public void resumeAll() {
+    journaledUnchecked( () -> {
+      super.resumeAll();
+      recordOperation( RESUME_ALL, null );
+      return null;
+    } );
+  }
+
+  @Override
+  public List<TriggerFiredResult> triggersFired( List<OperableTrigger> firedTriggers ) {
+    try {
+      return journaled( () -> {
+        List<TriggerFiredResult> results = super.triggersFired( firedTriggers );
+        for ( OperableTrigger trigger : firedTriggers ) {
+          recordTrigger( trigger.getKey() );
+        }
+        return results;
+      } );
+    } catch ( JobPersistenceException e ) {
+      // the scheduler thread logs the failure and releases the triggers
+      List<TriggerFiredResult> results = new ArrayList<>();
+      for ( int i = 0; i < firedTriggers.size(); i++ ) {
+        results.add( new TriggerFiredResult( new IllegalStateException( e.getMessage(), e ) ) );
+      }
+      return results;
+    }
+  }
+
+  @Override
+  public void triggeredJobComplete( OperableTrigger trigger, JobDetail jobDetail,
+                                    CompletedExecutionInstruction triggerInstCode ) {
+    journaledUnchecked( () -> {
+      super.triggeredJobComplete( trigger, jobDetail, triggerInstCode );
+      recordTrigger( trigger.getKey() );
+      if ( jobDetail.isPersistJobDataAfterExecution() ) {
+        recordJob( jobDetail.getKey() );
+      }
+      return null;
+    } );
+  }
+
+  /**
+   * Applies a change and journals what it changed, as one frame written once the outermost call returns.
+   */
+  private <T> T journaled( Mutation<T> mutation ) throws JobPersistenceException {
+    if ( recovering || transaction.get() != null ) {
+      // replayed, or part of the change of an enclosing call
+      return mutation.apply();
+    }
+    Transaction current = new Transaction();
+    MappedAppendLog appendedTo = null;
+    int position = 0;
+    T result;
+    synchronized ( lock ) {
+      checkJournal();
+      transaction.set( current );
+      try {
+        result = mutation.apply();
+      } finally {
+        transaction.remove();
+        // appended in the lock, so the frames are in the order of the changes; a failed call may have changed part of
+        // the state already, which is journaled all the same
+        byte[] frame = null;
+        try {
+          if ( current.count > 0 ) {
+            frame = current.toByteArray();
+          }
+        } catch ( IOException e ) {
+          // the change cannot be serialized, the journal goes on without it
+          current.fail( e );
+        }
+        try {
+          if ( frame != null && log != null ) {
+            if ( log.append( frame ) ) {
+              appendedTo = log;
+              position = log.getPosition();
+            } else {
+              // the snapshot includes this change
+              checkpoint();
+            }
+          }
+        } catch ( IOException e ) {
+          journalFailed( e );
+          current.fail( e );
+        }
+      }
+    }
+    if ( current.failure == null && appendedTo != null && syncCommits ) {
+      try {
+        appendedTo.sync( position );
+      } catch ( IOException e ) {
+        journalFailed( e );
+        current.fail( e );
+      }
+    }
+    if ( current.failure != null ) {
+      throw new JobPersistenceException( "Unable to journal a change of the scheduler; it is kept in memory only",
+        current.failure );
+    }
+    return result;
+  }
+
+  /**
+   * {@link #journaled(Mutation)}, for the changes the {@link RAMJobStore} declares without checked exceptions: the
+   * failures are thrown as {@link IllegalStateException}.
+   */
+  private <T> T journaledUnchecked( Mutation<T> mutation ) {
+    try {
+      return journaled( mutation );
+    } catch ( JobPersistenceException e ) {
+      throw new IllegalStateException( e.getMessage(), e );
+    }
+  }
+
+  private void checkJournal() throws JobPersistenceException {
+    IOException failure = journalFailure;
+    if ( failure != null ) {
+      throw new JobPersistenceException(
+        "The scheduler journal in " + directory + " failed; no change is accepted until the scheduler is restarted",
+        failure );
+    }
+  }
+
+  private void journalFailed( IOException failure ) {
+    if ( journalFailure == null ) {
+      logger.error( "Unable to write to the scheduler journal in " + directory
+        + "; no change is accepted until the scheduler is restarted", failure );
+      journalFailure = failure;
+    }
+  }
+
+  private void recordJob( JobKey jobKey ) {
+    Transaction current = transaction.get();
+    if ( current != null ) {
+      JobDetail jobDetail = retrieveJob( jobKey );
+      if ( jobDetail != null ) {
+        current.write( JOB, jobDetail );
+      } else {
+        current.write( JOB_REMOVED, jobKey.getName(), jobKey.getGroup() );
+      }
+    }
+  }
+
+  private void recordTrigger( TriggerKey triggerKey ) {
+    Transaction current = transaction.get();
+    if ( current != null ) {
+      OperableTrigger trigger = retrieveTrigger( triggerKey );
+      if ( trigger != null ) {
+        current.write( TRIGGER, trigger, getTriggerStateQuietly( triggerKey ).name() );
+      } else {
+        current.write( TRIGGER_REMOVED, triggerKey.getName(), triggerKey.getGroup() );
+      }
+    }
+  }
+
+  private void recordTriggersOfJob( JobKey jobKey ) {
+    if ( transaction.get() != null ) {
+      for ( OperableTrigger trigger : getTriggersForJob( jobKey ) ) {
+        recordTrigger( trigger.getKey() );
+      }
+    }
+  }
+
+  private void recordCalendar( String name ) {
+    Transaction current = transaction.get();
+    if ( current != null ) {
+      Calendar calendar = retrieveCalendar( name );
+      if ( calendar != null ) {
+        current.write( CALENDAR, name, calendar );
+      } else {
+        current.write( CALENDAR_REMOVED, name );
+      }
+    }
+  }
+
+  private void recordOperation( byte type, GroupMatcher<?> matcher ) {
+    Transaction current = transaction.get();
+    if ( current != null ) {
+      if ( matcher != null ) {
+        current.write( type, matcher );
+      } else {
+        current.write( type );
+      }
+    }
+  }
+
+  private TriggerState getTriggerStateQuietly( TriggerKey triggerKey ) {
+    try {
+      return getTriggerState( triggerKey );
+    } catch ( JobPersistenceException e ) {
+      return TriggerState.NORMAL;
+    }
+  }
+
+  /**
+   * Writes the whole state to a new snapshot, starts a new log and deletes the files of the previous ones. Called in
+   * the lock.
+   */
+  private void checkpoint() throws IOException {
+    long next = generation + 1;
+    MappedAppendLog nextLog = MappedAppendLog.create( file( LOG_PREFIX, next ), logSize );
+    try {
+      File snapshot = file( SNAPSHOT_PREFIX, next );
+      File temporary = new File( directory, snapshot.getName() + TEMPORARY_SUFFIX );
+      try ( FileOutputStream out = new FileOutputStream( temporary ) ) {
+        writeSnapshot( out, next );
+        out.getChannel().force( true );
+      }
+      Files.move( temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE );
+    } catch ( IOException e ) {
+      nextLog.close();
+      throw e;
+    }
+    if ( log != null ) {
+      log.close();
+    }
+    log = nextLog;
+    generation = next;
+
+    File[] files = directory.listFiles();
+    if ( files != null ) {
+      for ( File file : files ) {
+        long fileGeneration = generationOf( file );
+        if ( fileGeneration >= 0 && fileGeneration < next || file.getName().endsWith( TEMPORARY_SUFFIX ) ) {
+          Files.deleteIfExists( file.toPath() );
+        }
+      }
+    }
+  }
+
+  private void writeSnapshot( FileOutputStream out, long snapshotGeneration ) throws IOException {
+    List<Transaction> batches = new ArrayList<>();
+    Transaction batch = new Transaction();
+    batches.add( batch );
+    for ( String name : getCalendarNames() ) {
+      batch.write( CALENDAR, name, retrieveCalendar( name ) );
+    }
+    // before the triggers, which are stored paused in the paused groups
+    for ( String group : pausedTriggerGroups ) {
+      batch.write( PAUSE_TRIGGERS, GroupMatcher.triggerGroupEquals( group ) );
+    }
+    for ( String group : pausedJobGroups ) {
+      batch.write( PAUSE_JOBS, GroupMatcher.jobGroupEquals( group ) );
+    }
+    for ( JobKey jobKey : getJobKeys( GroupMatcher.anyJobGroup() ) ) {
+      if ( batch.count >= SNAPSHOT_BATCH_SIZE ) {
+        batch = new Transaction();
+        batches.add( batch );
+      }
+      batch.write( JOB, retrieveJob( jobKey ) );
+    }
+    for ( TriggerKey triggerKey : getTriggerKeys( GroupMatcher.anyTriggerGroup() ) ) {
+      if ( batch.count >= SNAPSHOT_BATCH_SIZE ) {
+        batch = new Transaction();
+        batches.add( batch );
+      }
+      batch.write( TRIGGER, retrieveTrigger( triggerKey ), getTriggerStateQuietly( triggerKey ).name() );
+    }
+    for ( Transaction written : batches ) {
+      MappedAppendLog.writeFrame( out, written.toByteArray() );
+    }
+    MappedAppendLog.writeFrame( out, snapshotEnd( snapshotGeneration ) );
+  }
+
+  /**
+   * Reads the latest complete snapshot and replays the logs written after it.
+   */
+  private void recover() throws IOException {
+    TreeSet<Long> snapshots = new TreeSet<>();
+    TreeSet<Long> logs = new TreeSet<>();
+    File[] files = directory.listFiles();
+    if ( files != null ) {
+      for ( File file : files ) {
+        long fileGeneration = generationOf( file );
+        if ( fileGeneration >= 0 ) {
+          ( file.getName().startsWith( SNAPSHOT_PREFIX ) ? snapshots : logs ).add( fileGeneration );
+        }
+      }
+    }
+
+    long start = logs.isEmpty() ? 0 : logs.first();
+    int changes = 0;
+    recovering = true;
+    try {
+      for ( Long snapshotGeneration : snapshots.descendingSet() ) {
+        List<byte[]> frames = MappedAppendLog.readFrames( file( SNAPSHOT_PREFIX, snapshotGeneration ) );
+        if ( !frames.isEmpty()
+          && Arrays.equals( frames.get( frames.size() - 1 ), snapshotEnd( snapshotGeneration ) ) ) {
+          for ( byte[] frame : frames.subList( 0, frames.size() - 1 ) ) {
+            replay( frame );
+          }
+          start = snapshotGeneration;
+          break;
+        }
+        logger.warn( "Ignoring the incomplete scheduler snapshot " + file( SNAPSHOT_PREFIX, snapshotGeneration ) );
+      }
+      for ( Long logGeneration : logs.tailSet( start ) ) {
+        for ( byte[] frame : MappedAppendLog.readFrames( file( LOG_PREFIX, logGeneration ) ) ) {
+          replay( frame );
+          changes++;
+        }
+      }
+    } finally {
+      recovering = false;
+    }
+    generation = Math.max( snapshots.isEmpty() ? 0 : snapshots.last(), logs.isEmpty() ? 0 : logs.last() );
+    if ( generation > 0 ) {
+      logger.info( "Scheduler state recovered from " + directory + ": " + jobsByKey.size() + " jobs, " + changes
+        + " changes replayed" );
+    }
+  }
+
+  /**
+   * Replays the changes of a frame, skipping those that cannot be read or applied.
+   */
+  private void replay( byte[] frame ) {
+    DataInputStream records = new DataInputStream( new ByteArrayInputStream( frame ) );
+    try {
+      for ( byte type = records.readByte(); type != END; type = records.readByte() ) {
+        byte[] record = new byte[ records.readInt() ];
+        records.readFully( record );
+        try ( ObjectInputStream in = new LoadHelperObjectInputStream( new ByteArrayInputStream( record ),
+          loadHelper ) ) {
+          in.setObjectInputFilter( SchedulerSnapshot.CLASS_FILTER );
+          apply( type, in );
+        } catch ( IOException | ClassNotFoundException | JobPersistenceException | RuntimeException e ) {
+          skippedChanges++;
+          logger.warn( "Unable to replay a change of the scheduler, skipping it", e );
+        }
+      }
+    } catch ( IOException | RuntimeException e ) {
+      skippedChanges++;
+      logger.warn( "Unable to replay the rest of a change of the scheduler", e );
+    }
+  }
+
+  /**
+   * Copies the snapshots and logs to a subdirectory, since the next snapshot leaves out the changes that could not be
+   * replayed. Called in the lock.
+   */
+  private void keepUnrecoveredFiles() throws IOException {
+    File kept = new File( directory, UNRECOVERED_PREFIX + generation );
+    if ( !kept.isDirectory() && !kept.mkdirs() ) {
+      throw new IOException( "Unable to create " + kept );
+    }
+    File[] files = directory.listFiles();
+    if ( files != null ) {
+      for ( File file : files ) {
+        if ( generationOf( file ) >= 0 ) {
+          Files.copy( file.toPath(), new File( kept, file.getName() ).toPath(),
+            StandardCopyOption.REPLACE_EXISTING );
+        }
+      }
+    }
+    logger.error( skippedChanges + " changes of the scheduler could not be recovered from " + directory
+      + "; the files they were read from are kept in " + kept );
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private void apply( byte type, ObjectInputStream in )
+    throws IOException, ClassNotFoundException, JobPersistenceException {
+    switch ( type ) {
+      case JOB:
+        super.storeJob( (JobDetail) in.readObject(), true );
+        break;
+      case JOB_REMOVED:
+        super.removeJob( new JobKey( (String) in.readObject(), (String) in.readObject() ) );
+        break;
+      case TRIGGER:
+        OperableTrigger trigger = (OperableTrigger) in.readObject();
+        TriggerState state = TriggerState.valueOf( (String) in.readObject() );
+        super.storeTrigger( trigger, true );
+        // stored paused when in a paused group, and waiting otherwise
+        if ( state == TriggerState.PAUSED || state == TriggerState.PAUSED_BLOCKED ) {
+          super.pauseTrigger( trigger.getKey() );
+        } else if ( getTriggerState( trigger.getKey() ) == TriggerState.PAUSED ) {
+          super.resumeTrigger( trigger.getKey() );
+        }
+        break;
+      case TRIGGER_REMOVED:
+        super.removeTrigger( new TriggerKey( (String) in.readObject(), (String) in.readObject() ) );
+        break;
+      case CALENDAR:
+        super.storeCalendar( (String) in.readObject(), (Calendar) in.readObject(), true, false );
+        break;
+      case CALENDAR_REMOVED:
+        super.removeCalendar( (String) in.readObject() );
+        break;
+      case PAUSE_TRIGGERS:
+        super.pauseTriggers( (GroupMatcher<TriggerKey>) in.readObject() );
+        break;
+      case RESUME_TRIGGERS:
+        super.resumeTriggers( (GroupMatcher<TriggerKey>) in.readObject() );
+        break;
+      case PAUSE_JOBS:
+        super.pauseJobs( (GroupMatcher<JobKey>) in.readObject() );
+        break;
+      case RESUME_JOBS:
+        super.resumeJobs( (GroupMatcher<JobKey>) in.readObject() );
+        break;
+      case PAUSE_ALL:
+        super.pauseAll();
+        break;
+      case RESUME_ALL:
+        super.resumeAll();
+        break;
+      case CLEAR_ALL:
+        super.clearAllSchedulingData();
+        break;
+      default:
+        throw new IOException( "Unknown scheduler change " + type );
+    }
+  }
+
+  private File file( String prefix, long fileGeneration ) {
+    return new File( directory, prefix + fileGeneration );
+  }
+
+  private static long generationOf( File file ) {
+    String name = file.getName();
+    String number;
+    if ( name.startsWith( SNAPSHOT_PREFIX ) ) {
+      number = name.substring( SNAPSHOT_PREFIX.length() );
+    } else if ( name.startsWith( LOG_PREFIX ) ) {
+      number = name.substring( LOG_PREFIX.length() );
+    } else {
+      return -1;
+    }
+    try {
+      return Long.parseLong( number );
+    } catch ( NumberFormatException e ) {
+      return -1;
+    }
+  }
+
+  private static byte[] snapshotEnd( long snapshotGeneration ) {
+    byte[] end = Arrays.copyOf( SNAPSHOT_END, SNAPSHOT_END.length + Long.BYTES );
+    for ( int i = 0; i < Long.BYTES; i++ ) {
+      end[ SNAPSHOT_END.length + i ] = (byte) ( snapshotGeneration >>> ( 8 * ( Long.BYTES - 1 - i ) ) );
+    }
+    return end;
+  }
+
+  private interface Mutation<T> {
+    T apply() throws JobPersistenceException;
+  }
+
+  /**
+   * The changes of one call, serialized as they are recorded: per change, a type byte and the length of its objects
+   * serialized in a stream of their own, followed by them; and an {@link #END} byte.
+   */
+  private static class Transaction {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream( bytes );
+    private int count;
+    private IOException failure;
+
+    void write( byte type, Object... objects ) {
+      if ( failure != null ) {
+        return;
+      }
+      try {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try ( ObjectOutputStream recordOut = new ObjectOutputStream( record ) ) {
+          for ( Object object : objects ) {
+            recordOut.writeObject( object );
+          }
+        }
+        out.writeByte( type );
+        out.writeInt( record.size() );
+        record.writeTo( out );
+        count++;
+      } catch ( IOException e ) {
+        fail( e );
+      }
+    }
+
+    void fail( IOException e ) {
+      if ( failure == null ) {
+        failure = e;
+      }
+    }
+
+    byte[] toByteArray() throws IOException {
+      if ( failure != null ) {
+        throw failure;
+      }
+      out.writeByte( END );
+      out.flush();
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Resolves the classes of the journaled objects the way the scheduler loads the job classes.
+   */
+  private static class LoadHelperObjectInputStream extends ObjectInputStream {
+    private final ClassLoadHelper loadHelper;
+
+    LoadHelperObjectInputStream( InputStream in, ClassLoadHelper loadHelper ) throws IOException {
+      super( in );
+      this.loadHelper = loadHelper;
+    }
+
+    @Override
+    protected Class<?> resolveClass( ObjectStreamClass desc ) throws IOException, ClassNotFoundException {
+      try {
+        return loadHelper.loadClass( desc.getName() );
+      } catch ( ClassNotFoundException e ) {
+        return super.resolveClass( desc );
+      }
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A fixed size, memory-mapped file of checksummed frames, appended to by {@link JournaledJobStore}.
+ *
+ * <p>A frame is its payload length, the CRC-32C of its payload and the payload. The file is allocated, zero filled,
+ * when created, so the frames end at the first zero length, at the end of the file, or at the first frame cut short or
+ * damaged by a crash.</p>
+ *
+ * <p>Appending only copies the frame to the mapped memory. {@link #sync(int)} makes the frames durable up to a
+ * position, and is a group commit: the callers waiting while the file is being forced find their frames forced
+ * along with the frames of the caller that forced it, and return without forcing it again.</p>
+ */
+class MappedAppendLog implements Closeable {
+
+  static final int FRAME_HEADER_LENGTH = 8;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final Object syncLock = new Object();
+
+  private volatile int appended;
+  private volatile int forced;
+
+  private MappedAppendLog( FileChannel channel, MappedByteBuffer buffer ) {
+    this.channel = channel;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Creates an empty log, replacing the file if it exists.
+   */
+  static MappedAppendLog create( File file, int capacity ) throws IOException {
+    try ( RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" ) ) {
+      randomAccessFile.setLength( 0 );
+      randomAccessFile.setLength( capacity );
+    }
+    FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE );
+    try {
+      return new MappedAppendLog( channel, channel.map( FileChannel.MapMode.READ_WRITE, 0, capacity ) );
+    } catch ( IOException e ) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Copies a frame to the log, unless the log has no room left for it.
+   *
+   * @return {@code false} when the log is full
+   */
+  synchronized boolean append( byte[] payload ) {
+    int position = appended;
+    if ( (long) position + FRAME_HEADER_LENGTH + payload.length > buffer.capacity() ) {
+      return false;
+    }
+    ByteBuffer frame = buffer.duplicate();
+    frame.position( position );
+    frame.putInt( payload.length ).putInt( checksum( payload ) ).put( payload );
+    appended = frame.position();
+    return true;
+  }
+
+  /**
+   * The position following the last frame appended.
+   */
+  int getPosition() {
+    return appended;
+  }
+
+  /**
+   * Returns once the frames appended before {@code position} are on disk.
+   */
+  void sync( int position ) throws IOException {
+    if ( forced >= position ) {
+      return;
+    }
+    synchronized ( syncLock ) {
+      if ( forced < position ) {
+        int target = appended;
+        buffer.force();
+        forced = target;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      sync( appended );
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Writes a frame to a stream, for the files written at once rather than appended to.
+   */
+  static void writeFrame( OutputStream out, byte[] payload ) throws IOException {
+    DataOutputStream data = new DataOutputStream( out );
+    data.writeInt( payload.length );
+    data.writeInt( checksum( payload ) );
+    data.write( payload );
+    data.flush();
+  }
+
+  /**
+   * Reads the payloads of the valid frames of a file, up to the first missing or damaged one.
+   */
+  static List<byte[]> readFrames( File file ) throws IOException {
+    List<byte[]> payloads = new ArrayList<>();
+    long remaining = file.length();
+    try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+      while ( remaining >= FRAME_HEADER_LENGTH ) {
+        int length = in.readInt();
+        int checksum = in.readInt();
+        remaining -= FRAME_HEADER_LENGTH;
+        if ( length <= 0 || length > remaining ) {
+          break;
+        }
+        byte[] payload = new byte[ length ];
+        in.readFully( payload );
+        remaining -= length;
+        if ( checksum( payload ) != checksum ) {
+          break;
+        }
+        payloads.add( payload );
+      }
+    } catch ( EOFException e ) {
+      // the file was shortened while being read; what was read is valid
+    }
+    return payloads;
+  }
+
+  private static int checksum( byte[] payload ) {
+    CRC32C crc = new CRC32C();
+    crc.update( payload, 0, payload.length );
+    return (int) crc.getValue();
+  }
+}
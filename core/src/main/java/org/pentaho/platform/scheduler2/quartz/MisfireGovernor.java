@@ -0,0 +1,453 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.quartz.CalendarIntervalTrigger;
+import org.quartz.CronTrigger;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.SchedulerListener;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerKey;
+import org.quartz.TriggerListener;
+import org.quartz.listeners.SchedulerListenerSupport;
+import org.quartz.spi.MutableTrigger;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads the catch-up executions of misfired triggers, e.g. after the server was down or the scheduler paused, so
+ * that the jobs that missed their fire time do not all run at once when the scheduler starts again.
+ *
+ * <p>Registered as a Quartz trigger listener, the governor notes each misfired trigger. When such a trigger fires its
+ * catch-up execution, the execution runs if the token bucket, refilled at the {@code misfire-recovery-rate} plugin
+ * setting in executions per second and holding up to {@code misfire-recovery-burst} tokens, has a token left.
+ * Otherwise the execution is vetoed and queued, and a background thread fires the queued jobs once each as tokens
+ * become available, the highest {@value #MISFIRE_PRIORITY_PARAM} first, then the trigger priority, then the earliest
+ * missed fire time. A rate of zero or less lets every catch-up execution run at once.</p>
+ *
+ * <p>A job chooses how its misfires are handled with the {@value #MISFIRE_POLICY_PARAM} job parameter, one of the
+ * {@link MisfirePolicy} names. The queue is held in memory only: the catch-up executions still queued when the server
+ * stops are dropped, and are detected as misfires again on the next start if the jobs have not fired since. The
+ * catch-up execution of a job deleted while queued is dropped as well, once the {@link #getDeletionListener()
+ * deletion listener} is registered with the scheduler. The deletion of a run once job by Quartz, once the trigger the
+ * governor vetoed completes, does not drop its catch-up execution.</p>
+ */
+public class MisfireGovernor implements TriggerListener {
+
+  /**
+   * Job parameter holding the {@link MisfirePolicy} of a job.
+   */
+  public static final String MISFIRE_POLICY_PARAM = "misfirePolicy";
+
+  /**
+   * Job parameter holding the priority of the catch-up execution of a job, higher first. The trigger priority is used
+   * when not set.
+   */
+  public static final String MISFIRE_PRIORITY_PARAM = "misfirePriority";
+
+  /**
+   * Trigger data key flagging a catch-up execution fired by the governor once a token was available, which is not
+   * held back again.
+   */
+  public static final String MISFIRE_RECOVERY_KEY = "ActionAdapterQuartzJob-MisfireRecovery";
+
+  /**
+   * How the misfires of a job are handled.
+   */
+  public enum MisfirePolicy {
+    /**
+     * Run one catch-up execution, at the pace of the recovery rate. The default.
+     */
+    THROTTLED,
+    /**
+     * Run one catch-up execution at once, regardless of the recovery rate.
+     */
+    IMMEDIATE,
+    /**
+     * Skip the missed executions and wait for the next fire time.
+     */
+    SKIP;
+
+    /**
+     * @return the policy named by a job parameter value, {@code null} if not set or not a policy
+     */
+    public static MisfirePolicy fromParam( final Object value ) {
+      if ( value == null ) {
+        return null;
+      }
+      try {
+        return valueOf( value.toString().trim().toUpperCase() );
+      } catch ( IllegalArgumentException e ) {
+        return null;
+      }
+    }
+  }
+
+  private static final Log logger = LogFactory.getLog( MisfireGovernor.class );
+
+  private static final String NAME = "MisfireGovernor";
+  private static final String RATE_SETTING_KEY = "settings/misfire-recovery-rate";
+  private static final String BURST_SETTING_KEY = "settings/misfire-recovery-burst";
+  private static final String DEFAULT_RATE = "2";
+  private static final String DEFAULT_BURST = "10";
+
+  private static MisfireGovernor instance;
+
+  /**
+   * Fires a queued catch-up execution, {@link QuartzScheduler#recoverMisfiredJob(JobDetail)} unless replaced for
+   * testing.
+   */
+  @FunctionalInterface
+  interface RecoveryTarget {
+    void fire( JobDetail jobDetail ) throws Exception;
+  }
+
+  private static class DeferredExecution {
+    private final JobDetail jobDetail;
+    private final int priority;
+    private final int triggerPriority;
+    private final long missedMillis;
+
+    DeferredExecution( final JobDetail jobDetail, final int priority, final int triggerPriority,
+                       final long missedMillis ) {
+      this.jobDetail = jobDetail;
+      this.priority = priority;
+      this.triggerPriority = triggerPriority;
+      this.missedMillis = missedMillis;
+    }
+  }
+
+  private final double ratePerSecond;
+  private final double burst;
+  private final RecoveryTarget target;
+  // the fire time each misfired trigger missed, until its catch-up execution
+  private final Map<TriggerKey, Long> misfires = new ConcurrentHashMap<>();
+  // the jobs Quartz deletes once the vetoed last fire of their trigger completes, see isLastFire()
+  private final Set<JobKey> deletedOnVeto = ConcurrentHashMap.newKeySet();
+  private final PriorityQueue<DeferredExecution> deferred = new PriorityQueue<>(
+    Comparator.comparingInt( ( DeferredExecution execution ) -> -execution.priority )
+      .thenComparingInt( execution -> -execution.triggerPriority )
+      .thenComparingLong( execution -> execution.missedMillis ) );
+  private final ScheduledThreadPoolExecutor executor;
+  private final AtomicLong misfired = new AtomicLong();
+  private final AtomicLong recovered = new AtomicLong();
+  private final AtomicLong deferredTotal = new AtomicLong();
+  private final AtomicLong skipped = new AtomicLong();
+  private final SchedulerListener deletionListener = new SchedulerListenerSupport() {
+    @Override
+    public void jobDeleted( final JobKey jobKey ) {
+      forgetJob( jobKey );
+    }
+  };
+  private double tokens;
+  private long refilledNanos;
+  private boolean draining;
+
+  /**
+   * @param ratePerSecond the catch-up executions allowed per second, zero or less for no limit
+   * @param burst         the catch-up executions allowed at once before the rate applies, at least 1
+   * @param target        fires the queued catch-up executions
+   */
+  MisfireGovernor( final double ratePerSecond, final int burst, final RecoveryTarget target ) {
+    this.ratePerSecond = ratePerSecond;
+    this.burst = Math.max( 1, burst );
+    this.target = target;
+    this.tokens = this.burst;
+    this.refilledNanos = System.nanoTime();
+    this.executor = new ScheduledThreadPoolExecutor( 1, runnable -> {
+      Thread thread = new Thread( runnable, "scheduler-misfire-recovery" ); //$NON-NLS-1$
+      thread.setDaemon( true );
+      return thread;
+    } );
+    this.executor.setRemoveOnCancelPolicy( true );
+  }
+
+  /**
+   * Returns the shared governor, creating it from the plugin settings on first use.
+   *
+   * @return the shared governor
+   */
+  public static synchronized MisfireGovernor getInstance() {
+    if ( instance == null ) {
+      IPluginResourceLoader resourceLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+      String rate = resourceLoader == null ? DEFAULT_RATE
+        : resourceLoader.getPluginSetting( MisfireGovernor.class, RATE_SETTING_KEY, DEFAULT_RATE );
+      String burst = resourceLoader == null ? DEFAULT_BURST
+        : resourceLoader.getPluginSetting( MisfireGovernor.class, BURST_SETTING_KEY, DEFAULT_BURST );
+      instance = new MisfireGovernor( parseDouble( rate, DEFAULT_RATE ), (int) parseDouble( burst, DEFAULT_BURST ),
+        jobDetail -> {
+          IScheduler scheduler = PentahoSystem.get( IScheduler.class, "IScheduler2", null ); //$NON-NLS-1$
+          if ( !( scheduler instanceof QuartzScheduler ) ) {
+            throw new IllegalStateException( "Misfire recovery needs a QuartzScheduler, found " + scheduler );
+          }
+          ( (QuartzScheduler) scheduler ).recoverMisfiredJob( jobDetail );
+        } );
+    }
+    return instance;
+  }
+
+  /**
+   * Stops the shared governor, if any. The queued catch-up executions are dropped.
+   */
+  public static synchronized void shutdownInstance() {
+    if ( instance != null ) {
+      instance.executor.shutdownNow();
+      int dropped = instance.getPendingCount();
+      if ( dropped > 0 ) {
+        logger.info( "Dropped " + dropped + " queued catch-up executions of misfired jobs" );
+      }
+      instance = null;
+    }
+  }
+
+  /**
+   * Sets the misfire instruction of a trigger from the {@value #MISFIRE_POLICY_PARAM} job parameter. Only
+   * {@link MisfirePolicy#SKIP} changes it, the other policies keep the fire once now instruction of the scheduler.
+   *
+   * @param trigger   the trigger of the job
+   * @param jobParams the job parameters
+   */
+  public static void applyMisfirePolicy( final MutableTrigger trigger, final Map<String, ?> jobParams ) {
+    if ( jobParams != null && MisfirePolicy.fromParam( jobParams.get( MISFIRE_POLICY_PARAM ) ) == MisfirePolicy.SKIP ) {
+      trigger.setMisfireInstruction( trigger instanceof CronTrigger ? CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING
+        : CalendarIntervalTrigger.MISFIRE_INSTRUCTION_DO_NOTHING );
+    }
+  }
+
+  /**
+   * @return the scheduler listener dropping the queued catch-up execution of a job when the job is deleted
+   */
+  public SchedulerListener getDeletionListener() {
+    return deletionListener;
+  }
+
+  /**
+   * Drops the misfire and the queued catch-up execution of a deleted job, if any.
+   */
+  synchronized void forgetJob( final JobKey jobKey ) {
+    if ( deletedOnVeto.remove( jobKey ) ) {
+      // the catch-up execution stores the job again
+      return;
+    }
+    // the trigger of a job is named after it, whatever its group
+    misfires.keySet().removeIf( triggerKey -> triggerKey.getName().equals( jobKey.getName() ) );
+    if ( deferred.removeIf( execution -> execution.jobDetail.getKey().equals( jobKey ) ) ) {
+      logger.debug( "Dropped the queued catch-up execution of deleted job '" + jobKey.getName() + "'" );
+    }
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void triggerMisfired( final Trigger trigger ) {
+    misfired.incrementAndGet();
+    if ( isDoNothing( trigger ) ) {
+      skipped.incrementAndGet();
+    } else {
+      // the misfire instruction is applied after the listeners, the next fire time is still the missed one
+      misfires.put( trigger.getKey(),
+        trigger.getNextFireTime() != null ? trigger.getNextFireTime().getTime() : System.currentTimeMillis() );
+    }
+  }
+
+  @Override
+  public void triggerFired( final Trigger trigger, final JobExecutionContext context ) {
+  }
+
+  @Override
+  public boolean vetoJobExecution( final Trigger trigger, final JobExecutionContext context ) {
+    Long missedMillis = misfires.remove( trigger.getKey() );
+    if ( missedMillis == null || trigger.getJobDataMap().containsKey( MISFIRE_RECOVERY_KEY ) ) {
+      return false;
+    }
+    JobDataMap jobParams = context.getMergedJobDataMap();
+    MisfirePolicy policy = MisfirePolicy.fromParam( jobParams.get( MISFIRE_POLICY_PARAM ) );
+    if ( policy == MisfirePolicy.SKIP ) {
+      // a trigger created before the job asked to skip its misfires
+      skipped.incrementAndGet();
+      return true;
+    }
+    if ( policy == MisfirePolicy.IMMEDIATE || tryAcquire() ) {
+      recovered.incrementAndGet();
+      return false;
+    }
+    DeferredExecution execution = new DeferredExecution( context.getJobDetail(),
+      parseInt( jobParams.get( MISFIRE_PRIORITY_PARAM ), trigger.getPriority() ), trigger.getPriority(),
+      missedMillis );
+    synchronized ( this ) {
+      if ( isLastFire( trigger, context.getJobDetail() ) ) {
+        deletedOnVeto.add( context.getJobDetail().getKey() );
+      }
+      deferred.add( execution );
+      deferredTotal.incrementAndGet();
+      scheduleDrain( 0 );
+    }
+    if ( logger.isDebugEnabled() ) {
+      logger.debug( "Queued the catch-up execution of job '" + context.getJobDetail().getKey().getName()
+        + "', " + getPendingCount() + " pending" );
+    }
+    return true;
+  }
+
+  @Override
+  public void triggerComplete( final Trigger trigger, final JobExecutionContext context,
+                               final CompletedExecutionInstruction triggerInstructionCode ) {
+  }
+
+  /**
+   * @return the number of misfired triggers seen
+   */
+  public long getMisfiredCount() {
+    return misfired.get();
+  }
+
+  /**
+   * @return the number of catch-up executions run, at once or from the queue
+   */
+  public long getRecoveredCount() {
+    return recovered.get();
+  }
+
+  /**
+   * @return the number of catch-up executions queued because no token was available
+   */
+  public long getDeferredCount() {
+    return deferredTotal.get();
+  }
+
+  /**
+   * @return the number of misfires skipped by the policy of their job
+   */
+  public long getSkippedCount() {
+    return skipped.get();
+  }
+
+  /**
+   * @return the number of catch-up executions queued and not yet fired
+   */
+  public synchronized int getPendingCount() {
+    return deferred.size();
+  }
+
+  private synchronized boolean tryAcquire() {
+    if ( ratePerSecond <= 0 ) {
+      return true;
+    }
+    refill();
+    if ( tokens >= 1 ) {
+      tokens--;
+      return true;
+    }
+    return false;
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    tokens = Math.min( burst, tokens + ( now - refilledNanos ) * ratePerSecond / TimeUnit.SECONDS.toNanos( 1 ) );
+    refilledNanos = now;
+  }
+
+  // called holding the monitor
+  private void scheduleDrain( final long delayMillis ) {
+    if ( !draining && !executor.isShutdown() ) {
+      draining = true;
+      executor.schedule( this::drain, delayMillis, TimeUnit.MILLISECONDS );
+    }
+  }
+
+  private void drain() {
+    while ( true ) {
+      DeferredExecution execution;
+      synchronized ( this ) {
+        draining = false;
+        if ( deferred.isEmpty() ) {
+          logger.info( "Recovered " + recovered.get() + " of " + misfired.get() + " misfired executions, "
+            + skipped.get() + " skipped" );
+          return;
+        }
+        if ( !tryAcquire() ) {
+          scheduleDrain( (long) Math.ceil( ( 1 - tokens ) * 1000 / ratePerSecond ) );
+          return;
+        }
+        execution = deferred.poll();
+        deletedOnVeto.remove( execution.jobDetail.getKey() );
+      }
+      try {
+        target.fire( execution.jobDetail );
+        recovered.incrementAndGet();
+      } catch ( Exception e ) {
+        logger.warn( "Failed to fire the catch-up execution of job '" + execution.jobDetail.getKey().getName() + "'",
+          e );
+      }
+      if ( logger.isDebugEnabled() ) {
+        logger.debug( "Recovered " + recovered.get() + " of " + misfired.get() + " misfired executions, "
+          + getPendingCount() + " pending" );
+      }
+    }
+  }
+
+  /**
+   * A job that is not durable is deleted along with its last trigger, e.g. a run once job, when the trigger completes
+   * once vetoed. Its other triggers, if any, are not looked at.
+   */
+  private static boolean isLastFire( final Trigger trigger, final JobDetail jobDetail ) {
+    return trigger.getNextFireTime() == null && !jobDetail.isDurable();
+  }
+
+  private static boolean isDoNothing( final Trigger trigger ) {
+    return trigger instanceof CronTrigger
+      ? trigger.getMisfireInstruction() == CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING
+      : trigger instanceof CalendarIntervalTrigger
+      && trigger.getMisfireInstruction() == CalendarIntervalTrigger.MISFIRE_INSTRUCTION_DO_NOTHING;
+  }
+
+  private static double parseDouble( final String value, final String defaultValue ) {
+    try {
+      return Double.parseDouble( value.trim() );
+    } catch ( NullPointerException | NumberFormatException e ) {
+      return Double.parseDouble( defaultValue );
+    }
+  }
+
+  private static int parseInt( final Object value, final int defaultValue ) {
+    if ( value == null ) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt( value.toString().trim() );
+    } catch ( NumberFormatException e ) {
+      return defaultValue;
+    }
+  }
+}
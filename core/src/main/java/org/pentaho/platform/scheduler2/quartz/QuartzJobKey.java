@@ -33,6 +33,8 @@ public class QuartzJobKey {
   private String jobName;
   // BACKLOG-22942, changing timInMillis from long to randomUUID
   private String randomUuid;
+  // the scheduler shard storing the job, see ShardedSchedulerFactory; 0 when not sharded
+  private int shard;
 
   /**
    * Use this constructor when you wish to create a new unique job key.
@@ -55,6 +57,22 @@ public class QuartzJobKey {
     randomUuid = UUIDUtil.getUUIDAsString();
   }
 
+  /**
+   * Use this constructor when you wish to create a new unique job key for a job stored in a scheduler shard.
+   *
+   * @param jobName
+   *          the user-provided job name
+   * @param username
+   *          the user who is executing this job
+   * @param shard
+   *          the index of the shard storing the job
+   * @throws SchedulerException
+   */
+  public QuartzJobKey( String jobName, String username, int shard ) throws SchedulerException {
+    this( jobName, username );
+    this.shard = shard;
+  }
+
   private QuartzJobKey() {
   }
 
@@ -77,6 +95,9 @@ public class QuartzJobKey {
     key.userName = elements[0];
     key.jobName = elements[1];
     key.randomUuid = elements[2];
+    if ( elements.length > 3 && StringUtils.isNumeric( elements[3] ) ) {
+      key.shard = Integer.parseInt( elements[3] );
+    }
 
     return key;
   }
@@ -89,8 +110,17 @@ public class QuartzJobKey {
     return jobName;
   }
 
+  /**
+   * @return the index of the scheduler shard storing the job, 0 for the jobs created without sharding
+   */
+  public int getShard() {
+    return shard;
+  }
+
   @Override
   public String toString() {
-    return userName + "\t" + jobName + "\t" + randomUuid; //$NON-NLS-1$ //$NON-NLS-2$
+    String jobId = userName + "\t" + jobName + "\t" + randomUuid; //$NON-NLS-1$ //$NON-NLS-2$
+    // the jobs of the first shard keep the ids they had before sharding
+    return shard > 0 ? jobId + "\t" + shard : jobId; //$NON-NLS-1$
   }
 }
@@ -73,17 +73,23 @@ import org.quartz.JobDetail;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerFactory;
+import org.quartz.SchedulerListener;
 import org.quartz.SimpleTrigger;
 import org.quartz.Trigger;
 import org.quartz.TriggerBuilder;
 import org.quartz.TriggerKey;
+import org.quartz.TriggerListener;
 import org.quartz.impl.StdSchedulerFactory;
 import org.quartz.impl.matchers.GroupMatcher;
 import org.quartz.impl.triggers.CalendarIntervalTriggerImpl;
 import org.quartz.impl.triggers.CronTriggerImpl;
 import org.quartz.spi.MutableTrigger;
+import org.quartz.spi.OperableTrigger;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.Principal;
 import java.text.MessageFormat;
 import java.text.ParseException;
@@ -93,11 +99,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
@@ -124,6 +132,12 @@ public class QuartzScheduler implements IScheduler {
   public static final String QUARTZ_SCHEDULER_ERROR_0006_FAILED_TO_GET_SCHEDULER_STATUS = "QuartzScheduler.ERROR_0006_FAILED_TO_GET_SCHEDULER_STATUS";
   public static final String QUARTZ_SCHEDULER_ERROR_0007_FAILED_TO_GET_JOB = "QuartzScheduler.ERROR_0007_FAILED_TO_GET_JOB";
   public static final String QUARTZ_SCHEDULER_ERROR_0008_SCHEDULING_IS_NOT_ALLOWED = "QuartzScheduler.ERROR_0008_SCHEDULING_IS_NOT_ALLOWED";
+  public static final String QUARTZ_SCHEDULER_ERROR_0017_FAILED_TO_INTERRUPT_JOB = "QuartzScheduler.ERROR_0017_FAILED_TO_INTERRUPT_JOB";
+  public static final String QUARTZ_SCHEDULER_ERROR_0018_FAILED_TO_WRITE_SNAPSHOT = "QuartzScheduler.ERROR_0018_FAILED_TO_WRITE_SNAPSHOT";
+  public static final String QUARTZ_SCHEDULER_ERROR_0019_FAILED_TO_RESTORE_SNAPSHOT = "QuartzScheduler.ERROR_0019_FAILED_TO_RESTORE_SNAPSHOT";
+  public static final String QUARTZ_SCHEDULER_ERROR_0020_TRIGGER_NEVER_FIRES = "QuartzScheduler.ERROR_0020_TRIGGER_NEVER_FIRES";
+
+  static final String STAGING_GROUP_PREFIX = "staged\t";
 
   private static Log logger;
 
@@ -145,7 +159,15 @@ public class QuartzScheduler implements IScheduler {
 
   private static final Pattern lastDayPattern = Pattern.compile( "\\d+L" );
 
-  private final ReentrantReadWriteLock jobDetailLock = new ReentrantReadWriteLock();
+  private final JobDetailLock jobDetailLock = new JobDetailLock();
+
+  private final AvailabilityCalendars availabilityCalendars = new AvailabilityCalendars();
+
+  // the trigger group of the jobs the current thread stages, see stageJobs()
+  private final ThreadLocal<String> stagingGroup = new ThreadLocal<>();
+
+  // set while the current thread replaces a job to record its timing state, see isReplacingTimingState()
+  private static final ThreadLocal<Boolean> replacingTimingState = new ThreadLocal<>();
 
   public QuartzScheduler( SchedulerFactory schedulerFactory ) {
     this.quartzSchedulerFactory = schedulerFactory;
@@ -177,6 +199,19 @@ public class QuartzScheduler implements IScheduler {
     }
   }
 
+  /**
+   * Makes the updates of a job exclusive across the servers sharing a clustered Quartz database, and has the
+   * availability calendars checked against the job store rather than against what this server stored.
+   *
+   * @param dataSource    the name of the Quartz data source
+   * @param tablePrefix   the prefix of the Quartz tables
+   * @param schedulerName the scheduler instance name shared by the cluster
+   */
+  void setClustered( String dataSource, String tablePrefix, String schedulerName ) {
+    jobDetailLock.setRowLock( new JobDetailLock.ClusterRowLock( dataSource, tablePrefix, schedulerName ) );
+    availabilityCalendars.setClustered( true );
+  }
+
   public Scheduler getQuartzScheduler() throws org.quartz.SchedulerException {
     if ( quartzSchedulerInstance == null ) {
       /*
@@ -255,15 +290,55 @@ public class QuartzScheduler implements IScheduler {
   }
 
   public static MutableTrigger createQuartzTrigger( IJobTrigger jobTrigger, QuartzJobKey jobId ) throws SchedulerException {
+    return createQuartzTrigger( jobTrigger, jobId, 0 );
+  }
+
+  /**
+   * Builds the Quartz trigger of a job, its fire times spread over a window as described in {@link ScheduleSpread}.
+   *
+   * @param jobTrigger          the trigger of the job
+   * @param jobId               the id of the job, from which the offset of the fire times is derived
+   * @param spreadWindowMinutes the spread window, zero to keep the fire times as set
+   * @return the Quartz trigger
+   * @throws SchedulerException if the trigger is not valid
+   */
+  public static MutableTrigger createQuartzTrigger( IJobTrigger jobTrigger, QuartzJobKey jobId,
+                                                    int spreadWindowMinutes ) throws SchedulerException {
+    return createQuartzTrigger( jobTrigger, jobId, spreadWindowMinutes, null );
+  }
+
+  /**
+   * Builds the Quartz trigger of a job, its fire times spread over a window, and keeps the schedule as set in the job
+   * parameters when the spread moves it, see {@link ScheduleSpread#CRON_STRING_AS_SET_KEY} and
+   * {@link ScheduleSpread#START_OFFSET_KEY}.
+   *
+   * @param jobParams the job parameters to keep the schedule as set in, or {@code null}
+   */
+  static MutableTrigger createQuartzTrigger( IJobTrigger jobTrigger, QuartzJobKey jobId, int spreadWindowMinutes,
+                                             Map<String, Object> jobParams ) throws SchedulerException {
     validateJobTrigger( jobTrigger );
+    if ( jobParams != null ) {
+      jobParams.remove( ScheduleSpread.CRON_STRING_AS_SET_KEY );
+      jobParams.remove( ScheduleSpread.START_OFFSET_KEY );
+    }
 
     Date triggerEndDate = getTriggerEndDate( jobTrigger );
     java.util.Calendar startDateCal = getStartDateCalendar( jobTrigger );
     TimeZone tz = getTimeZone( jobTrigger );
+    int spreadOffset = ScheduleSpread.getOffsetSeconds( jobId.toString(), spreadWindowMinutes );
 
     if ( jobTrigger instanceof ComplexJobTrigger ) {
-      return createComplexQuartzTrigger( (ComplexJobTrigger) jobTrigger, jobId, triggerEndDate, tz );
+      return createComplexQuartzTrigger( (ComplexJobTrigger) jobTrigger, jobId, triggerEndDate, tz, spreadOffset,
+        jobParams );
     } else if ( jobTrigger instanceof SimpleJobTrigger ) {
+      // run once schedules, e.g. the executions run in the background, fire when asked
+      if ( spreadOffset != 0 && ( (SimpleJobTrigger) jobTrigger ).getRepeatCount() != 0
+        && !UI_PASS_PARAM_RUN_ONCE.equalsIgnoreCase( jobTrigger.getUiPassParam() ) ) {
+        if ( jobParams != null ) {
+          jobParams.put( ScheduleSpread.START_OFFSET_KEY, spreadOffset );
+        }
+        startDateCal.add( java.util.Calendar.SECOND, spreadOffset );
+      }
       return createSimpleQuartzTrigger( (SimpleJobTrigger) jobTrigger, jobId, triggerEndDate, startDateCal, tz );
     } else {
       throw new SchedulerException( Messages.getString(
@@ -300,14 +375,21 @@ public class QuartzScheduler implements IScheduler {
   }
 
   private static MutableTrigger createComplexQuartzTrigger( ComplexJobTrigger complexJobTrigger, QuartzJobKey jobId,
-                                                           Date triggerEndDate, TimeZone tz ) throws SchedulerException {
+                                                           Date triggerEndDate, TimeZone tz, int spreadOffset,
+                                                           Map<String, Object> jobParams )
+    throws SchedulerException {
     try {
       CronTriggerImpl cronTrigger = new CronTriggerImpl();
       cronTrigger.setName( jobId.toString() );
       cronTrigger.setGroup( jobId.getUserName() );
-      cronTrigger.setCronExpression( complexJobTrigger.getCronString() != null
+      String cronString = complexJobTrigger.getCronString() != null
         ? complexJobTrigger.getCronString()
-        : QuartzCronStringFactory.createCronString( complexJobTrigger ) );
+        : QuartzCronStringFactory.createCronString( complexJobTrigger );
+      String spreadCronString = ScheduleSpread.offsetCronString( cronString, spreadOffset );
+      if ( jobParams != null && !spreadCronString.equals( cronString ) ) {
+        jobParams.put( ScheduleSpread.CRON_STRING_AS_SET_KEY, cronString );
+      }
+      cronTrigger.setCronExpression( spreadCronString );
       if ( tz != null ) {
         cronTrigger.setTimeZone( tz );
       }
@@ -315,7 +397,7 @@ public class QuartzScheduler implements IScheduler {
         cronTrigger.setEndTime( triggerEndDate );
       }
       return cronTrigger;
-    } catch ( ParseException e ) {
+    } catch ( ParseException | IllegalArgumentException e ) {
       throw new SchedulerException( Messages.getInstance().getString(
         QUARTZ_SCHEDULER_ERROR_0001_FAILED_TO_SCHEDULE_JOB, jobId.getJobName() ), e );
     }
@@ -416,12 +498,12 @@ public class QuartzScheduler implements IScheduler {
     jobParams.put( RESERVEDMAPKEY_ACTIONUSER, jobId.getUserName() );
     return JobBuilder.newJob( BlockingQuartzJob.class )
      .withIdentity( jobId.toString(), jobId.getUserName() )
-     .setJobData( new JobDataMap( jobParams ) )
+     .setJobData( new CompactJobDataMap( jobParams ) )
      .build();
   }
 
-  private Calendar createQuartzCalendar( ComplexJobTrigger complexJobTrigger ) {
-    Calendar triggerCalendar = null;
+  private QuartzSchedulerAvailability createQuartzCalendar( ComplexJobTrigger complexJobTrigger ) {
+    QuartzSchedulerAvailability triggerCalendar = null;
     if ( complexJobTrigger.getStartHour() > -1 ) {
       java.util.Calendar startDateCal = getStartDateCalFromTrigger( complexJobTrigger );
       if ( complexJobTrigger.getEndTime() != null ) {
@@ -469,6 +551,142 @@ public class QuartzScheduler implements IScheduler {
   protected Job createJob( String jobName, Map<String, Object> jobParams, IJobTrigger trigger,
                            IBackgroundExecutionStreamProvider outputStreamProvider ) throws SchedulerException {
 
+    PreparedJob preparedJob = prepareJob( jobName, jobParams, trigger, outputStreamProvider );
+
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      if ( logger.isDebugEnabled() ) {
+        logger.debug(
+          MessageFormat.format( "Scheduling job {0} with trigger {1} and job parameters [ {2} ]", preparedJob.jobId,
+            trigger, prettyPrintMap( jobParams ) ) );
+      }
+
+      jobDetailLock.writeLock().lock();
+      try {
+        acquireCalendar( scheduler, preparedJob );
+        try {
+          scheduler.scheduleJob( preparedJob.jobDetail, preparedJob.quartzTrigger );
+        } catch ( org.quartz.SchedulerException e ) {
+          availabilityCalendars.release( scheduler, preparedJob.quartzTrigger.getCalendarName() );
+          throw e;
+        }
+      } finally {
+        jobDetailLock.writeLock().unlock();
+      }
+
+      logger.debug( MessageFormat.format( "Scheduled job {0} successfully", preparedJob.jobId ) );
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getInstance().getString(
+        QUARTZ_SCHEDULER_ERROR_0001_FAILED_TO_SCHEDULE_JOB, jobName ), e );
+    }
+
+    return preparedJob.toJob();
+  }
+
+  /**
+   * Creates several jobs at once. All the jobs are validated first, then stored in a single job store transaction:
+   * either every job is created or none is.
+   *
+   * @param jobDefinitions the jobs to create; the parameters of each job must name its action, by
+   *                       {@link #RESERVEDMAPKEY_ACTIONCLASS} or {@link #RESERVEDMAPKEY_ACTIONID}
+   * @return the created jobs, in the order of the definitions
+   * @throws SchedulerException if a job is invalid or the jobs cannot be stored
+   */
+  public List<Job> createJobs( List<JobDefinition> jobDefinitions ) throws SchedulerException {
+    List<PreparedJob> preparedJobs = new ArrayList<>( jobDefinitions.size() );
+    for ( JobDefinition jobDefinition : jobDefinitions ) {
+      Map<String, Object> jobParams = new HashMap<>( jobDefinition.getJobParams() );
+      Object actionClass = jobParams.get( RESERVEDMAPKEY_ACTIONCLASS );
+      if ( actionClass == null && StringUtils.isEmpty( (String) jobParams.get( RESERVEDMAPKEY_ACTIONID ) ) ) {
+        throw new SchedulerException( Messages.getString( QUARTZ_SCHEDULER_ERROR_0003_ACTION_IS_NULL ) );
+      }
+      PreparedJob preparedJob = prepareJob( jobDefinition.getJobName(), jobParams, jobDefinition.getTrigger(),
+        jobDefinition.getStreamProvider() );
+      preparedJob.schedulableClass = actionClass == null ? "" : actionClass.toString();
+      preparedJobs.add( preparedJob );
+    }
+
+    Map<JobDetail, Set<? extends Trigger>> triggersByJob = new LinkedHashMap<>();
+    List<String> calendarNames = new ArrayList<>();
+    jobDetailLock.writeLock().lock();
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      try {
+        for ( PreparedJob preparedJob : preparedJobs ) {
+          acquireCalendar( scheduler, preparedJob );
+          calendarNames.add( preparedJob.quartzTrigger.getCalendarName() );
+          triggersByJob.put( preparedJob.jobDetail, Collections.singleton( preparedJob.quartzTrigger ) );
+        }
+        scheduler.scheduleJobs( triggersByJob, false );
+      } catch ( org.quartz.SchedulerException e ) {
+        for ( String calendarName : calendarNames ) {
+          availabilityCalendars.release( scheduler, calendarName );
+        }
+        throw e;
+      }
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getInstance().getString(
+        QUARTZ_SCHEDULER_ERROR_0001_FAILED_TO_SCHEDULE_JOB, preparedJobs.size() + " jobs" ), e );
+    } finally {
+      jobDetailLock.writeLock().unlock();
+    }
+    logger.debug( MessageFormat.format( "Scheduled {0} jobs successfully", preparedJobs.size() ) );
+
+    List<Job> jobs = new ArrayList<>( preparedJobs.size() );
+    for ( PreparedJob preparedJob : preparedJobs ) {
+      Job job = preparedJob.toJob();
+      job.setSchedulableClass( preparedJob.schedulableClass );
+      jobs.add( job );
+    }
+    return jobs;
+  }
+
+  /**
+   * Runs a job once, right away, on the {@link BackgroundDispatcher} instead of storing it with a trigger, as done for
+   * the "Run in background" requests. The job is built as {@link #createJob(String, Map, IJobTrigger,
+   * IBackgroundExecutionStreamProvider)} builds it, and runs as a stored job would; it is stored as a regular job, with
+   * its trigger, when direct dispatch is disabled or its queue is full.
+   *
+   * @param jobName   the job name
+   * @param jobParams the job parameters; they must name the action of the job, by {@link #RESERVEDMAPKEY_ACTIONCLASS}
+   *                  or {@link #RESERVEDMAPKEY_ACTIONID}
+   * @param trigger   the run once trigger, its start time is set to now when the job is dispatched
+   * @return the dispatched or created job
+   * @throws SchedulerException if the job is invalid, or cannot be stored when not dispatched
+   */
+  public Job dispatchJob( String jobName, Map<String, Object> jobParams, IJobTrigger trigger )
+    throws SchedulerException {
+    Object actionClass = jobParams.get( RESERVEDMAPKEY_ACTIONCLASS );
+    if ( actionClass == null && StringUtils.isEmpty( (String) jobParams.get( RESERVEDMAPKEY_ACTIONID ) ) ) {
+      throw new SchedulerException( Messages.getString( QUARTZ_SCHEDULER_ERROR_0003_ACTION_IS_NULL ) );
+    }
+    Job job;
+    BackgroundDispatcher dispatcher = getBackgroundDispatcher();
+    if ( dispatcher != null ) {
+      trigger.setStartTime( new Date() );
+      PreparedJob preparedJob = prepareJob( jobName, jobParams, trigger, null );
+      job = dispatcher.dispatch( preparedJob.jobDetail ) ? preparedJob.toJob() : null;
+    } else {
+      job = null;
+    }
+    if ( job == null ) {
+      job = createJob( jobName, jobParams, trigger, null );
+    } else {
+      logger.debug( MessageFormat.format( "Dispatched job {0}", job.getJobId() ) );
+    }
+    job.setSchedulableClass( actionClass == null ? "" : actionClass.toString() );
+    return job;
+  }
+
+  BackgroundDispatcher getBackgroundDispatcher() {
+    return BackgroundDispatcher.getInstance();
+  }
+
+  /**
+   * Builds the Quartz job and trigger of a new job, without storing anything.
+   */
+  private PreparedJob prepareJob( String jobName, Map<String, Object> jobParams, IJobTrigger trigger,
+                                  IBackgroundExecutionStreamProvider outputStreamProvider ) throws SchedulerException {
     String curUser = getCurrentUser();
 
     // determine if the job params tell us who owns the job
@@ -477,13 +695,23 @@ public class QuartzScheduler implements IScheduler {
       curUser = jobOwner.toString();
     }
 
-    QuartzJobKey jobId = new QuartzJobKey( jobName, curUser );
+    QuartzJobKey jobId = quartzSchedulerFactory instanceof ShardedSchedulerFactory
+      ? new QuartzJobKey( jobName, curUser, ( (ShardedSchedulerFactory) quartzSchedulerFactory ).getShard( curUser ) )
+      : new QuartzJobKey( jobName, curUser );
     logger.debug( " QuartzScheduler has received a request to createJob with jobId " + jobId );
 
-    MutableTrigger quartzTrigger = createQuartzTrigger( trigger, jobId );
-
-    Calendar triggerCalendar =
-      quartzTrigger instanceof CronTrigger ? createQuartzCalendar( (ComplexJobTrigger) trigger ) : null;
+    PreparedJob preparedJob = new PreparedJob();
+    preparedJob.jobId = jobId;
+    preparedJob.jobParams = jobParams;
+    preparedJob.trigger = trigger;
+    preparedJob.quartzTrigger =
+      createQuartzTrigger( trigger, jobId, ScheduleSpread.getWindowMinutes( jobParams ), jobParams );
+    MisfireGovernor.applyMisfirePolicy( preparedJob.quartzTrigger, jobParams );
+    if ( stagingGroup.get() != null ) {
+      preparedJob.quartzTrigger.setKey( new TriggerKey( jobId.toString(), stagingGroup.get() ) );
+    }
+    preparedJob.calendar =
+      preparedJob.quartzTrigger instanceof CronTrigger ? createQuartzCalendar( (ComplexJobTrigger) trigger ) : null;
 
     if ( outputStreamProvider != null ) {
       jobParams.put( RESERVEDMAPKEY_STREAMPROVIDER, outputStreamProvider );
@@ -502,54 +730,162 @@ public class QuartzScheduler implements IScheduler {
       jobParams.put( RESERVEDMAPKEY_START_TIME, trigger.getStartTime() );
     }
 
-    JobDetail jobDetail = createJobDetails( jobId, jobParams );
+    preparedJob.jobDetail = createJobDetails( jobId, jobParams );
 
+    if ( preparedJob.quartzTrigger instanceof CronTrigger ) {
+      Serializable timezone = (Serializable) jobParams.get( "timezone" );
+      if ( timezone != null ) {
+        setTimezone( (CronTrigger) preparedJob.quartzTrigger, timezone.toString() );
+      }
+    }
+    checkWillFire( jobId.getJobName(), preparedJob.quartzTrigger, preparedJob.calendar );
+    return preparedJob;
+  }
+
+  /**
+   * Fails, as Quartz does when storing it, if a trigger is not valid or will never fire, e.g. when its end date is
+   * past, so that such a job is rejected on its own before a bulk creation stores the jobs together.
+   */
+  private static void checkWillFire( String jobName, MutableTrigger quartzTrigger,
+                                     org.quartz.Calendar calendar ) throws SchedulerException {
+    OperableTrigger probe = (OperableTrigger) quartzTrigger.clone();
+    try {
+      probe.validate();
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getInstance().getString(
+        QUARTZ_SCHEDULER_ERROR_0001_FAILED_TO_SCHEDULE_JOB, jobName ), e );
+    }
+    if ( probe.computeFirstFireTime( calendar ) == null ) {
+      throw new SchedulerException( Messages.getInstance().getString(
+        QUARTZ_SCHEDULER_ERROR_0020_TRIGGER_NEVER_FIRES, jobName ) );
+    }
+  }
+
+  private void acquireCalendar( Scheduler scheduler, PreparedJob preparedJob ) throws org.quartz.SchedulerException {
+    if ( preparedJob.calendar != null ) {
+      preparedJob.quartzTrigger.setCalendarName( availabilityCalendars.acquire( scheduler, preparedJob.calendar ) );
+    }
+  }
+
+  /**
+   * The Quartz job and trigger built for a new job.
+   */
+  private class PreparedJob {
+    private QuartzJobKey jobId;
+    private Map<String, Object> jobParams;
+    private IJobTrigger trigger;
+    private MutableTrigger quartzTrigger;
+    private QuartzSchedulerAvailability calendar;
+    private JobDetail jobDetail;
+    private String schedulableClass;
+
+    private Job toJob() {
+      Job job = new Job();
+      job.setJobParams( jobParams );
+      job.setJobTrigger( (JobTrigger) trigger );
+      job.setNextRun( quartzTrigger.getNextFireTime() );
+      job.setLastRun( getLastRun( quartzTrigger ) );
+      job.setJobId( jobId.toString() );
+      job.setJobName( jobId.getJobName() );
+      job.setUserName( jobId.getUserName() );
+      job.setState( JobState.NORMAL );
+      return job;
+    }
+  }
+
+  /**
+   * Updates a job in place. The job keeps its id, its trigger name and its lineage id; the job data and the
+   * trigger are replaced in a single job store transaction, so the job is never seen half updated or
+   * missing. Owner and last run are carried over from the current job, as are the action and the output stream
+   * provider when the new parameters do not set them. A paused job stays paused.
+   *
+   * @param jobId     the id of the job to update
+   * @param jobParams the new job parameters
+   * @param trigger   the new trigger
+   * @throws SchedulerException if the job does not exist or cannot be updated
+   */
+  @Override
+  public void updateJob( String jobId, Map<String, Object> jobParams, IJobTrigger trigger ) throws SchedulerException {
+    QuartzJobKey quartzJobKey = QuartzJobKey.parse( jobId );
+    JobKey jobKey = new JobKey( jobId, quartzJobKey.getUserName() );
+    Map<String, Object> params = jobParams == null ? new HashMap<>() : new HashMap<>( jobParams );
+
+    jobDetailLock.writeLock().lock();
     try {
       Scheduler scheduler = getQuartzScheduler();
-      if ( triggerCalendar != null ) {
-        scheduler.addCalendar( jobId.toString(), triggerCalendar, false, false );
-        quartzTrigger.setCalendarName( jobId.toString() );
+      JobDetail oldJobDetail = scheduler.getJobDetail( jobKey );
+      if ( oldJobDetail == null ) {
+        throw new SchedulerException( Messages.getInstance().getString(
+          QUARTZ_SCHEDULER_ERROR_0007_FAILED_TO_GET_JOB, jobId ) );
+      }
+
+      JobDataMap oldParams = oldJobDetail.getJobDataMap();
+      copyParam( oldParams, params, RESERVEDMAPKEY_LINEAGE_ID, true );
+      copyParam( oldParams, params, RESERVEDMAPKEY_LAST_EXECUTION_TIME, true );
+      copyParam( oldParams, params, RESERVEDMAPKEY_STREAMPROVIDER, false );
+      if ( !params.containsKey( RESERVEDMAPKEY_ACTIONCLASS ) && !params.containsKey( RESERVEDMAPKEY_ACTIONID ) ) {
+        copyParam( oldParams, params, RESERVEDMAPKEY_ACTIONCLASS, false );
+        copyParam( oldParams, params, RESERVEDMAPKEY_ACTIONID, false );
+      }
+      if ( trigger.getUiPassParam() != null ) {
+        params.put( RESERVEDMAPKEY_UIPASSPARAM, trigger.getUiPassParam() );
+      }
+      if ( trigger.getStartTime() != null ) {
+        params.put( RESERVEDMAPKEY_START_TIME, trigger.getStartTime() );
+      }
+
+      MutableTrigger quartzTrigger =
+        createQuartzTrigger( trigger, quartzJobKey, ScheduleSpread.getWindowMinutes( params ), params );
+      MisfireGovernor.applyMisfirePolicy( quartzTrigger, params );
+      Trigger oldTrigger = getSingleJobTrigger( jobKey );
+      Trigger.TriggerState oldTriggerState = null;
+      if ( oldTrigger != null ) {
+        quartzTrigger.setKey( oldTrigger.getKey() );
+        oldTriggerState = scheduler.getTriggerState( oldTrigger.getKey() );
       }
-      logger.debug(
-        MessageFormat.format( "Scheduling job {0} with trigger {1} and job parameters [ {2} ]", jobId,
-          trigger, prettyPrintMap( jobParams ) ) );
 
       if ( quartzTrigger instanceof CronTrigger ) {
-        Serializable timezone = (Serializable) jobParams.get( "timezone" );
+        Serializable timezone = (Serializable) params.get( "timezone" );
         if ( timezone != null ) {
           setTimezone( (CronTrigger) quartzTrigger, timezone.toString() );
         }
       }
 
-      jobDetailLock.writeLock().lock();
+      JobDetail jobDetail = createJobDetails( quartzJobKey, params );
+      if ( logger.isDebugEnabled() ) {
+        logger.debug( MessageFormat.format( "Updating job {0} with trigger {1} and job parameters [ {2} ]", jobId,
+          trigger, prettyPrintMap( params ) ) );
+      }
+
+      QuartzSchedulerAvailability triggerCalendar =
+        quartzTrigger instanceof CronTrigger ? createQuartzCalendar( (ComplexJobTrigger) trigger ) : null;
+      if ( triggerCalendar != null ) {
+        quartzTrigger.setCalendarName( availabilityCalendars.acquire( scheduler, triggerCalendar ) );
+      }
+      // replaces the job and its trigger in one job store transaction
       try {
-        scheduler.scheduleJob( jobDetail, quartzTrigger );
-      } finally {
-        jobDetailLock.writeLock().unlock();
+        scheduler.scheduleJob( jobDetail, Collections.singleton( quartzTrigger ), true );
+      } catch ( org.quartz.SchedulerException e ) {
+        availabilityCalendars.release( scheduler, quartzTrigger.getCalendarName() );
+        throw e;
       }
+      restoreTriggerState( scheduler, oldTriggerState, quartzTrigger );
 
-      logger.debug( MessageFormat.format( "Scheduled job {0} successfully", jobId ) );
+      if ( oldTrigger != null ) {
+        availabilityCalendars.release( scheduler, oldTrigger.getCalendarName() );
+      }
     } catch ( org.quartz.SchedulerException e ) {
       throw new SchedulerException( Messages.getInstance().getString(
-        QUARTZ_SCHEDULER_ERROR_0001_FAILED_TO_SCHEDULE_JOB, jobName ), e );
+        QUARTZ_SCHEDULER_ERROR_0001_FAILED_TO_SCHEDULE_JOB, quartzJobKey.getJobName() ), e );
+    } finally {
+      jobDetailLock.writeLock().unlock();
     }
-
-    Job job = new Job();
-    job.setJobParams( jobParams );
-    job.setJobTrigger( (JobTrigger) trigger );
-    job.setNextRun( quartzTrigger.getNextFireTime() );
-    job.setLastRun( getLastRun( quartzTrigger ) );
-    job.setJobId( jobId.toString() );
-    job.setJobName( jobName );
-    job.setUserName( curUser );
-    job.setState( JobState.NORMAL );
-
-    return job;
   }
 
-  @Override
-  public void updateJob( String jobId, Map<String, Object> jobParams, IJobTrigger trigger ) throws SchedulerException {
-    throw new UnsupportedOperationException();
+  private static void copyParam( JobDataMap from, Map<String, Object> to, String key, boolean overwrite ) {
+    if ( from.containsKey( key ) && ( overwrite || !to.containsKey( key ) ) ) {
+      to.put( key, from.get( key ) );
+    }
   }
 
   /**
@@ -582,6 +918,65 @@ public class QuartzScheduler implements IScheduler {
     }
   }
 
+  /**
+   * Fires a retry of a failed execution of a job, flagging it as a restart in the trigger data. A run once job removed
+   * by Quartz since the failed execution, because it had no trigger left, is stored again under its original key for
+   * this execution only; any other job removed since then has been deleted and is not retried.
+   *
+   * @param jobDetail the job as it was when the execution failed
+   * @param attempt   the retry number, starting at 1
+   * @throws SchedulerException if Quartz failed to trigger the job
+   */
+  public void retryJob( JobDetail jobDetail, int attempt ) throws SchedulerException {
+    JobDataMap retryData = new JobDataMap();
+    retryData.put( RESERVEDMAPKEY_RESTART_FLAG, Boolean.TRUE );
+    retryData.put( RetryScheduler.RETRY_ATTEMPT_KEY, attempt );
+    triggerOnce( jobDetail, retryData );
+  }
+
+  /**
+   * Fires the catch-up execution of a misfired job held back by the {@link MisfireGovernor}, flagging it in the trigger
+   * data. A run once job removed since its trigger misfired, because it had no fire time left, is stored again under
+   * its original key for this execution only; any other job removed since then has been deleted and is not fired.
+   *
+   * @param jobDetail the job as it was when its trigger misfired
+   * @throws SchedulerException if Quartz failed to trigger the job
+   */
+  public void recoverMisfiredJob( JobDetail jobDetail ) throws SchedulerException {
+    JobDataMap recoveryData = new JobDataMap();
+    recoveryData.put( MisfireGovernor.MISFIRE_RECOVERY_KEY, Boolean.TRUE );
+    triggerOnce( jobDetail, recoveryData );
+  }
+
+  private void triggerOnce( JobDetail jobDetail, JobDataMap triggerData ) throws SchedulerException {
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      if ( scheduler.checkExists( jobDetail.getKey() ) ) {
+        scheduler.triggerJob( jobDetail.getKey(), triggerData );
+      } else if ( isRunOnce( jobDetail ) ) {
+        scheduler.scheduleJob( jobDetail, TriggerBuilder.newTrigger()
+          .forJob( jobDetail )
+          .usingJobData( triggerData )
+          .startNow()
+          .build() );
+      } else {
+        logger.info( "Job " + jobDetail.getKey().getName() + " no longer exists, it is not fired again" );
+      }
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getInstance().getString(
+        QUARTZ_SCHEDULER_ERROR_0007_FAILED_TO_GET_JOB, jobDetail.getKey().getName() ), e );
+    }
+  }
+
+  /**
+   * A run once job is removed by Quartz once its trigger has fired, while the other jobs are only removed when they
+   * are deleted.
+   */
+  private static boolean isRunOnce( JobDetail jobDetail ) {
+    return !jobDetail.isDurable() && UI_PASS_PARAM_RUN_ONCE.equalsIgnoreCase(
+      String.valueOf( jobDetail.getJobDataMap().get( RESERVEDMAPKEY_UIPASSPARAM ) ) );
+  }
+
   /**
    * Saves the actual execution timestamp when a job successfully executes.
    * This timestamp is used for the Last Run field and only updates when the job actually runs,
@@ -607,7 +1002,7 @@ public class QuartzScheduler implements IScheduler {
    * is resumed, or after the scheduler persists job data via delete-and-reschedule. Without rebuilding the
    * trigger with a future start time, these operations would produce an unintended immediate execution.
    *
-   * <p>The method deletes the existing job and reschedules it with a rebuilt {@link JobDetail} (carrying the
+   * <p>The method replaces the existing job with a rebuilt {@link JobDetail} (carrying the
    * potentially updated job data map) and a rebuilt trigger whose start time has been advanced to the next
    * future fire time. The original trigger state (e.g. PAUSED) is restored after rescheduling.</p>
    *
@@ -617,6 +1012,7 @@ public class QuartzScheduler implements IScheduler {
    * @throws org.quartz.SchedulerException if there is an error accessing the scheduler
    */
   private void normalizeTriggerTimingState( JobKey jobKey, Date executionTime ) throws org.quartz.SchedulerException {
+    // held across the cluster, so that the job is not written back over an update or a removal on another server
     jobDetailLock.writeLock().lock();
     try {
       JobDetail oldJobDetail = getJobDetail( jobKey );
@@ -629,7 +1025,8 @@ public class QuartzScheduler implements IScheduler {
         return;
       }
 
-      JobDataMap jobDataMap = new JobDataMap( oldJobDetail.getJobDataMap() );
+      // the job store hands out its own copy of the job detail, and recreateJobDetail copies the map again
+      JobDataMap jobDataMap = oldJobDetail.getJobDataMap();
       if ( executionTime != null ) {
         Object oldValue = jobDataMap.get( RESERVEDMAPKEY_LAST_EXECUTION_TIME );
 
@@ -654,10 +1051,28 @@ public class QuartzScheduler implements IScheduler {
       Scheduler scheduler = getQuartzScheduler();
       Trigger.TriggerState oldTriggerState = scheduler.getTriggerState( oldTrigger.getKey() );
 
-      // Delete and reschedule the job to persist both the updated trigger timing state
-      // and any optional job data changes while preserving the original trigger state.
-      scheduler.deleteJob( jobKey );
-      scheduler.scheduleJob( newJobDetail, newTrigger );
+      // a trigger held in a group of its own, as the paused triggers of a restored snapshot, moves back to the job's
+      // group, where a resumed trigger is not stored paused again
+      TriggerKey triggerKey = new TriggerKey( jobKey.getName(), jobKey.getGroup() );
+      boolean moved = !triggerKey.equals( oldTrigger.getKey() );
+      if ( moved ) {
+        newTrigger = newTrigger.getTriggerBuilder().withIdentity( triggerKey ).build();
+      }
+
+      // Replace the job and its trigger to persist both the updated trigger timing state
+      // and any optional job data changes while preserving the original trigger state. The replacement
+      // is one job store transaction, so the other nodes of a cluster never find the job missing.
+      if ( !moved ) {
+        replacingTimingState.set( Boolean.TRUE );
+      }
+      try {
+        scheduler.scheduleJob( newJobDetail, Collections.singleton( newTrigger ), true );
+      } finally {
+        replacingTimingState.remove();
+      }
+      if ( moved ) {
+        scheduler.unscheduleJob( oldTrigger.getKey() );
+      }
 
       restoreTriggerState( scheduler, oldTriggerState, newTrigger );
     } finally {
@@ -665,6 +1080,16 @@ public class QuartzScheduler implements IScheduler {
     }
   }
 
+  /**
+   * Tells a job store whether the job it is asked to replace is only replaced to record its last execution time and
+   * normalized trigger, as done on each execution, and not changed otherwise.
+   *
+   * @return {@code true} while the current thread replaces a job to record its timing state
+   */
+  static boolean isReplacingTimingState() {
+    return replacingTimingState.get() != null;
+  }
+
   /**
    * Rebuilds a {@link JobDetail} preserving the original job class, identity, durability, recovery settings,
    * and description, but with a new {@link JobDataMap}. This is needed because Quartz does not allow
@@ -673,13 +1098,14 @@ public class QuartzScheduler implements IScheduler {
    *
    * @param oldJobDetail the original job detail to copy settings from
    * @param jobKey the job identity key
-   * @param jobDataMap the (potentially updated) job data map to attach to the new detail
+   * @param jobDataMap the (potentially updated) job data map to attach to the new detail, stored in the compact form
+   *                   of {@link CompactJobDataMap}
    * @return a new {@link JobDetail} with the same configuration but the provided data map
    */
   private JobDetail recreateJobDetail( JobDetail oldJobDetail, JobKey jobKey, JobDataMap jobDataMap ) {
     JobBuilder jobBuilder = JobBuilder.newJob( oldJobDetail.getJobClass() )
       .withIdentity( jobKey )
-      .usingJobData( jobDataMap )
+      .setJobData( new CompactJobDataMap( jobDataMap ) )
       .storeDurably( oldJobDetail.isDurable() )
       .requestRecovery( oldJobDetail.requestsRecovery() );
 
@@ -864,27 +1290,9 @@ public class QuartzScheduler implements IScheduler {
     try {
       Scheduler scheduler = getQuartzScheduler();
       for ( String groupName : scheduler.getJobGroupNames() ) {
-        scheduler.getJobKeys( GroupMatcher.jobGroupEquals( groupName ) );
         for ( JobKey jobKey : scheduler.getJobKeys( GroupMatcher.jobGroupEquals( groupName ) ) ) {
-          String jobId = jobKey.getName();
-          Trigger trigger = getSingleJobTrigger( jobKey );
-          if ( trigger == null ) {
-            continue;
-          }
-          Job job = new Job();
-          job.setGroupName( groupName );
-          JobDetail jobDetail = getJobDetail( jobKey );
-          if ( jobDetail != null ) {
-            job.setUserName( jobDetail.getKey().getGroup() );
-            job.setJobParams( jobDetail.getJobDataMap().getWrappedMap() );
-          }
-
-          job.setJobId( jobId );
-          setJobTrigger( scheduler, job, trigger );
-          job.setJobName( QuartzJobKey.parse( jobId ).getJobName() );
-          setJobNextRun( job, trigger );
-          job.setLastRun( getLastRun( trigger ) );
-          if ( ( filter == null ) || filter.accept( job ) ) {
+          Job job = loadJob( scheduler, jobKey );
+          if ( job != null && ( ( filter == null ) || filter.accept( job ) ) ) {
             jobs.add( job );
           }
         }
@@ -896,6 +1304,77 @@ public class QuartzScheduler implements IScheduler {
     return jobs;
   }
 
+  /**
+   * Lists the ids of all the jobs without loading them, so that large job catalogs can be loaded a page at a time
+   * with {@link #getJobsById(List)}.
+   *
+   * @return the job ids
+   * @throws SchedulerException if the jobs cannot be listed
+   */
+  public List<String> getJobIds() throws SchedulerException {
+    List<String> jobIds = new ArrayList<>();
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      for ( String groupName : scheduler.getJobGroupNames() ) {
+        for ( JobKey jobKey : scheduler.getJobKeys( GroupMatcher.jobGroupEquals( groupName ) ) ) {
+          jobIds.add( jobKey.getName() );
+        }
+      }
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException(
+        Messages.getString( QUARTZ_SCHEDULER_ERROR_0004_FAILED_TO_LIST_JOBS ), e );
+    }
+    return jobIds;
+  }
+
+  /**
+   * Loads the jobs of the given ids the way {@link #getJobs(IJobFilter)} lists them. Jobs removed since their id was
+   * listed are skipped.
+   *
+   * @param jobIds the ids of the jobs to load
+   * @return the jobs found, in the order of their ids
+   * @throws SchedulerException if the jobs cannot be loaded
+   */
+  public List<IJob> getJobsById( List<String> jobIds ) throws SchedulerException {
+    List<IJob> jobs = new ArrayList<>( jobIds.size() );
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      for ( String jobId : jobIds ) {
+        Job job = loadJob( scheduler, new JobKey( jobId, QuartzJobKey.parse( jobId ).getUserName() ) );
+        if ( job != null ) {
+          jobs.add( job );
+        }
+      }
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException(
+        Messages.getString( QUARTZ_SCHEDULER_ERROR_0004_FAILED_TO_LIST_JOBS ), e );
+    }
+    return jobs;
+  }
+
+  private Job loadJob( Scheduler scheduler, JobKey jobKey ) throws SchedulerException,
+    org.quartz.SchedulerException {
+    String jobId = jobKey.getName();
+    Trigger trigger = getSingleJobTrigger( jobKey );
+    if ( trigger == null ) {
+      return null;
+    }
+    Job job = new Job();
+    job.setGroupName( jobKey.getGroup() );
+    JobDetail jobDetail = getJobDetail( jobKey );
+    if ( jobDetail != null ) {
+      job.setUserName( jobDetail.getKey().getGroup() );
+      job.setJobParams( jobDetail.getJobDataMap().getWrappedMap() );
+    }
+
+    job.setJobId( jobId );
+    setJobTrigger( scheduler, job, trigger );
+    job.setJobName( QuartzJobKey.parse( jobId ).getJobName() );
+    setJobNextRun( job, trigger );
+    job.setLastRun( getLastRun( trigger ) );
+    return job;
+  }
+
   /** 
    * Gets the last run time for a job based on the actual execution timestamp. This method checks
    * the custom execution time stored in the job data map, which is only updated when the job
@@ -934,9 +1413,6 @@ public class QuartzScheduler implements IScheduler {
 
   private void setJobTrigger( Scheduler scheduler, Job job, Trigger trigger ) throws SchedulerException,
     org.quartz.SchedulerException {
-    QuartzJobKey jobKey = QuartzJobKey.parse( job.getJobId() );
-    String groupName = jobKey.getUserName();
-
     if ( trigger instanceof SimpleTrigger ) {
       // handle the legacy case where there were still simple triggers in the DB
       SimpleTrigger simpleTrigger = (SimpleTrigger) trigger;
@@ -965,8 +1441,14 @@ public class QuartzScheduler implements IScheduler {
       CalendarIntervalTrigger calendarIntervalTrigger = (CalendarIntervalTrigger) trigger;
       SimpleJobTrigger simpleJobTrigger = new SimpleJobTrigger();
 
+      // the start time as set rather than spread, so that the job is not spread again when updated with this trigger
+      Date startTime = calendarIntervalTrigger.getStartTime();
+      Object startOffset = job.getJobParams().get( ScheduleSpread.START_OFFSET_KEY );
+      if ( startOffset instanceof Number ) {
+        startTime = new Date( startTime.getTime() - TimeUnit.SECONDS.toMillis( ( (Number) startOffset ).longValue() ) );
+      }
       setPentahoTriggerDates( simpleJobTrigger,
-        calendarIntervalTrigger.getStartTime(),
+        startTime,
         calendarIntervalTrigger.getEndTime(),
         calendarIntervalTrigger.getTimeZone() );
 
@@ -998,9 +1480,13 @@ public class QuartzScheduler implements IScheduler {
 
     } else if ( trigger instanceof CronTrigger ) {
       CronTrigger cronTrigger = (CronTrigger) trigger;
-      IComplexJobTrigger complexJobTrigger = createComplexTrigger( cronTrigger.getCronExpression() );
+      // the cron expression as set rather than spread, see ScheduleSpread
+      Object cronStringAsSet = job.getJobParams().get( ScheduleSpread.CRON_STRING_AS_SET_KEY );
+      String cronString = cronStringAsSet instanceof String ? (String) cronStringAsSet
+        : cronTrigger.getCronExpression();
+      IComplexJobTrigger complexJobTrigger = createComplexTrigger( cronString );
       complexJobTrigger.setUiPassParam( (String) job.getJobParams().get( RESERVEDMAPKEY_UIPASSPARAM ) );
-      complexJobTrigger.setCronString( cronTrigger.getCronExpression() );
+      complexJobTrigger.setCronString( cronString );
       List<ITimeRecurrence> timeRecurrences = parseRecurrence( complexJobTrigger.getCronString(), 3 );
       if ( !timeRecurrences.isEmpty() ) {
         ITimeRecurrence recurrence = timeRecurrences.get( 0 );
@@ -1018,7 +1504,7 @@ public class QuartzScheduler implements IScheduler {
       }
       job.setJobTrigger( complexJobTrigger );
       if ( trigger.getCalendarName() != null ) {
-        Calendar calendar = scheduler.getCalendar( trigger.getCalendarName() );
+        Calendar calendar = availabilityCalendars.getCalendar( scheduler, trigger.getCalendarName() );
         if ( calendar instanceof QuartzSchedulerAvailability ) {
           QuartzSchedulerAvailability quartzSchedulerAvailability = (QuartzSchedulerAvailability) calendar;
 
@@ -1028,11 +1514,12 @@ public class QuartzScheduler implements IScheduler {
             cronTrigger.getTimeZone() );
         }
       }
-      complexJobTrigger.setCronString( ( (CronTrigger) trigger ).getCronExpression() );
+      complexJobTrigger.setCronString( cronString );
       complexJobTrigger.setTimeZone( cronTrigger.getTimeZone().toZoneId().getId() );
     }
 
-    Trigger.TriggerState triggerState = scheduler.getTriggerState( new TriggerKey( job.getJobId(), groupName ) );
+    // staged jobs keep the trigger group they were staged in, see stageJobs()
+    Trigger.TriggerState triggerState = scheduler.getTriggerState( trigger.getKey() );
     switch ( triggerState ) {
       case NORMAL:
         job.setState( JobState.NORMAL );
@@ -1113,12 +1600,40 @@ public class QuartzScheduler implements IScheduler {
    * {@inheritDoc}
    */
   public void pauseJob( String jobId ) throws SchedulerException {
+    // a job being replaced keeps the trigger state read before the replacement
+    jobDetailLock.writeLock().lock();
     try {
       Scheduler scheduler = getQuartzScheduler();
       scheduler.pauseJob( new JobKey( jobId, QuartzJobKey.parse( jobId ).getUserName() ) );
     } catch ( org.quartz.SchedulerException e ) {
       throw new SchedulerException( Messages
         .getString( QUARTZ_SCHEDULER_ERROR_0005_FAILED_TO_PAUSE_JOBS ), e );
+    } finally {
+      jobDetailLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Interrupts the running executions of a job. The job is not paused or removed, its next executions still fire.
+   * <p>
+   * Interrupting is cooperative, see {@link BlockingQuartzJob#interrupt()}. A job run by the
+   * {@link BackgroundDispatcher} is interrupted the same way.
+   *
+   * @param jobId the job id
+   * @return {@code true} if at least one running execution of the job was interrupted
+   * @throws SchedulerException if Quartz failed to interrupt the job
+   */
+  public boolean interruptJob( String jobId ) throws SchedulerException {
+    BackgroundDispatcher dispatcher = getBackgroundDispatcher();
+    if ( dispatcher != null && dispatcher.interrupt( jobId ) ) {
+      return true;
+    }
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      return scheduler.interrupt( new JobKey( jobId, QuartzJobKey.parse( jobId ).getUserName() ) );
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getString(
+        QUARTZ_SCHEDULER_ERROR_0017_FAILED_TO_INTERRUPT_JOB, jobId ), e );
     }
   }
 
@@ -1129,7 +1644,12 @@ public class QuartzScheduler implements IScheduler {
     jobDetailLock.writeLock().lock();
     try {
       Scheduler scheduler = getQuartzScheduler();
-      scheduler.deleteJob( new JobKey( jobId, QuartzJobKey.parse( jobId ).getUserName() ) );
+      JobKey jobKey = new JobKey( jobId, QuartzJobKey.parse( jobId ).getUserName() );
+      List<? extends Trigger> triggers = scheduler.getTriggersOfJob( jobKey );
+      scheduler.deleteJob( jobKey );
+      for ( Trigger trigger : triggers ) {
+        availabilityCalendars.release( scheduler, trigger.getCalendarName() );
+      }
     } catch ( org.quartz.SchedulerException e ) {
       throw new SchedulerException( Messages
         .getString( QUARTZ_SCHEDULER_ERROR_0005_FAILED_TO_PAUSE_JOBS ), e );
@@ -1138,6 +1658,152 @@ public class QuartzScheduler implements IScheduler {
     }
   }
 
+  /**
+   * Stages the jobs the current thread creates from now on: their triggers are stored paused, in a trigger group of
+   * their own, and do not fire until {@link #activateStagedJobs()} moves them all to the groups of their jobs in one
+   * job store transaction. The other jobs keep firing meanwhile.
+   * <p>
+   * Pausing the group before it has any trigger is what makes the job store create its triggers paused.
+   *
+   * @throws SchedulerException if the staging group cannot be paused
+   */
+  public void stageJobs() throws SchedulerException {
+    String group = STAGING_GROUP_PREFIX + UUID.randomUUID();
+    try {
+      getQuartzScheduler().pauseTriggers( GroupMatcher.triggerGroupEquals( group ) );
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getString( QUARTZ_SCHEDULER_ERROR_0005_FAILED_TO_PAUSE_JOBS ), e );
+    }
+    stagingGroup.set( group );
+  }
+
+  /**
+   * Activates the jobs the current thread staged since {@link #stageJobs()}, and stops staging.
+   *
+   * @throws SchedulerException if the staged jobs cannot be resumed
+   */
+  public void activateStagedJobs() throws SchedulerException {
+    String group = stagingGroup.get();
+    if ( group == null ) {
+      return;
+    }
+    stagingGroup.remove();
+    try {
+      activate( getQuartzScheduler(), group );
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getString( QUARTZ_SCHEDULER_ERROR_0005_FAILED_TO_RESUME_JOBS ), e );
+    }
+  }
+
+  /**
+   * Activates the jobs left staged when the server stopped before activating them.
+   *
+   * @return the number of staging groups activated
+   * @throws SchedulerException if the staged jobs cannot be resumed
+   */
+  public int activateAbandonedStagedJobs() throws SchedulerException {
+    int activated = 0;
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      for ( String group : scheduler.getPausedTriggerGroups() ) {
+        if ( group.startsWith( STAGING_GROUP_PREFIX ) ) {
+          activate( scheduler, group );
+          activated++;
+        }
+      }
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( Messages.getString( QUARTZ_SCHEDULER_ERROR_0005_FAILED_TO_RESUME_JOBS ), e );
+    }
+    return activated;
+  }
+
+  /**
+   * Moves the triggers of a staging group to the groups of their jobs, where they are stored active, and drops the
+   * group. The moved triggers are stored in one job store transaction, so the staged jobs start together.
+   */
+  private void activate( Scheduler scheduler, String group ) throws org.quartz.SchedulerException {
+    Map<JobDetail, Set<? extends Trigger>> jobs = new LinkedHashMap<>();
+    List<TriggerKey> stagedKeys = new ArrayList<>();
+    for ( TriggerKey stagedKey : scheduler.getTriggerKeys( GroupMatcher.triggerGroupEquals( group ) ) ) {
+      Trigger trigger = scheduler.getTrigger( stagedKey );
+      JobDetail jobDetail = trigger != null ? scheduler.getJobDetail( trigger.getJobKey() ) : null;
+      if ( jobDetail != null ) {
+        jobs.put( jobDetail, Collections.singleton(
+          trigger.getTriggerBuilder().withIdentity( stagedKey.getName(), trigger.getJobKey().getGroup() ).build() ) );
+        stagedKeys.add( stagedKey );
+      }
+    }
+    if ( !jobs.isEmpty() ) {
+      scheduler.scheduleJobs( jobs, true );
+      // the staged copies are paused, and never fired
+      scheduler.unscheduleJobs( stagedKeys );
+    }
+    // the group has no trigger left, resuming it only forgets that it is paused
+    scheduler.resumeTriggers( GroupMatcher.triggerGroupEquals( group ) );
+  }
+
+  /**
+   * Writes the jobs, triggers and calendars of the job store as a binary snapshot, to be restored with
+   * {@link #restoreSnapshot(ReadableByteChannel)}, e.g. on another server. Triggers fired by hand are left out.
+   *
+   * @param channel the channel to write the snapshot to
+   * @return the number of jobs written
+   * @throws SchedulerException if the job store cannot be read or the snapshot cannot be written
+   */
+  public int writeSnapshot( WritableByteChannel channel ) throws SchedulerException {
+    jobDetailLock.readLock().lock();
+    try {
+      return new SchedulerSnapshot( getQuartzScheduler() ).write( channel, trigger -> !isManualTrigger( trigger ) );
+    } catch ( org.quartz.SchedulerException | IOException e ) {
+      throw new SchedulerException( Messages.getString( QUARTZ_SCHEDULER_ERROR_0018_FAILED_TO_WRITE_SNAPSHOT ), e );
+    } finally {
+      jobDetailLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Restores a snapshot written by {@link #writeSnapshot(WritableByteChannel)}, replacing the jobs and calendars of
+   * the same name. A snapshot that cannot be read to its end restores nothing. The jobs are stored in batches, so a
+   * job store failing midway may leave the snapshot partly restored. The triggers that were paused are kept in a
+   * paused trigger group of their own until their job is resumed.
+   *
+   * @param channel the channel to read the snapshot from
+   * @return the number of jobs restored
+   * @throws SchedulerException if the snapshot cannot be read or stored
+   */
+  public int restoreSnapshot( ReadableByteChannel channel ) throws SchedulerException {
+    jobDetailLock.writeLock().lock();
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      int restored = new SchedulerSnapshot( scheduler ).restore( channel );
+      // recount the triggers sharing each availability calendar
+      availabilityCalendars.deleteUnused( scheduler );
+      return restored;
+    } catch ( org.quartz.SchedulerException | IOException e ) {
+      throw new SchedulerException( Messages.getString( QUARTZ_SCHEDULER_ERROR_0019_FAILED_TO_RESTORE_SNAPSHOT ), e );
+    } finally {
+      jobDetailLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Deletes the availability calendars no trigger uses anymore, such as the calendars of jobs Quartz removed after
+   * their last fire.
+   *
+   * @return the number of calendars deleted
+   * @throws SchedulerException if the calendars cannot be listed
+   */
+  public int deleteUnusedCalendars() throws SchedulerException {
+    jobDetailLock.writeLock().lock();
+    try {
+      return availabilityCalendars.deleteUnused( getQuartzScheduler() );
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( e );
+    } finally {
+      jobDetailLock.writeLock().unlock();
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -1149,6 +1815,34 @@ public class QuartzScheduler implements IScheduler {
     }
   }
 
+  /**
+   * Registers a Quartz trigger listener for all the triggers, replacing any listener of the same name.
+   *
+   * @param listener the listener
+   * @throws SchedulerException if the Quartz scheduler could not be created
+   */
+  public void addTriggerListener( TriggerListener listener ) throws SchedulerException {
+    try {
+      getQuartzScheduler().getListenerManager().addTriggerListener( listener );
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( e );
+    }
+  }
+
+  /**
+   * Registers a Quartz scheduler listener.
+   *
+   * @param listener the listener
+   * @throws SchedulerException if the Quartz scheduler could not be created
+   */
+  public void addSchedulerListener( SchedulerListener listener ) throws SchedulerException {
+    try {
+      getQuartzScheduler().getListenerManager().addSchedulerListener( listener );
+    } catch ( org.quartz.SchedulerException e ) {
+      throw new SchedulerException( e );
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -1164,6 +1858,69 @@ public class QuartzScheduler implements IScheduler {
     }
   }
 
+  /**
+   * Pauses several jobs in one go. A job failing to pause is logged and does not stop the others.
+   *
+   * @param jobIds the job ids
+   * @return the ids of the jobs paused
+   */
+  public List<String> pauseJobs( List<String> jobIds ) {
+    return controlJobs( jobIds, ( scheduler, jobKey ) -> scheduler.pauseJob( jobKey ) );
+  }
+
+  /**
+   * Resumes several jobs in one go. A job failing to resume is logged and does not stop the others.
+   *
+   * @param jobIds the job ids
+   * @return the ids of the jobs resumed
+   */
+  public List<String> resumeJobs( List<String> jobIds ) {
+    return controlJobs( jobIds, ( scheduler, jobKey ) -> {
+      normalizeTriggerTimingState( jobKey, null );
+      scheduler.resumeJob( jobKey );
+    } );
+  }
+
+  /**
+   * Fires several jobs now. A job failing to fire is logged and does not stop the others.
+   *
+   * @param jobIds the job ids
+   * @return the ids of the jobs fired
+   */
+  public List<String> triggerJobs( List<String> jobIds ) {
+    return controlJobs( jobIds, ( scheduler, jobKey ) -> scheduler.triggerJob( jobKey ) );
+  }
+
+  /**
+   * Applies an action to several jobs, one job after the other. Each job is locked, if at all, only while its own
+   * action runs, as when the job is controlled on its own, so that a large batch does not hold up the updates and
+   * executions of the other jobs.
+   * <p>
+   * Quartz group matchers are not used: they act on every job of a user, not only the selected ones, and pausing a
+   * whole group makes some job stores create the later jobs of that group paused.
+   */
+  private List<String> controlJobs( List<String> jobIds, JobAction action ) {
+    List<String> done = new ArrayList<>();
+    try {
+      Scheduler scheduler = getQuartzScheduler();
+      for ( String jobId : jobIds ) {
+        try {
+          action.apply( scheduler, new JobKey( jobId, QuartzJobKey.parse( jobId ).getUserName() ) );
+          done.add( jobId );
+        } catch ( SchedulerException | org.quartz.SchedulerException e ) {
+          logger.warn( Messages.getInstance().getString( QUARTZ_SCHEDULER_ERROR_0007_FAILED_TO_GET_JOB, jobId ), e );
+        }
+      }
+    } catch ( org.quartz.SchedulerException e ) {
+      logger.error( e.getMessage(), e );
+    }
+    return done;
+  }
+
+  private interface JobAction {
+    void apply( Scheduler scheduler, JobKey jobKey ) throws org.quartz.SchedulerException;
+  }
+
   /**
    * {@inheritDoc}
    */
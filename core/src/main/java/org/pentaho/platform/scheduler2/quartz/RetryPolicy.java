@@ -0,0 +1,119 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+
+/**
+ * Decides whether and when a failed execution is retried.
+ *
+ * <p>Retry {@code n} (starting at 1) is delayed by {@code initialDelay * multiplier^(n-1)}, capped at
+ * {@code maxDelay}, then spread by up to {@code jitter} (a fraction of the delay) in either direction so that jobs
+ * failing together are not retried together.</p>
+ */
+public class RetryPolicy {
+
+  private static final String MAX_ATTEMPTS_SETTING_KEY = "settings/retry-max-attempts";
+  private static final String INITIAL_DELAY_SETTING_KEY = "settings/retry-initial-delay";
+  private static final String MULTIPLIER_SETTING_KEY = "settings/retry-multiplier";
+  private static final String MAX_DELAY_SETTING_KEY = "settings/retry-max-delay";
+  private static final String JITTER_SETTING_KEY = "settings/retry-jitter";
+
+  private static final int DEFAULT_MAX_ATTEMPTS = 1;
+  private static final long DEFAULT_INITIAL_DELAY_MILLIS = 10000;
+  private static final double DEFAULT_MULTIPLIER = 2;
+  private static final long DEFAULT_MAX_DELAY_MILLIS = 600000;
+  private static final double DEFAULT_JITTER = 0.2;
+
+  private final int maxAttempts;
+  private final long initialDelayMillis;
+  private final double multiplier;
+  private final long maxDelayMillis;
+  private final double jitter;
+
+  /**
+   * @param maxAttempts        the number of retries after the first failure, zero to never retry
+   * @param initialDelayMillis the delay before the first retry
+   * @param multiplier         the factor applied to the delay for each further retry, at least 1
+   * @param maxDelayMillis     the maximum delay before the jitter is applied
+   * @param jitter             the random spread as a fraction of the delay, between 0 and 1
+   */
+  public RetryPolicy( final int maxAttempts, final long initialDelayMillis, final double multiplier,
+                      final long maxDelayMillis, final double jitter ) {
+    this.maxAttempts = Math.max( 0, maxAttempts );
+    this.initialDelayMillis = Math.max( 0, initialDelayMillis );
+    this.multiplier = Math.max( 1, multiplier );
+    this.maxDelayMillis = Math.max( this.initialDelayMillis, maxDelayMillis );
+    this.jitter = Math.min( 1, Math.max( 0, jitter ) );
+  }
+
+  /**
+   * Reads the policy from the plugin settings, using the defaults for the settings that are missing or invalid.
+   *
+   * @param resourceLoader the plugin resource loader, may be {@code null}
+   * @return the policy
+   */
+  public static RetryPolicy fromSettings( final IPluginResourceLoader resourceLoader ) {
+    if ( resourceLoader == null ) {
+      return new RetryPolicy( DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_DELAY_MILLIS, DEFAULT_MULTIPLIER,
+        DEFAULT_MAX_DELAY_MILLIS, DEFAULT_JITTER );
+    }
+    return new RetryPolicy(
+      (int) parseDouble( resourceLoader.getPluginSetting( RetryPolicy.class, MAX_ATTEMPTS_SETTING_KEY, null ),
+        DEFAULT_MAX_ATTEMPTS ),
+      (long) parseDouble( resourceLoader.getPluginSetting( RetryPolicy.class, INITIAL_DELAY_SETTING_KEY, null ),
+        DEFAULT_INITIAL_DELAY_MILLIS ),
+      parseDouble( resourceLoader.getPluginSetting( RetryPolicy.class, MULTIPLIER_SETTING_KEY, null ),
+        DEFAULT_MULTIPLIER ),
+      (long) parseDouble( resourceLoader.getPluginSetting( RetryPolicy.class, MAX_DELAY_SETTING_KEY, null ),
+        DEFAULT_MAX_DELAY_MILLIS ),
+      parseDouble( resourceLoader.getPluginSetting( RetryPolicy.class, JITTER_SETTING_KEY, null ),
+        DEFAULT_JITTER ) );
+  }
+
+  private static double parseDouble( final String value, final double defaultValue ) {
+    try {
+      return value == null ? defaultValue : Double.parseDouble( value.trim() );
+    } catch ( NumberFormatException e ) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * @param attempt the retry number, starting at 1
+   * @return {@code true} if the policy allows this retry
+   */
+  public boolean allowsAttempt( final int attempt ) {
+    return attempt >= 1 && attempt <= maxAttempts;
+  }
+
+  /**
+   * Computes the delay before a retry.
+   *
+   * @param attempt the retry number, starting at 1
+   * @param random  a random value in [0, 1) used for the jitter
+   * @return the delay in milliseconds
+   */
+  public long getDelayMillis( final int attempt, final double random ) {
+    double delay = initialDelayMillis * Math.pow( multiplier, Math.max( 0, attempt - 1 ) );
+    delay = Math.min( delay, maxDelayMillis );
+    delay += delay * jitter * ( 2 * random - 1 );
+    return Math.max( 0, Math.round( delay ) );
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+}
@@ -0,0 +1,409 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.quartz.JobDetail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries failed executions of a job against the job itself, instead of creating a new job for the retry.
+ *
+ * <p>Pending retries are held in memory and fired by a single background thread when they are due, at most one per
+ * job. Each pending retry is also appended to a journal file, synced before {@link #scheduleRetry(JobDetail, int)}
+ * returns, so that retries pending when the server stops or crashes are fired once the scheduler starts again.</p>
+ *
+ * <p>Firing a retry triggers the original job once, with {@link #RETRY_ATTEMPT_KEY} and
+ * {@link IScheduler#RESERVEDMAPKEY_RESTART_FLAG} in the trigger data. A run once job has no trigger left and has been
+ * removed by then, it is stored again under its original key for the retry. Any other job removed by then has been
+ * deleted and is not retried.</p>
+ */
+public class RetryScheduler {
+
+  /**
+   * Trigger data key holding the retry number of an execution, starting at 1.
+   */
+  public static final String RETRY_ATTEMPT_KEY = "ActionAdapterQuartzJob-RetryAttempt";
+
+  private static final Log logger = LogFactory.getLog( RetryScheduler.class );
+
+  private static final String JOURNAL_SETTING_KEY = "settings/retry-journal";
+  private static final String DEFAULT_JOURNAL = "system/tmp/scheduler-retries.journal";
+
+  private static final byte RECORD_SCHEDULED = 'S';
+  private static final byte RECORD_DONE = 'D';
+  private static final int MIN_COMPACTION_RECORDS = 100;
+
+  private static RetryScheduler instance;
+
+  /**
+   * Fires a retry, {@link QuartzScheduler#retryJob(JobDetail, int)} unless replaced for testing.
+   */
+  @FunctionalInterface
+  interface RetryTarget {
+    void retry( JobDetail jobDetail, int attempt ) throws Exception;
+  }
+
+  private static class PendingRetry {
+    private final JobDetail jobDetail;
+    private final int attempt;
+    private final long dueMillis;
+
+    PendingRetry( final JobDetail jobDetail, final int attempt, final long dueMillis ) {
+      this.jobDetail = jobDetail;
+      this.attempt = attempt;
+      this.dueMillis = dueMillis;
+    }
+  }
+
+  private final RetryPolicy policy;
+  private final File journal;
+  private final RetryTarget target;
+  private final Random random = new Random();
+  private final Map<String, PendingRetry> pending = new LinkedHashMap<>();
+  private final ScheduledThreadPoolExecutor executor;
+  private int journalRecords;
+
+  /**
+   * @param policy  the retry policy
+   * @param journal the journal file, {@code null} to keep pending retries in memory only
+   * @param target  fires the retries
+   */
+  RetryScheduler( final RetryPolicy policy, final File journal, final RetryTarget target ) {
+    this.policy = policy;
+    this.journal = journal;
+    this.target = target;
+    this.executor = new ScheduledThreadPoolExecutor( 1, runnable -> {
+      Thread thread = new Thread( runnable, "scheduler-retry" ); //$NON-NLS-1$
+      thread.setDaemon( true );
+      return thread;
+    } );
+    this.executor.setRemoveOnCancelPolicy( true );
+  }
+
+  /**
+   * Returns the shared retry scheduler, creating it from the plugin settings on first use. Retries journaled before
+   * the previous shutdown are scheduled again when it is created.
+   *
+   * @return the shared retry scheduler
+   */
+  public static synchronized RetryScheduler getInstance() {
+    if ( instance == null ) {
+      IPluginResourceLoader resourceLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+      String journalPath = resourceLoader == null ? DEFAULT_JOURNAL
+        : resourceLoader.getPluginSetting( RetryScheduler.class, JOURNAL_SETTING_KEY, DEFAULT_JOURNAL );
+      File journal = null;
+      if ( !StringUtils.isBlank( journalPath ) ) {
+        journal = new File( journalPath.trim() );
+        if ( !journal.isAbsolute() && PentahoSystem.getApplicationContext() != null ) {
+          journal = new File( PentahoSystem.getApplicationContext().getSolutionPath( journalPath.trim() ) );
+        }
+      }
+      instance = new RetryScheduler( RetryPolicy.fromSettings( resourceLoader ), journal,
+        ( jobDetail, attempt ) -> {
+          IScheduler scheduler = PentahoSystem.get( IScheduler.class, "IScheduler2", null ); //$NON-NLS-1$
+          if ( !( scheduler instanceof QuartzScheduler ) ) {
+            throw new IllegalStateException( "Retries need a QuartzScheduler, found " + scheduler );
+          }
+          ( (QuartzScheduler) scheduler ).retryJob( jobDetail, attempt );
+        } );
+      instance.recover();
+    }
+    return instance;
+  }
+
+  /**
+   * Stops the shared retry scheduler, if any. Pending retries stay in the journal and are fired after the next start.
+   */
+  public static synchronized void shutdownInstance() {
+    if ( instance != null ) {
+      instance.shutdown();
+      instance = null;
+    }
+  }
+
+  /**
+   * Stops firing retries. Pending retries stay in the journal.
+   */
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns the retry number of an execution.
+   *
+   * @param params the merged job data of the execution
+   * @return the retry number, 0 for a regular execution
+   */
+  public static int getAttempt( final Map<String, ?> params ) {
+    Object attempt = params.get( RETRY_ATTEMPT_KEY );
+    if ( attempt != null ) {
+      try {
+        return Integer.parseInt( attempt.toString() );
+      } catch ( NumberFormatException e ) {
+        return 1;
+      }
+    }
+    // executions of the run once jobs created for retries before the retry scheduler existed
+    return Boolean.TRUE.equals( params.get( IScheduler.RESERVEDMAPKEY_RESTART_FLAG ) )
+      || "true".equals( params.get( IScheduler.RESERVEDMAPKEY_RESTART_FLAG ) ) ? 1 : 0;
+  }
+
+  /**
+   * Schedules a retry of a failed execution if the policy allows it.
+   *
+   * @param jobDetail the job whose execution failed
+   * @param attempt   the retry number, starting at 1
+   * @return {@code true} if a retry of the job is pending, {@code false} if the policy does not allow another one
+   */
+  public boolean scheduleRetry( final JobDetail jobDetail, final int attempt ) {
+    if ( !policy.allowsAttempt( attempt ) ) {
+      return false;
+    }
+    String jobId = jobDetail.getKey().getName();
+    synchronized ( this ) {
+      if ( pending.containsKey( jobId ) ) {
+        return true;
+      }
+      if ( executor.isShutdown() ) {
+        return false;
+      }
+      long delay = policy.getDelayMillis( attempt, random.nextDouble() );
+      PendingRetry retry = new PendingRetry( jobDetail, attempt, System.currentTimeMillis() + delay );
+      appendScheduled( jobId, retry );
+      schedule( jobId, retry );
+      logger.info( "Retry " + attempt + " of job '" + jobId + "' scheduled in " + delay + "ms" );
+      return true;
+    }
+  }
+
+  /**
+   * @return the number of retries waiting to be fired
+   */
+  public synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  private void schedule( final String jobId, final PendingRetry retry ) {
+    pending.put( jobId, retry );
+    executor.schedule( () -> fire( jobId, retry ),
+      Math.max( 0, retry.dueMillis - System.currentTimeMillis() ), TimeUnit.MILLISECONDS );
+  }
+
+  private void fire( final String jobId, final PendingRetry retry ) {
+    try {
+      target.retry( retry.jobDetail, retry.attempt );
+    } catch ( Exception e ) {
+      logger.warn( "Retry " + retry.attempt + " of job '" + jobId + "' could not be fired", e );
+    }
+    synchronized ( this ) {
+      if ( pending.get( jobId ) == retry ) {
+        pending.remove( jobId );
+        appendDone( jobId );
+      }
+    }
+  }
+
+  /**
+   * Schedules the retries found in the journal, firing those already due right away, and rewrites the journal with
+   * them only.
+   */
+  synchronized void recover() {
+    if ( journal == null || !journal.isFile() ) {
+      return;
+    }
+    Map<String, PendingRetry> journaled = new LinkedHashMap<>();
+    try ( DataInputStream in = new DataInputStream( new FileInputStream( journal ) ) ) {
+      while ( true ) {
+        byte type;
+        try {
+          type = in.readByte();
+        } catch ( EOFException e ) {
+          break;
+        }
+        String jobId = in.readUTF();
+        if ( type == RECORD_DONE ) {
+          journaled.remove( jobId );
+        } else {
+          int attempt = in.readInt();
+          long dueMillis = in.readLong();
+          byte[] detail = new byte[ in.readInt() ];
+          in.readFully( detail );
+          journaled.put( jobId, new PendingRetry( readJobDetail( detail ), attempt, dueMillis ) );
+        }
+      }
+    } catch ( IOException | ClassNotFoundException | RuntimeException e ) {
+      // a record cut short by a crash ends the journal
+      logger.warn( "Retry journal " + journal + " is truncated or unreadable, " + journaled.size()
+        + " retries recovered", e );
+    }
+    for ( Map.Entry<String, PendingRetry> entry : journaled.entrySet() ) {
+      schedule( entry.getKey(), entry.getValue() );
+    }
+    compactJournal();
+    if ( !journaled.isEmpty() ) {
+      logger.info( journaled.size() + " retries recovered from " + journal );
+    }
+  }
+
+  private void appendScheduled( final String jobId, final PendingRetry retry ) {
+    if ( journal == null ) {
+      return;
+    }
+    try {
+      byte[] detail = writeJobDetail( retry.jobDetail );
+      append( out -> {
+        out.writeByte( RECORD_SCHEDULED );
+        out.writeUTF( jobId );
+        out.writeInt( retry.attempt );
+        out.writeLong( retry.dueMillis );
+        out.writeInt( detail.length );
+        out.write( detail );
+      } );
+    } catch ( IOException e ) {
+      logger.warn( "Failed to journal retry " + retry.attempt + " of job '" + jobId
+        + "', it will be lost if the server stops before it is fired", e );
+    }
+  }
+
+  private void appendDone( final String jobId ) {
+    if ( journal == null ) {
+      return;
+    }
+    if ( pending.isEmpty() || journalRecords > Math.max( MIN_COMPACTION_RECORDS, 4 * pending.size() ) ) {
+      compactJournal();
+      return;
+    }
+    try {
+      append( out -> {
+        out.writeByte( RECORD_DONE );
+        out.writeUTF( jobId );
+      } );
+    } catch ( IOException e ) {
+      logger.warn( "Failed to journal the retry of job '" + jobId + "' as fired", e );
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write( DataOutputStream out ) throws IOException;
+  }
+
+  private void append( final RecordWriter writer ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    writer.write( new DataOutputStream( bytes ) );
+    File parent = journal.getAbsoluteFile().getParentFile();
+    if ( parent != null && !parent.isDirectory() && !parent.mkdirs() ) {
+      throw new IOException( "Cannot create " + parent );
+    }
+    try ( FileOutputStream out = new FileOutputStream( journal, true ) ) {
+      bytes.writeTo( out );
+      out.getFD().sync();
+    }
+    journalRecords++;
+  }
+
+  /**
+   * Rewrites the journal with the pending retries only.
+   */
+  private void compactJournal() {
+    File compacted = new File( journal.getPath() + ".tmp" );
+    try {
+      if ( pending.isEmpty() ) {
+        if ( journal.exists() && !journal.delete() ) {
+          throw new IOException( "Cannot delete " + journal );
+        }
+        journalRecords = 0;
+        return;
+      }
+      try ( FileOutputStream file = new FileOutputStream( compacted );
+            DataOutputStream out = new DataOutputStream( file ) ) {
+        for ( Map.Entry<String, PendingRetry> entry : pending.entrySet() ) {
+          byte[] detail = writeJobDetail( entry.getValue().jobDetail );
+          out.writeByte( RECORD_SCHEDULED );
+          out.writeUTF( entry.getKey() );
+          out.writeInt( entry.getValue().attempt );
+          out.writeLong( entry.getValue().dueMillis );
+          out.writeInt( detail.length );
+          out.write( detail );
+        }
+        out.flush();
+        file.getFD().sync();
+      }
+      if ( ( journal.exists() && !journal.delete() ) || !compacted.renameTo( journal ) ) {
+        throw new IOException( "Cannot replace " + journal );
+      }
+      journalRecords = pending.size();
+    } catch ( IOException e ) {
+      logger.warn( "Failed to compact retry journal " + journal, e );
+    }
+  }
+
+  static byte[] writeJobDetail( final JobDetail jobDetail ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try ( ObjectOutputStream out = new ObjectOutputStream( bytes ) ) {
+      out.writeObject( jobDetail );
+    }
+    return bytes.toByteArray();
+  }
+
+  static JobDetail readJobDetail( final byte[] detail ) throws IOException, ClassNotFoundException {
+    try ( ObjectInputStream in = new PluginObjectInputStream( new ByteArrayInputStream( detail ) ) ) {
+      in.setObjectInputFilter( SchedulerSnapshot.CLASS_FILTER );
+      return (JobDetail) in.readObject();
+    }
+  }
+
+  /**
+   * Resolves the classes of the journaled job data through the plugin class loader.
+   */
+  private static class PluginObjectInputStream extends ObjectInputStream {
+    PluginObjectInputStream( final InputStream in ) throws IOException {
+      super( in );
+    }
+
+    @Override
+    protected Class<?> resolveClass( final ObjectStreamClass desc ) throws IOException, ClassNotFoundException {
+      try {
+        return Class.forName( desc.getName(), false, RetryScheduler.class.getClassLoader() );
+      } catch ( ClassNotFoundException e ) {
+        return super.resolveClass( desc );
+      }
+    }
+  }
+}
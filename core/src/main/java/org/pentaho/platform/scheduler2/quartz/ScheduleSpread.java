@@ -0,0 +1,147 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads the fire times of schedules set for the same time, typically the top of the hour, over a window around that
+ * time, so that they do not all fire in the same second.
+ *
+ * <p>Each job gets an offset within {@code -window..+window}, derived from a hash of its job id: the offset is the
+ * same every time the trigger of the job is built, e.g. when the job is updated, and differs from job to job. The
+ * window of a job is, in order of precedence, the {@value #SPREAD_WINDOW_PARAM} job parameter or the
+ * {@code schedule-spread-window} plugin setting, in minutes, and at most {@value #MAX_WINDOW_MINUTES} minutes. A
+ * window of zero leaves the fire times as set.</p>
+ *
+ * <p>A recurring schedule has its start time moved by the offset. A cron schedule firing at a fixed minute and second
+ * has them moved by the offset, kept within the hour it fires in by moving the other way when the offset would cross
+ * the hour; other cron schedules are left as set. Run once schedules, such as the executions run in the background,
+ * are never moved.</p>
+ *
+ * <p>The cron expression as set, or the offset of the start time, is kept in the job parameters when moved, and the
+ * job trigger read back holds the schedule as set, so that updating a job with its own trigger does not move it again. The next run of the job shows
+ * the moved fire time.</p>
+ */
+public final class ScheduleSpread {
+
+  /**
+   * Job parameter holding the spread window of a job, in minutes.
+   */
+  public static final String SPREAD_WINDOW_PARAM = "spreadWindow";
+
+  /**
+   * Job data key holding the cron expression of a job as set, when moved by the spread.
+   */
+  public static final String CRON_STRING_AS_SET_KEY = "ScheduleSpread-CronString";
+
+  /**
+   * Job data key holding the seconds the start time of a job was moved by the spread, so that the start time as set
+   * is known after the trigger is rebuilt with a later start time.
+   */
+  public static final String START_OFFSET_KEY = "ScheduleSpread-StartOffset";
+
+  /**
+   * The largest window, in minutes, so that a cron schedule is moved within its hour.
+   */
+  public static final int MAX_WINDOW_MINUTES = 30;
+
+  private static final String WINDOW_SETTING_KEY = "settings/schedule-spread-window";
+
+  private static Integer defaultWindowMinutes;
+
+  private ScheduleSpread() {
+  }
+
+  /**
+   * Resolves the spread window of a job.
+   *
+   * @param jobParams the job parameters
+   * @return the window in minutes, zero if the fire times of the job are not spread
+   */
+  public static int getWindowMinutes( final Map<String, ?> jobParams ) {
+    Object jobWindow = jobParams == null ? null : jobParams.get( SPREAD_WINDOW_PARAM );
+    int window = jobWindow == null ? -1 : parseMinutes( jobWindow.toString() );
+    return window < 0 ? getDefaultWindowMinutes() : window;
+  }
+
+  /**
+   * @return the offset of the fire times of a job, in seconds, within {@code -window..+window}
+   */
+  static int getOffsetSeconds( final String jobId, final int windowMinutes ) {
+    int window = (int) TimeUnit.MINUTES.toSeconds( Math.min( MAX_WINDOW_MINUTES, Math.max( 0, windowMinutes ) ) );
+    if ( window == 0 || jobId == null ) {
+      return 0;
+    }
+    long hash = UUID.nameUUIDFromBytes( jobId.getBytes( StandardCharsets.UTF_8 ) ).getLeastSignificantBits();
+    return (int) Math.floorMod( hash, 2L * window + 1 ) - window;
+  }
+
+  /**
+   * Moves the fire times of a cron expression firing at a fixed minute and second by an offset, within the hour.
+   *
+   * @param cronString    the cron expression
+   * @param offsetSeconds the offset, in seconds, at most 30 minutes either way
+   * @return the moved cron expression, or the cron expression as is if it has no fixed minute and second
+   */
+  static String offsetCronString( final String cronString, final int offsetSeconds ) {
+    if ( offsetSeconds == 0 || cronString == null ) {
+      return cronString;
+    }
+    String[] fields = cronString.trim().split( "\\s+" );
+    if ( fields.length < 6 || !isNumber( fields[ 0 ] ) || !isNumber( fields[ 1 ] ) ) {
+      return cronString;
+    }
+    int secondOfHour = Integer.parseInt( fields[ 1 ] ) * 60 + Integer.parseInt( fields[ 0 ] );
+    int moved = secondOfHour + offsetSeconds;
+    if ( moved < 0 || moved >= 3600 ) {
+      moved = secondOfHour - offsetSeconds;
+    }
+    if ( moved < 0 || moved >= 3600 ) {
+      return cronString;
+    }
+    fields[ 0 ] = String.valueOf( moved % 60 );
+    fields[ 1 ] = String.valueOf( moved / 60 );
+    return String.join( " ", fields );
+  }
+
+  private static synchronized int getDefaultWindowMinutes() {
+    if ( defaultWindowMinutes == null ) {
+      IPluginResourceLoader resourceLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+      String setting = resourceLoader == null ? null
+        : resourceLoader.getPluginSetting( ScheduleSpread.class, WINDOW_SETTING_KEY, null );
+      defaultWindowMinutes = setting == null ? 0 : Math.max( 0, parseMinutes( setting ) );
+    }
+    return defaultWindowMinutes;
+  }
+
+  private static int parseMinutes( final String value ) {
+    try {
+      return Math.max( 0, Integer.parseInt( value.trim() ) );
+    } catch ( NumberFormatException e ) {
+      return -1;
+    }
+  }
+
+  private static boolean isNumber( final String field ) {
+    return field.matches( "\\d{1,2}" );
+  }
+}
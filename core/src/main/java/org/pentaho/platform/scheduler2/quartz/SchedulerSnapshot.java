@@ -0,0 +1,304 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import org.quartz.Calendar;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.spi.OperableTrigger;
+
+/**
+ * Writes and reads the whole content of a Quartz job store as a binary snapshot.
+ *
+ * <p>A snapshot starts with a magic number and a format version, followed by length-prefixed records: one per
+ * calendar, then one per job with its triggers and whether each trigger is paused, then an end record telling a
+ * complete snapshot from a truncated one. A record is a type byte, the length of its payload and the payload, so
+ * that readers skip the record types they do not know. Job details, triggers and calendars are stored serialized, as
+ * the JDBC job store does, which keeps their fire times and the last run time stored in the job data.</p>
+ *
+ * <p>Restoring spools the snapshot to a temporary file and reads it up to its end record before storing anything, so
+ * that a truncated or corrupt snapshot leaves the job store as it was. The jobs are then stored in batches, each in
+ * one job store transaction. The triggers that were paused are stored in a trigger group paused beforehand, as the job
+ * store creates the triggers of a paused group paused, and stay there until their job is resumed.</p>
+ */
+class SchedulerSnapshot {
+
+  static final int MAGIC = 0x50534e50;
+  static final short VERSION = 1;
+
+  static final byte END_RECORD = 0;
+  static final byte CALENDAR_RECORD = 1;
+  static final byte JOB_RECORD = 2;
+
+  static final int BATCH_SIZE = 500;
+
+  // the trigger groups the paused triggers of a restore are stored in, one per restore
+  static final String PAUSED_GROUP_PREFIX = "paused\t";
+
+  // the largest record read, far above the size of a job with its triggers
+  static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+  private static final int HEADER_LENGTH = 6;
+  private static final int RECORD_HEADER_LENGTH = 5;
+
+  // the classes a snapshot may contain: job details, triggers, calendars and the job parameters
+  static final ObjectInputFilter CLASS_FILTER = ObjectInputFilter.Config.createFilter(
+    "java.lang.*;java.util.*;java.math.*;java.sql.*;java.time.*;sun.util.calendar.ZoneInfo;org.quartz.**;"
+      + "org.pentaho.**;!*" );
+
+  private final Scheduler scheduler;
+
+  SchedulerSnapshot( Scheduler scheduler ) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @param triggerFilter whether to write a trigger, e.g. to leave the manual triggers out
+   * @return the number of jobs written
+   */
+  int write( WritableByteChannel channel, Predicate<Trigger> triggerFilter )
+    throws SchedulerException, IOException {
+    ByteBuffer header = ByteBuffer.allocate( HEADER_LENGTH );
+    header.putInt( MAGIC ).putShort( VERSION ).flip();
+    writeFully( channel, header );
+
+    RecordWriter writer = new RecordWriter( channel );
+    for ( String calendarName : scheduler.getCalendarNames() ) {
+      Calendar calendar = scheduler.getCalendar( calendarName );
+      if ( calendar != null ) {
+        ObjectOutputStream out = writer.begin();
+        out.writeUTF( calendarName );
+        out.writeObject( calendar );
+        writer.end( CALENDAR_RECORD );
+      }
+    }
+
+    int jobs = 0;
+    for ( String group : scheduler.getJobGroupNames() ) {
+      for ( JobKey jobKey : scheduler.getJobKeys( GroupMatcher.jobGroupEquals( group ) ) ) {
+        JobDetail jobDetail = scheduler.getJobDetail( jobKey );
+        List<Trigger> triggers = new ArrayList<>();
+        for ( Trigger trigger : scheduler.getTriggersOfJob( jobKey ) ) {
+          if ( triggerFilter.test( trigger ) ) {
+            triggers.add( trigger );
+          }
+        }
+        if ( jobDetail == null || triggers.isEmpty() ) {
+          // removed meanwhile, or only fired by hand
+          continue;
+        }
+        ObjectOutputStream out = writer.begin();
+        out.writeObject( jobDetail );
+        out.writeInt( triggers.size() );
+        for ( Trigger trigger : triggers ) {
+          out.writeBoolean( scheduler.getTriggerState( trigger.getKey() ) == Trigger.TriggerState.PAUSED );
+          out.writeObject( trigger );
+        }
+        writer.end( JOB_RECORD );
+        jobs++;
+      }
+    }
+
+    ByteBuffer end = ByteBuffer.allocate( RECORD_HEADER_LENGTH );
+    end.put( END_RECORD ).putInt( 0 ).flip();
+    writeFully( channel, end );
+    return jobs;
+  }
+
+  /**
+   * Stores the calendars and jobs of a snapshot, replacing the ones with the same name. The triggers of a job are
+   * stored in the job's group, or in a paused group of the restore when they were paused.
+   *
+   * @return the number of jobs restored
+   */
+  int restore( ReadableByteChannel channel ) throws SchedulerException, IOException {
+    Path spool = Files.createTempFile( "scheduler-snapshot", null );
+    try {
+      Files.copy( Channels.newInputStream( channel ), spool, StandardCopyOption.REPLACE_EXISTING );
+      try ( FileChannel file = FileChannel.open( spool, StandardOpenOption.READ ) ) {
+        read( file, false );
+        file.position( 0 );
+        return read( file, true );
+      }
+    } finally {
+      Files.deleteIfExists( spool );
+    }
+  }
+
+  /**
+   * @param store whether to store what is read, or only to check that the whole snapshot can be read
+   * @return the number of jobs read
+   */
+  private int read( ReadableByteChannel channel, boolean store ) throws SchedulerException, IOException {
+    ByteBuffer header = ByteBuffer.allocate( HEADER_LENGTH );
+    readFully( channel, header );
+    if ( header.getInt() != MAGIC ) {
+      throw new IOException( "Not a scheduler snapshot" );
+    }
+    short version = header.getShort();
+    if ( version > VERSION ) {
+      throw new IOException( "Unsupported scheduler snapshot version " + version );
+    }
+
+    Map<JobDetail, Set<? extends Trigger>> batch = new LinkedHashMap<>();
+    String pausedGroup = null;
+    int jobs = 0;
+    ByteBuffer recordHeader = ByteBuffer.allocate( RECORD_HEADER_LENGTH );
+    ByteBuffer payload = ByteBuffer.allocate( 8192 );
+    while ( true ) {
+      recordHeader.clear();
+      readFully( channel, recordHeader );
+      byte type = recordHeader.get();
+      int length = recordHeader.getInt();
+      if ( length < 0 || length > MAX_RECORD_LENGTH ) {
+        throw new IOException( "Corrupt scheduler snapshot" );
+      }
+      if ( type == END_RECORD ) {
+        break;
+      }
+      if ( payload.capacity() < length ) {
+        payload = ByteBuffer.allocate( Math.max( length, payload.capacity() * 2 ) );
+      }
+      payload.clear().limit( length );
+      readFully( channel, payload );
+      if ( type != CALENDAR_RECORD && type != JOB_RECORD ) {
+        // written by a later version
+        continue;
+      }
+
+      try ( ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream( payload.array(), 0, length ) ) ) {
+        in.setObjectInputFilter( CLASS_FILTER );
+        if ( type == CALENDAR_RECORD ) {
+          String calendarName = in.readUTF();
+          Calendar calendar = (Calendar) in.readObject();
+          if ( store ) {
+            scheduler.addCalendar( calendarName, calendar, true, false );
+          }
+        } else if ( type == JOB_RECORD ) {
+          JobDetail jobDetail = (JobDetail) in.readObject();
+          Set<Trigger> triggers = new HashSet<>();
+          for ( int i = in.readInt(); i > 0; i-- ) {
+            boolean paused = in.readBoolean();
+            OperableTrigger trigger = (OperableTrigger) in.readObject();
+            if ( store ) {
+              if ( paused && pausedGroup == null ) {
+                pausedGroup = PAUSED_GROUP_PREFIX + UUID.randomUUID();
+                scheduler.pauseTriggers( GroupMatcher.triggerGroupEquals( pausedGroup ) );
+              }
+              trigger.setKey( new TriggerKey( trigger.getKey().getName(),
+                paused ? pausedGroup : trigger.getJobKey().getGroup() ) );
+            }
+            triggers.add( trigger );
+          }
+          jobs++;
+          if ( store ) {
+            batch.put( jobDetail, triggers );
+            if ( batch.size() >= BATCH_SIZE ) {
+              store( batch );
+            }
+          }
+        }
+      } catch ( ClassNotFoundException | ClassCastException | InvalidClassException e ) {
+        throw new IOException( "Corrupt scheduler snapshot", e );
+      }
+    }
+    if ( store ) {
+      store( batch );
+    }
+    return jobs;
+  }
+
+  private void store( Map<JobDetail, Set<? extends Trigger>> batch ) throws SchedulerException {
+    if ( !batch.isEmpty() ) {
+      scheduler.scheduleJobs( batch, true );
+    }
+    batch.clear();
+  }
+
+  private static void writeFully( WritableByteChannel channel, ByteBuffer buffer ) throws IOException {
+    while ( buffer.hasRemaining() ) {
+      channel.write( buffer );
+    }
+  }
+
+  private static void readFully( ReadableByteChannel channel, ByteBuffer buffer ) throws IOException {
+    while ( buffer.hasRemaining() ) {
+      if ( channel.read( buffer ) < 0 ) {
+        throw new EOFException( "Truncated scheduler snapshot" );
+      }
+    }
+    buffer.flip();
+  }
+
+  /**
+   * Serializes one record at a time into a reused buffer, and writes it with its type and length.
+   */
+  private static class RecordWriter {
+    private final WritableByteChannel channel;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 8192 );
+    private final ByteBuffer recordHeader = ByteBuffer.allocate( RECORD_HEADER_LENGTH );
+    private ObjectOutputStream out;
+
+    RecordWriter( WritableByteChannel channel ) {
+      this.channel = channel;
+    }
+
+    ObjectOutputStream begin() throws IOException {
+      bytes.reset();
+      out = new ObjectOutputStream( bytes );
+      return out;
+    }
+
+    void end( byte type ) throws IOException {
+      out.close();
+      recordHeader.clear();
+      recordHeader.put( type ).putInt( bytes.size() ).flip();
+      writeFully( channel, recordHeader );
+      writeFully( channel, ByteBuffer.wrap( bytes.toByteArray() ) );
+    }
+  }
+}
@@ -0,0 +1,416 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.ListenerManager;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SchedulerFactory;
+import org.quartz.Trigger;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerKey;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.matchers.GroupMatcher;
+
+/**
+ * Fronts several independent Quartz schedulers, the shards, as one {@link Scheduler}, so that the jobs of different
+ * users do not wait for each other on the locks of a single job store.
+ *
+ * <p>A new job is stored in the shard of its owner, chosen from the hash of the user name, and its
+ * {@link QuartzJobKey} records the shard, so that the job stays where it is when shards are added. The jobs whose key
+ * records no shard, such as the jobs created before sharding, are in the first shard. Removing shards leaves their
+ * jobs out of reach.</p>
+ *
+ * <p>The calls naming a job or a trigger go to the shard of the job. The triggers whose key is not a job id, such as
+ * the manual triggers Quartz creates to run a job at once, are looked for in every shard. The calls on groups, on the
+ * whole scheduler and on calendars go to every shard, their results merged; a calendar is stored in every shard, as any
+ * trigger may use it. A listener is registered with every shard. The other calls, e.g. for the scheduler name or the
+ * context, go to the first shard.</p>
+ */
+public class ShardedSchedulerFactory implements SchedulerFactory {
+
+  /**
+   * The Quartz property giving the number of shards, 1 by default.
+   */
+  static final String SHARDS_PROPERTY = "org.pentaho.scheduler.shards";
+
+  private static final Set<String> FAN_OUT_METHODS = new HashSet<>( Arrays.asList( "start", "startDelayed",
+    "standby", "shutdown", "clear", "pauseAll", "resumeAll", "getJobGroupNames", "getTriggerGroupNames",
+    "getPausedTriggerGroups", "getCalendarNames", "getCurrentlyExecutingJobs", "interrupt", "setJobFactory" ) );
+
+  private final List<SchedulerFactory> shardFactories;
+
+  private Scheduler scheduler;
+
+  /**
+   * @param shardFactories the factories of the shards, the first one being the factory of the jobs without a shard
+   */
+  public ShardedSchedulerFactory( List<SchedulerFactory> shardFactories ) {
+    this.shardFactories = new ArrayList<>( shardFactories );
+  }
+
+  /**
+   * Reads the number of shards from the Quartz properties and builds a factory per shard, from the same properties.
+   *
+   * @return the factory of the sharded scheduler, or a {@link StdSchedulerFactory} when there is a single shard
+   */
+  static SchedulerFactory create( Properties quartzProps ) throws SchedulerException {
+    int shardCount = Integer.parseInt( quartzProps.getProperty( SHARDS_PROPERTY, "1" ).trim() );
+    if ( shardCount <= 1 ) {
+      return new StdSchedulerFactory( quartzProps );
+    }
+    List<SchedulerFactory> factories = new ArrayList<>();
+    for ( int shard = 0; shard < shardCount; shard++ ) {
+      factories.add( new StdSchedulerFactory( getShardProperties( quartzProps, shard, shardCount ) ) );
+    }
+    return new ShardedSchedulerFactory( factories );
+  }
+
+  /**
+   * Derives the Quartz properties of a shard. Each shard other than the first has a scheduler name of its own, which
+   * keeps its rows apart from the other shards in the tables of a JDBC job store, its own journal directory with a
+   * {@link JournaledJobStore}, and a share of the threads.
+   */
+  static Properties getShardProperties( Properties quartzProps, int shard, int shardCount ) {
+    Properties properties = new Properties();
+    properties.putAll( quartzProps );
+    properties.remove( SHARDS_PROPERTY );
+    String threadCountProperty = StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount";
+    String threadCount = quartzProps.getProperty( threadCountProperty );
+    if ( threadCount != null ) {
+      int threads = ( Integer.parseInt( threadCount.trim() ) + shardCount - 1 ) / shardCount;
+      properties.setProperty( threadCountProperty, String.valueOf( Math.max( 1, threads ) ) );
+    }
+    if ( shard == 0 ) {
+      return properties;
+    }
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME,
+      quartzProps.getProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "QuartzScheduler" ) + "_" + shard );
+    if ( JournaledJobStore.class.getName().equals(
+      quartzProps.getProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, "" ).trim() ) ) {
+      String journalDirectoryProperty = StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".journalDirectory";
+      properties.setProperty( journalDirectoryProperty, quartzProps.getProperty( journalDirectoryProperty,
+        JournaledJobStore.DEFAULT_JOURNAL_DIRECTORY ).trim() + "/shard-" + shard );
+    }
+    return properties;
+  }
+
+  public int getShardCount() {
+    return shardFactories.size();
+  }
+
+  /**
+   * @return the shard storing the new jobs of a user
+   */
+  public int getShard( String userName ) {
+    return Math.floorMod( userName.hashCode(), shardFactories.size() );
+  }
+
+  @Override
+  public synchronized Scheduler getScheduler() throws SchedulerException {
+    if ( scheduler == null ) {
+      List<Scheduler> shards = new ArrayList<>();
+      for ( SchedulerFactory shardFactory : shardFactories ) {
+        shards.add( shardFactory.getScheduler() );
+      }
+      scheduler = (Scheduler) Proxy.newProxyInstance( Scheduler.class.getClassLoader(),
+        new Class<?>[] { Scheduler.class }, new ShardedScheduler( shards ) );
+    }
+    return scheduler;
+  }
+
+  @Override
+  public Scheduler getScheduler( String schedName ) throws SchedulerException {
+    Scheduler sharded = getScheduler();
+    return sharded.getSchedulerName().equals( schedName ) ? sharded : null;
+  }
+
+  @Override
+  public Collection<Scheduler> getAllSchedulers() throws SchedulerException {
+    return Collections.singletonList( getScheduler() );
+  }
+
+  /**
+   * Routes the calls of the sharded scheduler to the shards.
+   */
+  static class ShardedScheduler implements InvocationHandler {
+
+    private final List<Scheduler> shards;
+
+    ShardedScheduler( List<Scheduler> shards ) {
+      this.shards = shards;
+    }
+
+    /**
+     * @return the shard of a job: the shard recorded in its id, or the first shard
+     */
+    int getShard( JobKey jobKey ) {
+      try {
+        int shard = QuartzJobKey.parse( jobKey.getName() ).getShard();
+        return shard < shards.size() ? shard : 0;
+      } catch ( org.pentaho.platform.api.scheduler2.SchedulerException e ) {
+        return 0;
+      }
+    }
+
+    /**
+     * @return the shard of a trigger named after its job id, or {@code null} when its name is not a job id
+     */
+    Integer getShard( TriggerKey triggerKey ) {
+      try {
+        int shard = QuartzJobKey.parse( triggerKey.getName() ).getShard();
+        return shard < shards.size() ? shard : 0;
+      } catch ( org.pentaho.platform.api.scheduler2.SchedulerException e ) {
+        return null;
+      }
+    }
+
+    @Override
+    public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable {
+      if ( method.getDeclaringClass() == Object.class ) {
+        switch ( method.getName() ) {
+          case "equals":
+            return proxy == args[ 0 ];
+          case "hashCode":
+            return System.identityHashCode( proxy );
+          default:
+            return "ShardedScheduler" + shards;
+        }
+      }
+      switch ( method.getName() ) {
+        case "scheduleJobs":
+          scheduleJobs( (Map<?, ?>) args[ 0 ], (Boolean) args[ 1 ] );
+          return null;
+        case "deleteJobs":
+          boolean deleted = true;
+          for ( Object jobKey : (List<?>) args[ 0 ] ) {
+            deleted &= shards.get( getShard( (JobKey) jobKey ) ).deleteJob( (JobKey) jobKey );
+          }
+          return deleted;
+        case "unscheduleJobs":
+          boolean unscheduled = true;
+          for ( Object triggerKey : (List<?>) args[ 0 ] ) {
+            unscheduled &= (Boolean) route( method, new Object[] { triggerKey },
+              Scheduler.class.getMethod( "unscheduleJob", TriggerKey.class ) );
+          }
+          return unscheduled;
+        case "addCalendar":
+          addCalendar( method, args );
+          return null;
+        case "getCalendar":
+          return getCalendar( (String) args[ 0 ] );
+        case "deleteCalendar":
+          return deleteCalendar( (String) args[ 0 ] );
+        case "getListenerManager":
+          return getListenerManager();
+        default:
+          return route( method, args, method );
+      }
+    }
+
+    private Object route( Method method, Object[] args, Method target ) throws Throwable {
+      boolean unresolved = false;
+      if ( args != null ) {
+        for ( Object arg : args ) {
+          Integer shard = null;
+          if ( arg instanceof JobDetail ) {
+            shard = getShard( ( (JobDetail) arg ).getKey() );
+          } else if ( arg instanceof Trigger ) {
+            Trigger trigger = (Trigger) arg;
+            shard = trigger.getJobKey() != null ? getShard( trigger.getJobKey() ) : getShard( trigger.getKey() );
+          } else if ( arg instanceof JobKey ) {
+            shard = getShard( (JobKey) arg );
+          } else if ( arg instanceof TriggerKey ) {
+            shard = getShard( (TriggerKey) arg );
+          } else if ( arg instanceof GroupMatcher ) {
+            unresolved = true;
+          }
+          if ( shard != null ) {
+            return call( shards.get( shard ), target, args );
+          }
+          unresolved |= arg instanceof TriggerKey || arg instanceof Trigger;
+        }
+      }
+      if ( unresolved || FAN_OUT_METHODS.contains( method.getName() ) ) {
+        return fanOut( target, args );
+      }
+      return call( shards.get( 0 ), target, args );
+    }
+
+    /**
+     * Calls every shard and merges the results: collections are joined, flags combined, and otherwise the first
+     * result found is returned.
+     */
+    private Object fanOut( Method method, Object[] args ) throws Throwable {
+      Class<?> type = method.getReturnType();
+      Object merged = null;
+      if ( List.class.equals( type ) ) {
+        merged = new ArrayList<>();
+      } else if ( Set.class.equals( type ) ) {
+        merged = new LinkedHashSet<>();
+      } else if ( boolean.class.equals( type ) ) {
+        merged = false;
+      }
+      for ( Scheduler shard : shards ) {
+        Object result = call( shard, method, args );
+        if ( merged instanceof Collection ) {
+          @SuppressWarnings( "unchecked" )
+          Collection<Object> collection = (Collection<Object>) merged;
+          collection.addAll( (Collection<?>) result );
+        } else if ( merged instanceof Boolean ) {
+          merged = (Boolean) merged || (Boolean) result;
+        } else if ( merged == null || merged == TriggerState.NONE ) {
+          merged = result;
+        }
+      }
+      return merged;
+    }
+
+    /**
+     * Stores the jobs shard by shard. When a shard fails to store its jobs, the new jobs already stored by the earlier
+     * shards are deleted again, so that the jobs are stored all or none as with a single scheduler. Replaced jobs
+     * cannot be put back as they were and stay replaced.
+     */
+    private void scheduleJobs( Map<?, ?> triggersAndJobs, boolean replace ) throws SchedulerException {
+      Map<Integer, Map<JobDetail, Set<? extends Trigger>>> byShard = new LinkedHashMap<>();
+      for ( Map.Entry<?, ?> entry : triggersAndJobs.entrySet() ) {
+        JobDetail jobDetail = (JobDetail) entry.getKey();
+        @SuppressWarnings( "unchecked" )
+        Set<? extends Trigger> triggers = (Set<? extends Trigger>) entry.getValue();
+        byShard.computeIfAbsent( getShard( jobDetail.getKey() ), shard -> new LinkedHashMap<>() )
+          .put( jobDetail, triggers );
+      }
+      List<Integer> storedShards = new ArrayList<>();
+      for ( Map.Entry<Integer, Map<JobDetail, Set<? extends Trigger>>> entry : byShard.entrySet() ) {
+        try {
+          shards.get( entry.getKey() ).scheduleJobs( entry.getValue(), replace );
+        } catch ( SchedulerException e ) {
+          if ( !replace ) {
+            for ( Integer shard : storedShards ) {
+              try {
+                shards.get( shard ).deleteJobs( byShard.get( shard ).keySet().stream().map( JobDetail::getKey )
+                  .collect( Collectors.toList() ) );
+              } catch ( SchedulerException deleteFailure ) {
+                e.addSuppressed( deleteFailure );
+              }
+            }
+          }
+          throw e;
+        }
+        storedShards.add( entry.getKey() );
+      }
+    }
+
+    private void addCalendar( Method method, Object[] args ) throws Throwable {
+      ObjectAlreadyExistsException exists = null;
+      int stored = 0;
+      for ( Scheduler shard : shards ) {
+        try {
+          call( shard, method, args );
+          stored++;
+        } catch ( ObjectAlreadyExistsException e ) {
+          // left in place from an earlier call whose calendar was deleted from some shards only
+          exists = e;
+        }
+      }
+      if ( stored == 0 && exists != null ) {
+        throw exists;
+      }
+    }
+
+    /**
+     * @return the calendar, if every shard has it
+     */
+    private org.quartz.Calendar getCalendar( String calendarName ) throws SchedulerException {
+      org.quartz.Calendar calendar = null;
+      for ( Scheduler shard : shards ) {
+        calendar = shard.getCalendar( calendarName );
+        if ( calendar == null ) {
+          return null;
+        }
+      }
+      return calendar;
+    }
+
+    /**
+     * Deletes a calendar from the shards where no trigger uses it, failing if it is in use in any shard.
+     */
+    private boolean deleteCalendar( String calendarName ) throws SchedulerException {
+      SchedulerException inUse = null;
+      boolean deleted = false;
+      for ( Scheduler shard : shards ) {
+        try {
+          deleted |= shard.deleteCalendar( calendarName );
+        } catch ( SchedulerException e ) {
+          inUse = e;
+        }
+      }
+      if ( inUse != null ) {
+        throw inUse;
+      }
+      return deleted;
+    }
+
+    /**
+     * @return a listener manager making every change on the listener managers of all the shards, and answering the
+     * queries from the first shard
+     */
+    private ListenerManager getListenerManager() throws SchedulerException {
+      List<ListenerManager> managers = new ArrayList<>();
+      for ( Scheduler shard : shards ) {
+        managers.add( shard.getListenerManager() );
+      }
+      return (ListenerManager) Proxy.newProxyInstance( ListenerManager.class.getClassLoader(),
+        new Class<?>[] { ListenerManager.class }, ( proxy, method, args ) -> {
+          Object result = call( managers.get( 0 ), method, args );
+          if ( method.getName().startsWith( "get" ) || method.getDeclaringClass() == Object.class ) {
+            return result;
+          }
+          for ( ListenerManager manager : managers.subList( 1, managers.size() ) ) {
+            call( manager, method, args );
+          }
+          return result;
+        } );
+    }
+
+    private static Object call( Object target, Method method, Object[] args ) throws Throwable {
+      try {
+        return method.invoke( target, args );
+      } catch ( InvocationTargetException e ) {
+        throw e.getCause();
+      }
+    }
+  }
+}
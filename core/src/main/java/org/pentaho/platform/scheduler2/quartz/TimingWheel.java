@@ -0,0 +1,176 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A hierarchical timing wheel of items due at a time, in milliseconds.
+ *
+ * <p>Each level is a ring of slots, a slot of the first level spanning one tick and a slot of each next level spanning
+ * a whole ring of the level below. An item is added to the lowest level whose ring reaches its time, and moves down a
+ * level each time the wheel turns past the start of its slot, so adding and removing an item take constant time
+ * whatever the number of items. The items beyond the last level wait in an overflow slot. Items whose slot the wheel
+ * has turned past are due; {@link #poll(long, int)} returns them in the order of their times.</p>
+ *
+ * <p>Not thread safe.</p>
+ */
+class TimingWheel<T> {
+
+  private final long tick;
+  private final int slotCount;
+  private final List<List<Set<T>>> levels = new ArrayList<>();
+  private final Set<T> overflow = new LinkedHashSet<>();
+  private final Map<T, Long> times = new HashMap<>();
+  private final Map<T, Set<T>> slots = new HashMap<>();
+  private final PriorityQueue<T> due;
+
+  // the start of the tick the wheel is at
+  private long current;
+
+  /**
+   * @param tick       the span of a slot of the first level, in milliseconds
+   * @param slotCount  the number of slots of each level
+   * @param levelCount the number of levels
+   * @param now        the time the wheel starts at
+   */
+  TimingWheel( long tick, int slotCount, int levelCount, long now ) {
+    this.tick = tick;
+    this.slotCount = slotCount;
+    for ( int level = 0; level < levelCount; level++ ) {
+      List<Set<T>> ring = new ArrayList<>( slotCount );
+      for ( int slot = 0; slot < slotCount; slot++ ) {
+        ring.add( new LinkedHashSet<>() );
+      }
+      levels.add( ring );
+    }
+    this.due = new PriorityQueue<>( ( a, b ) -> Long.compare( times.get( a ), times.get( b ) ) );
+    this.current = now - Math.floorMod( now, tick );
+  }
+
+  /**
+   * Adds an item, or moves it if already added.
+   */
+  void add( T item, long time ) {
+    remove( item );
+    times.put( item, time );
+    place( item, time );
+  }
+
+  /**
+   * @return {@code true} if the item was in the wheel
+   */
+  boolean remove( T item ) {
+    if ( times.remove( item ) == null ) {
+      return false;
+    }
+    Set<T> slot = slots.remove( item );
+    if ( slot != null ) {
+      slot.remove( item );
+    } else {
+      due.remove( item );
+    }
+    return true;
+  }
+
+  boolean contains( T item ) {
+    return times.containsKey( item );
+  }
+
+  int size() {
+    return times.size();
+  }
+
+  /**
+   * Turns the wheel to a time and takes the items due by then, earliest first.
+   *
+   * @param time     the latest time of the items to take
+   * @param maxCount the most items to take
+   * @return the items taken, no longer in the wheel
+   */
+  List<T> poll( long time, int maxCount ) {
+    advance( time );
+    List<T> polled = new ArrayList<>();
+    while ( polled.size() < maxCount && !due.isEmpty() && times.get( due.peek() ) <= time ) {
+      T item = due.poll();
+      times.remove( item );
+      polled.add( item );
+    }
+    return polled;
+  }
+
+  private void place( T item, long time ) {
+    if ( time < current + tick ) {
+      due.add( item );
+      return;
+    }
+    long span = tick;
+    for ( List<Set<T>> ring : levels ) {
+      long reach = span * slotCount;
+      // the ring reaches the end of the slot of the level above the wheel is in
+      if ( time < current - Math.floorMod( current, reach ) + reach ) {
+        Set<T> slot = ring.get( (int) Math.floorMod( Math.floorDiv( time, span ), (long) slotCount ) );
+        slot.add( item );
+        slots.put( item, slot );
+        return;
+      }
+      span = reach;
+    }
+    overflow.add( item );
+    slots.put( item, overflow );
+  }
+
+  /**
+   * Turns the wheel tick by tick up to a time, moving the items of each slot it enters down a level, or to the due
+   * items from the first level.
+   */
+  private void advance( long time ) {
+    while ( current + tick <= time ) {
+      current += tick;
+      long span = tick;
+      int level = 0;
+      // the slot entered at each level whose ring just turned over, from the top
+      while ( level < levels.size() - 1 && Math.floorMod( current, span * slotCount ) == 0 ) {
+        span *= slotCount;
+        level++;
+      }
+      if ( level == levels.size() - 1 && Math.floorMod( current, span * slotCount ) == 0 ) {
+        cascade( overflow );
+      }
+      for ( ; level >= 0; level-- ) {
+        cascade( levels.get( level ).get( (int) Math.floorMod( Math.floorDiv( current, span ), (long) slotCount ) ) );
+        span /= slotCount;
+      }
+    }
+  }
+
+  private void cascade( Set<T> slot ) {
+    if ( slot.isEmpty() ) {
+      return;
+    }
+    List<T> items = new ArrayList<>( slot );
+    slot.clear();
+    for ( T item : items ) {
+      slots.remove( item );
+      place( item, times.get( item ) );
+    }
+  }
+}
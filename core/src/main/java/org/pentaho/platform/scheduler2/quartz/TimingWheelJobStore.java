@@ -0,0 +1,946 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.quartz.Calendar;
+import org.quartz.CalendarIntervalTrigger;
+import org.quartz.DateBuilder.IntervalUnit;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.JobPersistenceException;
+import org.quartz.SchedulerConfigException;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.SchedulerSignaler;
+import org.quartz.spi.TriggerFiredBundle;
+import org.quartz.spi.TriggerFiredResult;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A {@link HybridJobStore} firing the short interval schedules from a {@link TimingWheel} in memory. Each execution of
+ * a job stored in the database is a transaction to acquire its trigger, one to fire it and one to complete it, plus
+ * the one replacing the job to record its last execution time; a job running every few seconds keeps the database and
+ * its locks busy for little.
+ *
+ * <p>A calendar interval trigger repeating every {@link #setWheelMaxInterval(long) wheelMaxInterval} milliseconds or
+ * less, in seconds or minutes as created for the {@code SECONDS} and {@code MINUTES} schedules, is put on the wheel
+ * once stored, resumed or found waiting at startup, unless its job disallows concurrent executions, persists its data
+ * after execution or requests recovery. The trigger computes its own fire times and applies its misfire instruction as
+ * in the database. Its row stays in the database in the {@link #STATE_WHEEL} state, which Quartz neither acquires nor
+ * checks for misfires, and seen as {@link TriggerState#NORMAL}. The fire times of the triggers on the wheel and the
+ * jobs they replace on execution are written to their rows every {@link #setWheelCheckpointInterval(long)
+ * wheelCheckpointInterval} milliseconds, and when the scheduler is put in standby or shut down.</p>
+ *
+ * <p>Pausing, replacing or removing a trigger or its job, or a calendar it uses, first takes the trigger off the
+ * wheel and writes its progress back to the database in the waiting state; the trigger is put back on the wheel once
+ * stored or resumed. After a crash, the triggers are put back on the wheel at startup, and those due since the last
+ * checkpoint misfire. The wheel is not used in a cluster, where each trigger must be fired by one node only.</p>
+ *
+ * <p>Configured in {@code quartz.properties} in place of {@link HybridJobStore}, with the same properties:</p>
+ * <pre>
+ *   org.quartz.jobStore.class = org.pentaho.platform.scheduler2.quartz.TimingWheelJobStore
+ *   org.quartz.jobStore.wheelMaxInterval = 300000
+ *   org.quartz.jobStore.wheelCheckpointInterval = 60000
+ * </pre>
+ *
+ * <p>A server stopped abruptly leaves the rows of the triggers on the wheel in the {@link #STATE_WHEEL} state; start
+ * it again with this job store, with a {@code wheelMaxInterval} of 0 if need be, before switching to another one.</p>
+ */
+public class TimingWheelJobStore extends HybridJobStore {
+
+  private static final Log logger = LogFactory.getLog( TimingWheelJobStore.class );
+
+  /**
+   * The state of the database rows of the triggers fired from the wheel.
+   */
+  static final String STATE_WHEEL = "WHEEL";
+
+  private static final long WHEEL_TICK = 1000;
+  private static final int WHEEL_SLOTS = 64;
+  private static final int WHEEL_LEVELS = 3;
+
+  private long wheelMaxInterval = 300000;
+  private long wheelCheckpointInterval = 60000;
+
+  // the wheel guards itself and the triggers on it
+  private final TimingWheel<WheelTrigger> wheel =
+    new TimingWheel<>( WHEEL_TICK, WHEEL_SLOTS, WHEEL_LEVELS, System.currentTimeMillis() );
+  private final Map<TriggerKey, WheelTrigger> wheelTriggers = new HashMap<>();
+  private final Map<JobKey, WheelTrigger> wheelJobs = new HashMap<>();
+
+  // held to put triggers on or take them off the wheel along with the change to their rows
+  private final Object wheelChanges = new Object();
+
+  private ClassLoadHelper loadHelper;
+  private SchedulerSignaler signaler;
+
+  private volatile long lastCheckpoint = System.currentTimeMillis();
+  private final AtomicLong fireInstanceCount = new AtomicLong();
+  private final AtomicLong wheelFireCount = new AtomicLong();
+  private final AtomicLong checkpointCount = new AtomicLong();
+
+  /**
+   * A trigger on the wheel, with a copy of its job and calendar.
+   */
+  private static class WheelTrigger {
+    private OperableTrigger trigger;
+    private JobDetail jobDetail;
+    private final Calendar calendar;
+    private boolean acquired;
+    // changed since written to the database
+    private boolean dirty;
+
+    private WheelTrigger( OperableTrigger trigger, JobDetail jobDetail, Calendar calendar ) {
+      this.trigger = trigger;
+      this.jobDetail = jobDetail;
+      this.calendar = calendar;
+    }
+
+    private WheelTrigger copy() {
+      return new WheelTrigger( (OperableTrigger) trigger.clone(), jobDetail, calendar );
+    }
+  }
+
+  /**
+   * @param wheelMaxInterval the longest repeat interval, in milliseconds, of the triggers fired from the wheel; 0 or
+   *                         less to fire every trigger from the database
+   */
+  public void setWheelMaxInterval( long wheelMaxInterval ) {
+    this.wheelMaxInterval = wheelMaxInterval;
+  }
+
+  public long getWheelMaxInterval() {
+    return wheelMaxInterval;
+  }
+
+  /**
+   * @param wheelCheckpointInterval the time, in milliseconds, between two writes of the progress of the triggers on
+   *                                the wheel to the database
+   */
+  public void setWheelCheckpointInterval( long wheelCheckpointInterval ) {
+    this.wheelCheckpointInterval = wheelCheckpointInterval;
+  }
+
+  public long getWheelCheckpointInterval() {
+    return wheelCheckpointInterval;
+  }
+
+  /**
+   * @return the number of executions fired from the wheel since the scheduler started
+   */
+  public long getWheelFireCount() {
+    return wheelFireCount.get();
+  }
+
+  /**
+   * @return the number of triggers on the wheel
+   */
+  public int getWheelTriggerCount() {
+    synchronized ( wheel ) {
+      return wheelTriggers.size();
+    }
+  }
+
+  /**
+   * Decides whether a trigger repeats often enough to be fired from the wheel.
+   */
+  boolean isWheelSchedule( Trigger trigger ) {
+    if ( wheelMaxInterval <= 0 || isClustered() || !( trigger instanceof CalendarIntervalTrigger )
+      || trigger.getNextFireTime() == null ) {
+      return false;
+    }
+    CalendarIntervalTrigger calendarIntervalTrigger = (CalendarIntervalTrigger) trigger;
+    IntervalUnit unit = calendarIntervalTrigger.getRepeatIntervalUnit();
+    long interval = calendarIntervalTrigger.getRepeatInterval();
+    if ( unit == IntervalUnit.SECOND ) {
+      return interval * 1000L <= wheelMaxInterval;
+    }
+    return unit == IntervalUnit.MINUTE && interval * 60000L <= wheelMaxInterval;
+  }
+
+  /**
+   * Decides whether a trigger is fired from the wheel, along with its job.
+   */
+  boolean isWheelTrigger( JobDetail jobDetail, Trigger trigger ) {
+    return isWheelSchedule( trigger ) && !jobDetail.isConcurrentExectionDisallowed()
+      && !jobDetail.isPersistJobDataAfterExecution() && !jobDetail.requestsRecovery();
+  }
+
+  @Override
+  public void initialize( ClassLoadHelper loadHelper, SchedulerSignaler signaler ) throws SchedulerConfigException {
+    super.initialize( loadHelper, signaler );
+    this.loadHelper = loadHelper;
+    this.signaler = signaler;
+  }
+
+  @Override
+  public void schedulerStarted() throws SchedulerException {
+    super.schedulerStarted();
+    // the triggers on the wheel when the server stopped, or back to waiting if no longer eligible
+    adoptStored( null, STATE_WHEEL );
+    adoptStored( null, STATE_WAITING );
+    if ( getWheelTriggerCount() > 0 ) {
+      logger.info( "Firing " + getWheelTriggerCount() + " short interval triggers from the timing wheel" );
+    }
+  }
+
+  @Override
+  public void schedulerPaused() {
+    checkpoint();
+    super.schedulerPaused();
+  }
+
+  @Override
+  public void shutdown() {
+    try {
+      release( entry -> true );
+    } catch ( JobPersistenceException e ) {
+      logger.error( "Failed to write the triggers on the timing wheel back to the database", e );
+    }
+    super.shutdown();
+    logger.info( "Fired " + wheelFireCount.get() + " executions from the timing wheel, written to the database in "
+      + checkpointCount.get() + " checkpoints" );
+  }
+
+  /**
+   * Takes triggers off the wheel, writing them back to the database in the waiting state for Quartz to handle as any
+   * other trigger.
+   *
+   * @return the keys of the triggers taken off the wheel
+   */
+  private List<TriggerKey> release( Predicate<WheelTrigger> filter ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      List<WheelTrigger> released = new ArrayList<>();
+      synchronized ( wheel ) {
+        for ( Iterator<WheelTrigger> entries = wheelTriggers.values().iterator(); entries.hasNext(); ) {
+          WheelTrigger entry = entries.next();
+          if ( filter.test( entry ) ) {
+            entries.remove();
+            wheelJobs.remove( entry.jobDetail.getKey() );
+            wheel.remove( entry );
+            released.add( entry );
+          }
+        }
+      }
+      if ( released.isEmpty() ) {
+        return Collections.emptyList();
+      }
+      try {
+        writeBack( released, STATE_WAITING );
+      } catch ( JobPersistenceException e ) {
+        // still on the wheel, as their rows are
+        put( released );
+        throw e;
+      }
+      List<TriggerKey> triggerKeys = new ArrayList<>( released.size() );
+      for ( WheelTrigger entry : released ) {
+        triggerKeys.add( entry.trigger.getKey() );
+      }
+      return triggerKeys;
+    }
+  }
+
+  private void writeBack( List<WheelTrigger> entries, String state ) throws JobPersistenceException {
+    executeInLock( LOCK_TRIGGER_ACCESS, conn -> {
+      for ( WheelTrigger entry : entries ) {
+        write( conn, entry, state );
+      }
+      return null;
+    } );
+  }
+
+  /**
+   * Writes a trigger on the wheel and its job to their rows, unless the trigger is no longer in the wheel state.
+   */
+  private void write( Connection conn, WheelTrigger entry, String state ) throws JobPersistenceException {
+    try {
+      if ( !STATE_WHEEL.equals( getDelegate().selectTriggerState( conn, entry.trigger.getKey() ) ) ) {
+        return;
+      }
+      getDelegate().updateJobDetail( conn, entry.jobDetail );
+      getDelegate().updateTrigger( conn, entry.trigger, state, entry.jobDetail );
+    } catch ( SQLException | IOException e ) {
+      throw new JobPersistenceException( "Failed to write trigger '" + entry.trigger.getKey() + "'", e );
+    }
+  }
+
+  /**
+   * Writes the progress of the triggers on the wheel to the database.
+   */
+  private void checkpoint() {
+    synchronized ( wheelChanges ) {
+      List<WheelTrigger> dirty = new ArrayList<>();
+      synchronized ( wheel ) {
+        for ( WheelTrigger entry : wheelTriggers.values() ) {
+          if ( entry.dirty ) {
+            dirty.add( entry.copy() );
+            entry.dirty = false;
+          }
+        }
+      }
+      if ( dirty.isEmpty() ) {
+        return;
+      }
+      try {
+        writeBack( dirty, STATE_WHEEL );
+        checkpointCount.incrementAndGet();
+      } catch ( JobPersistenceException e ) {
+        logger.warn( "Failed to write the progress of " + dirty.size() + " triggers on the timing wheel", e );
+        synchronized ( wheel ) {
+          for ( WheelTrigger copy : dirty ) {
+            WheelTrigger entry = wheelTriggers.get( copy.trigger.getKey() );
+            if ( entry != null ) {
+              entry.dirty = true;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Puts the eligible triggers just stored on the wheel.
+   */
+  private void adopt( Map<OperableTrigger, JobDetail> triggers ) throws JobPersistenceException {
+    if ( triggers.isEmpty() ) {
+      return;
+    }
+    synchronized ( wheelChanges ) {
+      put( executeInLock( LOCK_TRIGGER_ACCESS, conn -> {
+        List<WheelTrigger> adopted = new ArrayList<>();
+        try {
+          for ( Map.Entry<OperableTrigger, JobDetail> trigger : triggers.entrySet() ) {
+            WheelTrigger entry = adopt( conn, trigger.getKey(), trigger.getValue(), STATE_WAITING );
+            if ( entry != null ) {
+              adopted.add( entry );
+            }
+          }
+        } catch ( SQLException | IOException | ClassNotFoundException e ) {
+          throw new JobPersistenceException( "Failed to put triggers on the timing wheel", e );
+        }
+        return adopted;
+      } ) );
+    }
+  }
+
+  /**
+   * Puts the eligible triggers stored in the database on the wheel.
+   *
+   * @param triggerKeys the triggers to look at, {@code null} for all those in the state
+   * @param state       the state of the triggers to put on the wheel; the ones in the wheel state no longer eligible
+   *                    are set back to waiting
+   */
+  private void adoptStored( Collection<TriggerKey> triggerKeys, String state ) throws JobPersistenceException {
+    boolean recovering = STATE_WHEEL.equals( state );
+    if ( !recovering && ( wheelMaxInterval <= 0 || isClustered() ) || triggerKeys != null && triggerKeys.isEmpty() ) {
+      return;
+    }
+    synchronized ( wheelChanges ) {
+      put( executeInLock( LOCK_TRIGGER_ACCESS, conn -> {
+        List<WheelTrigger> adopted = new ArrayList<>();
+        try {
+          for ( TriggerKey triggerKey : triggerKeys != null ? triggerKeys
+            : getDelegate().selectTriggersInState( conn, state ) ) {
+            OperableTrigger trigger = getDelegate().selectTrigger( conn, triggerKey );
+            if ( trigger == null || !recovering && !isWheelSchedule( trigger ) ) {
+              continue;
+            }
+            JobDetail jobDetail = getDelegate().selectJobDetail( conn, trigger.getJobKey(), loadHelper );
+            WheelTrigger entry = adopt( conn, trigger, jobDetail, state );
+            if ( entry != null ) {
+              adopted.add( entry );
+            }
+          }
+        } catch ( SQLException | IOException | ClassNotFoundException e ) {
+          throw new JobPersistenceException( "Failed to put triggers on the timing wheel", e );
+        }
+        return adopted;
+      } ) );
+    }
+  }
+
+  /**
+   * Sets the row of a trigger in the wheel state if the trigger is eligible and its row in the given state.
+   *
+   * @return the trigger to put on the wheel, {@code null} if not
+   */
+  private WheelTrigger adopt( Connection conn, OperableTrigger trigger, JobDetail jobDetail, String state )
+    throws JobPersistenceException, SQLException, IOException, ClassNotFoundException {
+    TriggerKey triggerKey = trigger.getKey();
+    synchronized ( wheel ) {
+      if ( wheelTriggers.containsKey( triggerKey ) ) {
+        return null;
+      }
+    }
+    boolean eligible = jobDetail != null && isWheelTrigger( jobDetail, trigger );
+    if ( eligible ) {
+      synchronized ( wheel ) {
+        // one trigger per job on the wheel, the one replaced on execution
+        eligible = !wheelJobs.containsKey( jobDetail.getKey() );
+      }
+    }
+    if ( STATE_WHEEL.equals( state ) ) {
+      if ( !eligible ) {
+        getDelegate().updateTriggerStateFromOtherState( conn, triggerKey, STATE_WAITING, STATE_WHEEL );
+        return null;
+      }
+    } else if ( !eligible
+      || getDelegate().updateTriggerStateFromOtherState( conn, triggerKey, STATE_WHEEL, state ) != 1 ) {
+      return null;
+    }
+    Calendar calendar = trigger.getCalendarName() == null ? null
+      : getDelegate().selectCalendar( conn, trigger.getCalendarName() );
+    return new WheelTrigger( (OperableTrigger) trigger.clone(), (JobDetail) jobDetail.clone(), calendar );
+  }
+
+  private void put( List<WheelTrigger> entries ) {
+    synchronized ( wheel ) {
+      for ( WheelTrigger entry : entries ) {
+        wheelTriggers.put( entry.trigger.getKey(), entry );
+        wheelJobs.put( entry.jobDetail.getKey(), entry );
+        entry.acquired = false;
+        if ( entry.trigger.getNextFireTime() != null ) {
+          wheel.add( entry, entry.trigger.getNextFireTime().getTime() );
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces a job and its trigger on the wheel in memory, as done on each execution to record its time; the
+   * replacement reaches the database at the next checkpoint. Only used for such replacements, see
+   * {@link QuartzScheduler#isReplacingTimingState()}.
+   *
+   * @return {@code false} if the job is not on the wheel, or its new trigger not eligible
+   */
+  private boolean replaceOnWheel( JobDetail jobDetail, OperableTrigger trigger ) {
+    synchronized ( wheel ) {
+      WheelTrigger entry = wheelJobs.get( jobDetail.getKey() );
+      if ( entry == null || !entry.trigger.getKey().equals( trigger.getKey() )
+        || !Objects.equals( entry.trigger.getCalendarName(), trigger.getCalendarName() )
+        || !isWheelTrigger( jobDetail, trigger ) ) {
+        return false;
+      }
+      wheel.remove( entry );
+      entry.trigger = (OperableTrigger) trigger.clone();
+      entry.jobDetail = (JobDetail) jobDetail.clone();
+      // an acquisition of the replaced trigger is not fired
+      entry.acquired = false;
+      entry.dirty = true;
+      wheel.add( entry, entry.trigger.getNextFireTime().getTime() );
+      return true;
+    }
+  }
+
+  private static Predicate<WheelTrigger> ofJobs( Collection<JobKey> jobKeys ) {
+    return entry -> jobKeys.contains( entry.jobDetail.getKey() );
+  }
+
+  private static Predicate<WheelTrigger> ofTriggers( Collection<TriggerKey> triggerKeys ) {
+    return entry -> triggerKeys.contains( entry.trigger.getKey() );
+  }
+
+  @Override
+  public void storeJobAndTrigger( JobDetail newJob, OperableTrigger newTrigger ) throws JobPersistenceException {
+    super.storeJobAndTrigger( newJob, newTrigger );
+    if ( isWheelTrigger( newJob, newTrigger ) ) {
+      adopt( Collections.singletonMap( newTrigger, newJob ) );
+    }
+  }
+
+  /**
+   * Replaces the jobs on the wheel with their trigger in memory when only recording their timing state; stores the
+   * others, such as the jobs updated or restored, then puts their eligible triggers on the wheel.
+   */
+  @Override
+  public void storeJobsAndTriggers( Map<JobDetail, Set<? extends Trigger>> triggersAndJobs, boolean replace )
+    throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      Map<JobDetail, Set<? extends Trigger>> stored = new LinkedHashMap<>();
+      Map<OperableTrigger, JobDetail> eligible = new LinkedHashMap<>();
+      for ( Map.Entry<JobDetail, Set<? extends Trigger>> entry : triggersAndJobs.entrySet() ) {
+        JobDetail jobDetail = entry.getKey();
+        Set<? extends Trigger> triggers = entry.getValue();
+        if ( replace && triggers.size() == 1 && QuartzScheduler.isReplacingTimingState()
+          && replaceOnWheel( jobDetail, (OperableTrigger) triggers.iterator().next() ) ) {
+          continue;
+        }
+        stored.put( jobDetail, triggers );
+        for ( Trigger trigger : triggers ) {
+          if ( isWheelTrigger( jobDetail, trigger ) ) {
+            eligible.put( (OperableTrigger) trigger, jobDetail );
+          }
+        }
+      }
+      if ( stored.isEmpty() ) {
+        return;
+      }
+      if ( replace ) {
+        Set<JobKey> jobKeys = new HashSet<>();
+        for ( JobDetail jobDetail : stored.keySet() ) {
+          jobKeys.add( jobDetail.getKey() );
+        }
+        release( ofJobs( jobKeys ) );
+      }
+      super.storeJobsAndTriggers( stored, replace );
+      adopt( eligible );
+    }
+  }
+
+  @Override
+  public void storeJob( JobDetail newJob, boolean replaceExisting ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      super.storeJob( newJob, replaceExisting );
+      synchronized ( wheel ) {
+        WheelTrigger entry = wheelJobs.get( newJob.getKey() );
+        if ( entry != null ) {
+          entry.jobDetail = (JobDetail) newJob.clone();
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean removeJob( JobKey jobKey ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( ofJobs( Collections.singleton( jobKey ) ) );
+      return super.removeJob( jobKey );
+    }
+  }
+
+  @Override
+  public boolean removeJobs( List<JobKey> jobKeys ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( ofJobs( new HashSet<>( jobKeys ) ) );
+      return super.removeJobs( jobKeys );
+    }
+  }
+
+  @Override
+  public JobDetail retrieveJob( JobKey jobKey ) throws JobPersistenceException {
+    synchronized ( wheel ) {
+      WheelTrigger entry = wheelJobs.get( jobKey );
+      if ( entry != null ) {
+        return (JobDetail) entry.jobDetail.clone();
+      }
+    }
+    return super.retrieveJob( jobKey );
+  }
+
+  @Override
+  public void storeTrigger( OperableTrigger newTrigger, boolean replaceExisting ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      if ( replaceExisting ) {
+        release( ofTriggers( Collections.singleton( newTrigger.getKey() ) ) );
+      }
+      super.storeTrigger( newTrigger, replaceExisting );
+      if ( isWheelSchedule( newTrigger ) ) {
+        adoptStored( Collections.singleton( newTrigger.getKey() ), STATE_WAITING );
+      }
+    }
+  }
+
+  @Override
+  public boolean removeTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( ofTriggers( Collections.singleton( triggerKey ) ) );
+      return super.removeTrigger( triggerKey );
+    }
+  }
+
+  @Override
+  public boolean removeTriggers( List<TriggerKey> triggerKeys ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( ofTriggers( new HashSet<>( triggerKeys ) ) );
+      return super.removeTriggers( triggerKeys );
+    }
+  }
+
+  @Override
+  public boolean replaceTrigger( TriggerKey triggerKey, OperableTrigger newTrigger ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( ofTriggers( Collections.singleton( triggerKey ) ) );
+      boolean replaced = super.replaceTrigger( triggerKey, newTrigger );
+      if ( replaced && isWheelSchedule( newTrigger ) ) {
+        adoptStored( Collections.singleton( newTrigger.getKey() ), STATE_WAITING );
+      }
+      return replaced;
+    }
+  }
+
+  @Override
+  public OperableTrigger retrieveTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    synchronized ( wheel ) {
+      WheelTrigger entry = wheelTriggers.get( triggerKey );
+      if ( entry != null ) {
+        return (OperableTrigger) entry.trigger.clone();
+      }
+    }
+    return super.retrieveTrigger( triggerKey );
+  }
+
+  @Override
+  public void storeCalendar( String name, Calendar calendar, boolean replaceExisting, boolean updateTriggers )
+    throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      List<TriggerKey> released = replaceExisting
+        ? release( entry -> name.equals( entry.trigger.getCalendarName() ) ) : Collections.emptyList();
+      super.storeCalendar( name, calendar, replaceExisting, updateTriggers );
+      adoptStored( released, STATE_WAITING );
+    }
+  }
+
+  @Override
+  public void clearAllSchedulingData() throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      synchronized ( wheel ) {
+        for ( WheelTrigger entry : wheelTriggers.values() ) {
+          wheel.remove( entry );
+        }
+        wheelTriggers.clear();
+        wheelJobs.clear();
+      }
+      super.clearAllSchedulingData();
+    }
+  }
+
+  @Override
+  public List<OperableTrigger> getTriggersForJob( JobKey jobKey ) throws JobPersistenceException {
+    List<OperableTrigger> triggers = super.getTriggersForJob( jobKey );
+    synchronized ( wheel ) {
+      WheelTrigger entry = wheelJobs.get( jobKey );
+      if ( entry == null ) {
+        return triggers;
+      }
+      triggers = new ArrayList<>( triggers );
+      for ( int i = 0; i < triggers.size(); i++ ) {
+        if ( triggers.get( i ).getKey().equals( entry.trigger.getKey() ) ) {
+          triggers.set( i, (OperableTrigger) entry.trigger.clone() );
+        }
+      }
+      return triggers;
+    }
+  }
+
+  @Override
+  public TriggerState getTriggerState( TriggerKey triggerKey ) throws JobPersistenceException {
+    synchronized ( wheel ) {
+      if ( wheelTriggers.containsKey( triggerKey ) ) {
+        return TriggerState.NORMAL;
+      }
+    }
+    return super.getTriggerState( triggerKey );
+  }
+
+  @Override
+  public void pauseTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( ofTriggers( Collections.singleton( triggerKey ) ) );
+      super.pauseTrigger( triggerKey );
+    }
+  }
+
+  @Override
+  public void resumeTrigger( TriggerKey triggerKey ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      super.resumeTrigger( triggerKey );
+      adoptStored( Collections.singleton( triggerKey ), STATE_WAITING );
+    }
+  }
+
+  @Override
+  public void pauseJob( JobKey jobKey ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( ofJobs( Collections.singleton( jobKey ) ) );
+      super.pauseJob( jobKey );
+    }
+  }
+
+  @Override
+  public void resumeJob( JobKey jobKey ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      super.resumeJob( jobKey );
+      List<TriggerKey> triggerKeys = new ArrayList<>();
+      for ( OperableTrigger trigger : super.getTriggersForJob( jobKey ) ) {
+        triggerKeys.add( trigger.getKey() );
+      }
+      adoptStored( triggerKeys, STATE_WAITING );
+    }
+  }
+
+  @Override
+  public Set<String> pauseTriggers( GroupMatcher<TriggerKey> matcher ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( entry -> matcher.isMatch( entry.trigger.getKey() ) );
+      return super.pauseTriggers( matcher );
+    }
+  }
+
+  @Override
+  public Set<String> resumeTriggers( GroupMatcher<TriggerKey> matcher ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      Set<String> groupNames = super.resumeTriggers( matcher );
+      adoptStored( super.getTriggerKeys( matcher ), STATE_WAITING );
+      return groupNames;
+    }
+  }
+
+  @Override
+  public Set<String> pauseJobs( GroupMatcher<JobKey> matcher ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( entry -> matcher.isMatch( entry.jobDetail.getKey() ) );
+      return super.pauseJobs( matcher );
+    }
+  }
+
+  @Override
+  public Set<String> resumeJobs( GroupMatcher<JobKey> matcher ) throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      Set<String> groupNames = super.resumeJobs( matcher );
+      adoptStored( null, STATE_WAITING );
+      return groupNames;
+    }
+  }
+
+  @Override
+  public void pauseAll() throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      release( entry -> true );
+      super.pauseAll();
+    }
+  }
+
+  @Override
+  public void resumeAll() throws JobPersistenceException {
+    synchronized ( wheelChanges ) {
+      super.resumeAll();
+      adoptStored( null, STATE_WAITING );
+    }
+  }
+
+  /**
+   * Acquires the triggers due on the wheel and, unless those fill the batch with triggers due right away, the ones
+   * due in the stores below; the earliest of all, within the batch time window of the first one, are kept and the
+   * others released. Writes a checkpoint first when due.
+   */
+  @Override
+  public List<OperableTrigger> acquireNextTriggers( long noLaterThan, int maxCount, long timeWindow )
+    throws JobPersistenceException {
+    long now = System.currentTimeMillis();
+    if ( now - lastCheckpoint >= wheelCheckpointInterval ) {
+      lastCheckpoint = now;
+      checkpoint();
+    }
+    List<OperableTrigger> acquired = acquireFromWheel( noLaterThan, maxCount, timeWindow );
+    if ( acquired.size() < maxCount || acquired.get( acquired.size() - 1 ).getNextFireTime().getTime()
+      > now + timeWindow ) {
+      acquired.addAll( super.acquireNextTriggers( noLaterThan, maxCount, timeWindow ) );
+      acquired.sort( new Trigger.TriggerTimeComparator() );
+      long batchEnd = acquired.isEmpty() ? 0
+        : Math.max( acquired.get( 0 ).getNextFireTime().getTime(), now ) + timeWindow;
+      while ( acquired.size() > maxCount
+        || !acquired.isEmpty() && acquired.get( acquired.size() - 1 ).getNextFireTime().getTime() > batchEnd ) {
+        releaseAcquiredTrigger( acquired.remove( acquired.size() - 1 ) );
+      }
+    }
+    return acquired;
+  }
+
+  /**
+   * Acquires the triggers due on the wheel as {@code RAMJobStore} does, applying the misfire instruction of those
+   * overdue by more than the misfire threshold.
+   */
+  private List<OperableTrigger> acquireFromWheel( long noLaterThan, int maxCount, long timeWindow )
+    throws JobPersistenceException {
+    List<OperableTrigger> acquired = new ArrayList<>();
+    List<WheelTrigger> finished = new ArrayList<>();
+    List<OperableTrigger> misfired = new ArrayList<>();
+    synchronized ( wheel ) {
+      long batchEnd = noLaterThan;
+      while ( acquired.size() < maxCount ) {
+        List<WheelTrigger> due = wheel.poll( batchEnd, 1 );
+        if ( due.isEmpty() ) {
+          break;
+        }
+        WheelTrigger entry = due.get( 0 );
+        if ( applyMisfire( entry, misfired ) ) {
+          Date nextFireTime = entry.trigger.getNextFireTime();
+          if ( nextFireTime == null ) {
+            wheelTriggers.remove( entry.trigger.getKey() );
+            wheelJobs.remove( entry.jobDetail.getKey() );
+            finished.add( entry );
+            continue;
+          }
+          if ( nextFireTime.getTime() > batchEnd ) {
+            wheel.add( entry, nextFireTime.getTime() );
+            continue;
+          }
+        }
+        entry.acquired = true;
+        OperableTrigger trigger = (OperableTrigger) entry.trigger.clone();
+        trigger.setFireInstanceId( getInstanceId() + "-wheel-" + fireInstanceCount.incrementAndGet() );
+        acquired.add( trigger );
+        if ( acquired.size() == 1 ) {
+          batchEnd = Math.max( trigger.getNextFireTime().getTime(), System.currentTimeMillis() ) + timeWindow;
+        }
+      }
+    }
+    // the listeners are called off the wheel, as they may change the triggers
+    for ( OperableTrigger trigger : misfired ) {
+      signaler.notifyTriggerListenersMisfired( trigger );
+    }
+    for ( WheelTrigger entry : finished ) {
+      signaler.notifySchedulerListenersFinalized( entry.trigger );
+    }
+    if ( !finished.isEmpty() ) {
+      synchronized ( wheelChanges ) {
+        writeBack( finished, STATE_COMPLETE );
+      }
+    }
+    return acquired;
+  }
+
+  /**
+   * @param misfired the triggers misfired, as they were, for the listeners
+   * @return {@code true} if the trigger misfired and has a new fire time
+   */
+  private boolean applyMisfire( WheelTrigger entry, List<OperableTrigger> misfired ) {
+    long misfireTime = System.currentTimeMillis() - Math.max( getMisfireThreshold(), 0 );
+    Date nextFireTime = entry.trigger.getNextFireTime();
+    if ( nextFireTime.getTime() > misfireTime
+      || entry.trigger.getMisfireInstruction() == Trigger.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY ) {
+      return false;
+    }
+    misfired.add( (OperableTrigger) entry.trigger.clone() );
+    entry.trigger.updateAfterMisfire( entry.calendar );
+    entry.dirty = true;
+    return entry.trigger.getNextFireTime() == null || !nextFireTime.equals( entry.trigger.getNextFireTime() );
+  }
+
+  @Override
+  public void releaseAcquiredTrigger( OperableTrigger trigger ) {
+    synchronized ( wheel ) {
+      WheelTrigger entry = wheelTriggers.get( trigger.getKey() );
+      if ( entry != null ) {
+        if ( entry.acquired ) {
+          entry.acquired = false;
+          wheel.add( entry, entry.trigger.getNextFireTime().getTime() );
+        }
+        return;
+      }
+    }
+    super.releaseAcquiredTrigger( trigger );
+  }
+
+  /**
+   * Fires the triggers acquired from the wheel in memory, and the others in the stores below, returning the results
+   * in the order of the triggers.
+   */
+  @Override
+  public List<TriggerFiredResult> triggersFired( List<OperableTrigger> triggers ) throws JobPersistenceException {
+    TriggerFiredResult[] results = new TriggerFiredResult[ triggers.size() ];
+    List<OperableTrigger> others = new ArrayList<>();
+    synchronized ( wheel ) {
+      for ( int i = 0; i < results.length; i++ ) {
+        WheelTrigger entry = wheelTriggers.get( triggers.get( i ).getKey() );
+        if ( entry != null ) {
+          results[ i ] = fire( entry, triggers.get( i ) );
+        } else {
+          others.add( triggers.get( i ) );
+        }
+      }
+    }
+    if ( !others.isEmpty() ) {
+      Iterator<TriggerFiredResult> otherResults = super.triggersFired( others ).iterator();
+      for ( int i = 0; i < results.length; i++ ) {
+        if ( results[ i ] == null ) {
+          results[ i ] = otherResults.next();
+        }
+      }
+    }
+    return Arrays.asList( results );
+  }
+
+  private TriggerFiredResult fire( WheelTrigger entry, OperableTrigger trigger ) {
+    if ( !entry.acquired ) {
+      // paused, replaced or released since acquired
+      return new TriggerFiredResult( (TriggerFiredBundle) null );
+    }
+    entry.acquired = false;
+    Date prevFireTime = trigger.getPreviousFireTime();
+    entry.trigger.triggered( entry.calendar );
+    trigger.triggered( entry.calendar );
+    entry.dirty = true;
+    if ( entry.trigger.getNextFireTime() != null ) {
+      wheel.add( entry, entry.trigger.getNextFireTime().getTime() );
+    }
+    wheelFireCount.incrementAndGet();
+    return new TriggerFiredResult( new TriggerFiredBundle( (JobDetail) entry.jobDetail.clone(), trigger,
+      entry.calendar, false, new Date(), trigger.getPreviousFireTime(), prevFireTime, trigger.getNextFireTime() ) );
+  }
+
+  /**
+   * Completes an execution fired from the wheel in memory, unless its trigger is done or the job asks for a change to
+   * its trigger; the trigger is then written back to the database for the change to be made there.
+   */
+  @Override
+  public void triggeredJobComplete( OperableTrigger trigger, JobDetail jobDetail,
+                                    CompletedExecutionInstruction triggerInstCode ) {
+    boolean onWheel;
+    synchronized ( wheel ) {
+      WheelTrigger entry = wheelTriggers.get( trigger.getKey() );
+      if ( entry != null && triggerInstCode == CompletedExecutionInstruction.NOOP
+        && entry.trigger.getNextFireTime() != null ) {
+        return;
+      }
+      onWheel = entry != null;
+    }
+    if ( onWheel ) {
+      try {
+        release( ofTriggers( Collections.singleton( trigger.getKey() ) ) );
+      } catch ( JobPersistenceException e ) {
+        logger.error( "Failed to take trigger '" + trigger.getKey() + "' off the timing wheel", e );
+        return;
+      }
+    }
+    super.triggeredJobComplete( trigger, jobDetail, triggerInstCode );
+  }
+}
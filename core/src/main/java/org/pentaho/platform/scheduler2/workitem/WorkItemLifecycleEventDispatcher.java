@@ -0,0 +1,328 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.workitem;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IPluginResourceLoader;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.workitem.WorkItemLifecycleEventUtil;
+import org.pentaho.platform.workitem.WorkItemLifecyclePhase;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes work item lifecycle events on a background thread, so that the execution thread only enqueues them.
+ *
+ * <p>Events keep the time they were raised as their source timestamp. While an event is waiting to be published, a
+ * later event for the same work item replaces it if the waiting one is {@link WorkItemLifecyclePhase#SUBMITTED} or
+ * {@link WorkItemLifecyclePhase#IN_PROGRESS}; other phases are always published. Events raised while the buffer is full
+ * are dropped. Dropped, coalesced and late events are counted, an event being late when it is published more than the
+ * late threshold after it was raised.</p>
+ *
+ * <p>The dispatcher is configured through the plugin settings:</p>
+ * <ul>
+ *   <li>{@code workitem-events-async} - {@code true} to publish events in the background (default {@code true})</li>
+ *   <li>{@code workitem-events-capacity} - maximum number of events waiting to be published (default 10000)</li>
+ *   <li>{@code workitem-events-late-threshold} - late threshold in milliseconds (default 5000)</li>
+ * </ul>
+ */
+public class WorkItemLifecycleEventDispatcher {
+
+  private static final Log logger = LogFactory.getLog( WorkItemLifecycleEventDispatcher.class );
+
+  private static final String ASYNC_SETTING_KEY = "settings/workitem-events-async";
+  private static final String CAPACITY_SETTING_KEY = "settings/workitem-events-capacity";
+  private static final String LATE_THRESHOLD_SETTING_KEY = "settings/workitem-events-late-threshold";
+
+  private static final int DEFAULT_CAPACITY = 10000;
+  private static final long DEFAULT_LATE_THRESHOLD_MILLIS = 5000;
+  private static final long DROP_WARNING_INTERVAL = 1000;
+
+  private static WorkItemLifecycleEventDispatcher instance;
+  private static boolean configured = false;
+
+  /**
+   * Destination of the events, {@link WorkItemLifecycleEventUtil} unless replaced for testing.
+   */
+  @FunctionalInterface
+  interface EventSink {
+    void publish( String workItemUid, Map<String, Object> details, WorkItemLifecyclePhase phase,
+                  String lifecycleDetails, Date sourceTimestamp );
+  }
+
+  private static class PendingEvent {
+    private final String workItemUid;
+    private final long enqueuedNanos;
+    private Map<String, Object> details;
+    private WorkItemLifecyclePhase phase;
+    private String lifecycleDetails;
+    private Date sourceTimestamp;
+
+    PendingEvent( final String workItemUid, final long enqueuedNanos ) {
+      this.workItemUid = workItemUid;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+
+  private final Object lock = new Object();
+  private final Deque<PendingEvent> queue = new ArrayDeque<>();
+  private final Map<String, PendingEvent> pendingByWorkItem = new HashMap<>();
+  private final int capacity;
+  private final long lateThresholdNanos;
+  private final EventSink sink;
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong late = new AtomicLong();
+  private final Thread dispatcherThread;
+  private boolean running = true;
+
+  public WorkItemLifecycleEventDispatcher( final int capacity, final long lateThresholdMillis ) {
+    this( capacity, lateThresholdMillis, WorkItemLifecycleEventUtil::publish );
+  }
+
+  WorkItemLifecycleEventDispatcher( final int capacity, final long lateThresholdMillis, final EventSink sink ) {
+    this.capacity = Math.max( 1, capacity );
+    this.lateThresholdNanos = TimeUnit.MILLISECONDS.toNanos( lateThresholdMillis );
+    this.sink = sink;
+    this.dispatcherThread = new Thread( this::run, "scheduler-workitem-events" ); //$NON-NLS-1$
+    this.dispatcherThread.setDaemon( true );
+    this.dispatcherThread.start();
+  }
+
+  /**
+   * Publishes a work item lifecycle event through the shared dispatcher, or directly if there is none.
+   *
+   * @see WorkItemLifecycleEventUtil#publish(String, Map, WorkItemLifecyclePhase)
+   */
+  public static void publish( final String workItemUid, final Map<String, ?> details,
+                              final WorkItemLifecyclePhase phase ) {
+    publish( workItemUid, details, phase, null );
+  }
+
+  /**
+   * Publishes a work item lifecycle event through the shared dispatcher, or directly if there is none.
+   *
+   * @see WorkItemLifecycleEventUtil#publish(String, Map, WorkItemLifecyclePhase, String)
+   */
+  public static void publish( final String workItemUid, final Map<String, ?> details,
+                              final WorkItemLifecyclePhase phase, final String lifecycleDetails ) {
+    WorkItemLifecycleEventDispatcher dispatcher = getInstance();
+    if ( dispatcher != null ) {
+      dispatcher.enqueue( workItemUid, details, phase, lifecycleDetails );
+    } else {
+      WorkItemLifecycleEventUtil.publish( workItemUid, details, phase, lifecycleDetails );
+    }
+  }
+
+  /**
+   * Returns the shared dispatcher, creating it from the plugin settings on first use.
+   *
+   * @return the shared dispatcher, or {@code null} if events should be published synchronously
+   */
+  public static synchronized WorkItemLifecycleEventDispatcher getInstance() {
+    if ( !configured ) {
+      configured = true;
+      instance = createFromSettings();
+    }
+    return instance;
+  }
+
+  /**
+   * Stops the shared dispatcher, if any, publishing the events still waiting.
+   */
+  public static synchronized void shutdownInstance() {
+    if ( instance != null ) {
+      instance.shutdown( TimeUnit.SECONDS.toMillis( 30 ) );
+      instance = null;
+    }
+  }
+
+  private static WorkItemLifecycleEventDispatcher createFromSettings() {
+    IPluginResourceLoader resourceLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+    if ( resourceLoader == null ) {
+      return null;
+    }
+    if ( !Boolean.parseBoolean(
+      resourceLoader.getPluginSetting( WorkItemLifecycleEventDispatcher.class, ASYNC_SETTING_KEY, "true" ) ) ) {
+      return null;
+    }
+    String capacity =
+      resourceLoader.getPluginSetting( WorkItemLifecycleEventDispatcher.class, CAPACITY_SETTING_KEY, null );
+    String lateThreshold =
+      resourceLoader.getPluginSetting( WorkItemLifecycleEventDispatcher.class, LATE_THRESHOLD_SETTING_KEY, null );
+    return new WorkItemLifecycleEventDispatcher( (int) parseLong( capacity, DEFAULT_CAPACITY ),
+      parseLong( lateThreshold, DEFAULT_LATE_THRESHOLD_MILLIS ) );
+  }
+
+  private static long parseLong( final String value, final long defaultValue ) {
+    try {
+      return value == null ? defaultValue : Long.parseLong( value.trim() );
+    } catch ( NumberFormatException e ) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Queues an event for publishing. Never blocks.
+   *
+   * @param workItemUid      the work item uid
+   * @param details          the work item details, copied only if the event is kept for publishing, as the caller
+   *                         may change them once this method returns
+   * @param phase            the lifecycle phase
+   * @param lifecycleDetails the lifecycle details, may be {@code null}
+   */
+  public void enqueue( final String workItemUid, final Map<String, ?> details, final WorkItemLifecyclePhase phase,
+                       final String lifecycleDetails ) {
+    Date sourceTimestamp = new Date();
+    synchronized ( lock ) {
+      if ( running ) {
+        enqueueLocked( workItemUid, details, phase, lifecycleDetails, sourceTimestamp );
+        return;
+      }
+    }
+    // shut down, publish on the calling thread
+    publishSafe( workItemUid, details == null ? null : Collections.unmodifiableMap( details ), phase,
+      lifecycleDetails, sourceTimestamp );
+  }
+
+  private void enqueueLocked( final String workItemUid, final Map<String, ?> details,
+                              final WorkItemLifecyclePhase phase, final String lifecycleDetails,
+                              final Date sourceTimestamp ) {
+    PendingEvent event = workItemUid == null ? null : pendingByWorkItem.get( workItemUid );
+    if ( event != null && isCoalescable( event.phase ) ) {
+      coalesced.incrementAndGet();
+    } else if ( queue.size() >= capacity ) {
+      long count = dropped.incrementAndGet();
+      if ( count % DROP_WARNING_INTERVAL == 1 ) {
+        logger.warn( "Work item event buffer is full, " + count + " event(s) dropped so far" );
+      }
+      return;
+    } else {
+      event = new PendingEvent( workItemUid, System.nanoTime() );
+      queue.addLast( event );
+      if ( workItemUid != null ) {
+        pendingByWorkItem.put( workItemUid, event );
+      }
+      lock.notifyAll();
+    }
+    // a dropped event is not copied
+    event.details = details == null ? null : new HashMap<>( details );
+    event.phase = phase;
+    event.lifecycleDetails = lifecycleDetails;
+    event.sourceTimestamp = sourceTimestamp;
+  }
+
+  private static boolean isCoalescable( final WorkItemLifecyclePhase phase ) {
+    return phase == WorkItemLifecyclePhase.SUBMITTED || phase == WorkItemLifecyclePhase.IN_PROGRESS;
+  }
+
+  /**
+   * @return the number of events dropped because the buffer was full
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * @return the number of events replaced by a later event for the same work item before being published
+   */
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  /**
+   * @return the number of events published later than the late threshold
+   */
+  public long getLateCount() {
+    return late.get();
+  }
+
+  /**
+   * @return the number of events waiting to be published
+   */
+  public int getQueuedCount() {
+    synchronized ( lock ) {
+      return queue.size();
+    }
+  }
+
+  /**
+   * Stops queueing events and waits for the waiting ones to be published.
+   *
+   * @param timeoutMillis how long to wait
+   * @return {@code true} if every waiting event was published within the timeout
+   */
+  public boolean shutdown( final long timeoutMillis ) {
+    synchronized ( lock ) {
+      running = false;
+      lock.notifyAll();
+    }
+    try {
+      dispatcherThread.join( timeoutMillis );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    if ( dispatcherThread.isAlive() ) {
+      logger.warn( "Work item event dispatcher did not finish within " + timeoutMillis + "ms, " + getQueuedCount()
+        + " event(s) were not published" );
+      return false;
+    }
+    return true;
+  }
+
+  private void run() {
+    while ( true ) {
+      final PendingEvent event;
+      synchronized ( lock ) {
+        while ( running && queue.isEmpty() ) {
+          try {
+            lock.wait();
+          } catch ( InterruptedException e ) {
+            // keep dispatching until shutdown
+          }
+        }
+        event = queue.pollFirst();
+        if ( event == null ) {
+          return;
+        }
+        if ( event.workItemUid != null && pendingByWorkItem.get( event.workItemUid ) == event ) {
+          pendingByWorkItem.remove( event.workItemUid );
+        }
+      }
+      if ( System.nanoTime() - event.enqueuedNanos > lateThresholdNanos ) {
+        late.incrementAndGet();
+      }
+      publishSafe( event.workItemUid, event.details, event.phase, event.lifecycleDetails, event.sourceTimestamp );
+    }
+  }
+
+  private void publishSafe( final String workItemUid, final Map<String, Object> details,
+                            final WorkItemLifecyclePhase phase, final String lifecycleDetails,
+                            final Date sourceTimestamp ) {
+    try {
+      sink.publish( workItemUid, details, phase, lifecycleDetails, sourceTimestamp );
+    } catch ( Exception e ) {
+      logger.warn( "Failed to publish " + phase + " event for work item " + workItemUid, e );
+    }
+  }
+}
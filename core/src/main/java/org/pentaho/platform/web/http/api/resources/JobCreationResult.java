@@ -0,0 +1,78 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.web.http.api.resources;
+
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+/**
+ * The outcome of one job of a bulk creation: the id of the created job, or why it was not created.
+ */
+@XmlRootElement
+public class JobCreationResult implements Serializable {
+  private static final long serialVersionUID = 7767260335014263361L;
+
+  public static final String CREATED = "CREATED";
+  public static final String ERROR = "ERROR";
+  public static final String UNAUTHORIZED = "UNAUTHORIZED";
+  public static final String FORBIDDEN = "FORBIDDEN";
+
+  private String jobName;
+  private String jobId;
+  private String status;
+  private String message;
+
+  public JobCreationResult() {
+  }
+
+  public JobCreationResult( String jobName, String jobId, String status, String message ) {
+    this.jobName = jobName;
+    this.jobId = jobId;
+    this.status = status;
+    this.message = message;
+  }
+
+  public String getJobName() {
+    return jobName;
+  }
+
+  public void setJobName( String jobName ) {
+    this.jobName = jobName;
+  }
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  public void setJobId( String jobId ) {
+    this.jobId = jobId;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus( String status ) {
+    this.status = status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage( String message ) {
+    this.message = message;
+  }
+}
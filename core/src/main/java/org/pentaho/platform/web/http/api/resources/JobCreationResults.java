@@ -0,0 +1,44 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.web.http.api.resources;
+
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of each job of a bulk creation, in the order of the requests.
+ */
+@XmlRootElement
+public class JobCreationResults implements Serializable {
+  private static final long serialVersionUID = -3016372253618744236L;
+  private List<JobCreationResult> results = new ArrayList<>();
+
+  public JobCreationResults() {
+  }
+
+  public JobCreationResults( List<JobCreationResult> results ) {
+    this.results = results;
+  }
+
+  public List<JobCreationResult> getResults() {
+    return results;
+  }
+
+  public void setResults( List<JobCreationResult> results ) {
+    this.results = results;
+  }
+}
@@ -106,6 +106,7 @@ public class JobScheduleRequest implements Serializable, IJobScheduleRequest {
   protected String runSafeMode;
   protected String gatheringMetrics;
   protected String logLevel;
+  protected String misfirePolicy;
 
   public String getInputFile() {
     return inputFile;
@@ -262,4 +263,16 @@ public class JobScheduleRequest implements Serializable, IJobScheduleRequest {
   public void setLogLevel( String logLevel ) {
     this.logLevel = logLevel;
   }
+
+  /**
+   * @return how the executions missed while the scheduler was down are handled, one of the
+   * {@link org.pentaho.platform.scheduler2.quartz.MisfireGovernor.MisfirePolicy} names
+   */
+  public String getMisfirePolicy() {
+    return misfirePolicy;
+  }
+
+  public void setMisfirePolicy( String misfirePolicy ) {
+    this.misfirePolicy = misfirePolicy;
+  }
 }
@@ -0,0 +1,34 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.web.http.api.resources;
+
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement
+public class JobScheduleRequests implements Serializable {
+  private static final long serialVersionUID = 4310936617455924107L;
+  private List<JobScheduleRequest> jobScheduleRequests = new ArrayList<>();
+
+  public List<JobScheduleRequest> getJobScheduleRequests() {
+    return jobScheduleRequests;
+  }
+
+  public void setJobScheduleRequests( List<JobScheduleRequest> jobScheduleRequests ) {
+    this.jobScheduleRequests = jobScheduleRequests;
+  }
+}
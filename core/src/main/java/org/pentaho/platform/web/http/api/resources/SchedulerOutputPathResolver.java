@@ -40,6 +40,7 @@ import org.pentaho.platform.web.http.api.resources.services.SchedulerService;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -67,6 +68,8 @@ public class SchedulerOutputPathResolver {
 
   private String scheduleOwner;
 
+  private Map<String, Boolean> outputFolderCache;
+
   public SchedulerOutputPathResolver( JobScheduleRequest scheduleRequest ) {
     this.scheduleRequest = scheduleRequest;
     scheduleOwner = getScheduleOwnerFromRequest();
@@ -101,6 +104,15 @@ public class SchedulerOutputPathResolver {
     this.pentahoSession = Objects.requireNonNull( session );
   }
 
+  /**
+   * Shares the outcome of the output folder checks with other resolvers, e.g. those of the jobs of a bulk creation.
+   *
+   * @param outputFolderCache the outcome of the checks, by schedule owner and folder; {@code null} to not share them
+   */
+  public void setOutputFolderCache( Map<String, Boolean> outputFolderCache ) {
+    this.outputFolderCache = outputFolderCache;
+  }
+
   public String getJobName() {
     return scheduleRequest.getJobName();
   }
@@ -220,8 +232,16 @@ public class SchedulerOutputPathResolver {
       return false;
     }
 
+    String cacheKey = getScheduleOwner() + "\t" + outputPath;
+    if ( outputFolderCache != null && outputFolderCache.containsKey( cacheKey ) ) {
+      return outputFolderCache.get( cacheKey );
+    }
+
     try {
       boolean result = doesFolderExist( outputPath ) && isPermitted( outputPath );
+      if ( outputFolderCache != null ) {
+        outputFolderCache.put( cacheKey, result );
+      }
       if ( !result ) {
         String msgId = isFallback
           ? "QuartzScheduler.ERROR_0012_UNAVAILABLE_OUTPUT_LOCATION_FALLBACK"
@@ -47,15 +47,20 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
+import static jakarta.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_XML;
 import static jakarta.ws.rs.core.MediaType.TEXT_PLAIN;
 import static jakarta.ws.rs.core.Response.Status.FORBIDDEN;
@@ -203,6 +208,60 @@ public class SchedulerResource implements ISchedulerResource {
     }
   }
 
+  /**
+   * Creates several scheduled jobs at once. Each job is validated on its own and the valid ones are stored together;
+   * the response tells, for each request in order, the id of the created job or why it was not created.
+   *
+   * <p><b>Example Request:</b><br />
+   * POST pentaho/api/scheduler/createJobs
+   * </p>
+   * <br /><b>POST data:</b>
+   * <pre function="syntax.xml">
+   *   &lt;jobScheduleRequests&gt;
+   *     &lt;jobScheduleRequests&gt;
+   *       &lt;jobName&gt;JobName&lt;/jobName&gt;
+   *       &lt;simpleJobTrigger&gt;
+   *         &lt;uiPassParam&gt;MINUTES&lt;/uiPassParam&gt;
+   *         &lt;repeatInterval&gt;1800&lt;/repeatInterval&gt;
+   *         &lt;repeatCount&gt;-1&lt;/repeatCount&gt;
+   *         &lt;startTime&gt;2014-08-14T11:46:00.000-04:00&lt;/startTime&gt;
+   *       &lt;/simpleJobTrigger&gt;
+   *       &lt;inputFile&gt;/public/Steel Wheels/Top Customers (report).prpt&lt;/inputFile&gt;
+   *       &lt;outputFile&gt;/public/output&lt;/outputFile&gt;
+   *     &lt;/jobScheduleRequests&gt;
+   *   &lt;/jobScheduleRequests&gt;
+   * </pre>
+   *
+   * <p><b>Example Response:</b></p>
+   * <pre function="syntax.xml">
+   *   &lt;jobCreationResults&gt;
+   *     &lt;results&gt;
+   *       &lt;jobId&gt;admin  JobName  1410786491777&lt;/jobId&gt;
+   *       &lt;jobName&gt;JobName&lt;/jobName&gt;
+   *       &lt;status&gt;CREATED&lt;/status&gt;
+   *     &lt;/results&gt;
+   *   &lt;/jobCreationResults&gt;
+   * </pre>
+   *
+   * @param scheduleRequests The JobScheduleRequest objects defining the jobs to create.
+   * @return The outcome of each request: CREATED with the job id, or ERROR, UNAUTHORIZED or FORBIDDEN with a message.
+   */
+  @POST
+  @Path( "/createJobs" )
+  @Produces( { APPLICATION_XML, APPLICATION_JSON } )
+  @Consumes( { APPLICATION_XML, APPLICATION_JSON } )
+  @StatusCodes( {
+    @ResponseCode( code = 200, condition = "Successfully returned the outcome of each job." ),
+    @ResponseCode( code = 500, condition = "Invalid request or server error." )
+  } )
+  public JobCreationResults createJobs( JobScheduleRequests scheduleRequests ) {
+    try {
+      return new JobCreationResults( schedulerService.createJobs( scheduleRequests.getJobScheduleRequests() ) );
+    } catch ( Exception e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
   /**
    * Changes an existing job by creating an instance with new content (picked from {@code scheduleRequest}) and
    * removing the current instance.
@@ -908,6 +967,44 @@ public class SchedulerResource implements ISchedulerResource {
     }
   }
 
+  /**
+   * Cancel the running execution of the specified scheduled job. The job thread is interrupted and the job is expected
+   * to stop; its schedule is left untouched.
+   *
+   * <p><b>Example Request:</b><br />
+   * POST pentaho/api/scheduler/cancelJob
+   * </p>
+   * <br /><b>POST data:</b>
+   * <pre function="syntax.xml">
+   *   &lt;jobRequest&gt;
+   *     &lt;jobId&gt;admin  JobName 1410786491777&lt;/jobId&gt;
+   *   &lt;/jobRequest&gt;
+   * </pre>
+   *
+   * <p><b>Example Response:</b></p>
+   * <pre function="syntax.xml">
+   *   true
+   * </pre>
+   *
+   * @param jobRequest A JobRequest object containing the jobId.
+   * @return A jax-rs Response object containing true if a running execution was cancelled, false otherwise.
+   */
+  @POST
+  @Path( "/cancelJob" )
+  @Produces( "text/plain" )
+  @Consumes( { APPLICATION_XML, APPLICATION_JSON } )
+  @StatusCodes( {
+    @ResponseCode( code = 200, condition = "Successfully requested the cancellation of the running job." ),
+    @ResponseCode( code = 500, condition = "Invalid jobId." )
+  } )
+  public Response cancelJob( JobRequest jobRequest ) {
+    try {
+      return buildPlainTextOkResponse( String.valueOf( schedulerService.cancelJob( jobRequest.getJobId() ) ) );
+    } catch ( SchedulerException e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
   /**
    * Resume the specified scheduled job.
    *
@@ -1103,6 +1200,251 @@ public class SchedulerResource implements ISchedulerResource {
     return response;
   }
 
+  /**
+   * Pause all the specified scheduled jobs in a single request.
+   *
+   * <p><b>Example Request:</b><br />
+   * POST pentaho/api/scheduler/pauseJobs
+   * </p>
+   * <br /><b>POST data:</b>
+   * <pre function="syntax.xml">
+   *   &lt;jobsRequest&gt;
+   *     &lt;jobIds&gt;
+   *       &lt;jobId&gt;admin  JobName 1410786491777&lt;/jobId&gt;
+   *       &lt;jobId&gt;admin  OtherJobName 1410786491778&lt;/jobId&gt;
+   *     &lt;/jobIds&gt;
+   *   &lt;/jobsRequest&gt;
+   * </pre>
+   *
+   * <p><b>Example Response:</b></p>
+   * <pre function="syntax.xml">
+   *   &lt;JobsResponse&gt;
+   *     &lt;changes&gt;
+   *       &lt;entry&gt;
+   *         &lt;key&gt;admin  JobName 1410786491777&lt;/key&gt;
+   *         &lt;value&gt;PAUSED&lt;/value&gt;
+   *       &lt;/entry&gt;
+   *       &lt;entry&gt;
+   *         &lt;key&gt;admin  OtherJobName 1410786491778&lt;/key&gt;
+   *         &lt;value&gt;UNKNOWN_ERROR&lt;/value&gt;
+   *       &lt;/entry&gt;
+   *     &lt;/changes&gt;
+   *   &lt;/JobsResponse&gt;
+   * </pre>
+   *
+   * @param jobsRequest A JobsRequest object containing a list of jobIds.
+   * @return A JobsResponse object containing the new state of each job, UNKNOWN_ERROR for the jobs not found or that
+   * failed to pause.
+   */
+  @POST
+  @Path( "/pauseJobs" )
+  @Produces( { APPLICATION_XML, APPLICATION_JSON } )
+  @Consumes( { APPLICATION_XML, APPLICATION_JSON } )
+  @StatusCodes( {
+    @ResponseCode( code = 200, condition = "Successfully returned the all the jobs new states." ),
+    @ResponseCode( code = 500, condition = "Invalid request or server error." )
+  } )
+  public JobsResponse pauseJobs( JobsRequest jobsRequest ) {
+    try {
+      return toJobsResponse( jobsRequest.getJobIds(), schedulerService.pauseJobs( jobsRequest.getJobIds() ) );
+    } catch ( SchedulerException e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
+  /**
+   * Resume all the specified scheduled jobs in a single request.
+   *
+   * <p><b>Example Request:</b><br />
+   * POST pentaho/api/scheduler/resumeJobs
+   * </p>
+   * <br /><b>POST data:</b>
+   * <pre function="syntax.xml">
+   *   &lt;jobsRequest&gt;
+   *     &lt;jobIds&gt;
+   *       &lt;jobId&gt;admin  JobName 1410786491777&lt;/jobId&gt;
+   *       &lt;jobId&gt;admin  OtherJobName 1410786491778&lt;/jobId&gt;
+   *     &lt;/jobIds&gt;
+   *   &lt;/jobsRequest&gt;
+   * </pre>
+   *
+   * <p><b>Example Response:</b></p>
+   * <pre function="syntax.xml">
+   *   &lt;JobsResponse&gt;
+   *     &lt;changes&gt;
+   *       &lt;entry&gt;
+   *         &lt;key&gt;admin  JobName 1410786491777&lt;/key&gt;
+   *         &lt;value&gt;NORMAL&lt;/value&gt;
+   *       &lt;/entry&gt;
+   *       &lt;entry&gt;
+   *         &lt;key&gt;admin  OtherJobName 1410786491778&lt;/key&gt;
+   *         &lt;value&gt;UNKNOWN_ERROR&lt;/value&gt;
+   *       &lt;/entry&gt;
+   *     &lt;/changes&gt;
+   *   &lt;/JobsResponse&gt;
+   * </pre>
+   *
+   * @param jobsRequest A JobsRequest object containing a list of jobIds.
+   * @return A JobsResponse object containing the new state of each job, UNKNOWN_ERROR for the jobs not found or that
+   * failed to resume.
+   */
+  @POST
+  @Path( "/resumeJobs" )
+  @Produces( { APPLICATION_XML, APPLICATION_JSON } )
+  @Consumes( { APPLICATION_XML, APPLICATION_JSON } )
+  @StatusCodes( {
+    @ResponseCode( code = 200, condition = "Successfully returned the all the jobs new states." ),
+    @ResponseCode( code = 500, condition = "Invalid request or server error." )
+  } )
+  public JobsResponse resumeJobs( JobsRequest jobsRequest ) {
+    try {
+      return toJobsResponse( jobsRequest.getJobIds(), schedulerService.resumeJobs( jobsRequest.getJobIds() ) );
+    } catch ( SchedulerException e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
+  /**
+   * Execute all the specified scheduled jobs now, in a single request.
+   *
+   * <p><b>Example Request:</b><br />
+   * POST pentaho/api/scheduler/triggerJobsNow
+   * </p>
+   * <br /><b>POST data:</b>
+   * <pre function="syntax.xml">
+   *   &lt;jobsRequest&gt;
+   *     &lt;jobIds&gt;
+   *       &lt;jobId&gt;admin  JobName 1410786491777&lt;/jobId&gt;
+   *       &lt;jobId&gt;admin  OtherJobName 1410786491778&lt;/jobId&gt;
+   *     &lt;/jobIds&gt;
+   *   &lt;/jobsRequest&gt;
+   * </pre>
+   *
+   * <p><b>Example Response:</b></p>
+   * <pre function="syntax.xml">
+   *   &lt;JobsResponse&gt;
+   *     &lt;changes&gt;
+   *       &lt;entry&gt;
+   *         &lt;key&gt;admin  JobName 1410786491777&lt;/key&gt;
+   *         &lt;value&gt;NORMAL&lt;/value&gt;
+   *       &lt;/entry&gt;
+   *       &lt;entry&gt;
+   *         &lt;key&gt;admin  OtherJobName 1410786491778&lt;/key&gt;
+   *         &lt;value&gt;UNKNOWN_ERROR&lt;/value&gt;
+   *       &lt;/entry&gt;
+   *     &lt;/changes&gt;
+   *   &lt;/JobsResponse&gt;
+   * </pre>
+   *
+   * @param jobsRequest A JobsRequest object containing a list of jobIds.
+   * @return A JobsResponse object containing the new state of each job, UNKNOWN_ERROR for the jobs not found or that
+   * failed to fire.
+   */
+  @POST
+  @Path( "/triggerJobsNow" )
+  @Produces( { APPLICATION_XML, APPLICATION_JSON } )
+  @Consumes( { APPLICATION_XML, APPLICATION_JSON } )
+  @StatusCodes( {
+    @ResponseCode( code = 200, condition = "Successfully returned the all the jobs new states." ),
+    @ResponseCode( code = 500, condition = "Invalid request or server error." )
+  } )
+  public JobsResponse triggerJobsNow( JobsRequest jobsRequest ) {
+    try {
+      return toJobsResponse( jobsRequest.getJobIds(), schedulerService.triggerNow( jobsRequest.getJobIds() ) );
+    } catch ( SchedulerException e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private JobsResponse toJobsResponse( List<String> jobIds, Map<String, JobState> states ) {
+    JobsResponse response = new JobsResponse();
+
+    for ( String jobId : jobIds ) {
+      JobState state = states.get( jobId );
+      response.addChanges( jobId, state == null ? ERROR_JOB_STATE : state.name() );
+    }
+
+    return response;
+  }
+
+  /**
+   * Download a binary snapshot of all the scheduled jobs, with their triggers, states and last run times, to be
+   * restored with POST /snapshot. Only administrators may take a snapshot.
+   *
+   * <p><b>Example Request:</b><br />
+   * GET pentaho/api/scheduler/snapshot
+   * </p>
+   *
+   * @return A jax-rs Response object streaming the snapshot.
+   */
+  @GET
+  @Path( "/snapshot" )
+  @Produces( APPLICATION_OCTET_STREAM )
+  @StatusCodes( {
+    @ResponseCode( code = 200, condition = "Successfully streamed the snapshot." ),
+    @ResponseCode( code = 403, condition = "The caller is not an administrator." ),
+    @ResponseCode( code = 500, condition = "An error occurred when writing the snapshot." )
+  } )
+  public Response getSnapshot() {
+    try {
+      schedulerService.checkSnapshotAccess();
+    } catch ( IllegalAccessException e ) {
+      return buildStatusResponse( FORBIDDEN );
+    } catch ( SchedulerException e ) {
+      throw new RuntimeException( e );
+    }
+    StreamingOutput snapshot = output -> {
+      try {
+        schedulerService.writeSnapshot( output );
+      } catch ( IllegalAccessException e ) {
+        throw new WebApplicationException( FORBIDDEN );
+      } catch ( SchedulerException e ) {
+        throw new WebApplicationException( e );
+      }
+    };
+    return Response.ok( snapshot, APPLICATION_OCTET_STREAM )
+      .header( "Content-Disposition", "attachment; filename=\"scheduler.snapshot\"" ).build();
+  }
+
+  /**
+   * Restore a snapshot taken with GET /snapshot, replacing the jobs of the same id. Only administrators may restore a
+   * snapshot.
+   *
+   * <p><b>Example Request:</b><br />
+   * POST pentaho/api/scheduler/snapshot
+   * </p>
+   * <br /><b>POST data:</b>
+   * <pre function="syntax.xml">
+   *   The snapshot, as downloaded.
+   * </pre>
+   *
+   * <p><b>Example Response:</b></p>
+   * <pre function="syntax.xml">
+   *   50000
+   * </pre>
+   *
+   * @param snapshot The snapshot.
+   * @return A jax-rs Response object containing the number of jobs restored.
+   */
+  @POST
+  @Path( "/snapshot" )
+  @Consumes( APPLICATION_OCTET_STREAM )
+  @Produces( TEXT_PLAIN )
+  @StatusCodes( {
+    @ResponseCode( code = 200, condition = "Successfully restored the snapshot." ),
+    @ResponseCode( code = 403, condition = "The caller is not an administrator." ),
+    @ResponseCode( code = 500, condition = "Invalid snapshot or server error." )
+  } )
+  public Response restoreSnapshot( InputStream snapshot ) {
+    try {
+      return buildPlainTextOkResponse( Integer.toString( schedulerService.restoreSnapshot( snapshot ) ) );
+    } catch ( IllegalAccessException e ) {
+      return buildStatusResponse( FORBIDDEN );
+    } catch ( SchedulerException e ) {
+      throw new RuntimeException( e );
+    }
+  }
+
   /**
    * Return the information for a specified job.
    *
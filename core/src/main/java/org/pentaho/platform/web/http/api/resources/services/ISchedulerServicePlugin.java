@@ -22,12 +22,16 @@ import org.pentaho.platform.api.scheduler2.Job;
 import org.pentaho.platform.api.scheduler2.JobState;
 import org.pentaho.platform.api.scheduler2.SchedulerException;
 import org.pentaho.platform.web.http.api.proxies.BlockStatusProxy;
+import org.pentaho.platform.web.http.api.resources.JobCreationResult;
 import org.pentaho.platform.web.http.api.resources.JobRequest;
 import org.pentaho.platform.web.http.api.resources.JobScheduleRequest;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for pentaho platform scheduling service with focus
@@ -48,10 +52,14 @@ public interface ISchedulerServicePlugin {
    */
   Job createJob( JobScheduleRequest jobScheduleRequest ) throws IOException, SchedulerException, IllegalAccessException;
 
+  List<JobCreationResult> createJobs( List<JobScheduleRequest> jobScheduleRequests );
+
   Job updateJob( JobScheduleRequest jobScheduleRequest ) throws IllegalAccessException, IOException, SchedulerException;
 
   Job triggerNow( String jobId ) throws SchedulerException;
 
+  Map<String, JobState> triggerNow( List<String> jobIds ) throws SchedulerException;
+
   Job getContentCleanerJob() throws SchedulerException;
 
   List<IJob> getJobs() throws SchedulerException, IllegalAccessException;
@@ -76,8 +84,20 @@ public interface ISchedulerServicePlugin {
 
   JobState resumeJob( String jobId ) throws SchedulerException;
 
+  Map<String, JobState> pauseJobs( List<String> jobIds ) throws SchedulerException;
+
+  Map<String, JobState> resumeJobs( List<String> jobIds ) throws SchedulerException;
+
+  void checkSnapshotAccess() throws IllegalAccessException, SchedulerException;
+
+  void writeSnapshot( OutputStream output ) throws IllegalAccessException, SchedulerException;
+
+  int restoreSnapshot( InputStream input ) throws IllegalAccessException, SchedulerException;
+
   boolean removeJob( String jobId ) throws SchedulerException;
 
+  boolean cancelJob( String jobId ) throws SchedulerException;
+
   IJob getJob( String jobId ) throws SchedulerException;
 
   IJob getJobInfo( String jobId ) throws SchedulerException;
@@ -42,7 +42,13 @@ import org.pentaho.platform.api.scheduler2.SchedulerException;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.security.SecurityHelper;
+import org.pentaho.platform.repository2.unified.webservices.RepositoryFileAdapter;
+import org.pentaho.platform.scheduler2.action.GeneratedContentIndex;
 import org.pentaho.platform.scheduler2.blockout.BlockoutAction;
+import org.pentaho.platform.scheduler2.messsages.Messages;
+import org.pentaho.platform.scheduler2.quartz.JobDefinition;
+import org.pentaho.platform.scheduler2.quartz.MisfireGovernor;
+import org.pentaho.platform.scheduler2.quartz.QuartzScheduler;
 import org.pentaho.platform.security.policy.rolebased.actions.AdministerSecurityAction;
 import org.pentaho.platform.security.policy.rolebased.actions.SchedulerAction;
 import org.pentaho.platform.security.policy.rolebased.actions.SchedulerExecuteAction;
@@ -50,6 +56,7 @@ import org.pentaho.platform.util.ActionUtil;
 import org.pentaho.platform.util.messages.LocaleHelper;
 import org.pentaho.platform.web.http.api.proxies.BlockStatusProxy;
 import org.pentaho.platform.web.http.api.resources.ComplexJobTriggerProxy;
+import org.pentaho.platform.web.http.api.resources.JobCreationResult;
 import org.pentaho.platform.web.http.api.resources.JobRequest;
 import org.pentaho.platform.web.http.api.resources.JobScheduleParam;
 import org.pentaho.platform.web.http.api.resources.JobScheduleRequest;
@@ -60,14 +67,20 @@ import org.pentaho.platform.web.http.api.resources.SessionResource;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 import com.google.common.annotations.VisibleForTesting;
 
@@ -132,6 +145,103 @@ public class SchedulerService implements ISchedulerServicePlugin {
 
   @Override
   public Job createJob( JobScheduleRequest scheduleRequest )
+    throws IOException, SchedulerException, IllegalAccessException {
+    return scheduleJob( scheduleRequest, null );
+  }
+
+  /**
+   * Creates the job described by the schedule request or, when {@code jobId} is given, updates that job in place.
+   */
+  private Job scheduleJob( JobScheduleRequest scheduleRequest, String jobId )
+    throws IOException, SchedulerException, IllegalAccessException {
+    PreparedJob preparedJob = prepareJob( scheduleRequest, null );
+    if ( jobId != null ) {
+      getScheduler().updateJob( jobId, preparedJob.getJobParams(), preparedJob.jobTrigger );
+      return (Job) getJob( jobId );
+    }
+    return preparedJob.create();
+  }
+
+  /**
+   * Creates several jobs. Each request is validated on its own, sharing the input file lookups and output folder
+   * checks between the requests; the valid jobs are then stored together, in a single job store transaction when the
+   * scheduler is the {@link QuartzScheduler}. When storing them together fails, nothing is stored and the jobs are
+   * created one by one, so that a job the scheduler rejects fails on its own.
+   *
+   * @param scheduleRequests the jobs to create
+   * @return the outcome of each request, in the order of the requests
+   */
+  @Override
+  public List<JobCreationResult> createJobs( List<JobScheduleRequest> scheduleRequests ) {
+    JobCreationResult[] results = new JobCreationResult[ scheduleRequests.size() ];
+    List<PreparedJob> preparedJobs = new ArrayList<>();
+    List<Integer> preparedIndexes = new ArrayList<>();
+    BatchCaches caches = new BatchCaches();
+
+    for ( int i = 0; i < scheduleRequests.size(); i++ ) {
+      JobScheduleRequest scheduleRequest = scheduleRequests.get( i );
+      try {
+        preparedJobs.add( prepareJob( scheduleRequest, caches ) );
+        preparedIndexes.add( i );
+      } catch ( Exception e ) {
+        results[ i ] = getFailedJobCreationResult( scheduleRequest, e );
+      }
+    }
+
+    if ( getScheduler() instanceof QuartzScheduler ) {
+      List<JobDefinition> jobDefinitions = new ArrayList<>( preparedJobs.size() );
+      for ( PreparedJob preparedJob : preparedJobs ) {
+        jobDefinitions.add( new JobDefinition( preparedJob.scheduleRequest.getJobName(), preparedJob.getJobParams(),
+          preparedJob.jobTrigger, null ) );
+      }
+      try {
+        List<Job> jobs = ( (QuartzScheduler) getScheduler() ).createJobs( jobDefinitions );
+        for ( int i = 0; i < jobs.size(); i++ ) {
+          results[ preparedIndexes.get( i ) ] = new JobCreationResult( jobs.get( i ).getJobName(),
+            jobs.get( i ).getJobId(), JobCreationResult.CREATED, null );
+        }
+      } catch ( SchedulerException e ) {
+        // nothing was stored: create the jobs one by one, so that only the jobs at fault fail
+        logger.warn( "Bulk creation of " + preparedJobs.size() + " jobs failed, creating them one by one: "
+          + e.getMessage() );
+        createEach( preparedJobs, preparedIndexes, results );
+      }
+    } else {
+      createEach( preparedJobs, preparedIndexes, results );
+    }
+    return Arrays.asList( results );
+  }
+
+  private void createEach( List<PreparedJob> preparedJobs, List<Integer> preparedIndexes,
+                           JobCreationResult[] results ) {
+    for ( int i = 0; i < preparedJobs.size(); i++ ) {
+      try {
+        Job job = preparedJobs.get( i ).create();
+        results[ preparedIndexes.get( i ) ] =
+          new JobCreationResult( job.getJobName(), job.getJobId(), JobCreationResult.CREATED, null );
+      } catch ( SchedulerException e ) {
+        logger.error( e.getMessage(), e );
+        results[ preparedIndexes.get( i ) ] = getFailedJobCreationResult( preparedJobs.get( i ).scheduleRequest, e );
+      }
+    }
+  }
+
+  private JobCreationResult getFailedJobCreationResult( JobScheduleRequest scheduleRequest, Exception e ) {
+    String status = JobCreationResult.ERROR;
+    if ( e instanceof SecurityException ) {
+      status = JobCreationResult.UNAUTHORIZED;
+    } else if ( e instanceof IllegalAccessException ) {
+      status = JobCreationResult.FORBIDDEN;
+    }
+    return new JobCreationResult( scheduleRequest.getJobName(), null, status, e.getMessage() );
+  }
+
+  /**
+   * Validates a schedule request and resolves everything the scheduler needs to create its job.
+   *
+   * @param caches the lookups shared by the requests of a bulk creation, {@code null} for a single request
+   */
+  private PreparedJob prepareJob( JobScheduleRequest scheduleRequest, BatchCaches caches )
     throws IOException, SchedulerException, IllegalAccessException {
     // Used to determine if created by a RunInBackgroundCommand
     boolean runInBackground = isRunInBackground( scheduleRequest );
@@ -143,7 +253,13 @@ public class SchedulerService implements ISchedulerServicePlugin {
     logger.debug( "checking input file" );
     Optional<InputFileInfo> file;
     if ( !StringUtils.isEmpty( scheduleRequest.getInputFile() ) ) {
-      file = getInputFileInfo( scheduleRequest );
+      file = caches == null ? null : caches.inputFiles.get( scheduleRequest.getInputFile() );
+      if ( file == null ) {
+        file = getInputFileInfo( scheduleRequest );
+        if ( caches != null ) {
+          caches.inputFiles.put( scheduleRequest.getInputFile(), file );
+        }
+      }
     } else {
       logger.debug( "no input file" );
       file = Optional.empty();
@@ -164,30 +280,88 @@ public class SchedulerService implements ISchedulerServicePlugin {
       // throws if not
       file.get().checkIsSchedulable();
     }
-    Job job;
+    PreparedJob preparedJob = new PreparedJob( scheduleRequest, parameterMap, jobTrigger );
+    preparedJob.runInBackground = runInBackground;
     if ( file.isPresent() ) {
-      final String inputFile = scheduleRequest.getInputFile();
-      final String outputFile = resolveOutputFilePath( scheduleRequest );
-      final String actionId = SchedulerResourceUtil.resolveActionId( scheduleRequest.getInputFile() );
-      parameterMap.put( ActionUtil.QUARTZ_STREAMPROVIDER_INPUT_FILE, inputFile );
-      job =
-        (Job) schedulerCreateJob( scheduleRequest.getJobName(), actionId, parameterMap, jobTrigger, inputFile,
-          outputFile, scheduleRequest );
+      preparedJob.inputFile = scheduleRequest.getInputFile();
+      preparedJob.outputFile = caches == null ? resolveOutputFilePath( scheduleRequest )
+        : resolveOutputFilePath( scheduleRequest, caches.outputFolders );
+      preparedJob.actionId = SchedulerResourceUtil.resolveActionId( scheduleRequest.getInputFile() );
+      parameterMap.put( ActionUtil.QUARTZ_STREAMPROVIDER_INPUT_FILE, preparedJob.inputFile );
     } else {
       // TODO need to locate actions from plugins if done this way too (but for now, we're just on main)
       // We will first attempt to get action class and if it fails we get the registered bean id.
       String actionClass = scheduleRequest.getActionClass();
 
       try {
-        Class<IAction> iaction = getAction( actionClass );
-        job = (Job) getScheduler().createJob( scheduleRequest.getJobName(), iaction, parameterMap, jobTrigger );
+        preparedJob.actionClass = getAction( actionClass );
       } catch ( ClassNotFoundException e ) {
-        String actionId = SchedulerResourceUtil.resolveActionIdFromClass( actionClass );
-        job = (Job) getScheduler().createJob( scheduleRequest.getJobName(), actionId, parameterMap, jobTrigger );
+        preparedJob.actionId = SchedulerResourceUtil.resolveActionIdFromClass( actionClass );
       }
     }
 
-    return job;
+    return preparedJob;
+  }
+
+  /**
+   * A validated schedule request with its trigger, parameters and action.
+   */
+  private class PreparedJob {
+    private final JobScheduleRequest scheduleRequest;
+    private final HashMap<String, Object> parameterMap;
+    private final IJobTrigger jobTrigger;
+    private String inputFile;
+    private String outputFile;
+    private String actionId;
+    private Class<IAction> actionClass;
+    private boolean runInBackground;
+
+    private PreparedJob( JobScheduleRequest scheduleRequest, HashMap<String, Object> parameterMap,
+                         IJobTrigger jobTrigger ) {
+      this.scheduleRequest = scheduleRequest;
+      this.parameterMap = parameterMap;
+      this.jobTrigger = jobTrigger;
+    }
+
+    /**
+     * @return the job parameters, including the action and output stream provider stored with the job
+     */
+    private Map<String, Object> getJobParams() {
+      if ( inputFile != null ) {
+        parameterMap.put( IScheduler.RESERVEDMAPKEY_ACTIONID, actionId );
+        parameterMap.put( IScheduler.RESERVEDMAPKEY_STREAMPROVIDER,
+          createIBackgroundExecutionStreamProvider( inputFile, outputFile, scheduleRequest ) );
+      } else if ( actionClass != null ) {
+        parameterMap.put( IScheduler.RESERVEDMAPKEY_ACTIONCLASS, actionClass.getName() );
+      } else {
+        parameterMap.put( IScheduler.RESERVEDMAPKEY_ACTIONID, actionId );
+      }
+      return parameterMap;
+    }
+
+    private Job create() throws SchedulerException {
+      if ( runInBackground && getScheduler() instanceof QuartzScheduler ) {
+        // run right away rather than storing a run once job
+        return ( (QuartzScheduler) getScheduler() ).dispatchJob( scheduleRequest.getJobName(), getJobParams(),
+          jobTrigger );
+      }
+      if ( inputFile != null ) {
+        return (Job) schedulerCreateJob( scheduleRequest.getJobName(), actionId, parameterMap, jobTrigger, inputFile,
+          outputFile, scheduleRequest );
+      }
+      if ( actionClass != null ) {
+        return (Job) getScheduler().createJob( scheduleRequest.getJobName(), actionClass, parameterMap, jobTrigger );
+      }
+      return (Job) getScheduler().createJob( scheduleRequest.getJobName(), actionId, parameterMap, jobTrigger );
+    }
+  }
+
+  /**
+   * Lookups shared by the requests of a bulk creation.
+   */
+  private static class BatchCaches {
+    private final Map<String, Optional<InputFileInfo>> inputFiles = new HashMap<>();
+    private final Map<String, Boolean> outputFolders = new HashMap<>();
   }
 
   private void setJobName( JobScheduleRequest scheduleRequest, Optional<InputFileInfo> inputFile ) {
@@ -238,6 +412,10 @@ public class SchedulerService implements ISchedulerServicePlugin {
       parameterMap.put( "logLevel", scheduleRequest.getLogLevel() );
     }
 
+    if ( scheduleRequest.getMisfirePolicy() != null ) {
+      parameterMap.put( MisfireGovernor.MISFIRE_POLICY_PARAM, scheduleRequest.getMisfirePolicy() );
+    }
+
     if ( inputFile.isPresent() ) {
       String fileName = inputFile.get().getName();
       if ( isPdiFile( fileName ) ) {
@@ -272,6 +450,18 @@ public class SchedulerService implements ISchedulerServicePlugin {
     return outputPathResolver.resolveOutputFilePath();
   }
 
+  /**
+   * Resolves the output file path of a request, reusing the output folder checks made for other requests.
+   *
+   * @param outputFolders the outcome of the output folder checks already made, by schedule owner and folder
+   */
+  protected String resolveOutputFilePath( JobScheduleRequest scheduleRequest, Map<String, Boolean> outputFolders )
+    throws SchedulerException {
+    SchedulerOutputPathResolver outputPathResolver = getSchedulerOutputPathResolver( scheduleRequest );
+    outputPathResolver.setOutputFolderCache( outputFolders );
+    return outputPathResolver.resolveOutputFilePath();
+  }
+
   /**
    * Wrapper function around
    * {@link IScheduler#createJob(String, Class, Map, IJobTrigger, IBackgroundExecutionStreamProvider)} .
@@ -313,6 +503,22 @@ public class SchedulerService implements ISchedulerServicePlugin {
     if ( job != null ) {
       addJobScheduleParam( scheduleRequest, getJobScheduleParam( IScheduler.RESERVEDMAPKEY_ACTIONUSER, job
         .getUserName() ) );
+
+      // the job id embeds the job name, so only a job keeping its name can be updated in place
+      if ( job.getJobName() != null && job.getJobName().equals( scheduleRequest.getJobName() ) ) {
+        try {
+          return scheduleJob( scheduleRequest, job.getJobId() );
+        } catch ( UnsupportedOperationException e ) {
+          logger.debug( "Scheduler does not update jobs in place, recreating job " + job.getJobId() );
+        }
+      }
+
+      Object lineageId =
+        job.getJobParams() == null ? null : job.getJobParams().get( IScheduler.RESERVEDMAPKEY_LINEAGE_ID );
+      if ( lineageId != null ) {
+        addJobScheduleParam( scheduleRequest, getJobScheduleParam( IScheduler.RESERVEDMAPKEY_LINEAGE_ID, lineageId
+          .toString() ) );
+      }
     }
 
     Job newJob = createJob( scheduleRequest );
@@ -352,8 +558,30 @@ public class SchedulerService implements ISchedulerServicePlugin {
 
   @Override
   public List<RepositoryFileDto> doGetGeneratedContentForSchedule( String lineageId ) throws FileNotFoundException {
-    return getFileService().searchGeneratedContent( getSessionResource().doGetCurrentUserDir(), lineageId,
-      IScheduler.RESERVEDMAPKEY_LINEAGE_ID );
+    String userDir = getSessionResource().doGetCurrentUserDir();
+    GeneratedContentIndex index = getGeneratedContentIndex();
+    if ( index == null ) {
+      return getFileService().searchGeneratedContent( userDir, lineageId, IScheduler.RESERVEDMAPKEY_LINEAGE_ID );
+    }
+
+    List<RepositoryFile> indexedFiles = index.lookup( getRepository(), userDir, lineageId );
+    if ( indexedFiles != null ) {
+      List<RepositoryFileDto> content = new ArrayList<>( indexedFiles.size() );
+      for ( RepositoryFile file : indexedFiles ) {
+        content.add( RepositoryFileAdapter.marshal( file ) );
+      }
+      return content;
+    }
+
+    // the index has not seen this folder yet, search it once and remember the result
+    List<RepositoryFileDto> content =
+      getFileService().searchGeneratedContent( userDir, lineageId, IScheduler.RESERVEDMAPKEY_LINEAGE_ID );
+    List<String> paths = new ArrayList<>( content.size() );
+    for ( RepositoryFileDto file : content ) {
+      paths.add( file.getPath() );
+    }
+    index.seed( lineageId, userDir, paths );
+    return content;
   }
 
   @Override
@@ -476,6 +704,138 @@ public class SchedulerService implements ISchedulerServicePlugin {
     return job.getState();
   }
 
+  /**
+   * Pauses several jobs, in a single scheduler call when the scheduler is the {@link QuartzScheduler}.
+   *
+   * @param jobIds the job ids
+   * @return the state of each job, by job id; the jobs not found or failing to pause are left out
+   */
+  @Override
+  public Map<String, JobState> pauseJobs( List<String> jobIds ) throws SchedulerException {
+    return controlJobs( jobIds, QuartzScheduler::pauseJobs, IScheduler::pauseJob );
+  }
+
+  /**
+   * Resumes several jobs, in a single scheduler call when the scheduler is the {@link QuartzScheduler}.
+   *
+   * @param jobIds the job ids
+   * @return the state of each job, by job id; the jobs not found or failing to resume are left out
+   */
+  @Override
+  public Map<String, JobState> resumeJobs( List<String> jobIds ) throws SchedulerException {
+    return controlJobs( jobIds, QuartzScheduler::resumeJobs, IScheduler::resumeJob );
+  }
+
+  /**
+   * Fires several jobs now, in a single scheduler call when the scheduler is the {@link QuartzScheduler}.
+   *
+   * @param jobIds the job ids
+   * @return the state of each job, by job id; the jobs not found or failing to fire are left out
+   */
+  @Override
+  public Map<String, JobState> triggerNow( List<String> jobIds ) throws SchedulerException {
+    return controlJobs( jobIds, QuartzScheduler::triggerJobs, IScheduler::triggerNow );
+  }
+
+  /**
+   * Applies an action to the jobs the caller may control; the state of the other jobs is returned unchanged, as
+   * {@link #pauseJob(String)} does.
+   */
+  private Map<String, JobState> controlJobs( List<String> jobIds,
+                                             BiFunction<QuartzScheduler, List<String>, List<String>> bulkAction,
+                                             JobAction jobAction ) throws SchedulerException {
+    boolean canControlAll = isScheduleAllowed() || isExecuteScheduleAllowed();
+    String userName = getSession().getName();
+    Map<String, JobState> states = new LinkedHashMap<>();
+    List<String> allowedJobIds = new ArrayList<>();
+
+    for ( String jobId : jobIds ) {
+      Job job = (Job) getJob( jobId );
+      if ( job == null ) {
+        continue;
+      }
+      if ( canControlAll || userName.equals( job.getUserName() ) ) {
+        allowedJobIds.add( jobId );
+      } else {
+        states.put( jobId, job.getState() );
+      }
+    }
+
+    List<String> doneJobIds;
+    if ( getScheduler() instanceof QuartzScheduler ) {
+      doneJobIds = bulkAction.apply( (QuartzScheduler) getScheduler(), allowedJobIds );
+    } else {
+      doneJobIds = new ArrayList<>();
+      for ( String jobId : allowedJobIds ) {
+        try {
+          jobAction.apply( getScheduler(), jobId );
+          doneJobIds.add( jobId );
+        } catch ( SchedulerException e ) {
+          logger.warn( e.getMessage(), e );
+        }
+      }
+    }
+
+    for ( String jobId : doneJobIds ) {
+      Job job = (Job) getJob( jobId );
+      if ( job != null ) {
+        states.put( jobId, job.getState() );
+      }
+    }
+    return states;
+  }
+
+  private interface JobAction {
+    void apply( IScheduler scheduler, String jobId ) throws SchedulerException;
+  }
+
+  /**
+   * Writes a binary snapshot of all the jobs, for administrators.
+   *
+   * @param output the stream to write the snapshot to, left open
+   * @throws IllegalAccessException if the caller is not an administrator
+   * @throws SchedulerException if the scheduler is not the {@link QuartzScheduler} or the snapshot cannot be written
+   */
+  @Override
+  public void writeSnapshot( OutputStream output ) throws IllegalAccessException, SchedulerException {
+    getSnapshotScheduler().writeSnapshot( Channels.newChannel( output ) );
+  }
+
+  /**
+   * Restores a snapshot written by {@link #writeSnapshot(OutputStream)}, for administrators.
+   *
+   * @param input the snapshot
+   * @return the number of jobs restored
+   * @throws IllegalAccessException if the caller is not an administrator
+   * @throws SchedulerException if the scheduler is not the {@link QuartzScheduler} or the snapshot cannot be restored
+   */
+  @Override
+  public int restoreSnapshot( InputStream input ) throws IllegalAccessException, SchedulerException {
+    return getSnapshotScheduler().restoreSnapshot( Channels.newChannel( input ) );
+  }
+
+  /**
+   * Checks that a snapshot can be written or restored, before streaming it.
+   *
+   * @throws IllegalAccessException if the caller is not an administrator
+   * @throws SchedulerException if the scheduler is not the {@link QuartzScheduler}
+   */
+  @Override
+  public void checkSnapshotAccess() throws IllegalAccessException, SchedulerException {
+    getSnapshotScheduler();
+  }
+
+  private QuartzScheduler getSnapshotScheduler() throws IllegalAccessException, SchedulerException {
+    if ( !canAdminister() ) {
+      throw new IllegalAccessException();
+    }
+    if ( !( getScheduler() instanceof QuartzScheduler ) ) {
+      throw new SchedulerException(
+        Messages.getInstance().getString( "SchedulerService.ERROR_0001_SNAPSHOT_REQUIRES_QUARTZ" ) );
+    }
+    return (QuartzScheduler) getScheduler();
+  }
+
   @Override
   public synchronized boolean removeJob( String jobId ) throws SchedulerException {
     Job job = (Job) getJob( jobId );
@@ -488,6 +848,25 @@ public class SchedulerService implements ISchedulerServicePlugin {
     return false;
   }
 
+  /**
+   * Interrupts the running executions of a job, leaving its schedule untouched.
+   *
+   * @param jobId the job id
+   * @return {@code true} if a running execution was interrupted, {@code false} if none was running, the caller may not
+   * cancel the job or the scheduler does not support interrupting jobs
+   */
+  @Override
+  public boolean cancelJob( String jobId ) throws SchedulerException {
+    Job job = (Job) getJob( jobId );
+
+    if ( job != null && getScheduler() instanceof QuartzScheduler
+      && ( isScheduleAllowed() || isExecuteScheduleAllowed() || getSession().getName().equals( job.getUserName() ) ) ) {
+      return ( (QuartzScheduler) getScheduler() ).interruptJob( jobId );
+    }
+
+    return false;
+  }
+
   @SuppressWarnings( "java:S112" )
   @Override
   public IJob getJobInfo( String jobId ) throws SchedulerException {
@@ -785,6 +1164,10 @@ public class SchedulerService implements ISchedulerServicePlugin {
     return sessionResource;
   }
 
+  protected GeneratedContentIndex getGeneratedContentIndex() {
+    return GeneratedContentIndex.getInstance();
+  }
+
   protected FileService getFileService() {
     if ( fileService == null ) {
       fileService = new FileService();
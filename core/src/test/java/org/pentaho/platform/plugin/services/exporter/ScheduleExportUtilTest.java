@@ -41,6 +41,7 @@ import org.pentaho.platform.plugin.services.importexport.Log4JRepositoryExportLo
 import org.pentaho.platform.plugin.services.importexport.RepositoryTextLayout;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.ExportManifest;
 import org.pentaho.platform.plugin.services.importexport.legacy.MondrianCatalogRepositoryHelper;
+import org.pentaho.platform.scheduler2.quartz.QuartzScheduler;
 import org.pentaho.platform.web.http.api.resources.JobScheduleRequest;
 import org.pentaho.platform.web.http.api.resources.RepositoryFileStreamProvider;
 
@@ -55,10 +56,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -391,6 +396,46 @@ public class ScheduleExportUtilTest {
     assertEquals( 2, exportManifest.getScheduleList().size() );
   }
 
+  @Test
+  public void testExportSchedules_quartzSchedulerExportsPagesInOrder() throws Exception {
+    QuartzScheduler quartzScheduler = mock( QuartzScheduler.class );
+    pentahoSystem.when( () -> PentahoSystem.get( IScheduler.class, "IScheduler2", null ) ).thenReturn( quartzScheduler );
+    when( quartzScheduler.createJobScheduleRequest() ).thenAnswer( invocation -> new JobScheduleRequest() );
+    List<String> jobIds = new ArrayList<>();
+    for ( int i = 0; i < 2 * ScheduleExportUtil.EXPORT_PAGE_SIZE + 1; i++ ) {
+      jobIds.add( "admin\tjob" + i + "\t" + i );
+    }
+    jobIds.set( 1, "admin\tPentahoSystemVersionCheck\t1" );
+    when( quartzScheduler.getJobIds() ).thenReturn( jobIds );
+    when( quartzScheduler.getJobsById( anyList() ) ).thenAnswer( invocation -> {
+      List<IJob> jobs = new ArrayList<>();
+      for ( String jobId : (List<String>) invocation.getArgument( 0 ) ) {
+        Job job = new Job();
+        job.setJobId( jobId );
+        job.setJobName( jobId.split( "\t" )[ 1 ] );
+        job.setJobParams( new HashMap<>() );
+        job.setJobTrigger( new CronJobTrigger() );
+        jobs.add( job );
+      }
+      return jobs;
+    } );
+
+    IRepositoryExportLogger exportLogger = new Log4JRepositoryExportLogger();
+    exportLogger.startJob( new ByteArrayOutputStream(), Level.INFO, new RepositoryTextLayout( Level.INFO ) );
+    PentahoPlatformExporter exporter = new PentahoPlatformExporter( repo );
+    exporter.setExportManifest( exportManifest );
+    exporter.setRepositoryExportLogger( exportLogger );
+    exporterSpy.doExport( exporter );
+    exportLogger.endJob();
+
+    verify( quartzScheduler, times( 3 ) ).getJobsById( anyList() );
+    verify( quartzScheduler, never() ).getJobs( any() );
+    assertEquals( jobIds.size() - 1, exportManifest.getScheduleList().size() );
+    assertEquals( "job0", exportManifest.getScheduleList().get( 0 ).getJobName() );
+    assertEquals( "job" + ( jobIds.size() - 1 ),
+      exportManifest.getScheduleList().get( jobIds.size() - 2 ).getJobName() );
+  }
+
   @Test(expected = ExportException.class)
   public void testExportSchedules_SchedulerThrowsException() throws ExportException, SchedulerException {
     when( scheduler.getJobs( null ) ).thenThrow( new SchedulerException( "bad" ) );
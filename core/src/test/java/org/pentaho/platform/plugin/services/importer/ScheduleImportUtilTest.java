@@ -19,6 +19,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.pentaho.platform.api.importexport.IImportHelper;
@@ -34,10 +35,20 @@ import org.pentaho.platform.api.scheduler2.JobState;
 import org.pentaho.platform.api.scheduler2.SimpleJobTrigger;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.plugin.services.importexport.ImportSession;
+import org.pentaho.platform.scheduler2.quartz.QuartzScheduler;
+import org.pentaho.platform.web.http.api.resources.JobCreationResult;
+import org.pentaho.platform.web.http.api.resources.JobCreationResults;
+import org.pentaho.platform.web.http.api.resources.JobScheduleParam;
+import org.pentaho.platform.web.http.api.resources.JobScheduleRequest;
+import org.pentaho.platform.web.http.api.resources.JobScheduleRequests;
+import org.pentaho.platform.web.http.api.resources.JobsRequest;
+import org.pentaho.platform.web.http.api.resources.SchedulerResource;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -158,6 +169,47 @@ public class ScheduleImportUtilTest {
     }
   }
 
+  @Test
+  public void testDoImport_quartzScheduler_stagesActiveSchedulesWithoutPausing() throws Exception {
+    QuartzScheduler quartzScheduler = mock( QuartzScheduler.class );
+    when( quartzScheduler.createSchedulerResource() ).thenReturn( mockSchedulerResource );
+    when( quartzScheduler.createJobRequest() ).thenReturn( mockJobRequest );
+    mockScheduler = quartzScheduler;
+
+    FakeJobScheduleRequest active = new FakeJobScheduleRequest();
+    active.setInputFile( "/home/admin/active.prpt" );
+    active.setJobName( "Active" );
+    active.setJobState( JobState.NORMAL );
+    FakeJobScheduleRequest paused = new FakeJobScheduleRequest();
+    paused.setInputFile( "/home/admin/paused.prpt" );
+    paused.setJobName( "Paused" );
+    paused.setJobState( JobState.PAUSED );
+
+    TestableScheduleImportUtil scheduleImportUtil =
+      new TestableScheduleImportUtil( new ArrayList<>( Arrays.asList( active, paused ) ) );
+
+    Response mockResponse = mock( Response.class );
+    when( mockResponse.getStatus() ).thenReturn( Response.Status.OK.getStatusCode() );
+    when( mockResponse.getEntity() ).thenReturn( "job-id" );
+    when( mockSchedulerResource.createJob( ArgumentMatchers.any( IJobScheduleRequest.class ) ) )
+      .thenReturn( mockResponse );
+
+    try ( MockedStatic<PentahoSystem> pentahoSystemMock = Mockito.mockStatic( PentahoSystem.class ) ) {
+      stubPentahoSystem( pentahoSystemMock );
+
+      scheduleImportUtil.doImport( createImportContext( true, false ) );
+
+      // the paused schedule is not staged, activating the staged jobs would resume it
+      InOrder inOrder = Mockito.inOrder( quartzScheduler, mockSchedulerResource );
+      inOrder.verify( mockSchedulerResource ).createJob( paused );
+      inOrder.verify( quartzScheduler ).stageJobs();
+      inOrder.verify( mockSchedulerResource ).createJob( active );
+      inOrder.verify( quartzScheduler ).activateStagedJobs();
+      verify( mockSchedulerResource, never() ).pause();
+      verify( mockSchedulerResource, never() ).start();
+    }
+  }
+
   @Test
   public void testDoImport_responseNotOk_logsError() throws Exception {
     FakeJobScheduleRequest scheduleRequest = new FakeJobScheduleRequest();
@@ -612,6 +664,136 @@ public class ScheduleImportUtilTest {
     }
   }
 
+  @Test
+  public void testDoImport_existingJobsListedOnce() throws Exception {
+    List<IJobScheduleRequest> scheduleList = new ArrayList<>();
+    for ( int i = 0; i < 3; i++ ) {
+      FakeJobScheduleRequest scheduleRequest = new FakeJobScheduleRequest();
+      scheduleRequest.setInputFile( "/home/admin/test" + i + ".prpt" );
+      scheduleRequest.setOutputFile( "/home/admin/test" + i + ".*" );
+      scheduleRequest.setJobName( "TestJob" + i );
+      scheduleList.add( scheduleRequest );
+    }
+
+    TestableScheduleImportUtil scheduleImportUtil = new TestableScheduleImportUtil( scheduleList );
+
+    Response mockResponse = mock( Response.class );
+    when( mockResponse.getStatus() ).thenReturn( Response.Status.OK.getStatusCode() );
+    when( mockResponse.getEntity() ).thenReturn( "job-id" );
+    when( mockSchedulerResource.createJob( ArgumentMatchers.any( IJobScheduleRequest.class ) ) )
+      .thenReturn( mockResponse );
+
+    try ( MockedStatic<PentahoSystem> pentahoSystemMock = Mockito.mockStatic( PentahoSystem.class ) ) {
+      stubPentahoSystem( pentahoSystemMock );
+
+      scheduleImportUtil.doImport( createImportContext( false, false ) );
+
+      verify( mockSchedulerResource ).getJobsList();
+      verify( mockSchedulerResource, Mockito.times( 3 ) )
+        .createJob( ArgumentMatchers.any( IJobScheduleRequest.class ) );
+    }
+  }
+
+  @Test
+  public void testDoImport_sameLineageTwiceInManifest_overwrite_createsLastOnce() throws Exception {
+    IJobScheduleParam param = mock( IJobScheduleParam.class );
+    when( param.getName() ).thenReturn( "lineage-id" );
+    when( param.getValue() ).thenReturn( "lineage-123" );
+
+    FakeJobScheduleRequest first = new FakeJobScheduleRequest();
+    first.setInputFile( "/home/admin/test.prpt" );
+    first.setOutputFile( "/home/admin/test.*" );
+    first.setJobName( "First" );
+    first.setJobParameters( Collections.singletonList( param ) );
+    FakeJobScheduleRequest second = new FakeJobScheduleRequest();
+    second.setInputFile( "/home/admin/test.prpt" );
+    second.setOutputFile( "/home/admin/test.*" );
+    second.setJobName( "Second" );
+    second.setJobParameters( Collections.singletonList( param ) );
+
+    TestableScheduleImportUtil scheduleImportUtil = new TestableScheduleImportUtil( Arrays.asList( first, second ) );
+
+    Response mockResponse = mock( Response.class );
+    when( mockResponse.getStatus() ).thenReturn( Response.Status.OK.getStatusCode() );
+    when( mockResponse.getEntity() ).thenReturn( "new-job-id" );
+    when( mockSchedulerResource.createJob( second ) ).thenReturn( mockResponse );
+
+    try ( MockedStatic<PentahoSystem> pentahoSystemMock = Mockito.mockStatic( PentahoSystem.class ) ) {
+      stubPentahoSystem( pentahoSystemMock );
+
+      scheduleImportUtil.doImport( createImportContext( false, true ) );
+
+      verify( mockSchedulerResource, never() ).createJob( first );
+      verify( mockSchedulerResource ).createJob( second );
+      verify( mockSchedulerResource, never() ).removeJob( ArgumentMatchers.any( IJobRequest.class ) );
+      Assert.assertEquals( 1, ImportSession.getSession().getImportedScheduleJobIds().size() );
+    }
+  }
+
+  @Test
+  public void testDoImport_schedulerResource_createsAndRemovesInBulk() throws Exception {
+    SchedulerResource bulkSchedulerResource = mock( SchedulerResource.class );
+    when( mockScheduler.createSchedulerResource() ).thenReturn( bulkSchedulerResource );
+
+    IJob existingJob = mock( IJob.class );
+    when( existingJob.getJobParams() ).thenReturn( Collections.singletonMap( "lineage-id", "lineage-123" ) );
+    when( existingJob.getJobId() ).thenReturn( "existing-job-id" );
+    when( bulkSchedulerResource.getJobsList() ).thenReturn( Collections.singletonList( existingJob ) );
+
+    JobScheduleParam lineageParam = new JobScheduleParam( "lineage-id", "lineage-123" );
+    JobScheduleRequest replacing = new JobScheduleRequest();
+    replacing.setInputFile( "/home/admin/test.prpt" );
+    replacing.setOutputFile( "/home/admin/test.*" );
+    replacing.setJobName( "Replacing" );
+    replacing.setJobState( JobState.NORMAL );
+    replacing.getJobParameters().add( lineageParam );
+    JobScheduleRequest failing = new JobScheduleRequest();
+    failing.setInputFile( "/home/admin/other.prpt" );
+    failing.setOutputFile( "/home/admin/other.*" );
+    failing.setJobName( "Failing" );
+    failing.setJobState( JobState.NORMAL );
+    JobScheduleRequest retried = new JobScheduleRequest();
+    retried.setInputFile( "/home/admin/retried.prpt" );
+    retried.setOutputFile( "/home/admin/retried.*" );
+    retried.setJobName( "Retried" );
+    retried.setJobState( JobState.NORMAL );
+
+    TestableScheduleImportUtil scheduleImportUtil =
+      new TestableScheduleImportUtil( Arrays.asList( replacing, failing, retried ) );
+    when( bulkSchedulerResource.createJobs( ArgumentMatchers.any( JobScheduleRequests.class ) ) ).thenReturn(
+      new JobCreationResults( Arrays.asList(
+        new JobCreationResult( "Replacing", "new-job-id", JobCreationResult.CREATED, null ),
+        new JobCreationResult( "Failing", null, JobCreationResult.ERROR, "no such file" ),
+        new JobCreationResult( "Retried", null, JobCreationResult.ERROR, "failed with the others" ) ) ) );
+    Response failingResponse = mock( Response.class );
+    when( failingResponse.getStatus() ).thenReturn( Response.Status.INTERNAL_SERVER_ERROR.getStatusCode() );
+    when( failingResponse.getEntity() ).thenReturn( "no such file" );
+    when( bulkSchedulerResource.createJob( failing ) ).thenReturn( failingResponse );
+    Response retriedResponse = mock( Response.class );
+    when( retriedResponse.getStatus() ).thenReturn( Response.Status.OK.getStatusCode() );
+    when( retriedResponse.getEntity() ).thenReturn( "retried-job-id" );
+    when( bulkSchedulerResource.createJob( retried ) ).thenReturn( retriedResponse );
+
+    try ( MockedStatic<PentahoSystem> pentahoSystemMock = Mockito.mockStatic( PentahoSystem.class ) ) {
+      stubPentahoSystem( pentahoSystemMock );
+
+      scheduleImportUtil.doImport( createImportContext( false, true ) );
+
+      verify( bulkSchedulerResource ).removeJobs( ArgumentMatchers.argThat( ( JobsRequest request ) ->
+        request.getJobIds().equals( Collections.singletonList( "existing-job-id" ) ) ) );
+      verify( bulkSchedulerResource ).createJobs( ArgumentMatchers.argThat( ( JobScheduleRequests requests ) ->
+        requests.getJobScheduleRequests().equals( Arrays.asList( replacing, failing, retried ) ) ) );
+      // only the schedules the bulk creation rejected are created again, one by one
+      verify( bulkSchedulerResource, never() ).createJob( replacing );
+      verify( bulkSchedulerResource ).createJob( failing );
+      verify( bulkSchedulerResource ).createJob( retried );
+      verify( mockLogger ).error( ArgumentMatchers.argThat( ( String msg ) -> msg.contains( "Failing" ) ) );
+      verify( mockLogger, never() ).error( ArgumentMatchers.argThat( ( String msg ) -> msg.contains( "Retried" ) ) );
+      Assert.assertEquals( new HashSet<>( Arrays.asList( "new-job-id", "retried-job-id" ) ),
+        new HashSet<>( ImportSession.getSession().getImportedScheduleJobIds() ) );
+    }
+  }
+
   // ========== createSchedulerJob tests ==========
 
   /**
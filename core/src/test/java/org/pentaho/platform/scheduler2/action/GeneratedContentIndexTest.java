@@ -0,0 +1,140 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.util.ActionUtil;
+
+public class GeneratedContentIndexTest {
+
+  private static final String LINEAGE_ID = "lineage-1";
+  private static final String HOME = "/home/admin";
+
+  private IUnifiedRepository repo;
+  private GeneratedContentIndex index;
+
+  @Before
+  public void setUp() {
+    repo = mock( IUnifiedRepository.class );
+    index = new GeneratedContentIndex();
+  }
+
+  @Test
+  public void testLookupBeforeSeedingFallsBack() {
+    index.add( LINEAGE_ID, HOME + "/report.pdf" );
+
+    assertNull( index.lookup( repo, HOME, LINEAGE_ID ) );
+  }
+
+  @Test
+  public void testLookupReturnsSeededAndAddedFiles() {
+    RepositoryFile first = mockFile( HOME + "/first.pdf", "1", LINEAGE_ID );
+    RepositoryFile second = mockFile( HOME + "/second.pdf", "2", LINEAGE_ID );
+    mockFile( HOME + "/sub/other.pdf", "3", LINEAGE_ID );
+
+    index.seed( LINEAGE_ID, HOME + "/", Collections.singletonList( first.getPath() ) );
+    index.add( LINEAGE_ID, second.getPath() );
+    index.add( LINEAGE_ID, HOME + "/sub/other.pdf" );
+
+    List<RepositoryFile> files = index.lookup( repo, HOME, LINEAGE_ID );
+    assertEquals( 2, files.size() );
+    assertTrue( files.containsAll( Arrays.asList( first, second ) ) );
+  }
+
+  @Test
+  public void testLookupPrunesDeletedAndRetaggedFiles() {
+    mockFile( HOME + "/retagged.pdf", "1", "another-lineage" );
+
+    index.seed( LINEAGE_ID, HOME, Arrays.asList( HOME + "/deleted.pdf", HOME + "/retagged.pdf" ) );
+
+    assertTrue( index.lookup( repo, HOME, LINEAGE_ID ).isEmpty() );
+    // pruned entries are not resolved again
+    mockFile( HOME + "/deleted.pdf", "2", LINEAGE_ID );
+    assertTrue( index.lookup( repo, HOME, LINEAGE_ID ).isEmpty() );
+  }
+
+  @Test
+  public void testRemove() {
+    RepositoryFile file = mockFile( HOME + "/report.pdf", "1", LINEAGE_ID );
+    index.seed( LINEAGE_ID, HOME, Collections.singletonList( file.getPath() ) );
+
+    index.remove( file.getPath() );
+
+    assertTrue( index.lookup( repo, HOME, LINEAGE_ID ).isEmpty() );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedLineageDropped() {
+    RepositoryFile first = mockFile( HOME + "/first.pdf", "1", "first" );
+    RepositoryFile second = mockFile( HOME + "/second.pdf", "2", "second" );
+    mockFile( HOME + "/third.pdf", "3", "third" );
+    index.setMaxLineages( 2 );
+    index.seed( "first", HOME, Collections.singletonList( first.getPath() ) );
+    index.seed( "second", HOME, Collections.singletonList( second.getPath() ) );
+    // used last, so kept
+    assertEquals( 1, index.lookup( repo, HOME, "first" ).size() );
+
+    index.seed( "third", HOME, Collections.singletonList( HOME + "/third.pdf" ) );
+
+    assertNull( index.lookup( repo, HOME, "second" ) );
+    assertEquals( 1, index.lookup( repo, HOME, "first" ).size() );
+    assertEquals( 1, index.lookup( repo, HOME, "third" ).size() );
+  }
+
+  @Test
+  public void testDisabled() {
+    RepositoryFile file = mockFile( HOME + "/report.pdf", "1", LINEAGE_ID );
+    index.seed( LINEAGE_ID, HOME, Collections.singletonList( file.getPath() ) );
+
+    index.setEnabled( false );
+
+    assertFalse( index.isEnabled() );
+    assertNull( index.lookup( repo, HOME, LINEAGE_ID ) );
+  }
+
+  @Test
+  public void testGetParentFolder() {
+    assertEquals( HOME, GeneratedContentIndex.getParentFolder( HOME + "/report.pdf" ) );
+    assertEquals( "/", GeneratedContentIndex.getParentFolder( "/report.pdf" ) );
+  }
+
+  private RepositoryFile mockFile( String path, String id, String lineageId ) {
+    RepositoryFile file = mock( RepositoryFile.class );
+    when( file.getId() ).thenReturn( id );
+    when( file.getPath() ).thenReturn( path );
+    when( repo.getFile( path ) ).thenReturn( file );
+    Map<String, Serializable> metadata = new HashMap<>();
+    metadata.put( ActionUtil.QUARTZ_LINEAGE_ID, lineageId );
+    when( repo.getFileMetadata( id ) ).thenReturn( metadata );
+    return file;
+  }
+}
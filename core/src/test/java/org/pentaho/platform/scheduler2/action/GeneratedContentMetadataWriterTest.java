@@ -0,0 +1,101 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.pentaho.platform.api.repository.IContentItem;
+import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.util.ActionUtil;
+
+public class GeneratedContentMetadataWriterTest {
+
+  private static final String LINEAGE_ID = "lineage-1";
+
+  @Test
+  public void testDuplicatePathsAreTaggedOnce() {
+    IUnifiedRepository repo = mock( IUnifiedRepository.class );
+    RepositoryFile file = mockFile( repo, "/home/admin/report.pdf", "fileId" );
+    when( repo.getFileMetadata( "fileId" ) ).thenReturn( new HashMap<>() );
+
+    GeneratedContentMetadataWriter writer = new GeneratedContentMetadataWriter( repo, LINEAGE_ID );
+    writer.addAll( Arrays.asList( contentItem( "/home/admin/report.pdf" ), contentItem( "/home/admin/report.pdf" ) ) );
+    List<RepositoryFile> tagged = writer.flush();
+
+    assertEquals( 1, tagged.size() );
+    assertEquals( file, tagged.get( 0 ) );
+    verify( repo, times( 1 ) ).getFile( "/home/admin/report.pdf" );
+    verify( repo, times( 1 ) ).setFileMetadata( any(), any() );
+  }
+
+  @Test
+  public void testAlreadyTaggedFileIsNotRewritten() {
+    IUnifiedRepository repo = mock( IUnifiedRepository.class );
+    mockFile( repo, "/home/admin/report.pdf", "fileId" );
+    Map<String, Serializable> metadata = new HashMap<>();
+    metadata.put( ActionUtil.QUARTZ_LINEAGE_ID, LINEAGE_ID );
+    when( repo.getFileMetadata( "fileId" ) ).thenReturn( metadata );
+
+    GeneratedContentMetadataWriter writer = new GeneratedContentMetadataWriter( repo, LINEAGE_ID );
+    writer.add( contentItem( "/home/admin/report.pdf" ) );
+    writer.flush();
+
+    verify( repo, never() ).setFileMetadata( any(), any() );
+  }
+
+  @Test
+  public void testUnresolvableItemsAreSkipped() {
+    IUnifiedRepository repo = mock( IUnifiedRepository.class );
+    when( repo.getFile( anyString() ) ).thenThrow( new RuntimeException( "no access" ) );
+
+    GeneratedContentMetadataWriter writer = new GeneratedContentMetadataWriter( repo, LINEAGE_ID );
+    writer.add( contentItem( "/home/admin/missing.pdf" ) );
+    writer.add( contentItem( null ) );
+
+    assertTrue( writer.flush().isEmpty() );
+    verify( repo, never() ).setFileMetadata( any(), any() );
+    // nothing left to apply
+    assertTrue( writer.flush().isEmpty() );
+  }
+
+  private static RepositoryFile mockFile( IUnifiedRepository repo, String path, String id ) {
+    RepositoryFile file = mock( RepositoryFile.class );
+    when( file.getId() ).thenReturn( id );
+    when( repo.getFile( path ) ).thenReturn( file );
+    return file;
+  }
+
+  private static IContentItem contentItem( String path ) {
+    IContentItem item = mock( IContentItem.class );
+    when( item.getPath() ).thenReturn( path );
+    return item;
+  }
+}
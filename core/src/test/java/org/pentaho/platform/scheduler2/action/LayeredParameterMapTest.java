@@ -0,0 +1,186 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class LayeredParameterMapTest {
+
+  private static Map<String, Object> baseMap() {
+    Map<String, Object> base = new HashMap<>();
+    base.put( "a", "1" );
+    base.put( "b", "2" );
+    base.put( "c", "3" );
+    return base;
+  }
+
+  @Test
+  public void testWritesDoNotReachBaseMap() {
+    Map<String, Object> base = baseMap();
+    Map<String, Object> expected = new HashMap<>( base );
+    LayeredParameterMap view = new LayeredParameterMap( base );
+
+    assertEquals( "2", view.put( "b", "two" ) );
+    assertNull( view.put( "d", "4" ) );
+    assertEquals( "1", view.remove( "a" ) );
+    assertNull( view.remove( "missing" ) );
+
+    assertEquals( expected, base );
+    assertFalse( view.containsKey( "a" ) );
+    assertNull( view.get( "a" ) );
+    assertEquals( "two", view.get( "b" ) );
+    assertEquals( 3, view.size() );
+
+    Map<String, Object> visible = new HashMap<>();
+    visible.put( "b", "two" );
+    visible.put( "c", "3" );
+    visible.put( "d", "4" );
+    assertEquals( visible, view );
+    assertEquals( visible, new HashMap<>( view ) );
+  }
+
+  @Test
+  public void testRemovedKeyCanBePutBack() {
+    LayeredParameterMap view = new LayeredParameterMap( baseMap() );
+
+    view.remove( "a" );
+    view.put( "a", "again" );
+
+    assertEquals( "again", view.get( "a" ) );
+    assertEquals( 3, view.size() );
+  }
+
+  @Test
+  public void testIteratorRemoveAndSetValue() {
+    Map<String, Object> base = baseMap();
+    LayeredParameterMap view = new LayeredParameterMap( base );
+    view.put( "d", "4" );
+    view.put( "e", "5" );
+
+    Iterator<Map.Entry<String, Object>> iterator = view.entrySet().iterator();
+    while ( iterator.hasNext() ) {
+      Map.Entry<String, Object> entry = iterator.next();
+      if ( "a".equals( entry.getKey() ) || "d".equals( entry.getKey() ) ) {
+        iterator.remove();
+      } else if ( "e".equals( entry.getKey() ) ) {
+        entry.setValue( "five" );
+      }
+    }
+
+    assertEquals( 3, view.size() );
+    assertEquals( "2", view.get( "b" ) );
+    assertEquals( "3", view.get( "c" ) );
+    assertEquals( "five", view.get( "e" ) );
+    assertEquals( baseMap(), base );
+  }
+
+  @Test
+  public void testBaseEntriesIteratedAsIs() {
+    Map<String, Object> base = baseMap();
+    LayeredParameterMap view = new LayeredParameterMap( base );
+    view.remove( "a" );
+
+    Iterator<Map.Entry<String, Object>> baseIterator = base.entrySet().iterator();
+    for ( Map.Entry<String, Object> entry : view.entrySet() ) {
+      Map.Entry<String, Object> baseEntry = baseIterator.next();
+      if ( "a".equals( baseEntry.getKey() ) ) {
+        baseEntry = baseIterator.next();
+      }
+      assertSame( baseEntry, entry );
+    }
+  }
+
+  @Test
+  public void testClear() {
+    Map<String, Object> base = baseMap();
+    LayeredParameterMap view = new LayeredParameterMap( base );
+    view.put( "d", "4" );
+
+    view.clear();
+
+    assertTrue( view.isEmpty() );
+    assertEquals( 3, base.size() );
+  }
+
+  @Test
+  public void testSerializesAsPlainMap() throws Exception {
+    LayeredParameterMap view = new LayeredParameterMap( baseMap() );
+    view.put( "d", "4" );
+    view.remove( "a" );
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try ( ObjectOutputStream out = new ObjectOutputStream( bytes ) ) {
+      out.writeObject( view );
+    }
+    Object copy;
+    try ( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) ) {
+      copy = in.readObject();
+    }
+
+    assertEquals( HashMap.class, copy.getClass() );
+    assertEquals( view, copy );
+  }
+
+  /**
+   * Compares the bytes allocated to overlay a couple of runtime keys on a large parameter map with those allocated by
+   * copying it, which is what each execution stage used to do.
+   */
+  @Test
+  public void testOverlayAllocatesLessThanCopy() {
+    java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    assumeTrue( threadBean instanceof com.sun.management.ThreadMXBean );
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+    assumeTrue( allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled() );
+
+    Map<String, Object> base = new HashMap<>();
+    for ( int i = 0; i < 500; i++ ) {
+      base.put( "param" + i, "value" + i );
+    }
+    Object[] keep = new Object[ 2 ];
+    long threadId = Thread.currentThread().getId();
+
+    long start = allocationBean.getThreadAllocatedBytes( threadId );
+    Map<String, Object> copy = new HashMap<>( base );
+    copy.put( "outputStream", keep );
+    copy.put( "inputStream", keep );
+    long copyBytes = allocationBean.getThreadAllocatedBytes( threadId ) - start;
+    keep[ 0 ] = copy;
+
+    start = allocationBean.getThreadAllocatedBytes( threadId );
+    Map<String, Object> view = new LayeredParameterMap( base );
+    view.put( "outputStream", keep );
+    view.put( "inputStream", keep );
+    long viewBytes = allocationBean.getThreadAllocatedBytes( threadId ) - start;
+    keep[ 1 ] = view;
+
+    assertTrue( "overlay allocated " + viewBytes + " bytes, copy " + copyBytes, viewBytes * 4 < copyBytes );
+  }
+}
@@ -0,0 +1,101 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.action;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.pentaho.platform.api.repository2.unified.ISourcesStreamEvents;
+import org.pentaho.platform.api.repository2.unified.IStreamListener;
+
+public class LazyOutputStreamTest {
+
+  @Test
+  public void testNoWriteNeverOpensUnderlyingStream() throws IOException {
+    AtomicInteger opened = new AtomicInteger();
+    IStreamListener listener = mock( IStreamListener.class );
+    LazyOutputStream stream = new LazyOutputStream( () -> {
+      opened.incrementAndGet();
+      return new ByteArrayOutputStream();
+    } );
+    stream.addListener( listener );
+
+    stream.flush();
+    stream.write( new byte[ 0 ], 0, 0 );
+    stream.close();
+
+    assertFalse( stream.isOpened() );
+    assertFalse( stream.isSourcingStreamEvents() );
+    assertEquals( 0, opened.get() );
+    verify( listener, never() ).streamComplete();
+    verify( listener, never() ).fileCreated( anyString() );
+  }
+
+  @Test
+  public void testFirstWriteOpensUnderlyingStreamOnce() throws IOException {
+    AtomicInteger opened = new AtomicInteger();
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    LazyOutputStream stream = new LazyOutputStream( () -> {
+      opened.incrementAndGet();
+      return target;
+    } );
+
+    stream.write( 'a' );
+    stream.write( new byte[] { 'b', 'c' } );
+    stream.close();
+
+    assertTrue( stream.isOpened() );
+    assertFalse( stream.isSourcingStreamEvents() );
+    assertEquals( 1, opened.get() );
+    assertArrayEquals( new byte[] { 'a', 'b', 'c' }, target.toByteArray() );
+  }
+
+  @Test
+  public void testListenersForwardedToEventSourcingStream() throws IOException {
+    OutputStream target = mock( OutputStream.class, withSettings().extraInterfaces( ISourcesStreamEvents.class ) );
+    IStreamListener listener = mock( IStreamListener.class );
+    LazyOutputStream stream = new LazyOutputStream( () -> target );
+    stream.addListener( listener );
+
+    stream.write( 1 );
+    stream.close();
+
+    assertTrue( stream.isSourcingStreamEvents() );
+    verify( (ISourcesStreamEvents) target ).addListener( listener );
+    verify( target ).close();
+    // completion is reported by the underlying stream itself
+    verify( listener, never() ).streamComplete();
+  }
+
+  @Test( expected = IOException.class )
+  public void testWriteAfterCloseFails() throws IOException {
+    LazyOutputStream stream = new LazyOutputStream( ByteArrayOutputStream::new );
+    stream.close();
+    stream.write( 1 );
+  }
+}
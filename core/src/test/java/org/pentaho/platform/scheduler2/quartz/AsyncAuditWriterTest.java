@@ -0,0 +1,113 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncAuditWriterTest {
+
+  @Test
+  public void testRecordsWrittenInOrderAndDrainedOnShutdown() {
+    List<String> written = new CopyOnWriteArrayList<>();
+    AsyncAuditWriter writer = new AsyncAuditWriter( 100, 7, AsyncAuditWriter.OverflowPolicy.CALLER_RUNS,
+      record -> written.add( record.getMessageType() ) );
+
+    for ( int i = 0; i < 50; i++ ) {
+      writer.submit( record( "message" + i ) );
+    }
+
+    assertTrue( writer.shutdown( TimeUnit.SECONDS.toMillis( 10 ) ) );
+    assertEquals( 50, written.size() );
+    for ( int i = 0; i < 50; i++ ) {
+      assertEquals( "message" + i, written.get( i ) );
+    }
+  }
+
+  @Test
+  public void testOverflowPolicies() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+    List<String> writtenByCaller = new CopyOnWriteArrayList<>();
+    AsyncAuditWriter.AuditSink sink = record -> {
+      if ( "block".equals( record.getMessageType() ) ) {
+        blocked.countDown();
+        awaitQuietly( release );
+      } else if ( !Thread.currentThread().getName().equals( "scheduler-audit-writer" ) ) {
+        writtenByCaller.add( record.getMessageType() );
+      }
+    };
+
+    AsyncAuditWriter callerRuns = new AsyncAuditWriter( 1, 1, AsyncAuditWriter.OverflowPolicy.CALLER_RUNS, sink );
+    callerRuns.submit( record( "block" ) );
+    assertTrue( blocked.await( 10, TimeUnit.SECONDS ) );
+    callerRuns.submit( record( "queued" ) );
+    callerRuns.submit( record( "overflow" ) );
+    assertEquals( 1, writtenByCaller.size() );
+    assertEquals( "overflow", writtenByCaller.get( 0 ) );
+    release.countDown();
+    assertTrue( callerRuns.shutdown( TimeUnit.SECONDS.toMillis( 10 ) ) );
+
+    CountDownLatch blockedAgain = new CountDownLatch( 1 );
+    CountDownLatch releaseAgain = new CountDownLatch( 1 );
+    AsyncAuditWriter discard = new AsyncAuditWriter( 1, 1, AsyncAuditWriter.OverflowPolicy.DISCARD, record -> {
+      if ( "block".equals( record.getMessageType() ) ) {
+        blockedAgain.countDown();
+        awaitQuietly( releaseAgain );
+      }
+    } );
+    discard.submit( record( "block" ) );
+    assertTrue( blockedAgain.await( 10, TimeUnit.SECONDS ) );
+    discard.submit( record( "queued" ) );
+    discard.submit( record( "overflow" ) );
+    assertEquals( 1, discard.getDiscardedCount() );
+    releaseAgain.countDown();
+    assertTrue( discard.shutdown( TimeUnit.SECONDS.toMillis( 10 ) ) );
+    assertEquals( 0, discard.getQueuedCount() );
+  }
+
+  @Test
+  public void testSubmitAfterShutdownWritesOnCaller() {
+    List<String> written = new CopyOnWriteArrayList<>();
+    AsyncAuditWriter writer = new AsyncAuditWriter( 10, 10, AsyncAuditWriter.OverflowPolicy.DISCARD,
+      record -> written.add( Thread.currentThread().getName() ) );
+    writer.shutdown( TimeUnit.SECONDS.toMillis( 10 ) );
+
+    writer.submit( record( "late" ) );
+
+    assertEquals( 1, written.size() );
+    assertEquals( Thread.currentThread().getName(), written.get( 0 ) );
+  }
+
+  private static AsyncAuditWriter.AuditRecord record( String messageType ) {
+    return new AsyncAuditWriter.AuditRecord( "session", "user", "provider", "jobClass", "actionId", messageType,
+      "lineage", 0 );
+  }
+
+  private static void awaitQuietly( CountDownLatch latch ) {
+    try {
+      latch.await( 10, TimeUnit.SECONDS );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+
+public class AvailabilityCalendarsTest {
+
+  private static final long DAY = 86400000L;
+
+  private Scheduler scheduler;
+  private AvailabilityCalendars calendars;
+
+  @Before
+  public void setUp() throws Exception {
+    scheduler = new StdSchedulerFactory().getScheduler();
+    calendars = new AvailabilityCalendars();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testSameWindowSharesOneCalendar() throws Exception {
+    Date start = new Date( System.currentTimeMillis() + DAY );
+    String first = calendars.acquire( scheduler, new QuartzSchedulerAvailability( start, null ) );
+    String second = calendars.acquire( scheduler, new QuartzSchedulerAvailability( new Date( start.getTime() ), null ) );
+    String other = calendars.acquire( scheduler, new QuartzSchedulerAvailability( start, new Date( start.getTime()
+      + DAY ) ) );
+
+    assertEquals( first, second );
+    assertFalse( first.equals( other ) );
+    assertTrue( AvailabilityCalendars.isShared( first ) );
+    assertEquals( 2, scheduler.getCalendarNames().size() );
+    assertEquals( 2, calendars.getReferenceCount( first ) );
+  }
+
+  @Test
+  public void testCalendarDeletedWithItsLastTrigger() throws Exception {
+    String calendarName = calendars.acquire( scheduler, new QuartzSchedulerAvailability( new Date( DAY ), null ) );
+    schedule( "job1", calendarName );
+    assertEquals( calendarName,
+      calendars.acquire( scheduler, new QuartzSchedulerAvailability( new Date( DAY ), null ) ) );
+    schedule( "job2", calendarName );
+
+    unschedule( "job1", calendarName );
+    assertNotNull( scheduler.getCalendar( calendarName ) );
+
+    unschedule( "job2", calendarName );
+    assertNull( scheduler.getCalendar( calendarName ) );
+  }
+
+  @Test
+  public void testCalendarInUseIsNeverDeleted() throws Exception {
+    String calendarName = calendars.acquire( scheduler, new QuartzSchedulerAvailability( new Date( DAY ), null ) );
+    schedule( "job1", calendarName );
+
+    // counts gone stale, e.g. the trigger was scheduled by another node
+    calendars.release( scheduler, calendarName );
+
+    assertNotNull( scheduler.getCalendar( calendarName ) );
+    assertTrue( calendars.getCalendar( scheduler, calendarName ) instanceof QuartzSchedulerAvailability );
+  }
+
+  @Test
+  public void testUnusedCalendarsDeleted() throws Exception {
+    scheduler.addCalendar( "admin\tjob\t1", new QuartzSchedulerAvailability( new Date(), null ), false, false );
+    scheduler.addCalendar( "admin\tjob\t2", new QuartzSchedulerAvailability( new Date(), null ), false, false );
+    schedule( "job2", "admin\tjob\t2" );
+
+    assertEquals( 1, calendars.deleteUnused( scheduler ) );
+    assertNull( scheduler.getCalendar( "admin\tjob\t1" ) );
+    assertEquals( 1, calendars.getReferenceCount( "admin\tjob\t2" ) );
+
+    // a calendar stored per job by earlier versions is released with its job as well
+    unschedule( "job2", "admin\tjob\t2" );
+    assertTrue( scheduler.getCalendarNames().isEmpty() );
+  }
+
+  private void schedule( String jobName, String calendarName ) throws Exception {
+    JobDetail jobDetail = JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( jobName, "admin" ).build();
+    Trigger trigger = TriggerBuilder.newTrigger()
+      .withIdentity( jobName, "admin" )
+      .withSchedule( CronScheduleBuilder.cronSchedule( "0 0 12 * * ?" ) )
+      .modifiedByCalendar( calendarName )
+      .build();
+    scheduler.scheduleJob( jobDetail, trigger );
+  }
+
+  private void unschedule( String jobName, String calendarName ) throws Exception {
+    scheduler.deleteJob( new JobKey( jobName, "admin" ) );
+    calendars.release( scheduler, calendarName );
+  }
+}
@@ -0,0 +1,211 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.quartz.InterruptableJob;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+
+public class BackgroundDispatcherTest {
+
+  private File journal;
+  private final List<String> executed = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void setUp() throws IOException {
+    journal = File.createTempFile( "scheduler-background", ".journal" );
+    assertTrue( journal.delete() );
+  }
+
+  @After
+  public void tearDown() {
+    journal.delete();
+  }
+
+  @Test
+  public void testDispatchedJobRunsWithItsData() throws Exception {
+    CountDownLatch ran = new CountDownLatch( 1 );
+    BackgroundDispatcher dispatcher = new BackgroundDispatcher( 1, 10, journal, () -> null,
+      () -> new RecordingJob( ran, null ) );
+
+    assertTrue( dispatcher.dispatch( jobDetail( "job1" ) ) );
+
+    assertTrue( ran.await( 5, TimeUnit.SECONDS ) );
+    assertEquals( "job1:admin", executed.get( 0 ) );
+    waitUntilIdle( dispatcher );
+    assertFalse( journal.exists() );
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testNotDispatchedWhenQueueFull() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    BackgroundDispatcher dispatcher = new BackgroundDispatcher( 1, 1, null, () -> null,
+      () -> new RecordingJob( null, release ) );
+
+    assertTrue( dispatcher.dispatch( jobDetail( "running" ) ) );
+    waitUntilRunning();
+    assertTrue( dispatcher.dispatch( jobDetail( "waiting" ) ) );
+    assertFalse( dispatcher.dispatch( jobDetail( "rejected" ) ) );
+
+    release.countDown();
+    waitUntilIdle( dispatcher );
+    assertEquals( 2, executed.size() );
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testRunningJobInterrupted() throws Exception {
+    BackgroundDispatcher dispatcher = new BackgroundDispatcher( 1, 10, null, () -> null,
+      () -> new RecordingJob( null, new CountDownLatch( 1 ) ) );
+
+    assertFalse( dispatcher.interrupt( "job1" ) );
+    assertTrue( dispatcher.dispatch( jobDetail( "job1" ) ) );
+    waitUntilRunning();
+
+    assertTrue( dispatcher.interrupt( "job1" ) );
+    waitUntilIdle( dispatcher );
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testWaitingJobsRunAfterRestart() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    BackgroundDispatcher stopped = new BackgroundDispatcher( 1, 10, journal, () -> null,
+      () -> new RecordingJob( null, release ) );
+    assertTrue( stopped.dispatch( jobDetail( "running" ) ) );
+    waitUntilRunning();
+    assertTrue( stopped.dispatch( jobDetail( "waiting" ) ) );
+    stopped.shutdown();
+    release.countDown();
+    waitForPending( stopped, 1 );
+    executed.clear();
+
+    CountDownLatch ran = new CountDownLatch( 1 );
+    BackgroundDispatcher restarted = new BackgroundDispatcher( 1, 10, journal, () -> null,
+      () -> new RecordingJob( ran, null ) );
+    restarted.recover();
+
+    assertTrue( ran.await( 5, TimeUnit.SECONDS ) );
+    assertEquals( "waiting:admin", executed.get( 0 ) );
+    waitUntilIdle( restarted );
+    assertFalse( journal.exists() );
+    restarted.shutdown();
+  }
+
+  @Test
+  public void testStartedJobNotRunAgainAfterCrash() throws Exception {
+    CountDownLatch never = new CountDownLatch( 1 );
+    BackgroundDispatcher crashed = new BackgroundDispatcher( 1, 10, journal, () -> null,
+      () -> new RecordingJob( null, never ) );
+    assertTrue( crashed.dispatch( jobDetail( "running" ) ) );
+    waitUntilRunning();
+    assertTrue( crashed.dispatch( jobDetail( "waiting" ) ) );
+    executed.clear();
+
+    CountDownLatch ran = new CountDownLatch( 1 );
+    BackgroundDispatcher restarted = new BackgroundDispatcher( 1, 10, journal, () -> null,
+      () -> new RecordingJob( ran, null ) );
+    restarted.recover();
+
+    assertTrue( ran.await( 5, TimeUnit.SECONDS ) );
+    waitUntilIdle( restarted );
+    assertEquals( 1, executed.size() );
+    assertEquals( "waiting:admin", executed.get( 0 ) );
+    restarted.shutdown();
+    crashed.shutdown();
+    never.countDown();
+    waitForPending( crashed, 1 );
+  }
+
+  private void waitUntilRunning() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while ( executed.isEmpty() && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertFalse( executed.isEmpty() );
+  }
+
+  private static void waitUntilIdle( BackgroundDispatcher dispatcher ) throws InterruptedException {
+    waitForPending( dispatcher, 0 );
+  }
+
+  private static void waitForPending( BackgroundDispatcher dispatcher, int pending ) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while ( dispatcher.getPendingCount() > pending && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( pending, dispatcher.getPendingCount() );
+  }
+
+  private static JobDetail jobDetail( String jobName ) {
+    return JobBuilder.newJob( BlockingQuartzJob.class )
+      .withIdentity( jobName, "admin" )
+      .usingJobData( IScheduler.RESERVEDMAPKEY_ACTIONUSER, "admin" )
+      .build();
+  }
+
+  /**
+   * Records its executions, and blocks until released or interrupted when given a latch to wait on.
+   */
+  private class RecordingJob implements InterruptableJob {
+    private final CountDownLatch ran;
+    private final CountDownLatch release;
+    private volatile Thread thread;
+
+    RecordingJob( CountDownLatch ran, CountDownLatch release ) {
+      this.ran = ran;
+      this.release = release;
+    }
+
+    @Override
+    public void execute( JobExecutionContext context ) {
+      thread = Thread.currentThread();
+      executed.add( context.getJobDetail().getKey().getName() + ":"
+        + context.getMergedJobDataMap().getString( IScheduler.RESERVEDMAPKEY_ACTIONUSER ) );
+      if ( ran != null ) {
+        ran.countDown();
+      }
+      if ( release != null ) {
+        try {
+          release.await();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    @Override
+    public void interrupt() {
+      thread.interrupt();
+    }
+  }
+}
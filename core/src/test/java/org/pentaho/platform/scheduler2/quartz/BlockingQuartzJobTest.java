@@ -15,6 +15,12 @@
 package org.pentaho.platform.scheduler2.quartz;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
 import org.jmock.Expectations;
@@ -95,6 +101,8 @@ public class BlockingQuartzJobTest {
         one( blockoutManager ).shouldFireNow();
         will( returnValue( false ) );
         one( logger ).warn( "Job 'myjob' attempted to run during a blockout period.  This job was not executed" );
+        allowing( context ).getTrigger();
+        will( returnValue( null ) );
         allowing( context ).getJobDetail();
         will( returnValue( jobDetail ) );
       }
@@ -116,6 +124,8 @@ public class BlockingQuartzJobTest {
         one( blockoutManager ).shouldFireNow();
         will( returnValue( false ) );
         one( logger ).warn( "Job 'myjob' attempted to run during a blockout period.  This job was not executed" );
+        allowing( context ).getTrigger();
+        will( returnValue( null ) );
         allowing( context ).getJobDetail();
         will( returnValue( JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "myjob" ).build() ) );
       }
@@ -160,6 +170,8 @@ public class BlockingQuartzJobTest {
         one( blockoutManager ).shouldFireNow();
         will( returnValue( false ) );
         one( logger ).warn( "Job 'blockedJob' attempted to run during a blockout period.  This job was not executed" );
+        allowing( context ).getTrigger();
+        will( returnValue( null ) );
         allowing( context ).getJobDetail();
         will( returnValue( JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "blockedJob" ).build() ) );
       }
@@ -176,6 +188,8 @@ public class BlockingQuartzJobTest {
         {
           // getJobDetail is called in execute() (3 times for setup/blockout/audit)
           // plus once more in recordExecutionTime() (if scheduler is available)
+          allowing( context ).getTrigger();
+          will( returnValue( null ) );
           allowing( context ).getJobDetail();
           will( returnValue( JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "somejob" ).build() ) );
           
@@ -195,6 +209,8 @@ public class BlockingQuartzJobTest {
     BlockingQuartzJob blockingJob = createTestBlockingJob( true );
     mockery.checking( new Expectations() {
       {
+        allowing( context ).getTrigger();
+        will( returnValue( null ) );
         allowing( context ).getJobDetail();
         will( returnValue( JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "somejob" ).build() ) );
         one( underlyingJob ).execute( with( same( context ) ) );
@@ -205,6 +221,107 @@ public class BlockingQuartzJobTest {
     blockingJob.execute( context );
   }
 
+  @Test
+  public void testInterruptStopsRunningJob() throws Exception {
+    CountDownLatch started = new CountDownLatch( 1 );
+    AtomicBoolean interrupted = new AtomicBoolean();
+    BlockingQuartzJob blockingJob = createTestBlockingJob( sleepingJob( started, interrupted ), null );
+    mockery.checking( new Expectations() {
+      {
+        allowing( context ).getTrigger();
+        will( returnValue( null ) );
+        allowing( context ).getJobDetail();
+        will( returnValue( JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "hungjob" ).build() ) );
+        one( blockoutManager ).shouldFireNow();
+        will( returnValue( true ) );
+      }
+    } );
+
+    Thread canceller = new Thread( () -> {
+      try {
+        started.await( 10, TimeUnit.SECONDS );
+        blockingJob.interrupt();
+      } catch ( Exception e ) {
+        throw new RuntimeException( e );
+      }
+    } );
+    canceller.start();
+    blockingJob.execute( context );
+    canceller.join( TimeUnit.SECONDS.toMillis( 10 ) );
+
+    assertTrue( interrupted.get() );
+    // the worker thread is handed back to Quartz without the interrupt flag
+    assertFalse( Thread.currentThread().isInterrupted() );
+    // interrupting a job that is no longer running does nothing
+    blockingJob.interrupt();
+    assertFalse( Thread.currentThread().isInterrupted() );
+  }
+
+  @Test
+  public void testWatchdogInterruptsJobPastItsTimeout() throws Exception {
+    AtomicBoolean interrupted = new AtomicBoolean();
+    ExecutionWatchdog watchdog = new ExecutionWatchdog( 50, key -> null );
+    BlockingQuartzJob blockingJob = createTestBlockingJob( sleepingJob( new CountDownLatch( 1 ), interrupted ),
+      watchdog );
+    mockery.checking( new Expectations() {
+      {
+        allowing( context ).getTrigger();
+        will( returnValue( null ) );
+        allowing( context ).getJobDetail();
+        will( returnValue( JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "hungjob" ).build() ) );
+        one( blockoutManager ).shouldFireNow();
+        will( returnValue( true ) );
+      }
+    } );
+
+    blockingJob.execute( context );
+
+    assertTrue( interrupted.get() );
+    assertEquals( 1, watchdog.getTimedOutCount() );
+    assertFalse( Thread.currentThread().isInterrupted() );
+  }
+
+  private static Job sleepingJob( final CountDownLatch started, final AtomicBoolean interrupted ) {
+    return jobExecutionContext -> {
+      started.countDown();
+      try {
+        Thread.sleep( TimeUnit.SECONDS.toMillis( 30 ) );
+      } catch ( InterruptedException e ) {
+        interrupted.set( true );
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  private BlockingQuartzJob createTestBlockingJob( final Job job, final ExecutionWatchdog watchdog ) {
+    return new BlockingQuartzJob() {
+      @Override
+      Job createUnderlyingJob() {
+        return job;
+      }
+
+      @Override
+      IBlockoutManager getBlockoutManager() {
+        return blockoutManager;
+      }
+
+      @Override
+      ExecutionWatchdog getExecutionWatchdog() {
+        return watchdog != null ? watchdog : new ExecutionWatchdog( 0, key -> null );
+      }
+
+      @Override
+      protected void makeAuditRecord( float time, String messageType, JobExecutionContext jobExecutionContext ) {
+
+      }
+
+      @Override
+      protected void recordExecutionTime( JobExecutionContext jobExecutionContext ) {
+
+      }
+    };
+  }
+
   private BlockingQuartzJob createTestBlockingJob( final boolean throwSchedulerException ) {
     return new BlockingQuartzJob() {
       @Override
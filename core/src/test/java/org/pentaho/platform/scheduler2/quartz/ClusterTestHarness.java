@@ -0,0 +1,200 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerConfigException;
+import org.quartz.SchedulerException;
+import org.quartz.impl.SchedulerRepository;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.jdbcjobstore.StdJDBCDelegate;
+import org.quartz.simpl.SimpleThreadPool;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.SchedulerSignaler;
+import org.quartz.utils.ConnectionProvider;
+
+/**
+ * Runs the nodes of a scheduler cluster in one JVM, on a shared in-memory H2 database.
+ *
+ * <p>Each node is a Quartz scheduler of its own, with the same instance name, the instance id "node" followed by its
+ * index, and a {@link ClusteredJobStore}. The jobs run by {@link RecordingJob} are recorded along with the node that
+ * ran them.</p>
+ */
+class ClusterTestHarness implements Closeable {
+
+  static final String SCHEDULER_NAME = "ClusterTestScheduler";
+  static final String TABLE_PREFIX = "QRTZ_";
+
+  private static final String SCHEMA = "classpath:/org/pentaho/platform/scheduler2/quartz/cluster_tables_h2.sql";
+
+  private static final Map<String, NodeJobStore> jobStores = new ConcurrentHashMap<>();
+
+  private final String dataSource;
+  private final String url;
+  private final List<Scheduler> nodes = new ArrayList<>();
+
+  /**
+   * Creates the Quartz tables in a new database and starts the nodes.
+   */
+  ClusterTestHarness( String name, int nodeCount, boolean partitionAcquisition ) throws Exception {
+    dataSource = name + "DS";
+    url = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    RecordingJob.executions.clear();
+    createTables( url );
+    for ( int i = 0; i < nodeCount; i++ ) {
+      StdSchedulerFactory factory = new StdSchedulerFactory( properties( "node" + i, partitionAcquisition ) );
+      Scheduler node = factory.getScheduler();
+      // each node is a scheduler of its own, though they share the instance name
+      SchedulerRepository.getInstance().remove( SCHEDULER_NAME );
+      nodes.add( node );
+      node.start();
+    }
+  }
+
+  /**
+   * Creates the Quartz tables, with the default table prefix, in an H2 database.
+   */
+  static void createTables( String url ) throws SQLException {
+    try ( Connection connection = DriverManager.getConnection( url );
+          Statement statement = connection.createStatement() ) {
+      statement.execute( "RUNSCRIPT FROM '" + SCHEMA + "'" );
+    }
+  }
+
+  private Properties properties( String instanceId, boolean partitionAcquisition ) {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, SCHEDULER_NAME );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_ID, instanceId );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_IDLE_WAIT_TIME, "1000" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_CLASS, SimpleThreadPool.class.getName() );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "2" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, NodeJobStore.class.getName() );
+    String jobStorePrefix = StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".";
+    properties.setProperty( jobStorePrefix + "driverDelegateClass", StdJDBCDelegate.class.getName() );
+    properties.setProperty( jobStorePrefix + "dataSource", dataSource );
+    properties.setProperty( jobStorePrefix + "tablePrefix", TABLE_PREFIX );
+    properties.setProperty( jobStorePrefix + "isClustered", "true" );
+    properties.setProperty( jobStorePrefix + "clusterCheckinInterval", "250" );
+    properties.setProperty( jobStorePrefix + "partitionAcquisition", String.valueOf( partitionAcquisition ) );
+    String dataSourcePrefix = StdSchedulerFactory.PROP_DATASOURCE_PREFIX + "." + dataSource + ".";
+    properties.setProperty( dataSourcePrefix + "connectionProvider.class", H2ConnectionProvider.class.getName() );
+    properties.setProperty( dataSourcePrefix + "url", url );
+    return properties;
+  }
+
+  String getDataSource() {
+    return dataSource;
+  }
+
+  Scheduler getNode( int index ) {
+    return nodes.get( index );
+  }
+
+  /**
+   * The job store of a node, by instance id.
+   */
+  static ClusteredJobStore getJobStore( String instanceId ) {
+    return jobStores.get( instanceId );
+  }
+
+  @Override
+  public void close() {
+    for ( Scheduler node : nodes ) {
+      try {
+        node.shutdown( true );
+      } catch ( SchedulerException e ) {
+        // the next node is shut down anyway
+      }
+    }
+    try ( Connection connection = DriverManager.getConnection( url );
+          Statement statement = connection.createStatement() ) {
+      statement.execute( "SHUTDOWN" );
+    } catch ( SQLException e ) {
+      // the database is dropped with the JVM anyway
+    }
+  }
+
+  /**
+   * The job store of the nodes, registered by instance id for the tests to look at.
+   */
+  public static class NodeJobStore extends ClusteredJobStore {
+    @Override
+    public void initialize( ClassLoadHelper loadHelper, SchedulerSignaler signaler ) throws SchedulerConfigException {
+      super.initialize( loadHelper, signaler );
+      jobStores.put( getInstanceId(), this );
+    }
+  }
+
+  /**
+   * Records the job it runs and the node running it.
+   */
+  public static class RecordingJob implements Job {
+
+    static final List<String[]> executions = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void execute( JobExecutionContext context ) throws JobExecutionException {
+      try {
+        executions.add( new String[] { context.getJobDetail().getKey().toString(),
+          context.getScheduler().getSchedulerInstanceId() } );
+      } catch ( SchedulerException e ) {
+        throw new JobExecutionException( e );
+      }
+    }
+  }
+
+  /**
+   * Opens a new connection to the H2 database for each caller.
+   */
+  public static class H2ConnectionProvider implements ConnectionProvider {
+
+    private String url;
+
+    public void setUrl( String url ) {
+      this.url = url;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return DriverManager.getConnection( url );
+    }
+
+    @Override
+    public void shutdown() {
+      // each connection is closed by its caller
+    }
+
+    @Override
+    public void initialize() {
+      // nothing to set up
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.RecordingJob;
+import org.quartz.JobBuilder;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SchedulerFactory;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.TriggerBuilder;
+
+public class ClusteredSchedulingTest {
+
+  private static final List<String> GROUPS = Arrays.asList( "admin", "suzy", "pat", "tiffany" );
+
+  @Test
+  public void testEachTriggerFiresOnceInTheCluster() throws Exception {
+    try ( ClusterTestHarness cluster = new ClusterTestHarness( "fireOnce", 2, false ) ) {
+      scheduleJobs( cluster.getNode( 0 ), 20 );
+
+      await().atMost( 30, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() >= 20 );
+      Thread.sleep( 2000 );
+      Set<String> jobs = new HashSet<>();
+      for ( String[] execution : RecordingJob.executions ) {
+        assertTrue( "fired twice: " + execution[ 0 ], jobs.add( execution[ 0 ] ) );
+      }
+      assertEquals( 20, jobs.size() );
+    }
+  }
+
+  @Test
+  public void testGroupsAcquiredByTheirNode() throws Exception {
+    try ( ClusterTestHarness cluster = new ClusterTestHarness( "partitioned", 2, true ) ) {
+      await().atMost( 30, TimeUnit.SECONDS ).until(
+        () -> ClusterTestHarness.getJobStore( "node0" ).getPartitionCount() == 2
+          && ClusterTestHarness.getJobStore( "node1" ).getPartitionCount() == 2 );
+      scheduleJobs( cluster.getNode( 0 ), 20 );
+
+      await().atMost( 30, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() >= 20 );
+      for ( String[] execution : RecordingJob.executions ) {
+        String group = execution[ 0 ].substring( 0, execution[ 0 ].indexOf( '.' ) );
+        String owner = "node" + Math.floorMod( group.hashCode(), 2 );
+        assertEquals( execution[ 0 ], owner, execution[ 1 ] );
+      }
+    }
+  }
+
+  @Test
+  public void testJobDetailLockExclusiveAcrossNodes() throws Exception {
+    try ( ClusterTestHarness cluster = new ClusterTestHarness( "rowLock", 1, false ) ) {
+      JobDetailLock first = clusterLock( cluster );
+      JobDetailLock second = clusterLock( cluster );
+      // the lock row is inserted the first time it is locked
+      first.writeLock().lock();
+      first.writeLock().unlock();
+
+      first.writeLock().lock();
+      CountDownLatch locked = new CountDownLatch( 1 );
+      Thread other = new Thread( () -> {
+        second.writeLock().lock();
+        locked.countDown();
+        second.writeLock().unlock();
+      } );
+      other.start();
+      assertFalse( locked.await( 1, TimeUnit.SECONDS ) );
+
+      first.writeLock().unlock();
+      assertTrue( locked.await( 10, TimeUnit.SECONDS ) );
+      other.join();
+    }
+  }
+
+  @Test
+  public void testExecutionDateNotWrittenOverARemovalOnAnotherNode() throws Exception {
+    try ( ClusterTestHarness cluster = new ClusterTestHarness( "executionDate", 2, false ) ) {
+      JobKey jobKey = new JobKey( "job", "admin" );
+      cluster.getNode( 0 ).scheduleJob( JobBuilder.newJob( RecordingJob.class ).withIdentity( jobKey ).build(),
+        TriggerBuilder.newTrigger().withIdentity( "job", "admin" )
+          .startAt( new Date( System.currentTimeMillis() + 3600000 ) )
+          .withSchedule( SimpleScheduleBuilder.repeatHourlyForever() ).build() );
+      QuartzScheduler executingNode = clusteredScheduler( cluster, cluster.getNode( 1 ) );
+      // the lock a removal on the first node holds
+      JobDetailLock removingNode = clusterLock( cluster );
+      removingNode.writeLock().lock();
+      removingNode.writeLock().unlock();
+
+      removingNode.writeLock().lock();
+      CountDownLatch recorded = new CountDownLatch( 1 );
+      Thread execution = new Thread( () -> {
+        try {
+          executingNode.saveExecutionDate( jobKey, new Date() );
+        } catch ( SchedulerException e ) {
+          throw new IllegalStateException( e );
+        }
+        recorded.countDown();
+      } );
+      execution.start();
+      assertFalse( recorded.await( 1, TimeUnit.SECONDS ) );
+
+      cluster.getNode( 0 ).deleteJob( jobKey );
+      removingNode.writeLock().unlock();
+      assertTrue( recorded.await( 10, TimeUnit.SECONDS ) );
+      execution.join();
+      assertFalse( cluster.getNode( 0 ).checkExists( jobKey ) );
+    }
+  }
+
+  private static QuartzScheduler clusteredScheduler( ClusterTestHarness cluster, Scheduler node ) throws Exception {
+    SchedulerFactory factory = mock( SchedulerFactory.class );
+    when( factory.getScheduler() ).thenReturn( node );
+    QuartzScheduler scheduler = new QuartzScheduler();
+    scheduler.setQuartzSchedulerFactory( factory );
+    scheduler.setClustered( cluster.getDataSource(), ClusterTestHarness.TABLE_PREFIX,
+      ClusterTestHarness.SCHEDULER_NAME );
+    return scheduler;
+  }
+
+  private static JobDetailLock clusterLock( ClusterTestHarness cluster ) {
+    JobDetailLock lock = new JobDetailLock();
+    lock.setRowLock( new JobDetailLock.ClusterRowLock( cluster.getDataSource(), ClusterTestHarness.TABLE_PREFIX,
+      ClusterTestHarness.SCHEDULER_NAME ) );
+    return lock;
+  }
+
+  private static void scheduleJobs( Scheduler scheduler, int count ) throws Exception {
+    Date startTime = new Date( System.currentTimeMillis() + 2000 );
+    for ( int i = 0; i < count; i++ ) {
+      String group = GROUPS.get( i % GROUPS.size() );
+      scheduler.scheduleJob( JobBuilder.newJob( RecordingJob.class ).withIdentity( "job" + i, group ).build(),
+        TriggerBuilder.newTrigger().withIdentity( "job" + i, group ).startAt( startTime ).build() );
+    }
+  }
+}
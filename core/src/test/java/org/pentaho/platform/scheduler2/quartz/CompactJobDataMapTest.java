@@ -0,0 +1,113 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.pentaho.platform.util.messages.LocaleHelper;
+import org.pentaho.platform.web.http.api.resources.RepositoryFileStreamProvider;
+import org.quartz.JobDataMap;
+
+public class CompactJobDataMapTest {
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Map<String, Object> params = jobParams();
+    params.put( "nullParam", null );
+    params.put( "intParam", 3 );
+    params.put( "doubleParam", 2.5d );
+    params.put( "decimalParam", new BigDecimal( "1.25" ) );
+    params.put( "longString", new String( new char[ 70000 ] ).replace( '\0', 'x' ) );
+
+    JobDataMap read = (JobDataMap) deserialize( serialize( new CompactJobDataMap( params ) ) );
+
+    assertTrue( read instanceof CompactJobDataMap );
+    assertFalse( read.isDirty() );
+    assertEquals( params.keySet(), read.keySet() );
+    for ( Map.Entry<String, Object> param : params.entrySet() ) {
+      if ( !( param.getValue() instanceof RepositoryFileStreamProvider ) ) {
+        assertEquals( param.getKey(), param.getValue(), read.get( param.getKey() ) );
+      }
+    }
+    RepositoryFileStreamProvider streamProvider =
+      (RepositoryFileStreamProvider) read.get( IScheduler.RESERVEDMAPKEY_STREAMPROVIDER );
+    assertEquals( "/public/report.prpt", streamProvider.getInputFilePath() );
+    assertEquals( "/home/admin/report.*", streamProvider.getOutputFilePath() );
+  }
+
+  @Test
+  public void testSmallerThanSerializedMap() throws Exception {
+    Map<String, Object> params = jobParams();
+
+    int compactSize = serialize( new CompactJobDataMap( params ) ).length;
+    int serializedSize = serialize( new JobDataMap( params ) ).length;
+
+    assertTrue( compactSize + " bytes against " + serializedSize, compactSize * 2 < serializedSize );
+  }
+
+  @Test
+  public void testSerializedMapStillRead() throws Exception {
+    Map<String, Object> params = jobParams();
+    params.remove( IScheduler.RESERVEDMAPKEY_STREAMPROVIDER );
+
+    JobDataMap read = (JobDataMap) deserialize( serialize( new JobDataMap( params ) ) );
+
+    assertEquals( params, read.getWrappedMap() );
+  }
+
+  private static Map<String, Object> jobParams() {
+    Map<String, Object> params = new HashMap<>();
+    params.put( IScheduler.RESERVEDMAPKEY_ACTIONUSER, "admin" );
+    params.put( IScheduler.RESERVEDMAPKEY_ACTIONID, "prpt.backgroundExecution" );
+    params.put( IScheduler.RESERVEDMAPKEY_LINEAGE_ID, "5212a120-3294-49e8-9c5d-c755b9766c43" );
+    params.put( IScheduler.RESERVEDMAPKEY_UIPASSPARAM, "DAILY" );
+    params.put( IScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME, new Date( 1700000000000L ) );
+    params.put( IScheduler.RESERVEDMAPKEY_AUTO_CREATE_UNIQUE_FILENAME, Boolean.TRUE );
+    params.put( IScheduler.RESERVEDMAPKEY_STREAMPROVIDER, new RepositoryFileStreamProvider( "/public/report.prpt",
+      "/home/admin/report.*", true, "yyyy-MM-dd" ) );
+    params.put( LocaleHelper.USER_LOCALE_PARAM, Locale.CANADA_FRENCH );
+    params.put( "timestamp", 1700000000000L );
+    params.put( "output-target", "pageable/pdf" );
+    return params;
+  }
+
+  private static byte[] serialize( Object object ) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try ( ObjectOutputStream out = new ObjectOutputStream( bytes ) ) {
+      out.writeObject( object );
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize( byte[] bytes ) throws Exception {
+    try ( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes ) ) ) {
+      return in.readObject();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.quartz.InterruptableJob;
+
+public class ExecutionWatchdogTest {
+
+  private static final ExecutionWatchdog.TimeoutSettings SETTINGS = key -> {
+    if ( "settings/execution-timeouts/ktr".equals( key ) ) {
+      return "600";
+    }
+    if ( "settings/execution-timeouts/prpt".equals( key ) ) {
+      return "0";
+    }
+    return null;
+  };
+
+  @Test
+  public void testTimeoutPrecedence() {
+    ExecutionWatchdog watchdog = new ExecutionWatchdog( 60000, SETTINGS );
+
+    assertEquals( 60000, watchdog.getTimeoutMillis( null ) );
+    assertEquals( 60000, watchdog.getTimeoutMillis( params( "xaction.backgroundExecution", null ) ) );
+    assertEquals( 600000, watchdog.getTimeoutMillis( params( "ktr", null ) ) );
+    // a zero timeout disables the default one
+    assertEquals( 0, watchdog.getTimeoutMillis( params( "prpt.backgroundExecution", null ) ) );
+    assertEquals( 5000, watchdog.getTimeoutMillis( params( "ktr", "5" ) ) );
+    assertEquals( 0, watchdog.getTimeoutMillis( params( "ktr", 0L ) ) );
+    // an invalid job timeout is ignored
+    assertEquals( 600000, watchdog.getTimeoutMillis( params( "ktr", "soon" ) ) );
+  }
+
+  @Test
+  public void testActionType() {
+    assertEquals( "prpt", ExecutionWatchdog.getActionType( "prpt.backgroundExecution" ) );
+    assertEquals( "ktr", ExecutionWatchdog.getActionType( "ktr" ) );
+    assertNull( ExecutionWatchdog.getActionType( null ) );
+    assertNull( ExecutionWatchdog.getActionType( "../etc" ) );
+  }
+
+  @Test
+  public void testJobInterruptedOnlyAfterTimeout() throws InterruptedException {
+    ExecutionWatchdog watchdog = new ExecutionWatchdog( 0, SETTINGS );
+    CountDownLatch interrupted = new CountDownLatch( 1 );
+    AtomicInteger interrupts = new AtomicInteger();
+    InterruptableJob job = new InterruptableJob() {
+      @Override
+      public void interrupt() {
+        interrupts.incrementAndGet();
+        interrupted.countDown();
+      }
+
+      @Override
+      public void execute( org.quartz.JobExecutionContext context ) {
+      }
+    };
+
+    assertNull( watchdog.watch( job, "job", 0 ) );
+    ScheduledFuture<?> cancelled = watchdog.watch( job, "job", TimeUnit.MINUTES.toMillis( 1 ) );
+    cancelled.cancel( false );
+    watchdog.watch( job, "job", 10 );
+
+    assertTrue( interrupted.await( 10, TimeUnit.SECONDS ) );
+    assertEquals( 1, interrupts.get() );
+    assertEquals( 1, watchdog.getTimedOutCount() );
+  }
+
+  private static Map<String, Object> params( String actionId, Object timeout ) {
+    Map<String, Object> params = new HashMap<>();
+    params.put( IScheduler.RESERVEDMAPKEY_ACTIONID, actionId );
+    if ( timeout != null ) {
+      params.put( ExecutionWatchdog.EXECUTION_TIMEOUT_PARAM, timeout );
+    }
+    return params;
+  }
+}
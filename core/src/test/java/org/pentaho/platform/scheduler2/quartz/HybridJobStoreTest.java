@@ -0,0 +1,235 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.H2ConnectionProvider;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.RecordingJob;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.jdbcjobstore.StdJDBCDelegate;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.spi.OperableTrigger;
+
+public class HybridJobStoreTest {
+
+  private static final long NOW = System.currentTimeMillis();
+
+  private static final String URL = "jdbc:h2:mem:hybrid;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+  private final HybridJobStore jobStore = new HybridJobStore();
+
+  private Scheduler scheduler;
+
+  @After
+  public void tearDown() throws Exception {
+    if ( scheduler != null ) {
+      scheduler.shutdown( true );
+      try ( Connection connection = DriverManager.getConnection( URL );
+            Statement statement = connection.createStatement() ) {
+        statement.execute( "SHUTDOWN" );
+      }
+    }
+  }
+
+  @Test
+  public void testOneShotDueShortlyKeptInMemory() {
+    assertTrue( jobStore.isEphemeral( runOnceJob(), oneShot( NOW + 10000 ), NOW ) );
+  }
+
+  @Test
+  public void testLaterOneShotStoredInDatabase() {
+    assertFalse( jobStore.isEphemeral( runOnceJob(), oneShot( NOW + 3600000 ), NOW ) );
+  }
+
+  @Test
+  public void testRecurringStoredInDatabase() {
+    OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+      .startAt( new Date( NOW ) )
+      .withSchedule( SimpleScheduleBuilder.repeatMinutelyForever() )
+      .build();
+    trigger.computeFirstFireTime( null );
+
+    assertFalse( jobStore.isEphemeral( runOnceJob(), trigger, NOW ) );
+  }
+
+  @Test
+  public void testUiPassParamRule() {
+    JobDetail jobDetail = JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "job", "admin" ).build();
+    assertFalse( jobStore.isEphemeral( jobDetail, oneShot( NOW ), NOW ) );
+
+    jobStore.setEphemeralUiPassParams( "" );
+    assertTrue( jobStore.isEphemeral( jobDetail, oneShot( NOW ), NOW ) );
+  }
+
+  @Test
+  public void testDisabled() {
+    jobStore.setEphemeralMaxDelay( -1 );
+    assertFalse( jobStore.isEphemeral( runOnceJob(), oneShot( NOW ), NOW ) );
+  }
+
+  @Test
+  public void testManualTriggers() {
+    OperableTrigger manual = (OperableTrigger) TriggerBuilder.newTrigger().withIdentity( "MT_1abc" ).build();
+    assertTrue( jobStore.isManualTrigger( manual ) );
+    assertFalse( jobStore.isManualTrigger( oneShot( NOW ) ) );
+
+    jobStore.setEphemeralManualTriggers( false );
+    assertFalse( jobStore.isManualTrigger( manual ) );
+  }
+
+  @Test
+  public void testOneShotFiredFromMemory() throws Exception {
+    startScheduler();
+    JobKey jobKey = new JobKey( "runOnce", "admin" );
+    scheduler.scheduleJob( runOnceJob( RecordingJob.class, jobKey ), trigger( jobKey, System.currentTimeMillis() + 2000, false ) );
+
+    assertTrue( scheduler.checkExists( jobKey ) );
+    assertTrue( scheduler.getJobKeys( GroupMatcher.anyJobGroup() ).contains( jobKey ) );
+    assertEquals( "0", queryString( "SELECT COUNT(*) FROM QRTZ_JOB_DETAILS" ) );
+    assertEquals( "0", queryString( "SELECT COUNT(*) FROM QRTZ_TRIGGERS" ) );
+
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() == 1 );
+    // removed from memory once complete
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> !scheduler.checkExists( jobKey ) );
+    assertEquals( "0", queryString( "SELECT COUNT(*) FROM QRTZ_FIRED_TRIGGERS" ) );
+  }
+
+  @Test
+  public void testManualTriggerOfDatabaseJobFiredFromMemory() throws Exception {
+    startScheduler();
+    JobKey jobKey = new JobKey( "stored", "admin" );
+    scheduler.addJob( JobBuilder.newJob( RecordingJob.class ).withIdentity( jobKey ).storeDurably().build(), false );
+    assertEquals( "1", queryString( "SELECT COUNT(*) FROM QRTZ_JOB_DETAILS" ) );
+
+    scheduler.triggerJob( jobKey );
+    assertEquals( "0", queryString( "SELECT COUNT(*) FROM QRTZ_TRIGGERS" ) );
+
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() == 1 );
+    // the copy in memory is dropped, the job stays in the database
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> scheduler.getTriggersOfJob( jobKey ).isEmpty() );
+    assertEquals( 1, scheduler.getJobKeys( GroupMatcher.anyJobGroup() ).size() );
+    assertEquals( "1", queryString( "SELECT COUNT(*) FROM QRTZ_JOB_DETAILS" ) );
+    assertEquals( "0", queryString( "SELECT COUNT(*) FROM QRTZ_FIRED_TRIGGERS" ) );
+  }
+
+  @Test
+  public void testBothStoresFiredInOneBatch() throws Exception {
+    startScheduler();
+    long fireTime = System.currentTimeMillis() + 2000;
+    JobKey inMemory = new JobKey( "runOnce", "admin" );
+    JobKey inDatabase = new JobKey( "recurring", "admin" );
+    scheduler.scheduleJob( runOnceJob( RecordingJob.class, inMemory ), trigger( inMemory, fireTime, false ) );
+    scheduler.scheduleJob( JobBuilder.newJob( RecordingJob.class ).withIdentity( inDatabase ).build(),
+      trigger( inDatabase, fireTime, true ) );
+    assertEquals( "1", queryString( "SELECT COUNT(*) FROM QRTZ_JOB_DETAILS" ) );
+
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() >= 2 );
+    assertTrue( RecordingJob.executions.stream().anyMatch(
+      execution -> execution[ 0 ].equals( inMemory.toString() ) ) );
+    assertTrue( RecordingJob.executions.stream().anyMatch(
+      execution -> execution[ 0 ].equals( inDatabase.toString() ) ) );
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> !scheduler.checkExists( inMemory ) );
+    assertTrue( scheduler.checkExists( inDatabase ) );
+  }
+
+  private void startScheduler() throws Exception {
+    ClusterTestHarness.createTables( URL );
+    RecordingJob.executions.clear();
+    scheduler = new StdSchedulerFactory( properties() ).getScheduler();
+    scheduler.start();
+  }
+
+  private static JobDetail runOnceJob() {
+    return runOnceJob( BlockingQuartzJob.class, new JobKey( "job", "admin" ) );
+  }
+
+  private static JobDetail runOnceJob( Class<? extends Job> jobClass, JobKey jobKey ) {
+    return JobBuilder.newJob( jobClass )
+      .withIdentity( jobKey )
+      .usingJobData( IScheduler.RESERVEDMAPKEY_UIPASSPARAM, QuartzScheduler.UI_PASS_PARAM_RUN_ONCE )
+      .build();
+  }
+
+  private static OperableTrigger oneShot( long fireTime ) {
+    OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+      .withIdentity( "job", "admin" )
+      .startAt( new Date( fireTime ) )
+      .build();
+    trigger.computeFirstFireTime( null );
+    return trigger;
+  }
+
+  private static OperableTrigger trigger( JobKey jobKey, long fireTime, boolean recurring ) {
+    TriggerBuilder<?> builder = TriggerBuilder.newTrigger()
+      .withIdentity( jobKey.getName(), jobKey.getGroup() )
+      .startAt( new Date( fireTime ) );
+    if ( recurring ) {
+      builder.withSchedule( SimpleScheduleBuilder.repeatHourlyForever() );
+    }
+    return (OperableTrigger) builder.build();
+  }
+
+  private static String queryString( String sql ) throws SQLException {
+    try ( Connection connection = DriverManager.getConnection( URL );
+          PreparedStatement statement = connection.prepareStatement( sql );
+          ResultSet resultSet = statement.executeQuery() ) {
+      return resultSet.next() ? resultSet.getString( 1 ) : null;
+    }
+  }
+
+  private static Properties properties() {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "HybridTestScheduler" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_IDLE_WAIT_TIME, "1000" );
+    // both triggers acquired and fired together
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_MAX_BATCH_SIZE, "2" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_BATCH_TIME_WINDOW, "1000" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "2" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, HybridJobStore.class.getName() );
+    String jobStorePrefix = StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".";
+    properties.setProperty( jobStorePrefix + "driverDelegateClass", StdJDBCDelegate.class.getName() );
+    properties.setProperty( jobStorePrefix + "dataSource", "hybridDS" );
+    properties.setProperty( jobStorePrefix + "tablePrefix", ClusterTestHarness.TABLE_PREFIX );
+    String dataSourcePrefix = StdSchedulerFactory.PROP_DATASOURCE_PREFIX + ".hybridDS.";
+    properties.setProperty( dataSourcePrefix + "connectionProvider.class", H2ConnectionProvider.class.getName() );
+    properties.setProperty( dataSourcePrefix + "url", URL );
+    return properties;
+  }
+}
@@ -0,0 +1,312 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.JobPersistenceException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.quartz.impl.calendar.WeeklyCalendar;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.simpl.CascadingClassLoadHelper;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.SchedulerSignaler;
+
+public class JournaledJobStoreTest {
+
+  private File directory;
+  private int logSize = 1024 * 1024;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory( "scheduler-store" ).toFile();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory( directory );
+  }
+
+  @Test
+  public void testChangesRecoveredAfterCrash() throws Exception {
+    JournaledJobStore crashed = open();
+    crashed.storeJobAndTrigger( job( "job1" ), trigger( "job1", "admin" ) );
+    crashed.storeJobAndTrigger( job( "job2" ), trigger( "job2", "admin" ) );
+    crashed.storeCalendar( "weekdays", new WeeklyCalendar(), false, false );
+    crashed.pauseTrigger( new TriggerKey( "job1", "admin" ) );
+    crashed.removeJob( new JobKey( "job2", "admin" ) );
+
+    JournaledJobStore recovered = open();
+    assertNotNull( recovered.retrieveJob( new JobKey( "job1", "admin" ) ) );
+    assertEquals( TriggerState.PAUSED, recovered.getTriggerState( new TriggerKey( "job1", "admin" ) ) );
+    assertNull( recovered.retrieveJob( new JobKey( "job2", "admin" ) ) );
+    assertNull( recovered.retrieveTrigger( new TriggerKey( "job2", "admin" ) ) );
+    assertNotNull( recovered.retrieveCalendar( "weekdays" ) );
+    recovered.shutdown();
+  }
+
+  @Test
+  public void testPausedGroupRecoveredFromSnapshot() throws Exception {
+    JournaledJobStore stopped = open();
+    stopped.pauseTriggers( GroupMatcher.triggerGroupEquals( "suzy" ) );
+    stopped.storeJobAndTrigger( job( "job1" ), trigger( "job1", "suzy" ) );
+    stopped.storeJobAndTrigger( job( "job2" ), trigger( "job2", "admin" ) );
+    stopped.shutdown();
+
+    JournaledJobStore restarted = open();
+    assertTrue( restarted.getPausedTriggerGroups().contains( "suzy" ) );
+    assertEquals( TriggerState.PAUSED, restarted.getTriggerState( new TriggerKey( "job1", "suzy" ) ) );
+    assertEquals( TriggerState.NORMAL, restarted.getTriggerState( new TriggerKey( "job2", "admin" ) ) );
+    restarted.storeJobAndTrigger( job( "job3" ), trigger( "job3", "suzy" ) );
+    assertEquals( TriggerState.PAUSED, restarted.getTriggerState( new TriggerKey( "job3", "suzy" ) ) );
+    restarted.shutdown();
+  }
+
+  @Test
+  public void testSnapshotWrittenWhenLogFull() throws Exception {
+    logSize = 4096;
+    JournaledJobStore crashed = open();
+    long generation = crashed.getGeneration();
+    for ( int i = 0; i < 50; i++ ) {
+      crashed.storeJobAndTrigger( job( "job" + i ), trigger( "job" + i, "admin" ) );
+    }
+    assertTrue( crashed.getGeneration() > generation );
+    assertEquals( 2, directory.list().length );
+
+    JournaledJobStore recovered = open();
+    assertEquals( 50, recovered.getNumberOfJobs() );
+    assertEquals( 50, recovered.getNumberOfTriggers() );
+    recovered.shutdown();
+  }
+
+  @Test
+  public void testDamagedFrameEndsTheLog() throws Exception {
+    JournaledJobStore crashed = open();
+    crashed.storeJobAndTrigger( job( "job1" ), trigger( "job1", "admin" ) );
+    crashed.storeJobAndTrigger( job( "job2" ), trigger( "job2", "admin" ) );
+    crashed.storeJobAndTrigger( job( "job3" ), trigger( "job3", "admin" ) );
+
+    File log = new File( directory, "log-" + crashed.getGeneration() );
+    assertEquals( 3, MappedAppendLog.readFrames( log ).size() );
+    try ( RandomAccessFile file = new RandomAccessFile( log, "rw" ) ) {
+      long second = MappedAppendLog.FRAME_HEADER_LENGTH + file.readInt();
+      file.seek( second + MappedAppendLog.FRAME_HEADER_LENGTH + 10 );
+      int value = file.read();
+      file.seek( second + MappedAppendLog.FRAME_HEADER_LENGTH + 10 );
+      file.write( value ^ 0xff );
+    }
+
+    JournaledJobStore recovered = open();
+    assertNotNull( recovered.retrieveJob( new JobKey( "job1", "admin" ) ) );
+    assertNull( recovered.retrieveJob( new JobKey( "job2", "admin" ) ) );
+    assertNull( recovered.retrieveJob( new JobKey( "job3", "admin" ) ) );
+    recovered.shutdown();
+  }
+
+  @Test
+  public void testFiredTriggerRecoveredWithItsNextFireTime() throws Exception {
+    JournaledJobStore crashed = open();
+    crashed.storeJobAndTrigger( job( "job1" ), trigger( "job1", "admin" ) );
+    OperableTrigger acquired =
+      crashed.acquireNextTriggers( System.currentTimeMillis() + 1000, 1, 0 ).get( 0 );
+    crashed.triggersFired( Collections.singletonList( acquired ) );
+    OperableTrigger fired = crashed.retrieveTrigger( acquired.getKey() );
+
+    JournaledJobStore recovered = open();
+    assertEquals( fired.getNextFireTime(), recovered.retrieveTrigger( acquired.getKey() ).getNextFireTime() );
+    assertFalse( fired.getNextFireTime().equals( acquired.getNextFireTime() ) );
+    recovered.shutdown();
+  }
+
+  @Test
+  public void testUnreadableChangeSkippedAlone() throws Exception {
+    JournaledJobStore crashed = open();
+    crashed.storeJobsAndTriggers( jobsAndTriggers( "job1", "job2", "job3" ), false );
+
+    Unreadable.failing = true;
+    try {
+      JournaledJobStore recovered = open();
+      assertNotNull( recovered.retrieveJob( new JobKey( "job1", "admin" ) ) );
+      assertNull( recovered.retrieveJob( new JobKey( "job2", "admin" ) ) );
+      assertNotNull( recovered.retrieveJob( new JobKey( "job3", "admin" ) ) );
+      assertNotNull( recovered.retrieveTrigger( new TriggerKey( "job3", "admin" ) ) );
+      recovered.shutdown();
+    } finally {
+      Unreadable.failing = false;
+    }
+  }
+
+  @Test
+  public void testFilesKeptWhenChangesSkipped() throws Exception {
+    JournaledJobStore stopped = open();
+    stopped.storeJobsAndTriggers( jobsAndTriggers( "job1", "job2", "job3" ), false );
+    stopped.shutdown();
+
+    Unreadable.failing = true;
+    File[] kept;
+    try {
+      JournaledJobStore restarted = open();
+      // the snapshot is one frame, the other jobs of which are read all the same
+      assertNotNull( restarted.retrieveJob( new JobKey( "job1", "admin" ) ) );
+      assertNull( restarted.retrieveJob( new JobKey( "job2", "admin" ) ) );
+      assertNotNull( restarted.retrieveJob( new JobKey( "job3", "admin" ) ) );
+      restarted.shutdown();
+      kept = directory.listFiles( File::isDirectory );
+    } finally {
+      Unreadable.failing = false;
+    }
+
+    assertEquals( 1, kept.length );
+    File journal = directory;
+    directory = kept[ 0 ];
+    try {
+      JournaledJobStore fromKept = open();
+      assertNotNull( fromKept.retrieveJob( new JobKey( "job2", "admin" ) ) );
+      fromKept.shutdown();
+    } finally {
+      directory = journal;
+    }
+  }
+
+  @Test
+  public void testChangesRefusedOnceTheJournalFails() throws Exception {
+    logSize = 4096;
+    JournaledJobStore failing = open();
+    // the next snapshot cannot be written
+    FileUtils.deleteDirectory( directory );
+    assertTrue( directory.createNewFile() );
+    try {
+      int stored = 0;
+      try {
+        for ( ; stored < 50; stored++ ) {
+          failing.storeJobAndTrigger( job( "job" + stored ), trigger( "job" + stored, "admin" ) );
+        }
+        fail( "the log is full" );
+      } catch ( JobPersistenceException e ) {
+        // expected
+      }
+
+      try {
+        failing.storeJobAndTrigger( job( "other" ), trigger( "other", "admin" ) );
+        fail( "the journal failed" );
+      } catch ( JobPersistenceException e ) {
+        assertNull( failing.retrieveJob( new JobKey( "other", "admin" ) ) );
+      }
+      try {
+        failing.pauseTrigger( new TriggerKey( "job0", "admin" ) );
+        fail( "the journal failed" );
+      } catch ( IllegalStateException e ) {
+        assertEquals( TriggerState.NORMAL, failing.getTriggerState( new TriggerKey( "job0", "admin" ) ) );
+      }
+      OperableTrigger acquired =
+        failing.acquireNextTriggers( System.currentTimeMillis() + 1000, 1, 0 ).get( 0 );
+      assertNull( failing.triggersFired( Collections.singletonList( acquired ) ).get( 0 ).getTriggerFiredBundle() );
+      failing.shutdown();
+    } finally {
+      Files.delete( directory.toPath() );
+      assertTrue( directory.mkdir() );
+    }
+  }
+
+  private JournaledJobStore open() {
+    CascadingClassLoadHelper loadHelper = new CascadingClassLoadHelper();
+    loadHelper.initialize();
+    JournaledJobStore jobStore = new JournaledJobStore();
+    jobStore.setJournalDirectory( directory.getAbsolutePath() );
+    jobStore.setLogSize( logSize );
+    jobStore.initialize( loadHelper, mock( SchedulerSignaler.class ) );
+    return jobStore;
+  }
+
+  private static JobDetail job( String jobName ) {
+    return JobBuilder.newJob( BlockingQuartzJob.class )
+      .withIdentity( jobName, "admin" )
+      .usingJobData( "parameter", "value" )
+      .build();
+  }
+
+  private static OperableTrigger trigger( String jobName, String group ) {
+    OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+      .withIdentity( jobName, group )
+      .forJob( jobName, "admin" )
+      .startNow()
+      .withSchedule( SimpleScheduleBuilder.repeatMinutelyForever() )
+      .build();
+    trigger.computeFirstFireTime( null );
+    return trigger;
+  }
+
+  private static Map<JobDetail, Set<? extends Trigger>> jobsAndTriggers( String first, String unreadable,
+                                                                      String last ) {
+    Map<JobDetail, Set<? extends Trigger>> jobsAndTriggers = new LinkedHashMap<>();
+    jobsAndTriggers.put( job( first ), Collections.singleton( trigger( first, "admin" ) ) );
+    jobsAndTriggers.put( unreadableJob( unreadable ), Collections.singleton( trigger( unreadable, "admin" ) ) );
+    jobsAndTriggers.put( job( last ), Collections.singleton( trigger( last, "admin" ) ) );
+    return jobsAndTriggers;
+  }
+
+  private static JobDetail unreadableJob( String jobName ) {
+    return JobBuilder.newJob( BlockingQuartzJob.class )
+      .withIdentity( jobName, "admin" )
+      .usingJobData( new JobDataMap( Collections.singletonMap( "parameter", new Unreadable() ) ) )
+      .build();
+  }
+
+  /**
+   * A job parameter that cannot be read back while {@link #failing}, like one of a class removed since.
+   */
+  public static class Unreadable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    static volatile boolean failing;
+
+    private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      if ( failing ) {
+        throw new InvalidClassException( Unreadable.class.getName(), "no longer readable" );
+      }
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.RecordingJob;
+import org.pentaho.platform.scheduler2.quartz.MisfireGovernor.MisfirePolicy;
+import org.quartz.CalendarIntervalScheduleBuilder;
+import org.quartz.CalendarIntervalTrigger;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.CronTrigger;
+import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.simpl.RAMJobStore;
+import org.quartz.simpl.SimpleThreadPool;
+import org.quartz.spi.MutableTrigger;
+import org.quartz.spi.OperableTrigger;
+
+public class MisfireGovernorTest {
+
+  private final List<String> recovered = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void testCatchUpExecutionsThrottledInPriorityOrder() {
+    MisfireGovernor governor = new MisfireGovernor( 5, 1,
+      jobDetail -> recovered.add( jobDetail.getKey().getName() ) );
+
+    assertFalse( misfireAndFire( governor, "first", null ) );
+    // no token left, queued
+    assertTrue( misfireAndFire( governor, "low", "1" ) );
+    assertTrue( misfireAndFire( governor, "high", "9" ) );
+    assertTrue( misfireAndFire( governor, "default", null ) );
+    assertEquals( 3, governor.getDeferredCount() );
+
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> recovered.size() == 3 );
+    assertEquals( Arrays.asList( "high", "default", "low" ), recovered );
+    assertEquals( 4, governor.getMisfiredCount() );
+    assertEquals( 4, governor.getRecoveredCount() );
+    assertEquals( 0, governor.getPendingCount() );
+  }
+
+  @Test
+  public void testCatchUpExecutionOfDeletedJobDropped() {
+    MisfireGovernor governor = new MisfireGovernor( 0.001, 1,
+      jobDetail -> recovered.add( jobDetail.getKey().getName() ) );
+    assertFalse( misfireAndFire( governor, "first", null ) );
+    assertTrue( misfireAndFire( governor, "deleted", null ) );
+    assertTrue( misfireAndFire( governor, "kept", null ) );
+    assertEquals( 2, governor.getPendingCount() );
+
+    governor.getDeletionListener().jobDeleted( new JobKey( "deleted", "admin" ) );
+    assertEquals( 1, governor.getPendingCount() );
+  }
+
+  @Test
+  public void testCatchUpExecutionKeptWhenVetoedRunOnceJobDeleted() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "MisfireGovernorTest" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_CLASS, SimpleThreadPool.class.getName() );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "2" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, RAMJobStore.class.getName() );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".misfireThreshold", "1000" );
+    StdSchedulerFactory factory = new StdSchedulerFactory( properties );
+    Scheduler quartzScheduler = factory.getScheduler();
+    QuartzScheduler scheduler = new QuartzScheduler();
+    scheduler.setQuartzSchedulerFactory( factory );
+    MisfireGovernor governor = new MisfireGovernor( 2, 1, scheduler::recoverMisfiredJob );
+    quartzScheduler.getListenerManager().addTriggerListener( governor );
+    quartzScheduler.getListenerManager().addSchedulerListener( governor.getDeletionListener() );
+    RecordingJob.executions.clear();
+
+    Date missed = new Date( System.currentTimeMillis() - 10000 );
+    for ( String jobName : Arrays.asList( "first", "second" ) ) {
+      quartzScheduler.scheduleJob( JobBuilder.newJob( RecordingJob.class ).withIdentity( jobName, "admin" )
+          .usingJobData( QuartzScheduler.RESERVEDMAPKEY_UIPASSPARAM, QuartzScheduler.UI_PASS_PARAM_RUN_ONCE ).build(),
+        TriggerBuilder.newTrigger().withIdentity( jobName, "admin" ).startAt( missed ).build() );
+    }
+    quartzScheduler.start();
+    try {
+      // the second job is deleted by Quartz once vetoed, and stored again by its catch-up execution
+      await().atMost( 10, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() == 2 );
+      assertEquals( 1, governor.getDeferredCount() );
+      assertEquals( 2, governor.getRecoveredCount() );
+    } finally {
+      quartzScheduler.shutdown( true );
+    }
+  }
+
+  @Test
+  public void testRegularExecutionsNotGoverned() {
+    MisfireGovernor governor = new MisfireGovernor( 0.001, 1, jobDetail -> recovered.add( "unexpected" ) );
+    assertFalse( misfireAndFire( governor, "first", null ) );
+
+    Trigger trigger = trigger( "second" );
+    assertFalse( governor.vetoJobExecution( trigger, context( trigger, Collections.emptyMap() ) ) );
+    assertEquals( 0, governor.getDeferredCount() );
+  }
+
+  @Test
+  public void testMisfirePolicies() {
+    MisfireGovernor governor = new MisfireGovernor( 0.001, 1, jobDetail -> recovered.add( "unexpected" ) );
+    assertFalse( misfireAndFire( governor, "first", null ) );
+
+    // run at once although no token is left
+    assertFalse( misfireAndFire( governor, "immediate", MisfirePolicy.IMMEDIATE.name() ) );
+    // skipped by a trigger created before the policy was set
+    assertTrue( misfireAndFire( governor, "skip", MisfirePolicy.SKIP.name() ) );
+    assertEquals( 1, governor.getSkippedCount() );
+
+    // skipped by the trigger itself, its next execution is a regular one
+    MutableTrigger skipping = (MutableTrigger) trigger( "skipping" );
+    MisfireGovernor.applyMisfirePolicy( skipping, Collections.singletonMap( MisfireGovernor.MISFIRE_POLICY_PARAM,
+      "skip" ) );
+    governor.triggerMisfired( skipping );
+    assertFalse( governor.vetoJobExecution( skipping, context( skipping, Collections.emptyMap() ) ) );
+    assertEquals( 2, governor.getSkippedCount() );
+    assertEquals( 0, governor.getDeferredCount() );
+  }
+
+  @Test
+  public void testApplyMisfirePolicy() {
+    Map<String, Object> skip = Collections.singletonMap( MisfireGovernor.MISFIRE_POLICY_PARAM, "SKIP" );
+    MutableTrigger calendarInterval = (MutableTrigger) trigger( "interval" );
+    MisfireGovernor.applyMisfirePolicy( calendarInterval, skip );
+    assertEquals( CalendarIntervalTrigger.MISFIRE_INSTRUCTION_DO_NOTHING, calendarInterval.getMisfireInstruction() );
+
+    MutableTrigger cron = (MutableTrigger) TriggerBuilder.newTrigger()
+      .withSchedule( CronScheduleBuilder.cronSchedule( "0 0 * * * ?" ) ).build();
+    MisfireGovernor.applyMisfirePolicy( cron, skip );
+    assertEquals( CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING, cron.getMisfireInstruction() );
+
+    MutableTrigger throttled = (MutableTrigger) trigger( "throttled" );
+    MisfireGovernor.applyMisfirePolicy( throttled, Collections.singletonMap( MisfireGovernor.MISFIRE_POLICY_PARAM,
+      MisfirePolicy.THROTTLED.name() ) );
+    assertEquals( CalendarIntervalTrigger.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW, throttled.getMisfireInstruction() );
+    MisfireGovernor.applyMisfirePolicy( throttled, Collections.singletonMap( MisfireGovernor.MISFIRE_POLICY_PARAM,
+      "unknown" ) );
+    assertEquals( CalendarIntervalTrigger.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW, throttled.getMisfireInstruction() );
+  }
+
+  /**
+   * Reports a misfire of the trigger of a job, then its catch-up execution.
+   *
+   * @return {@code true} if the catch-up execution was vetoed
+   */
+  private static boolean misfireAndFire( MisfireGovernor governor, String jobName, String param ) {
+    Map<String, Object> jobParams = new HashMap<>();
+    if ( param != null ) {
+      if ( MisfirePolicy.fromParam( param ) != null ) {
+        jobParams.put( MisfireGovernor.MISFIRE_POLICY_PARAM, param );
+      } else {
+        jobParams.put( MisfireGovernor.MISFIRE_PRIORITY_PARAM, param );
+      }
+    }
+    Trigger trigger = trigger( jobName );
+    governor.triggerMisfired( trigger );
+    return governor.vetoJobExecution( trigger, context( trigger, jobParams ) );
+  }
+
+  private static Trigger trigger( String jobName ) {
+    OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+      .withIdentity( jobName, "admin" )
+      .forJob( jobName, "admin" )
+      .withSchedule( CalendarIntervalScheduleBuilder.calendarIntervalSchedule().withIntervalInHours( 1 )
+        .withMisfireHandlingInstructionFireAndProceed() )
+      .build();
+    // fires again, so the job is not deleted along with the trigger
+    trigger.computeFirstFireTime( null );
+    return trigger;
+  }
+
+  private static JobExecutionContext context( Trigger trigger, Map<String, Object> jobParams ) {
+    JobDetail jobDetail = JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( trigger.getJobKey() ).build();
+    JobExecutionContext context = mock( JobExecutionContext.class );
+    when( context.getJobDetail() ).thenReturn( jobDetail );
+    when( context.getMergedJobDataMap() ).thenReturn( new JobDataMap( jobParams ) );
+    return context;
+  }
+}
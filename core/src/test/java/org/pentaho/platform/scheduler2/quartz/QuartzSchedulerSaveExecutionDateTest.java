@@ -36,6 +36,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -50,6 +51,9 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -145,11 +149,11 @@ public class QuartzSchedulerSaveExecutionDateTest {
     // Act
     mockQuartzScheduler.saveExecutionDate( jobKey, executionTime );
 
-    // Assert
-    verify( mockScheduler ).deleteJob( jobKey );
+    // Assert: the job is replaced in one job store transaction, never missing for the other cluster nodes
+    verify( mockScheduler, never() ).deleteJob( jobKey );
 
     ArgumentCaptor<JobDetail> jobDetailCaptor = ArgumentCaptor.forClass( JobDetail.class );
-    verify( mockScheduler ).scheduleJob( jobDetailCaptor.capture(), any( Trigger.class ) );
+    verify( mockScheduler ).scheduleJob( jobDetailCaptor.capture(), anySet(), eq( true ) );
     assertEquals( executionTime,
       jobDetailCaptor.getValue().getJobDataMap().get( QuartzScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME ) );
   }
@@ -191,14 +195,16 @@ public class QuartzSchedulerSaveExecutionDateTest {
 
     mockQuartzScheduler.saveExecutionDate( jobKey, executionTime );
 
-    verify( mockScheduler ).deleteJob( jobKey );
+    verify( mockScheduler, never() ).deleteJob( jobKey );
 
     ArgumentCaptor<JobDetail> jobDetailCaptor = ArgumentCaptor.forClass( JobDetail.class );
-    ArgumentCaptor<Trigger> triggerCaptor = ArgumentCaptor.forClass( Trigger.class );
-    verify( mockScheduler ).scheduleJob( jobDetailCaptor.capture(), triggerCaptor.capture() );
+    @SuppressWarnings( "unchecked" )
+    ArgumentCaptor<Set<? extends Trigger>> triggersCaptor = ArgumentCaptor.forClass( (Class) Set.class );
+    verify( mockScheduler ).scheduleJob( jobDetailCaptor.capture(), triggersCaptor.capture(), eq( true ) );
     assertEquals( executionTime,
       jobDetailCaptor.getValue().getJobDataMap().get( QuartzScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME ) );
-    Trigger scheduledTrigger = triggerCaptor.getValue();
+    assertEquals( 1, triggersCaptor.getValue().size() );
+    Trigger scheduledTrigger = triggersCaptor.getValue().iterator().next();
     assertTrue( scheduledTrigger instanceof CalendarIntervalTriggerImpl );
     CalendarIntervalTriggerImpl t = (CalendarIntervalTriggerImpl) scheduledTrigger;
     assertEquals( 5, t.getRepeatInterval() );
@@ -472,6 +478,7 @@ public class QuartzSchedulerSaveExecutionDateTest {
     // would trigger an immediate execution and create an infinite loop.
     verify( mockScheduler, never() ).deleteJob( jobKey );
     verify( mockScheduler, never() ).scheduleJob( any( JobDetail.class ), any( Trigger.class ) );
+    verify( mockScheduler, never() ).scheduleJob( any( JobDetail.class ), anySet(), anyBoolean() );
   }
 
   @Test
@@ -21,6 +21,8 @@ import org.mockito.Mockito;
 import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.scheduler2.ComplexJobTrigger;
+import org.pentaho.platform.api.scheduler2.IJobTrigger;
+import org.pentaho.platform.api.scheduler2.IScheduler;
 import org.pentaho.platform.api.scheduler2.Job;
 import org.pentaho.platform.api.scheduler2.SchedulerException;
 import org.pentaho.platform.api.scheduler2.SimpleJobTrigger;
@@ -30,6 +32,7 @@ import org.quartz.CronExpression;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.CronTrigger;
 import org.quartz.DateBuilder;
+import org.quartz.JobBuilder;
 import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
 import org.quartz.JobKey;
@@ -40,16 +43,28 @@ import org.quartz.SimpleTrigger;
 import org.quartz.Trigger;
 import org.quartz.TriggerBuilder;
 import org.quartz.TriggerKey;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.matchers.GroupMatcher;
 import org.quartz.impl.triggers.CalendarIntervalTriggerImpl;
 import org.quartz.impl.triggers.CronTriggerImpl;
+import org.quartz.simpl.RAMJobStore;
+import org.quartz.simpl.SimpleThreadPool;
 import org.quartz.spi.MutableTrigger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
@@ -57,8 +72,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.pentaho.platform.api.scheduler2.IScheduler.RESERVEDMAPKEY_ACTIONUSER;
@@ -410,6 +428,106 @@ public class QuartzSchedulerTest {
     assertEquals( TEST_CRON_EXPRESSION, ((CronTriggerImpl) quartzTrigger).getCronExpression() );
   }
 
+  @Test
+  public void testCreateQuartzTriggerSpreadsFireTimes() throws Exception {
+    QuartzJobKey jobKey = new QuartzJobKey( "testJob", "testUser" );
+    int offset = ScheduleSpread.getOffsetSeconds( jobKey.toString(), 10 );
+    Calendar start = Calendar.getInstance();
+    start.set( 2025, Calendar.APRIL, 17, 8, 0, 0 );
+    start.set( Calendar.MILLISECOND, 0 );
+
+    SimpleJobTrigger hourly = new SimpleJobTrigger( start.getTime(), null, -1, 3600 );
+    hourly.setUiPassParam( "HOURS" );
+    MutableTrigger spread = QuartzScheduler.createQuartzTrigger( hourly, jobKey, 10 );
+    assertEquals( start.getTimeInMillis() + offset * 1000L, spread.getStartTime().getTime() );
+    // the same offset each time the trigger of the job is built
+    assertEquals( spread.getStartTime(), QuartzScheduler.createQuartzTrigger( hourly, jobKey, 10 ).getStartTime() );
+
+    SimpleJobTrigger once = new SimpleJobTrigger( start.getTime(), null, 0, 0 );
+    assertEquals( start.getTime(), QuartzScheduler.createQuartzTrigger( once, jobKey, 10 ).getStartTime() );
+
+    ComplexJobTrigger daily = new ComplexJobTrigger();
+    daily.setCronString( "0 0 8 * * ?" );
+    CronTriggerImpl cron = (CronTriggerImpl) QuartzScheduler.createQuartzTrigger( daily, jobKey, 10 );
+    assertEquals( ScheduleSpread.offsetCronString( "0 0 8 * * ?", offset ), cron.getCronExpression() );
+  }
+
+  @Test
+  public void testSpreadNotAppliedAgainWhenJobUpdatedWithItsOwnTrigger() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "QuartzSchedulerTestSpread" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_CLASS, SimpleThreadPool.class.getName() );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "1" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, RAMJobStore.class.getName() );
+    StdSchedulerFactory factory = new StdSchedulerFactory( properties );
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( factory );
+
+    Calendar start = Calendar.getInstance();
+    start.add( Calendar.DAY_OF_MONTH, 1 );
+    start.set( Calendar.HOUR_OF_DAY, 8 );
+    start.set( Calendar.MINUTE, 0 );
+    start.set( Calendar.SECOND, 0 );
+    start.set( Calendar.MILLISECOND, 0 );
+    SimpleJobTrigger hourly = new SimpleJobTrigger( start.getTime(), null, -1, 3600 );
+    hourly.setUiPassParam( "HOURS" );
+    ComplexJobTrigger daily = new ComplexJobTrigger();
+    daily.setCronString( "0 0 8 * * ?" );
+    try {
+      for ( IJobTrigger trigger : Arrays.asList( hourly, daily ) ) {
+        Map<String, Object> jobParams = jobParams( ScheduleSpread.SPREAD_WINDOW_PARAM, "10" );
+        Job created = quartzScheduler.createJob( "spread", "prpt.backgroundExecution", jobParams, trigger );
+        Date nextRun = quartzScheduler.getJob( created.getJobId() ).getNextRun();
+
+        for ( int i = 0; i < 2; i++ ) {
+          Job job = quartzScheduler.getJob( created.getJobId() );
+          quartzScheduler.updateJob( job.getJobId(), new HashMap<>( job.getJobParams() ), job.getJobTrigger() );
+          assertEquals( nextRun, quartzScheduler.getJob( created.getJobId() ).getNextRun() );
+        }
+        quartzScheduler.removeJob( created.getJobId() );
+      }
+    } finally {
+      factory.getScheduler().shutdown();
+    }
+  }
+
+  @Test
+  public void testRestoredPausedJobResumedInItsOwnGroup() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "QuartzSchedulerTestSnapshot" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_CLASS, SimpleThreadPool.class.getName() );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "1" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, RAMJobStore.class.getName() );
+    StdSchedulerFactory factory = new StdSchedulerFactory( properties );
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( factory );
+    try {
+      Job created = quartzScheduler.createJob( "paused", "prpt.backgroundExecution", jobParams( "param", "value" ),
+        hourlyTrigger() );
+      quartzScheduler.pauseJob( created.getJobId() );
+      ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+      quartzScheduler.writeSnapshot( Channels.newChannel( snapshot ) );
+      quartzScheduler.removeJob( created.getJobId() );
+
+      assertEquals( 1, quartzScheduler.restoreSnapshot(
+        Channels.newChannel( new ByteArrayInputStream( snapshot.toByteArray() ) ) ) );
+      Scheduler scheduler = factory.getScheduler();
+      JobKey jobKey = new JobKey( created.getJobId(), QuartzJobKey.parse( created.getJobId() ).getUserName() );
+      TriggerKey pausedKey = scheduler.getTriggersOfJob( jobKey ).get( 0 ).getKey();
+      assertTrue( pausedKey.getGroup().startsWith( SchedulerSnapshot.PAUSED_GROUP_PREFIX ) );
+
+      quartzScheduler.resumeJob( created.getJobId() );
+      List<? extends Trigger> triggers = scheduler.getTriggersOfJob( jobKey );
+      assertEquals( 1, triggers.size() );
+      assertEquals( new TriggerKey( jobKey.getName(), jobKey.getGroup() ), triggers.get( 0 ).getKey() );
+      assertEquals( Trigger.TriggerState.NORMAL, scheduler.getTriggerState( triggers.get( 0 ).getKey() ) );
+    } finally {
+      factory.getScheduler().shutdown();
+    }
+  }
+
   @Test
   public void testTriggerNow() throws Exception {
     // Arrange
@@ -444,6 +562,92 @@ public class QuartzSchedulerTest {
 
 
 
+  @Test
+  public void testPauseJobsSkipsFailingJobs() throws Exception {
+    String failingJobId = "testJob\tfailingJob\trandomUuid";
+    Scheduler mockScheduler = mock( Scheduler.class );
+    doThrow( new org.quartz.SchedulerException( "pause failed" ) ).when( mockScheduler )
+      .pauseJob( new JobKey( failingJobId, TEST_JOB_GROUP ) );
+
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    List<String> pausedJobIds = quartzScheduler.pauseJobs( Arrays.asList( failingJobId, "invalid", TEST_JOB_ID ) );
+
+    assertEquals( Collections.singletonList( TEST_JOB_ID ), pausedJobIds );
+    verify( mockScheduler ).pauseJob( new JobKey( TEST_JOB_ID, TEST_JOB_GROUP ) );
+  }
+
+  @Test
+  public void testStagedJobsActivatedTogether() throws Exception {
+    Scheduler mockScheduler = mock( Scheduler.class );
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    quartzScheduler.stageJobs();
+    ArgumentCaptor<GroupMatcher<TriggerKey>> pausedGroup = ArgumentCaptor.forClass( GroupMatcher.class );
+    verify( mockScheduler ).pauseTriggers( pausedGroup.capture() );
+    assertTrue( pausedGroup.getValue().getCompareToValue().startsWith( QuartzScheduler.STAGING_GROUP_PREFIX ) );
+
+    quartzScheduler.activateStagedJobs();
+    quartzScheduler.activateStagedJobs();
+    verify( mockScheduler ).resumeTriggers( pausedGroup.getValue() );
+  }
+
+  @Test
+  public void testStagedTriggersMovedToTheGroupOfTheirJob() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "QuartzSchedulerTestStaging" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_CLASS, SimpleThreadPool.class.getName() );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "1" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, RAMJobStore.class.getName() );
+    StdSchedulerFactory factory = new StdSchedulerFactory( properties );
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( factory );
+    try {
+      quartzScheduler.stageJobs();
+      Job created = quartzScheduler.createJob( "staged", "prpt.backgroundExecution", jobParams( "param", "value" ),
+        hourlyTrigger() );
+      Scheduler scheduler = factory.getScheduler();
+      JobKey jobKey = new JobKey( created.getJobId(), TEST_JOB_GROUP );
+      TriggerKey stagedKey = scheduler.getTriggersOfJob( jobKey ).get( 0 ).getKey();
+      assertEquals( Trigger.TriggerState.PAUSED, scheduler.getTriggerState( stagedKey ) );
+
+      quartzScheduler.activateStagedJobs();
+      List<? extends Trigger> triggers = scheduler.getTriggersOfJob( jobKey );
+      assertEquals( 1, triggers.size() );
+      assertEquals( new TriggerKey( created.getJobId(), TEST_JOB_GROUP ), triggers.get( 0 ).getKey() );
+      assertEquals( Trigger.TriggerState.NORMAL, scheduler.getTriggerState( triggers.get( 0 ).getKey() ) );
+      assertEquals( Collections.singletonList( TEST_JOB_GROUP ), scheduler.getTriggerGroupNames() );
+      assertTrue( scheduler.getPausedTriggerGroups().isEmpty() );
+    } finally {
+      factory.getScheduler().shutdown();
+    }
+  }
+
+  @Test
+  public void testActivateAbandonedStagedJobs() throws Exception {
+    String stagingGroup = QuartzScheduler.STAGING_GROUP_PREFIX + "abandoned";
+    Scheduler mockScheduler = mock( Scheduler.class );
+    when( mockScheduler.getPausedTriggerGroups() ).thenReturn( new HashSet<>( Arrays.asList( stagingGroup, "admin" ) ) );
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    assertEquals( 1, quartzScheduler.activateAbandonedStagedJobs() );
+    verify( mockScheduler ).resumeTriggers( GroupMatcher.triggerGroupEquals( stagingGroup ) );
+    verify( mockScheduler, never() ).resumeTriggers( GroupMatcher.triggerGroupEquals( "admin" ) );
+  }
+
   @Test
   public void testResumeJobNormalizesPastCalendarIntervalTriggerToFutureFireTime() throws Exception {
     JobKey jobKey = new JobKey( TEST_JOB_ID, TEST_JOB_GROUP );
@@ -533,6 +737,216 @@ public class QuartzSchedulerTest {
 
 
 
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testUpdateJobReplacesJobAndTriggerInPlace() throws Exception {
+    JobKey jobKey = new JobKey( TEST_JOB_ID, TEST_JOB_GROUP );
+    Date lastRun = new Date( System.currentTimeMillis() - 60_000 );
+    JobDataMap oldJobDataMap = new JobDataMap();
+    oldJobDataMap.put( IScheduler.RESERVEDMAPKEY_ACTIONCLASS, "org.example.Action" );
+    oldJobDataMap.put( IScheduler.RESERVEDMAPKEY_LINEAGE_ID, "lineage" );
+    oldJobDataMap.put( IScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME, lastRun );
+    oldJobDataMap.put( "param", "old" );
+
+    JobDetail mockJobDetail = mock( JobDetail.class );
+    when( mockJobDetail.getJobDataMap() ).thenReturn( oldJobDataMap );
+
+    CronTriggerImpl oldTrigger = new CronTriggerImpl();
+    oldTrigger.setKey( new TriggerKey( TEST_JOB_ID, TEST_JOB_GROUP ) );
+    oldTrigger.setJobKey( jobKey );
+    oldTrigger.setCalendarName( TEST_JOB_ID );
+    oldTrigger.setCronExpression( TEST_CRON_EXPRESSION );
+
+    Scheduler mockScheduler = mock( Scheduler.class );
+    when( mockScheduler.getJobDetail( jobKey ) ).thenReturn( mockJobDetail );
+    when( mockScheduler.getTriggersOfJob( jobKey ) ).thenAnswer( unused -> Collections.singletonList( oldTrigger ) );
+    when( mockScheduler.getTriggerState( oldTrigger.getKey() ) ).thenReturn( Trigger.TriggerState.PAUSED );
+
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    SimpleJobTrigger simpleTrigger = new SimpleJobTrigger();
+    simpleTrigger.setStartTime( new Date( System.currentTimeMillis() + 60_000 ) );
+    simpleTrigger.setRepeatInterval( 3600 );
+    simpleTrigger.setRepeatCount( -1 );
+    simpleTrigger.setUiPassParam( "HOURS" );
+    HashMap<String, Object> jobParams = new HashMap<>();
+    jobParams.put( "param", "new" );
+
+    quartzScheduler.updateJob( TEST_JOB_ID, jobParams, simpleTrigger );
+
+    ArgumentCaptor<JobDetail> jobDetailCaptor = ArgumentCaptor.forClass( JobDetail.class );
+    ArgumentCaptor<Set> triggersCaptor = ArgumentCaptor.forClass( Set.class );
+    verify( mockScheduler ).scheduleJob( jobDetailCaptor.capture(), triggersCaptor.capture(), Mockito.eq( true ) );
+    verify( mockScheduler, Mockito.never() ).deleteJob( jobKey );
+
+    JobDetail newJobDetail = jobDetailCaptor.getValue();
+    assertEquals( jobKey, newJobDetail.getKey() );
+    assertEquals( "new", newJobDetail.getJobDataMap().get( "param" ) );
+    assertEquals( "lineage", newJobDetail.getJobDataMap().get( IScheduler.RESERVEDMAPKEY_LINEAGE_ID ) );
+    assertEquals( lastRun, newJobDetail.getJobDataMap().get( IScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME ) );
+    assertEquals( "org.example.Action", newJobDetail.getJobDataMap().get( IScheduler.RESERVEDMAPKEY_ACTIONCLASS ) );
+    assertEquals( TEST_JOB_GROUP, newJobDetail.getJobDataMap().get( RESERVEDMAPKEY_ACTIONUSER ) );
+
+    Trigger newTrigger = (Trigger) triggersCaptor.getValue().iterator().next();
+    assertEquals( oldTrigger.getKey(), newTrigger.getKey() );
+    assertTrue( newTrigger instanceof CalendarIntervalTrigger );
+    verify( mockScheduler ).pauseTrigger( oldTrigger.getKey() );
+    // the cron calendar is no longer used by the job
+    verify( mockScheduler ).deleteCalendar( TEST_JOB_ID );
+  }
+
+  @Test( expected = SchedulerException.class )
+  public void testUpdateJobFailsForMissingJob() throws Exception {
+    Scheduler mockScheduler = mock( Scheduler.class );
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    quartzScheduler.updateJob( TEST_JOB_ID, new HashMap<>(), new SimpleJobTrigger() );
+  }
+
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testCreateJobsStoresAllJobsInOneCall() throws Exception {
+    Scheduler mockScheduler = mock( Scheduler.class );
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    List<JobDefinition> jobDefinitions = Arrays.asList(
+      new JobDefinition( "first", jobParams( IScheduler.RESERVEDMAPKEY_ACTIONCLASS, "org.example.Action" ),
+        hourlyTrigger(), null ),
+      new JobDefinition( "second", jobParams( IScheduler.RESERVEDMAPKEY_ACTIONID, "prpt.backgroundExecution" ),
+        hourlyTrigger(), null ) );
+
+    List<Job> jobs = quartzScheduler.createJobs( jobDefinitions );
+
+    ArgumentCaptor<Map> jobsCaptor = ArgumentCaptor.forClass( Map.class );
+    verify( mockScheduler ).scheduleJobs( jobsCaptor.capture(), Mockito.eq( false ) );
+    verify( mockScheduler, Mockito.never() ).scheduleJob( any( JobDetail.class ), any( Trigger.class ) );
+    assertEquals( 2, jobsCaptor.getValue().size() );
+
+    assertEquals( 2, jobs.size() );
+    assertEquals( "first", jobs.get( 0 ).getJobName() );
+    assertEquals( TEST_JOB_GROUP, jobs.get( 0 ).getUserName() );
+    assertEquals( "org.example.Action", jobs.get( 0 ).getSchedulableClass() );
+    assertEquals( "second", jobs.get( 1 ).getJobName() );
+    assertNotNull( jobs.get( 1 ).getJobParams().get( IScheduler.RESERVEDMAPKEY_LINEAGE_ID ) );
+  }
+
+  @Test
+  public void testCreateJobsRejectsTriggersThatNeverFire() throws Exception {
+    Scheduler mockScheduler = mock( Scheduler.class );
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    ComplexJobTrigger february30 = new ComplexJobTrigger();
+    february30.setCronString( "0 0 0 30 2 ?" );
+    ComplexJobTrigger ended = new ComplexJobTrigger();
+    ended.setCronString( "0 0 8 * * ?" );
+    ended.setEndTime( new Date( System.currentTimeMillis() - 86_400_000L ) );
+    for ( ComplexJobTrigger trigger : Arrays.asList( february30, ended ) ) {
+      try {
+        quartzScheduler.createJobs( Arrays.asList(
+          new JobDefinition( "first", jobParams( IScheduler.RESERVEDMAPKEY_ACTIONCLASS, "org.example.Action" ),
+            hourlyTrigger(), null ),
+          new JobDefinition( "expired", jobParams( IScheduler.RESERVEDMAPKEY_ACTIONCLASS, "org.example.Action" ),
+            trigger, null ) ) );
+        fail( "the job whose schedule never fires is rejected" );
+      } catch ( SchedulerException e ) {
+        // reported against the job at fault
+        assertTrue( e.getMessage().contains( "expired" ) );
+      }
+    }
+    verify( mockScheduler, never() ).scheduleJobs( any(), Mockito.anyBoolean() );
+  }
+
+  @Test
+  public void testCreateJobReleasesCalendarWhenStoreFails() throws Exception {
+    Scheduler mockScheduler = mock( Scheduler.class );
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+    doThrow( new org.quartz.SchedulerException( "store failed" ) ).when( mockScheduler )
+      .scheduleJob( any( JobDetail.class ), any( Trigger.class ) );
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    ComplexJobTrigger windowed = new ComplexJobTrigger();
+    windowed.setCronString( "0 0 8 * * ?" );
+    windowed.setStartTime( new Date( System.currentTimeMillis() + 60_000 ) );
+    windowed.setEndTime( new Date( System.currentTimeMillis() + 30 * 86_400_000L ) );
+    try {
+      quartzScheduler.createJob( "windowed", "prpt.backgroundExecution", new HashMap<>(), windowed );
+      fail( "the job store failure is reported" );
+    } catch ( SchedulerException e ) {
+      // expected
+    }
+
+    // the calendar taken for the job is given back
+    ArgumentCaptor<String> calendarName = ArgumentCaptor.forClass( String.class );
+    verify( mockScheduler ).addCalendar( calendarName.capture(), any( org.quartz.Calendar.class ),
+      Mockito.eq( false ), Mockito.eq( false ) );
+    verify( mockScheduler ).deleteCalendar( calendarName.getValue() );
+  }
+
+  @Test
+  public void testRetryJobDoesNotRestoreDeletedJobs() throws Exception {
+    Scheduler mockScheduler = mock( Scheduler.class );
+    SchedulerFactory mockSchedulerFactory = mock( SchedulerFactory.class );
+    when( mockSchedulerFactory.getScheduler() ).thenReturn( mockScheduler );
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.setQuartzSchedulerFactory( mockSchedulerFactory );
+
+    JobDetail existing = JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "existing", TEST_JOB_GROUP ).build();
+    JobDetail deleted = JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "deleted", TEST_JOB_GROUP )
+      .usingJobData( IScheduler.RESERVEDMAPKEY_UIPASSPARAM, QuartzScheduler.UI_PASS_PARAM_DAILY ).build();
+    JobDetail ranOnce = JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( "ranOnce", TEST_JOB_GROUP )
+      .usingJobData( IScheduler.RESERVEDMAPKEY_UIPASSPARAM, QuartzScheduler.UI_PASS_PARAM_RUN_ONCE ).build();
+    when( mockScheduler.checkExists( existing.getKey() ) ).thenReturn( true );
+
+    quartzScheduler.retryJob( existing, 1 );
+    quartzScheduler.retryJob( deleted, 1 );
+    quartzScheduler.recoverMisfiredJob( ranOnce );
+
+    verify( mockScheduler ).triggerJob( Mockito.eq( existing.getKey() ), any( JobDataMap.class ) );
+    // the deleted job stays deleted, the run once job removed by Quartz is stored again
+    verify( mockScheduler, never() ).scheduleJob( Mockito.eq( deleted ), any( Trigger.class ) );
+    verify( mockScheduler ).scheduleJob( Mockito.eq( ranOnce ), any( Trigger.class ) );
+  }
+
+  @Test( expected = SchedulerException.class )
+  public void testCreateJobsRequiresAnAction() throws Exception {
+    QuartzScheduler quartzScheduler = new QuartzScheduler();
+    quartzScheduler.createJobs( Collections.singletonList(
+      new JobDefinition( "first", jobParams( "param", "value" ), hourlyTrigger(), null ) ) );
+  }
+
+  private static Map<String, Object> jobParams( String key, Object value ) {
+    Map<String, Object> jobParams = new HashMap<>();
+    jobParams.put( key, value );
+    jobParams.put( RESERVEDMAPKEY_ACTIONUSER, TEST_JOB_GROUP );
+    return jobParams;
+  }
+
+  private static SimpleJobTrigger hourlyTrigger() {
+    SimpleJobTrigger simpleTrigger = new SimpleJobTrigger();
+    simpleTrigger.setStartTime( new Date( System.currentTimeMillis() + 60_000 ) );
+    simpleTrigger.setRepeatInterval( 3600 );
+    simpleTrigger.setRepeatCount( -1 );
+    simpleTrigger.setUiPassParam( "HOURS" );
+    return simpleTrigger;
+  }
+
   @Test
   public void testGetLastRun_ReturnsNull() throws Exception {
     // Arrange
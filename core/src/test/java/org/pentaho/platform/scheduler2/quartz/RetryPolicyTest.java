@@ -0,0 +1,64 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+  @Test
+  public void testAllowedAttempts() {
+    RetryPolicy policy = new RetryPolicy( 3, 1000, 2, 60000, 0 );
+
+    assertFalse( policy.allowsAttempt( 0 ) );
+    assertTrue( policy.allowsAttempt( 1 ) );
+    assertTrue( policy.allowsAttempt( 3 ) );
+    assertFalse( policy.allowsAttempt( 4 ) );
+    assertFalse( new RetryPolicy( 0, 1000, 2, 60000, 0 ).allowsAttempt( 1 ) );
+  }
+
+  @Test
+  public void testExponentialBackoffIsCapped() {
+    RetryPolicy policy = new RetryPolicy( 10, 1000, 2, 5000, 0 );
+
+    assertEquals( 1000, policy.getDelayMillis( 1, 0.5 ) );
+    assertEquals( 2000, policy.getDelayMillis( 2, 0.5 ) );
+    assertEquals( 4000, policy.getDelayMillis( 3, 0.5 ) );
+    assertEquals( 5000, policy.getDelayMillis( 4, 0.5 ) );
+    assertEquals( 5000, policy.getDelayMillis( 10, 0.5 ) );
+  }
+
+  @Test
+  public void testJitterSpreadsDelay() {
+    RetryPolicy policy = new RetryPolicy( 10, 1000, 2, 60000, 0.25 );
+
+    assertEquals( 750, policy.getDelayMillis( 1, 0 ) );
+    assertEquals( 1000, policy.getDelayMillis( 1, 0.5 ) );
+    assertEquals( 1250, policy.getDelayMillis( 1, 1 ) );
+  }
+
+  @Test
+  public void testDefaultsWithoutSettings() {
+    RetryPolicy policy = RetryPolicy.fromSettings( null );
+
+    assertEquals( 1, policy.getMaxAttempts() );
+    assertTrue( policy.allowsAttempt( 1 ) );
+    assertFalse( policy.allowsAttempt( 2 ) );
+  }
+}
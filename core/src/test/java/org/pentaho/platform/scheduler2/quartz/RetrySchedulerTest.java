@@ -0,0 +1,167 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.scheduler2.IScheduler;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+
+public class RetrySchedulerTest {
+
+  private File journal;
+
+  @Before
+  public void setUp() throws IOException {
+    journal = File.createTempFile( "scheduler-retries", ".journal" );
+    assertTrue( journal.delete() );
+  }
+
+  @After
+  public void tearDown() {
+    journal.delete();
+  }
+
+  @Test
+  public void testRetryFiredAgainstOriginalJob() throws InterruptedException {
+    CountDownLatch fired = new CountDownLatch( 1 );
+    List<String> retries = new CopyOnWriteArrayList<>();
+    RetryScheduler retryScheduler = new RetryScheduler( new RetryPolicy( 2, 10, 2, 1000, 0 ), journal,
+      ( jobDetail, attempt ) -> {
+        retries.add( jobDetail.getKey().getName() + ":" + attempt );
+        fired.countDown();
+      } );
+
+    assertTrue( retryScheduler.scheduleRetry( job( "admin\tjob\t1" ), 1 ) );
+    assertTrue( fired.await( 10, TimeUnit.SECONDS ) );
+
+    assertEquals( 1, retries.size() );
+    assertEquals( "admin\tjob\t1:1", retries.get( 0 ) );
+    waitForNoPendingRetry( retryScheduler );
+    // the journal is removed once no retry is pending
+    assertFalse( journal.exists() );
+    // no retry beyond the policy
+    assertFalse( retryScheduler.scheduleRetry( job( "admin\tjob\t1" ), 3 ) );
+  }
+
+  @Test
+  public void testOneRetryPendingPerJob() {
+    RetryScheduler retryScheduler = new RetryScheduler( new RetryPolicy( 5, 60000, 2, 60000, 0 ), null,
+      ( jobDetail, attempt ) -> { } );
+
+    assertTrue( retryScheduler.scheduleRetry( job( "admin\tjob\t1" ), 1 ) );
+    assertTrue( retryScheduler.scheduleRetry( job( "admin\tjob\t1" ), 2 ) );
+    assertTrue( retryScheduler.scheduleRetry( job( "admin\tjob\t2" ), 1 ) );
+
+    assertEquals( 2, retryScheduler.getPendingCount() );
+  }
+
+  @Test
+  public void testPendingRetriesRecoveredFromJournal() throws Exception {
+    RetryScheduler stopped = new RetryScheduler( new RetryPolicy( 3, 60000, 2, 60000, 0 ), journal,
+      ( jobDetail, attempt ) -> { } );
+    assertTrue( stopped.scheduleRetry( job( "admin\tjob\t1" ), 1 ) );
+    stopped.shutdown();
+
+    CountDownLatch fired = new CountDownLatch( 1 );
+    RetryScheduler restarted = new RetryScheduler( new RetryPolicy( 3, 0, 2, 0, 0 ), journal,
+      ( detail, attempt ) -> fired.countDown() );
+    restarted.recover();
+
+    // recovered retries keep their due time
+    assertEquals( 1, restarted.getPendingCount() );
+    assertFalse( fired.await( 200, TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test
+  public void testDueRetriesFiredOnRecoveryAndTruncatedRecordIgnored() throws Exception {
+    RetryScheduler stopped = new RetryScheduler( new RetryPolicy( 3, 100, 2, 100, 0 ), journal,
+      ( jobDetail, attempt ) -> { } );
+    JobDetail jobDetail = job( "admin\tjob\t1" );
+    jobDetail.getJobDataMap().put( "param", "value" );
+    assertTrue( stopped.scheduleRetry( jobDetail, 2 ) );
+    stopped.shutdown();
+    try ( FileOutputStream out = new FileOutputStream( journal, true ) ) {
+      // a record cut short by a crash
+      out.write( new byte[] { 'S', 0, 5, 'a' } );
+    }
+    Thread.sleep( 200 );
+
+    CountDownLatch fired = new CountDownLatch( 1 );
+    List<JobDetail> retried = new CopyOnWriteArrayList<>();
+    List<Integer> attempts = new CopyOnWriteArrayList<>();
+    RetryScheduler restarted = new RetryScheduler( new RetryPolicy( 3, 100, 2, 100, 0 ), journal,
+      ( detail, attempt ) -> {
+        retried.add( detail );
+        attempts.add( attempt );
+        fired.countDown();
+      } );
+    restarted.recover();
+
+    assertTrue( fired.await( 10, TimeUnit.SECONDS ) );
+    assertEquals( 1, retried.size() );
+    assertEquals( "admin\tjob\t1", retried.get( 0 ).getKey().getName() );
+    assertEquals( "value", retried.get( 0 ).getJobDataMap().get( "param" ) );
+    assertEquals( Integer.valueOf( 2 ), attempts.get( 0 ) );
+    waitForNoPendingRetry( restarted );
+    assertFalse( journal.exists() );
+  }
+
+  @Test( expected = InvalidClassException.class )
+  public void testJournaledJobDataLimitedToSchedulerClasses() throws Exception {
+    JobDetail jobDetail = job( "admin\tjob\t1" );
+    jobDetail.getJobDataMap().put( "param", new File( "/tmp" ) );
+    RetryScheduler.readJobDetail( RetryScheduler.writeJobDetail( jobDetail ) );
+  }
+
+  @Test
+  public void testAttemptFromJobData() {
+    Map<String, Object> params = new HashMap<>();
+    assertEquals( 0, RetryScheduler.getAttempt( params ) );
+    params.put( IScheduler.RESERVEDMAPKEY_RESTART_FLAG, Boolean.TRUE );
+    assertEquals( 1, RetryScheduler.getAttempt( params ) );
+    params.put( RetryScheduler.RETRY_ATTEMPT_KEY, 3 );
+    assertEquals( 3, RetryScheduler.getAttempt( params ) );
+  }
+
+  private static JobDetail job( String jobId ) {
+    return JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( jobId, "admin" ).build();
+  }
+
+  private static void waitForNoPendingRetry( RetryScheduler retryScheduler ) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( 10 );
+    while ( retryScheduler.getPendingCount() > 0 && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( 0, retryScheduler.getPendingCount() );
+  }
+}
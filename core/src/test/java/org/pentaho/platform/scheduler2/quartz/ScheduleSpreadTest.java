@@ -0,0 +1,64 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ScheduleSpreadTest {
+
+  @Test
+  public void testOffsetsWithinWindow() {
+    Set<Integer> offsets = new HashSet<>();
+    for ( int i = 0; i < 1000; i++ ) {
+      String jobId = "admin\tReport " + i + "\t1700000000000";
+      int offset = ScheduleSpread.getOffsetSeconds( jobId, 5 );
+      assertTrue( offset >= -300 && offset <= 300 );
+      assertEquals( offset, ScheduleSpread.getOffsetSeconds( jobId, 5 ) );
+      offsets.add( offset );
+    }
+    // spread over the window rather than bunched
+    assertTrue( offsets.size() > 400 );
+
+    assertEquals( 0, ScheduleSpread.getOffsetSeconds( "admin\tReport\t1700000000000", 0 ) );
+    assertTrue( Math.abs( ScheduleSpread.getOffsetSeconds( "admin\tReport\t1700000000000", 600 ) ) <= 1800 );
+  }
+
+  @Test
+  public void testWindowMinutes() {
+    assertEquals( 15, ScheduleSpread.getWindowMinutes(
+      Collections.singletonMap( ScheduleSpread.SPREAD_WINDOW_PARAM, "15" ) ) );
+    assertEquals( 0, ScheduleSpread.getWindowMinutes(
+      Collections.singletonMap( ScheduleSpread.SPREAD_WINDOW_PARAM, 0 ) ) );
+  }
+
+  @Test
+  public void testOffsetCronString() {
+    assertEquals( "13 7 8 ? * MON", ScheduleSpread.offsetCronString( "0 0 8 ? * MON", 433 ) );
+    assertEquals( "30 55 6 * * ?", ScheduleSpread.offsetCronString( "30 50 6 * * ?", 300 ) );
+    assertEquals( "30 45 6 * * ?", ScheduleSpread.offsetCronString( "30 50 6 * * ?", -300 ) );
+    // kept within the hour by moving the other way
+    assertEquals( "10 1 8-17 * * ?", ScheduleSpread.offsetCronString( "0 0 8-17 * * ?", -70 ) );
+    assertEquals( "30 45 23 * * ?", ScheduleSpread.offsetCronString( "30 55 23 * * ?", 600 ) );
+    // no fixed minute
+    assertEquals( "0 0/5 * * * ?", ScheduleSpread.offsetCronString( "0 0/5 * * * ?", 433 ) );
+  }
+}
@@ -0,0 +1,142 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.matchers.GroupMatcher;
+
+public class SchedulerSnapshotTest {
+
+  private static final String CALENDAR_NAME = "availability\t0\t-";
+
+  private Scheduler scheduler;
+
+  @Before
+  public void setUp() throws Exception {
+    scheduler = new StdSchedulerFactory().getScheduler();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testRestoresWhatWasWritten() throws Exception {
+    Date lastRun = new Date( 1000L );
+    scheduler.addCalendar( CALENDAR_NAME, new QuartzSchedulerAvailability( new Date( 0L ), null ), false, false );
+    schedule( "job1", lastRun );
+    schedule( "job2", null );
+    scheduler.pauseTrigger( new TriggerKey( "job2", "admin" ) );
+    // fired by hand, not part of the snapshot
+    scheduler.triggerJob( new JobKey( "job1", "admin" ) );
+
+    byte[] snapshot = write( 2 );
+    scheduler.clear();
+
+    assertEquals( 2, new SchedulerSnapshot( scheduler ).restore(
+      Channels.newChannel( new ByteArrayInputStream( snapshot ) ) ) );
+
+    assertNotNull( scheduler.getCalendar( CALENDAR_NAME ) );
+    JobDetail jobDetail = scheduler.getJobDetail( new JobKey( "job1", "admin" ) );
+    assertEquals( lastRun, jobDetail.getJobDataMap().get( QuartzScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME ) );
+    assertEquals( 1, scheduler.getTriggersOfJob( new JobKey( "job1", "admin" ) ).size() );
+    assertEquals( CALENDAR_NAME, scheduler.getTrigger( new TriggerKey( "job1", "admin" ) ).getCalendarName() );
+    assertEquals( Trigger.TriggerState.NORMAL, scheduler.getTriggerState( new TriggerKey( "job1", "admin" ) ) );
+    // stored in a group paused beforehand
+    TriggerKey pausedKey = scheduler.getTriggersOfJob( new JobKey( "job2", "admin" ) ).get( 0 ).getKey();
+    assertTrue( pausedKey.getGroup().startsWith( SchedulerSnapshot.PAUSED_GROUP_PREFIX ) );
+    assertEquals( Trigger.TriggerState.PAUSED, scheduler.getTriggerState( pausedKey ) );
+  }
+
+  @Test
+  public void testTruncatedSnapshotRestoresNothing() throws Exception {
+    for ( int i = 0; i <= SchedulerSnapshot.BATCH_SIZE; i++ ) {
+      schedule( "job" + i, null );
+    }
+    byte[] snapshot = write( SchedulerSnapshot.BATCH_SIZE + 1 );
+    scheduler.clear();
+
+    try {
+      new SchedulerSnapshot( scheduler ).restore( Channels.newChannel(
+        new ByteArrayInputStream( Arrays.copyOf( snapshot, snapshot.length - 1 ) ) ) );
+      fail( "a truncated snapshot must not be accepted" );
+    } catch ( EOFException e ) {
+      // the first batch is not stored either
+      assertTrue( scheduler.getJobKeys( GroupMatcher.anyJobGroup() ).isEmpty() );
+    }
+  }
+
+  @Test
+  public void testOversizedRecordRejected() throws Exception {
+    byte[] header = Arrays.copyOf( write( 0 ), 6 );
+    ByteBuffer snapshot = ByteBuffer.allocate( header.length + 5 );
+    snapshot.put( header ).put( SchedulerSnapshot.JOB_RECORD ).putInt( Integer.MAX_VALUE );
+
+    try {
+      new SchedulerSnapshot( scheduler ).restore( Channels.newChannel(
+        new ByteArrayInputStream( snapshot.array() ) ) );
+      fail( "a record longer than the limit must not be read" );
+    } catch ( IOException e ) {
+      assertEquals( "Corrupt scheduler snapshot", e.getMessage() );
+    }
+  }
+
+  private byte[] write( int expectedJobs ) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    assertEquals( expectedJobs, new SchedulerSnapshot( scheduler ).write( Channels.newChannel( bytes ),
+      trigger -> trigger.getKey().getName().equals( trigger.getJobKey().getName() ) ) );
+    return bytes.toByteArray();
+  }
+
+  private void schedule( String jobName, Date lastRun ) throws Exception {
+    JobDetail jobDetail = JobBuilder.newJob( BlockingQuartzJob.class ).withIdentity( jobName, "admin" ).build();
+    if ( lastRun != null ) {
+      jobDetail.getJobDataMap().put( QuartzScheduler.RESERVEDMAPKEY_LAST_EXECUTION_TIME, lastRun );
+    }
+    TriggerBuilder<?> triggerBuilder = TriggerBuilder.newTrigger()
+      .withIdentity( jobName, "admin" )
+      .withSchedule( CronScheduleBuilder.cronSchedule( "0 0 12 * * ?" ) );
+    if ( lastRun != null ) {
+      triggerBuilder.modifiedByCalendar( CALENDAR_NAME );
+    }
+    scheduler.scheduleJob( jobDetail, triggerBuilder.build() );
+  }
+}
@@ -0,0 +1,144 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assume.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.H2ConnectionProvider;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.RecordingJob;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SchedulerFactory;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.jdbcjobstore.JobStoreTX;
+import org.quartz.impl.jdbcjobstore.StdJDBCDelegate;
+import org.quartz.impl.matchers.GroupMatcher;
+
+/**
+ * Measures how many jobs a scheduler creates and fires per second with 1, 2 and 4 shards, on a JDBC job store over an
+ * in-memory H2 database. Skipped unless run with
+ * {@code mvn test -Dtest=ShardedSchedulerBenchmark -Dscheduler.benchmark=true}.
+ */
+public class ShardedSchedulerBenchmark {
+
+  private static final int JOBS = 2000;
+  private static final int CLIENTS = 8;
+  private static final String[] OWNERS = { "admin", "suzy", "pat", "tiffany", "joe", "ann", "bob", "eve" };
+
+  @Test
+  public void testThroughputByShardCount() throws Exception {
+    assumeTrue( Boolean.getBoolean( "scheduler.benchmark" ) );
+    for ( int shardCount : new int[] { 1, 2, 4 } ) {
+      run( shardCount );
+    }
+  }
+
+  private void run( int shardCount ) throws Exception {
+    String url = "jdbc:h2:mem:shards" + shardCount + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    ClusterTestHarness.createTables( url );
+    RecordingJob.executions.clear();
+    SchedulerFactory factory = ShardedSchedulerFactory.create( properties( url, shardCount ) );
+    ShardedSchedulerFactory shardedFactory =
+      factory instanceof ShardedSchedulerFactory ? (ShardedSchedulerFactory) factory : null;
+    Scheduler scheduler = factory.getScheduler();
+    ExecutorService clients = Executors.newFixedThreadPool( CLIENTS );
+    try {
+      scheduler.start();
+      Date fireTime = new Date( System.currentTimeMillis() + 60000 );
+      long start = System.nanoTime();
+      List<Future<?>> created = new ArrayList<>();
+      for ( int client = 0; client < CLIENTS; client++ ) {
+        int first = client;
+        created.add( clients.submit( () -> {
+          for ( int i = first; i < JOBS; i += CLIENTS ) {
+            String owner = OWNERS[ i % OWNERS.length ];
+            QuartzJobKey jobId = shardedFactory == null ? new QuartzJobKey( "job" + i, owner )
+              : new QuartzJobKey( "job" + i, owner, shardedFactory.getShard( owner ) );
+            JobDetail job = JobBuilder.newJob( RecordingJob.class )
+              .withIdentity( new JobKey( jobId.toString(), owner ) ).build();
+            scheduler.scheduleJob( job, TriggerBuilder.newTrigger().withIdentity( jobId.toString(), owner )
+              .startAt( fireTime ).build() );
+          }
+          return null;
+        } ) );
+      }
+      for ( Future<?> future : created ) {
+        future.get();
+      }
+      long createNanos = System.nanoTime() - start;
+
+      // fire them all now
+      start = System.nanoTime();
+      for ( String owner : OWNERS ) {
+        scheduler.getTriggerKeys( GroupMatcher.triggerGroupEquals( owner ) )
+          .forEach( triggerKey -> {
+            try {
+              scheduler.rescheduleJob( triggerKey, TriggerBuilder.newTrigger().withIdentity( triggerKey )
+                .forJob( triggerKey.getName(), owner ).startNow().build() );
+            } catch ( SchedulerException e ) {
+              throw new IllegalStateException( e );
+            }
+          } );
+      }
+      await().atMost( 5, TimeUnit.MINUTES ).until( () -> RecordingJob.executions.size() >= JOBS );
+      long fireNanos = System.nanoTime() - start;
+
+      System.out.println( String.format( "%d shard(s): created %.0f jobs/s, rescheduled and fired %.0f jobs/s",
+        shardCount, JOBS * 1e9 / createNanos, JOBS * 1e9 / fireNanos ) );
+    } finally {
+      clients.shutdownNow();
+      scheduler.shutdown( true );
+      try ( Connection connection = DriverManager.getConnection( url );
+            Statement statement = connection.createStatement() ) {
+        statement.execute( "SHUTDOWN" );
+      }
+    }
+  }
+
+  private static Properties properties( String url, int shardCount ) {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "BenchmarkScheduler" + shardCount );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "8" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, JobStoreTX.class.getName() );
+    String jobStorePrefix = StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".";
+    properties.setProperty( jobStorePrefix + "driverDelegateClass", StdJDBCDelegate.class.getName() );
+    properties.setProperty( jobStorePrefix + "dataSource", "benchmarkDS" + shardCount );
+    properties.setProperty( jobStorePrefix + "tablePrefix", ClusterTestHarness.TABLE_PREFIX );
+    String dataSourcePrefix = StdSchedulerFactory.PROP_DATASOURCE_PREFIX + ".benchmarkDS" + shardCount + ".";
+    properties.setProperty( dataSourcePrefix + "connectionProvider.class", H2ConnectionProvider.class.getName() );
+    properties.setProperty( dataSourcePrefix + "url", url );
+    properties.setProperty( ShardedSchedulerFactory.SHARDS_PROPERTY, String.valueOf( shardCount ) );
+    return properties;
+  }
+}
@@ -0,0 +1,190 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SchedulerFactory;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.calendar.WeeklyCalendar;
+import org.quartz.impl.matchers.GroupMatcher;
+
+public class ShardedSchedulerFactoryTest {
+
+  private List<Scheduler> shards;
+  private Scheduler scheduler;
+
+  @Before
+  public void setUp() throws Exception {
+    Properties quartzProps = new Properties();
+    quartzProps.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "ShardedTestScheduler" );
+    quartzProps.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    quartzProps.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "6" );
+    quartzProps.setProperty( ShardedSchedulerFactory.SHARDS_PROPERTY, "3" );
+    SchedulerFactory factory = ShardedSchedulerFactory.create( quartzProps );
+    assertTrue( factory instanceof ShardedSchedulerFactory );
+    scheduler = factory.getScheduler();
+    shards = new ArrayList<>();
+    for ( int shard = 0; shard < 3; shard++ ) {
+      Properties shardProps = ShardedSchedulerFactory.getShardProperties( quartzProps, shard, 3 );
+      assertEquals( "2", shardProps.getProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount" ) );
+      shards.add( new StdSchedulerFactory( shardProps ).getScheduler() );
+    }
+  }
+
+  @After
+  public void tearDown() throws SchedulerException {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testShardRecordedInJobId() throws Exception {
+    QuartzJobKey sharded = new QuartzJobKey( "report", "suzy", 2 );
+    assertEquals( 2, QuartzJobKey.parse( sharded.toString() ).getShard() );
+    assertEquals( "report", QuartzJobKey.parse( sharded.toString() ).getJobName() );
+
+    QuartzJobKey first = new QuartzJobKey( "report", "suzy", 0 );
+    assertEquals( 3, first.toString().split( "\t" ).length );
+    assertEquals( 0, QuartzJobKey.parse( first.toString() ).getShard() );
+  }
+
+  @Test
+  public void testJobsStoredInTheirShard() throws Exception {
+    JobDetail legacy = job( new QuartzJobKey( "legacy", "admin" ) );
+    JobDetail second = job( new QuartzJobKey( "second", "suzy", 1 ) );
+    JobDetail third = job( new QuartzJobKey( "third", "pat", 2 ) );
+    scheduler.scheduleJob( legacy, trigger( legacy ) );
+    scheduler.scheduleJob( second, trigger( second ) );
+    scheduler.scheduleJobs( Collections.singletonMap( third, Collections.singleton( trigger( third ) ) ), false );
+
+    assertNotNull( shards.get( 0 ).getJobDetail( legacy.getKey() ) );
+    assertNotNull( shards.get( 1 ).getJobDetail( second.getKey() ) );
+    assertNotNull( shards.get( 2 ).getJobDetail( third.getKey() ) );
+    assertNull( shards.get( 0 ).getJobDetail( second.getKey() ) );
+
+    assertNotNull( scheduler.getJobDetail( third.getKey() ) );
+    assertEquals( 3, scheduler.getJobGroupNames().size() );
+    assertEquals( 1, scheduler.getJobKeys( GroupMatcher.jobGroupEquals( "suzy" ) ).size() );
+
+    scheduler.pauseAll();
+    assertEquals( TriggerState.PAUSED, shards.get( 2 ).getTriggerState( trigger( third ).getKey() ) );
+
+    assertTrue( scheduler.deleteJobs( Arrays.asList( legacy.getKey(), third.getKey() ) ) );
+    assertNull( shards.get( 2 ).getJobDetail( third.getKey() ) );
+    assertNotNull( shards.get( 1 ).getJobDetail( second.getKey() ) );
+  }
+
+  @Test
+  public void testJobsStoredAllOrNone() throws Exception {
+    JobDetail existing = job( new QuartzJobKey( "existing", "pat", 2 ) );
+    scheduler.scheduleJob( existing, trigger( existing ) );
+    JobDetail second = job( new QuartzJobKey( "second", "suzy", 1 ) );
+
+    Map<JobDetail, Set<? extends Trigger>> triggersAndJobs = new LinkedHashMap<>();
+    triggersAndJobs.put( second, Collections.singleton( trigger( second ) ) );
+    triggersAndJobs.put( existing, Collections.singleton( trigger( existing ) ) );
+    try {
+      scheduler.scheduleJobs( triggersAndJobs, false );
+      fail( "the existing job is not replaced" );
+    } catch ( ObjectAlreadyExistsException e ) {
+      // the job stored by the first shard is deleted again
+      assertNull( shards.get( 1 ).getJobDetail( second.getKey() ) );
+      assertNotNull( shards.get( 2 ).getJobDetail( existing.getKey() ) );
+    }
+  }
+
+  @Test
+  public void testManualTriggerFoundInEveryShard() throws Exception {
+    JobDetail job = job( new QuartzJobKey( "report", "suzy", 2 ) );
+    scheduler.addJob( job, false );
+    scheduler.triggerJob( job.getKey() );
+
+    List<? extends Trigger> triggers = scheduler.getTriggersOfJob( job.getKey() );
+    assertEquals( 1, triggers.size() );
+    assertEquals( TriggerState.NORMAL, scheduler.getTriggerState( triggers.get( 0 ).getKey() ) );
+    assertNotNull( scheduler.getTrigger( triggers.get( 0 ).getKey() ) );
+    assertTrue( scheduler.unscheduleJob( triggers.get( 0 ).getKey() ) );
+    assertTrue( shards.get( 2 ).getTriggersOfJob( job.getKey() ).isEmpty() );
+  }
+
+  @Test
+  public void testCalendarStoredInEveryShard() throws Exception {
+    scheduler.addCalendar( "weekdays", new WeeklyCalendar(), false, false );
+    for ( Scheduler shard : shards ) {
+      assertNotNull( shard.getCalendar( "weekdays" ) );
+    }
+    assertNotNull( scheduler.getCalendar( "weekdays" ) );
+
+    JobDetail job = job( new QuartzJobKey( "report", "suzy", 1 ) );
+    scheduler.scheduleJob( job, TriggerBuilder.newTrigger().withIdentity( job.getKey().getName(), "suzy" )
+      .forJob( job ).modifiedByCalendar( "weekdays" ).withSchedule( SimpleScheduleBuilder.repeatHourlyForever() )
+      .build() );
+    try {
+      scheduler.deleteCalendar( "weekdays" );
+      fail( "deleted a calendar in use" );
+    } catch ( SchedulerException e ) {
+      // in use in the second shard
+    }
+    assertNotNull( shards.get( 1 ).getCalendar( "weekdays" ) );
+    assertNull( scheduler.getCalendar( "weekdays" ) );
+
+    // stored again where it was deleted
+    scheduler.addCalendar( "weekdays", new WeeklyCalendar(), false, false );
+    assertNotNull( scheduler.getCalendar( "weekdays" ) );
+    assertFalse( scheduler.getCalendarNames().isEmpty() );
+  }
+
+  private static JobDetail job( QuartzJobKey jobId ) {
+    return JobBuilder.newJob( BlockingQuartzJob.class )
+      .withIdentity( new JobKey( jobId.toString(), jobId.getUserName() ) )
+      .storeDurably()
+      .build();
+  }
+
+  private static Trigger trigger( JobDetail job ) {
+    return TriggerBuilder.newTrigger()
+      .withIdentity( job.getKey().getName(), job.getKey().getGroup() )
+      .forJob( job )
+      .withSchedule( SimpleScheduleBuilder.repeatHourlyForever() )
+      .build();
+  }
+}
@@ -0,0 +1,207 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.H2ConnectionProvider;
+import org.pentaho.platform.scheduler2.quartz.ClusterTestHarness.RecordingJob;
+import org.quartz.CalendarIntervalScheduleBuilder;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Scheduler;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.jdbcjobstore.StdJDBCDelegate;
+import org.quartz.spi.OperableTrigger;
+
+public class TimingWheelJobStoreTest {
+
+  private static final String URL = "jdbc:h2:mem:wheel;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+  private final TriggerKey triggerKey = new TriggerKey( "everySecond", "admin" );
+
+  private Scheduler scheduler;
+
+  @Before
+  public void setUp() throws Exception {
+    ClusterTestHarness.createTables( URL );
+    RecordingJob.executions.clear();
+    scheduler = new StdSchedulerFactory( properties() ).getScheduler();
+    scheduler.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    scheduler.shutdown( true );
+    try ( Connection connection = DriverManager.getConnection( URL );
+          Statement statement = connection.createStatement() ) {
+      statement.execute( "SHUTDOWN" );
+    }
+  }
+
+  @Test
+  public void testShortIntervalSchedulesOnWheel() {
+    TimingWheelJobStore jobStore = new TimingWheelJobStore();
+    JobDetail jobDetail = JobBuilder.newJob( RecordingJob.class ).withIdentity( "job", "admin" ).build();
+    assertTrue( jobStore.isWheelTrigger( jobDetail, everySeconds( 30 ) ) );
+    assertFalse( jobStore.isWheelTrigger( jobDetail, everySeconds( 600 ) ) );
+
+    OperableTrigger hourly = (OperableTrigger) TriggerBuilder.newTrigger()
+      .withSchedule( SimpleScheduleBuilder.repeatHourlyForever() ).build();
+    hourly.computeFirstFireTime( null );
+    assertFalse( jobStore.isWheelTrigger( jobDetail, hourly ) );
+
+    JobDetail serial = JobBuilder.newJob( SerialJob.class ).withIdentity( "serial", "admin" ).build();
+    assertFalse( jobStore.isWheelTrigger( serial, everySeconds( 30 ) ) );
+
+    jobStore.setWheelMaxInterval( 0 );
+    assertFalse( jobStore.isWheelTrigger( jobDetail, everySeconds( 30 ) ) );
+  }
+
+  @Test
+  public void testFiredFromWheelWithCheckpoints() throws Exception {
+    Trigger trigger = scheduleEverySecond();
+    long firstFireTime = trigger.getStartTime().getTime();
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() >= 3 );
+
+    assertEquals( TimingWheelJobStore.STATE_WHEEL, queryString( "SELECT TRIGGER_STATE FROM QRTZ_TRIGGERS" ) );
+    assertEquals( TriggerState.NORMAL, scheduler.getTriggerState( triggerKey ) );
+    assertTrue( scheduler.getTrigger( triggerKey ).getPreviousFireTime() != null );
+    // no fired trigger rows written for the executions
+    assertEquals( "0", queryString( "SELECT COUNT(*) FROM QRTZ_FIRED_TRIGGERS" ) );
+    // the progress reaches the database at the checkpoints
+    await().atMost( 10, TimeUnit.SECONDS ).until(
+      () -> Long.parseLong( queryString( "SELECT NEXT_FIRE_TIME FROM QRTZ_TRIGGERS" ) ) > firstFireTime + 1000 );
+  }
+
+  @Test
+  public void testPausedOffWheel() throws Exception {
+    scheduleEverySecond();
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> !RecordingJob.executions.isEmpty() );
+
+    scheduler.pauseTrigger( triggerKey );
+    assertEquals( "PAUSED", queryString( "SELECT TRIGGER_STATE FROM QRTZ_TRIGGERS" ) );
+    assertEquals( TriggerState.PAUSED, scheduler.getTriggerState( triggerKey ) );
+    int executions = RecordingJob.executions.size();
+    Thread.sleep( 2500 );
+    // at most one execution acquired before the pause
+    assertTrue( RecordingJob.executions.size() <= executions + 1 );
+
+    scheduler.resumeTrigger( triggerKey );
+    assertEquals( TimingWheelJobStore.STATE_WHEEL, queryString( "SELECT TRIGGER_STATE FROM QRTZ_TRIGGERS" ) );
+    int resumed = RecordingJob.executions.size();
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() > resumed );
+  }
+
+  @Test
+  public void testUpdatedJobWrittenThrough() throws Exception {
+    scheduleEverySecond();
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> !RecordingJob.executions.isEmpty() );
+
+    JobDetail updated = JobBuilder.newJob( RecordingJob.class ).withIdentity( "everySecond", "admin" )
+      .withDescription( "updated" ).build();
+    scheduler.scheduleJob( updated, Collections.singleton( TriggerBuilder.newTrigger()
+      .withIdentity( triggerKey )
+      .startNow()
+      .withSchedule( CalendarIntervalScheduleBuilder.calendarIntervalSchedule().withIntervalInSeconds( 2 ) )
+      .build() ), true );
+
+    // in the database at once, not at the next checkpoint
+    assertEquals( "updated", queryString( "SELECT DESCRIPTION FROM QRTZ_JOB_DETAILS" ) );
+    assertEquals( TimingWheelJobStore.STATE_WHEEL, queryString( "SELECT TRIGGER_STATE FROM QRTZ_TRIGGERS" ) );
+  }
+
+  @Test
+  public void testWrittenBackAtShutdown() throws Exception {
+    scheduleEverySecond();
+    await().atMost( 10, TimeUnit.SECONDS ).until( () -> RecordingJob.executions.size() >= 2 );
+    scheduler.shutdown( true );
+
+    assertEquals( "WAITING", queryString( "SELECT TRIGGER_STATE FROM QRTZ_TRIGGERS" ) );
+    assertTrue( Long.parseLong( queryString( "SELECT NEXT_FIRE_TIME FROM QRTZ_TRIGGERS" ) )
+      > System.currentTimeMillis() - 2000 );
+  }
+
+  private Trigger scheduleEverySecond() throws Exception {
+    JobDetail jobDetail = JobBuilder.newJob( RecordingJob.class ).withIdentity( "everySecond", "admin" ).build();
+    Trigger trigger = TriggerBuilder.newTrigger()
+      .withIdentity( triggerKey )
+      .startNow()
+      .withSchedule( CalendarIntervalScheduleBuilder.calendarIntervalSchedule().withIntervalInSeconds( 1 ) )
+      .build();
+    scheduler.scheduleJob( jobDetail, trigger );
+    return trigger;
+  }
+
+  private static OperableTrigger everySeconds( int seconds ) {
+    OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+      .withSchedule( CalendarIntervalScheduleBuilder.calendarIntervalSchedule().withIntervalInSeconds( seconds ) )
+      .build();
+    trigger.computeFirstFireTime( null );
+    return trigger;
+  }
+
+  private static String queryString( String sql ) throws SQLException {
+    try ( Connection connection = DriverManager.getConnection( URL );
+          PreparedStatement statement = connection.prepareStatement( sql );
+          ResultSet resultSet = statement.executeQuery() ) {
+      return resultSet.next() ? resultSet.getString( 1 ) : null;
+    }
+  }
+
+  private static Properties properties() {
+    Properties properties = new Properties();
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "TimingWheelTestScheduler" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true" );
+    properties.setProperty( StdSchedulerFactory.PROP_SCHED_IDLE_WAIT_TIME, "1000" );
+    properties.setProperty( StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", "2" );
+    properties.setProperty( StdSchedulerFactory.PROP_JOB_STORE_CLASS, TimingWheelJobStore.class.getName() );
+    String jobStorePrefix = StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".";
+    properties.setProperty( jobStorePrefix + "driverDelegateClass", StdJDBCDelegate.class.getName() );
+    properties.setProperty( jobStorePrefix + "dataSource", "wheelDS" );
+    properties.setProperty( jobStorePrefix + "tablePrefix", ClusterTestHarness.TABLE_PREFIX );
+    properties.setProperty( jobStorePrefix + "wheelCheckpointInterval", "500" );
+    String dataSourcePrefix = StdSchedulerFactory.PROP_DATASOURCE_PREFIX + ".wheelDS.";
+    properties.setProperty( dataSourcePrefix + "connectionProvider.class", H2ConnectionProvider.class.getName() );
+    properties.setProperty( dataSourcePrefix + "url", URL );
+    return properties;
+  }
+
+  @DisallowConcurrentExecution
+  public static class SerialJob extends RecordingJob {
+  }
+}
@@ -0,0 +1,99 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+  private static final long START = 1700000000500L;
+
+  // 4 slots of 1 second, then of 4 seconds, then of 16 seconds: 64 seconds before the overflow
+  private final TimingWheel<String> wheel = new TimingWheel<>( 1000, 4, 3, START );
+
+  @Test
+  public void testPollsInTimeOrder() {
+    wheel.add( "overflow", START + 100000 );
+    wheel.add( "third level", START + 20000 );
+    wheel.add( "second level", START + 5000 );
+    wheel.add( "first level", START + 1500 );
+    wheel.add( "due", START - 1000 );
+
+    assertEquals( Collections.singletonList( "due" ), wheel.poll( START, 10 ) );
+    assertEquals( Collections.emptyList(), wheel.poll( START + 1499, 10 ) );
+    assertEquals( Arrays.asList( "first level", "second level", "third level" ), wheel.poll( START + 30000, 10 ) );
+    assertEquals( 1, wheel.size() );
+    assertEquals( Collections.emptyList(), wheel.poll( START + 99999, 10 ) );
+    assertEquals( Collections.singletonList( "overflow" ), wheel.poll( START + 100000, 10 ) );
+    assertEquals( 0, wheel.size() );
+  }
+
+  @Test
+  public void testPollsAtMostMaxCount() {
+    wheel.add( "b", START + 2000 );
+    wheel.add( "a", START + 1000 );
+    wheel.add( "c", START + 3000 );
+
+    assertEquals( Collections.singletonList( "a" ), wheel.poll( START + 5000, 1 ) );
+    // the wheel already turned past the others
+    assertEquals( Arrays.asList( "b", "c" ), wheel.poll( START + 5000, 10 ) );
+  }
+
+  @Test
+  public void testRemoveAndMove() {
+    wheel.add( "a", START + 10000 );
+    wheel.add( "b", START + 10000 );
+    assertTrue( wheel.remove( "a" ) );
+    assertFalse( wheel.remove( "a" ) );
+    assertFalse( wheel.contains( "a" ) );
+
+    wheel.add( "b", START + 2000 );
+    assertEquals( 1, wheel.size() );
+    assertEquals( Collections.singletonList( "b" ), wheel.poll( START + 2000, 10 ) );
+    assertEquals( Collections.emptyList(), wheel.poll( START + 20000, 10 ) );
+  }
+
+  @Test
+  public void testRandomTimes() {
+    Random random = new Random( 42 );
+    List<Long> times = new ArrayList<>();
+    for ( int i = 0; i < 1000; i++ ) {
+      long time = START + random.nextInt( 200000 );
+      times.add( time );
+      wheel.add( "item" + i, time );
+    }
+    List<Long> polled = new ArrayList<>();
+    for ( long now = START; polled.size() < times.size(); now += random.nextInt( 5000 ) ) {
+      for ( String item : wheel.poll( now, Integer.MAX_VALUE ) ) {
+        long time = times.get( Integer.parseInt( item.substring( 4 ) ) );
+        assertTrue( time <= now );
+        polled.add( time );
+      }
+    }
+
+    Collections.sort( times );
+    assertEquals( times, polled );
+  }
+}
@@ -0,0 +1,129 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.platform.scheduler2.workitem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.pentaho.platform.workitem.WorkItemLifecyclePhase;
+
+public class WorkItemLifecycleEventDispatcherTest {
+
+  @Test
+  public void testEventsPublishedWithDetailsSnapshot() {
+    List<String> published = new CopyOnWriteArrayList<>();
+    WorkItemLifecycleEventDispatcher dispatcher = new WorkItemLifecycleEventDispatcher( 100, 5000,
+      ( uid, details, phase, lifecycleDetails, timestamp ) -> published.add( uid + ":" + phase + ":"
+        + details.get( "key" ) + ":" + lifecycleDetails ) );
+
+    Map<String, Object> params = new HashMap<>();
+    params.put( "key", "before" );
+    dispatcher.enqueue( "item", params, WorkItemLifecyclePhase.FAILED, "boom" );
+    params.put( "key", "after" );
+
+    assertTrue( dispatcher.shutdown( TimeUnit.SECONDS.toMillis( 10 ) ) );
+    assertEquals( 1, published.size() );
+    assertEquals( "item:FAILED:before:boom", published.get( 0 ) );
+  }
+
+  @Test( expected = UnsupportedOperationException.class )
+  public void testDetailsPublishedReadOnlyAfterShutdown() {
+    List<Map<String, Object>> published = new CopyOnWriteArrayList<>();
+    WorkItemLifecycleEventDispatcher dispatcher = new WorkItemLifecycleEventDispatcher( 100, 5000,
+      ( uid, details, phase, lifecycleDetails, timestamp ) -> published.add( details ) );
+    assertTrue( dispatcher.shutdown( TimeUnit.SECONDS.toMillis( 10 ) ) );
+
+    Map<String, Object> params = new HashMap<>();
+    params.put( "key", "value" );
+    dispatcher.enqueue( "item", params, WorkItemLifecyclePhase.SUCCEEDED, null );
+
+    assertEquals( 1, published.size() );
+    assertEquals( params, published.get( 0 ) );
+    published.get( 0 ).put( "key", "changed" );
+  }
+
+  @Test
+  public void testWaitingProgressEventsAreCoalesced() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+    List<String> published = new CopyOnWriteArrayList<>();
+    WorkItemLifecycleEventDispatcher dispatcher = new WorkItemLifecycleEventDispatcher( 100, 5000,
+      ( uid, details, phase, lifecycleDetails, timestamp ) -> {
+        if ( "blocker".equals( uid ) ) {
+          blocked.countDown();
+          awaitQuietly( release );
+        } else {
+          published.add( uid + ":" + phase );
+        }
+      } );
+
+    dispatcher.enqueue( "blocker", null, WorkItemLifecyclePhase.SUBMITTED, null );
+    assertTrue( blocked.await( 10, TimeUnit.SECONDS ) );
+    dispatcher.enqueue( "item", null, WorkItemLifecyclePhase.SUBMITTED, null );
+    dispatcher.enqueue( "other", null, WorkItemLifecyclePhase.SUBMITTED, null );
+    dispatcher.enqueue( "item", null, WorkItemLifecyclePhase.IN_PROGRESS, null );
+    dispatcher.enqueue( "item", null, WorkItemLifecyclePhase.SUCCEEDED, null );
+    dispatcher.enqueue( "item", null, WorkItemLifecyclePhase.SUBMITTED, null );
+    release.countDown();
+
+    assertTrue( dispatcher.shutdown( TimeUnit.SECONDS.toMillis( 10 ) ) );
+    assertEquals( 2, dispatcher.getCoalescedCount() );
+    assertEquals( 3, published.size() );
+    assertEquals( "item:SUCCEEDED", published.get( 0 ) );
+    assertEquals( "other:SUBMITTED", published.get( 1 ) );
+    assertEquals( "item:SUBMITTED", published.get( 2 ) );
+  }
+
+  @Test
+  public void testEventsDroppedWhenBufferIsFull() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+    WorkItemLifecycleEventDispatcher dispatcher = new WorkItemLifecycleEventDispatcher( 1, 0,
+      ( uid, details, phase, lifecycleDetails, timestamp ) -> {
+        if ( "blocker".equals( uid ) ) {
+          blocked.countDown();
+          awaitQuietly( release );
+        }
+      } );
+
+    dispatcher.enqueue( "blocker", null, WorkItemLifecyclePhase.SUBMITTED, null );
+    assertTrue( blocked.await( 10, TimeUnit.SECONDS ) );
+    dispatcher.enqueue( "first", null, WorkItemLifecyclePhase.FAILED, null );
+    dispatcher.enqueue( "second", null, WorkItemLifecyclePhase.FAILED, null );
+    assertEquals( 1, dispatcher.getDroppedCount() );
+    release.countDown();
+
+    assertTrue( dispatcher.shutdown( TimeUnit.SECONDS.toMillis( 10 ) ) );
+    assertEquals( 0, dispatcher.getQueuedCount() );
+    // the late threshold is zero, so the published event is late
+    assertTrue( dispatcher.getLateCount() >= 1 );
+  }
+
+  private static void awaitQuietly( CountDownLatch latch ) {
+    try {
+      latch.await( 10, TimeUnit.SECONDS );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
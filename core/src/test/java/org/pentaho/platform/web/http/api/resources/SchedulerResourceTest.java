@@ -30,8 +30,12 @@ import org.pentaho.platform.web.http.api.proxies.BlockStatusProxy;
 import org.pentaho.platform.web.http.api.resources.services.ISchedulerServicePlugin;
 
 import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -47,9 +51,11 @@ import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.pentaho.platform.web.http.api.resources.SchedulerResource.ERROR_JOB_STATE;
 import static org.pentaho.platform.web.http.api.resources.SchedulerResource.REMOVED_JOB_STATE;
 
 @SuppressWarnings( { "unchecked", "deprecation", "ConstantValue" } )
@@ -510,6 +516,38 @@ public class SchedulerResourceTest {
     verify( schedulerResource.schedulerService, times( 1 ) ).pauseJob( jobId );
   }
 
+  @Test
+  public void testCreateJobs() throws Exception {
+    JobScheduleRequest request = new JobScheduleRequest();
+    JobScheduleRequests requests = new JobScheduleRequests();
+    requests.setJobScheduleRequests( Collections.singletonList( request ) );
+    List<JobCreationResult> results =
+      Collections.singletonList( new JobCreationResult( "job", "admin\tjob\t1", JobCreationResult.CREATED, null ) );
+    doReturn( results ).when( schedulerResource.schedulerService ).createJobs( requests.getJobScheduleRequests() );
+
+    JobCreationResults testResult = schedulerResource.createJobs( requests );
+
+    assertEquals( results, testResult.getResults() );
+  }
+
+  @Test
+  public void testCancelJob() throws Exception {
+    String jobId = "jobId";
+
+    JobRequest mockJobRequest = mock( JobRequest.class );
+    doReturn( jobId ).when( mockJobRequest ).getJobId();
+
+    doReturn( true ).when( schedulerResource.schedulerService ).cancelJob( jobId );
+
+    Response mockResponse = mock( Response.class );
+    doReturn( mockResponse ).when( schedulerResource ).buildPlainTextOkResponse( "true" );
+
+    Response testResult = schedulerResource.cancelJob( mockJobRequest );
+    assertEquals( mockResponse, testResult );
+
+    verify( schedulerResource.schedulerService, times( 1 ) ).cancelJob( jobId );
+  }
+
   @Test
   public void testResumeJob() throws Exception {
     String jobId = "jobId";
@@ -634,6 +672,48 @@ public class SchedulerResourceTest {
     assertTrue( Maps.difference( convertToMap( testResponse.getChanges() ), convertToMap( mockJobsResponse.getChanges() ) ).areEqual() );
   }
 
+  @Test
+  public void testPauseJobs() throws Exception {
+    JobsRequest jobsRequest = new JobsRequest();
+    jobsRequest.setJobIds( Arrays.asList( "jobId", "jobId2" ) );
+    doReturn( Collections.singletonMap( "jobId", JobState.PAUSED ) ).when( schedulerResource.schedulerService )
+      .pauseJobs( jobsRequest.getJobIds() );
+
+    JobsResponse expected = new JobsResponse();
+    expected.addChanges( "jobId", JobState.PAUSED.name() );
+    expected.addChanges( "jobId2", ERROR_JOB_STATE );
+
+    JobsResponse testResponse = schedulerResource.pauseJobs( jobsRequest );
+    assertTrue( Maps.difference( convertToMap( testResponse.getChanges() ), convertToMap( expected.getChanges() ) )
+      .areEqual() );
+  }
+
+  @Test
+  public void testGetSnapshotForbidden() throws Exception {
+    Response mockForbiddenResponse = mock( Response.class );
+    doReturn( mockForbiddenResponse ).when( schedulerResource ).buildStatusResponse( FORBIDDEN );
+    Mockito.doThrow( new IllegalAccessException() ).when( schedulerResource.schedulerService ).checkSnapshotAccess();
+
+    assertEquals( mockForbiddenResponse, schedulerResource.getSnapshot() );
+    verify( schedulerResource.schedulerService, never() ).writeSnapshot( any() );
+  }
+
+  @Test
+  public void testRestoreSnapshot() throws Exception {
+    InputStream snapshot = new ByteArrayInputStream( new byte[ 0 ] );
+    Response mockForbiddenResponse = mock( Response.class );
+    doReturn( mockForbiddenResponse ).when( schedulerResource ).buildStatusResponse( FORBIDDEN );
+    Response mockOkResponse = mock( Response.class );
+    doReturn( mockOkResponse ).when( schedulerResource ).buildPlainTextOkResponse( "3" );
+
+    doReturn( 3 ).when( schedulerResource.schedulerService ).restoreSnapshot( snapshot );
+    assertEquals( mockOkResponse, schedulerResource.restoreSnapshot( snapshot ) );
+
+    Mockito.doThrow( new IllegalAccessException() ).when( schedulerResource.schedulerService )
+      .restoreSnapshot( snapshot );
+    assertEquals( mockForbiddenResponse, schedulerResource.restoreSnapshot( snapshot ) );
+  }
+
   @Test
   public void testGetJob() throws Exception {
     String jobId = "jobId";
@@ -18,6 +18,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -38,11 +39,15 @@ import org.pentaho.platform.api.scheduler2.Job;
 import org.pentaho.platform.api.scheduler2.JobState;
 import org.pentaho.platform.api.scheduler2.SchedulerException;
 import org.pentaho.platform.api.scheduler2.SimpleJobTrigger;
+import org.pentaho.platform.scheduler2.action.GeneratedContentIndex;
+import org.pentaho.platform.scheduler2.quartz.JobDefinition;
+import org.pentaho.platform.scheduler2.quartz.QuartzScheduler;
 import org.pentaho.platform.security.policy.rolebased.actions.AdministerSecurityAction;
 import org.pentaho.platform.security.policy.rolebased.actions.SchedulerAction;
 import org.pentaho.platform.security.policy.rolebased.actions.SchedulerExecuteAction;
 import org.pentaho.platform.web.http.api.proxies.BlockStatusProxy;
 import org.pentaho.platform.web.http.api.resources.ComplexJobTriggerProxy;
+import org.pentaho.platform.web.http.api.resources.JobCreationResult;
 import org.pentaho.platform.web.http.api.resources.JobRequest;
 import org.pentaho.platform.web.http.api.resources.JobScheduleParam;
 import org.pentaho.platform.web.http.api.resources.JobScheduleRequest;
@@ -53,6 +58,8 @@ import org.pentaho.platform.web.http.api.resources.SessionResource;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -75,6 +82,7 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -254,6 +262,138 @@ public class SchedulerServiceTest {
     } );
   }
 
+  @Test
+  public void testUpdateJobInPlace() throws Exception {
+    String jobId = "admin\tjobName\t1";
+    Job job = new Job();
+    job.setJobId( jobId );
+    job.setJobName( "jobName" );
+    job.setUserName( "admin" );
+    JobScheduleRequest scheduleRequest = getBasicRequest();
+    scheduleRequest.setJobId( jobId );
+    scheduleRequest.setInputFile( "" );
+    scheduleRequest.setTimeZone( null );
+
+    doReturn( job ).when( schedulerService.scheduler ).getJob( jobId );
+    doReturn( true ).when( schedulerService.policy ).isAllowed( SchedulerAction.NAME );
+    doReturn( Class.class ).when( schedulerService ).getAction( "className" );
+
+    assertEquals( job, schedulerService.updateJob( scheduleRequest ) );
+
+    ArgumentCaptor<Map<String, Object>> paramsCaptor = ArgumentCaptor.forClass( Map.class );
+    verify( schedulerService.scheduler ).updateJob( eq( jobId ), paramsCaptor.capture(), any( IJobTrigger.class ) );
+    assertEquals( "value1", paramsCaptor.getValue().get( "name1" ) );
+    assertEquals( "admin", paramsCaptor.getValue().get( IScheduler.RESERVEDMAPKEY_ACTIONUSER ) );
+    assertEquals( Class.class.getName(), paramsCaptor.getValue().get( IScheduler.RESERVEDMAPKEY_ACTIONCLASS ) );
+    verify( schedulerService.scheduler, never() ).removeJob( jobId );
+  }
+
+  @Test
+  public void testUpdateJobRenamedKeepsLineage() throws Exception {
+    String jobId = "admin\toldName\t1";
+    Job job = new Job();
+    job.setJobId( jobId );
+    job.setJobName( "oldName" );
+    job.setUserName( "admin" );
+    Map<String, Object> jobParams = new HashMap<>();
+    jobParams.put( IScheduler.RESERVEDMAPKEY_LINEAGE_ID, "lineage" );
+    job.setJobParams( jobParams );
+    JobScheduleRequest scheduleRequest = getBasicRequest();
+    scheduleRequest.setJobId( jobId );
+    Job newJob = new Job();
+
+    doReturn( job ).when( schedulerService.scheduler ).getJob( jobId );
+    doReturn( newJob ).when( schedulerService ).createJob( scheduleRequest );
+    doReturn( true ).when( schedulerService ).removeJob( jobId );
+
+    assertEquals( newJob, schedulerService.updateJob( scheduleRequest ) );
+
+    verify( schedulerService.scheduler, never() ).updateJob( anyString(), any(), any() );
+    assertTrue( scheduleRequest.getJobParameters().stream().anyMatch( param ->
+      IScheduler.RESERVEDMAPKEY_LINEAGE_ID.equals( param.getName() ) && "lineage".equals( param.getValue() ) ) );
+  }
+
+  @Test
+  public void testCreateJobsReportsEachRequest() throws Exception {
+    JobScheduleRequest valid = getBasicRequest();
+    valid.setInputFile( "" );
+    JobScheduleRequest missingFile = getBasicRequest();
+    missingFile.setInputFile( "/public/missing.prpt" );
+    Job job = new Job();
+    job.setJobId( "admin\tjobName\t1" );
+    job.setJobName( "jobName" );
+
+    doReturn( true ).when( schedulerService.policy ).isAllowed( SchedulerAction.NAME );
+    doReturn( Class.class ).when( schedulerService ).getAction( "className" );
+    doReturn( job ).when( schedulerService.scheduler )
+      .createJob( eq( "jobName" ), any( Class.class ), any( Map.class ), any( IJobTrigger.class ) );
+
+    List<JobCreationResult> results = schedulerService.createJobs( Arrays.asList( missingFile, valid ) );
+
+    assertEquals( 2, results.size() );
+    assertEquals( JobCreationResult.ERROR, results.get( 0 ).getStatus() );
+    assertNull( results.get( 0 ).getJobId() );
+    assertEquals( JobCreationResult.CREATED, results.get( 1 ).getStatus() );
+    assertEquals( job.getJobId(), results.get( 1 ).getJobId() );
+  }
+
+  @Test
+  public void testCreateJobsStoredTogether() throws Exception {
+    QuartzScheduler quartzScheduler = mock( QuartzScheduler.class );
+    schedulerService.scheduler = quartzScheduler;
+    JobScheduleRequest first = getBasicRequest();
+    first.setInputFile( "" );
+    JobScheduleRequest second = getBasicRequest();
+    second.setInputFile( "" );
+    second.setJobName( "other" );
+    Job firstJob = new Job();
+    firstJob.setJobId( "admin\tjobName\t1" );
+    Job secondJob = new Job();
+    secondJob.setJobId( "admin\tother\t2" );
+
+    doReturn( true ).when( schedulerService.policy ).isAllowed( SchedulerAction.NAME );
+    doReturn( Class.class ).when( schedulerService ).getAction( "className" );
+    doReturn( Arrays.asList( firstJob, secondJob ) ).when( quartzScheduler ).createJobs( any() );
+
+    List<JobCreationResult> results = schedulerService.createJobs( Arrays.asList( first, second ) );
+
+    assertEquals( "admin\tjobName\t1", results.get( 0 ).getJobId() );
+    assertEquals( "admin\tother\t2", results.get( 1 ).getJobId() );
+    ArgumentCaptor<List<JobDefinition>> definitionsCaptor = ArgumentCaptor.forClass( List.class );
+    verify( quartzScheduler ).createJobs( definitionsCaptor.capture() );
+    assertEquals( "other", definitionsCaptor.getValue().get( 1 ).getJobName() );
+    assertEquals( Class.class.getName(),
+      definitionsCaptor.getValue().get( 1 ).getJobParams().get( IScheduler.RESERVEDMAPKEY_ACTIONCLASS ) );
+  }
+
+  @Test
+  public void testCreateJobsOneByOneWhenStoringTogetherFails() throws Exception {
+    QuartzScheduler quartzScheduler = mock( QuartzScheduler.class );
+    schedulerService.scheduler = quartzScheduler;
+    JobScheduleRequest first = getBasicRequest();
+    first.setInputFile( "" );
+    JobScheduleRequest expired = getBasicRequest();
+    expired.setInputFile( "" );
+    expired.setJobName( "expired" );
+    Job firstJob = new Job();
+    firstJob.setJobId( "admin\tjobName\t1" );
+    firstJob.setJobName( "jobName" );
+
+    doReturn( true ).when( schedulerService.policy ).isAllowed( SchedulerAction.NAME );
+    doReturn( Class.class ).when( schedulerService ).getAction( "className" );
+    doThrow( new SchedulerException( "will never fire" ) ).when( quartzScheduler ).createJobs( any() );
+    doReturn( firstJob ).when( quartzScheduler )
+      .createJob( eq( "jobName" ), any( Class.class ), any( Map.class ), any( IJobTrigger.class ) );
+    doThrow( new SchedulerException( "will never fire" ) ).when( quartzScheduler )
+      .createJob( eq( "expired" ), any( Class.class ), any( Map.class ), any( IJobTrigger.class ) );
+
+    List<JobCreationResult> results = schedulerService.createJobs( Arrays.asList( first, expired ) );
+
+    assertEquals( JobCreationResult.CREATED, results.get( 0 ).getStatus() );
+    assertEquals( "admin\tjobName\t1", results.get( 0 ).getJobId() );
+    assertEquals( JobCreationResult.ERROR, results.get( 1 ).getStatus() );
+  }
+
   @Test
   public void testTriggerNow() throws Exception {
     JobRequest jobRequest = mock( JobRequest.class );
@@ -536,6 +676,82 @@ public class SchedulerServiceTest {
     assertNull( state );
   }
 
+  @Test
+  public void testCancelJob() throws SchedulerException {
+    Job job = mock( Job.class );
+    QuartzScheduler quartzScheduler = mock( QuartzScheduler.class );
+    schedulerService.scheduler = quartzScheduler;
+    doReturn( job ).when( schedulerService ).getJob( "job-id" );
+    doReturn( true ).when( schedulerService ).isScheduleAllowed();
+    doReturn( true ).when( quartzScheduler ).interruptJob( "job-id" );
+
+    assertTrue( schedulerService.cancelJob( "job-id" ) );
+    verify( quartzScheduler ).interruptJob( "job-id" );
+  }
+
+  @Test
+  public void testCancelJobNotAllowed() throws Exception {
+    Job job = mock( Job.class );
+    QuartzScheduler quartzScheduler = mock( QuartzScheduler.class );
+    schedulerService.scheduler = quartzScheduler;
+    IPentahoSession session = mock( IPentahoSession.class );
+    doReturn( job ).when( schedulerService ).getJob( "job-id" );
+    doReturn( false ).when( schedulerService ).isScheduleAllowed();
+    doReturn( false ).when( schedulerService ).isExecuteScheduleAllowed();
+    doReturn( session ).when( schedulerService ).getSession();
+    doReturn( "user" ).when( session ).getName();
+    doReturn( "owner" ).when( job ).getUserName();
+
+    assertFalse( schedulerService.cancelJob( "job-id" ) );
+    verify( quartzScheduler, never() ).interruptJob( anyString() );
+  }
+
+  @Test
+  public void testPauseJobsInOneCall() throws Exception {
+    QuartzScheduler quartzScheduler = mock( QuartzScheduler.class );
+    schedulerService.scheduler = quartzScheduler;
+    IPentahoSession session = mock( IPentahoSession.class );
+    Job own = mock( Job.class );
+    Job other = mock( Job.class );
+    doReturn( false ).when( schedulerService ).isScheduleAllowed();
+    doReturn( false ).when( schedulerService ).isExecuteScheduleAllowed();
+    doReturn( session ).when( schedulerService ).getSession();
+    doReturn( "user" ).when( session ).getName();
+    doReturn( "user" ).when( own ).getUserName();
+    doReturn( "owner" ).when( other ).getUserName();
+    doReturn( JobState.PAUSED ).when( own ).getState();
+    doReturn( JobState.NORMAL ).when( other ).getState();
+    doReturn( own ).when( schedulerService ).getJob( "own" );
+    doReturn( other ).when( schedulerService ).getJob( "other" );
+    doReturn( null ).when( schedulerService ).getJob( "missing" );
+    doReturn( Collections.singletonList( "own" ) ).when( quartzScheduler )
+      .pauseJobs( Collections.singletonList( "own" ) );
+
+    Map<String, JobState> states = schedulerService.pauseJobs( Arrays.asList( "own", "other", "missing" ) );
+
+    assertEquals( JobState.PAUSED, states.get( "own" ) );
+    assertEquals( JobState.NORMAL, states.get( "other" ) );
+    assertFalse( states.containsKey( "missing" ) );
+    verify( quartzScheduler, never() ).pauseJob( anyString() );
+  }
+
+  @Test
+  public void testResumeJobsOneByOne() throws Exception {
+    Job first = mock( Job.class );
+    Job second = mock( Job.class );
+    doReturn( true ).when( schedulerService ).isScheduleAllowed();
+    doReturn( mock( IPentahoSession.class ) ).when( schedulerService ).getSession();
+    doReturn( JobState.NORMAL ).when( first ).getState();
+    doReturn( first ).when( schedulerService ).getJob( "first" );
+    doReturn( second ).when( schedulerService ).getJob( "second" );
+    doThrow( new SchedulerException( "resume-exception" ) ).when( schedulerService.scheduler ).resumeJob( "second" );
+
+    Map<String, JobState> states = schedulerService.resumeJobs( Arrays.asList( "first", "second" ) );
+
+    assertEquals( Collections.singletonMap( "first", JobState.NORMAL ), states );
+    verify( schedulerService.scheduler ).resumeJob( "first" );
+  }
+
   @Test
   public void testPauseJobException() throws SchedulerException {
     Job job = mock( Job.class );
@@ -860,6 +1076,59 @@ public class SchedulerServiceTest {
     assertEquals( mockList, list );
   }
 
+  @Test
+  public void testDoGetGeneratedContentForScheduleSeedsIndex() throws Exception {
+    String lineageId = "test.prpt";
+    String currentUserDir = "/home/admin";
+
+    GeneratedContentIndex mockIndex = mock( GeneratedContentIndex.class );
+    doReturn( mockIndex ).when( schedulerService ).getGeneratedContentIndex();
+
+    FileService mockFileService = mock( FileService.class );
+    doReturn( mockFileService ).when( schedulerService ).getFileService();
+
+    SessionResource mockSessionResource = mock( SessionResource.class );
+    doReturn( mockSessionResource ).when( schedulerService ).getSessionResource();
+    doReturn( currentUserDir ).when( mockSessionResource ).doGetCurrentUserDir();
+
+    RepositoryFileDto fileDto = new RepositoryFileDto();
+    fileDto.setPath( currentUserDir + "/test.pdf" );
+    List<RepositoryFileDto> searchResult = new ArrayList<>();
+    searchResult.add( fileDto );
+    doReturn( searchResult ).when( mockFileService )
+      .searchGeneratedContent( currentUserDir, lineageId, IScheduler.RESERVEDMAPKEY_LINEAGE_ID );
+
+    assertEquals( searchResult, schedulerService.doGetGeneratedContentForSchedule( lineageId ) );
+    verify( mockIndex ).seed( lineageId, currentUserDir, Collections.singletonList( fileDto.getPath() ) );
+  }
+
+  @Test
+  public void testDoGetGeneratedContentForScheduleFromIndex() throws Exception {
+    String lineageId = "test.prpt";
+    String currentUserDir = "/home/admin";
+
+    IUnifiedRepository mockRepository = mock( IUnifiedRepository.class );
+    doReturn( mockRepository ).when( schedulerService ).getRepository();
+
+    FileService mockFileService = mock( FileService.class );
+    doReturn( mockFileService ).when( schedulerService ).getFileService();
+
+    SessionResource mockSessionResource = mock( SessionResource.class );
+    doReturn( mockSessionResource ).when( schedulerService ).getSessionResource();
+    doReturn( currentUserDir ).when( mockSessionResource ).doGetCurrentUserDir();
+
+    RepositoryFile file = new RepositoryFile.Builder( "fileId", "test.pdf" ).path( currentUserDir + "/test.pdf" )
+      .build();
+    GeneratedContentIndex mockIndex = mock( GeneratedContentIndex.class );
+    doReturn( mockIndex ).when( schedulerService ).getGeneratedContentIndex();
+    doReturn( Collections.singletonList( file ) ).when( mockIndex ).lookup( mockRepository, currentUserDir, lineageId );
+
+    List<RepositoryFileDto> list = schedulerService.doGetGeneratedContentForSchedule( lineageId );
+    assertEquals( 1, list.size() );
+    assertEquals( file.getPath(), list.get( 0 ).getPath() );
+    verify( mockFileService, times( 0 ) ).searchGeneratedContent( anyString(), anyString(), anyString() );
+  }
+
   @Test
   public void testGetJobState() throws Exception {
     JobRequest mockJobRequest = mock( JobRequest.class );
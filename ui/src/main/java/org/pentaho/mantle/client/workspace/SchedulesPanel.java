@@ -913,8 +913,8 @@ public class SchedulesPanel extends SimplePanel {
 
         boolean isRunning = JOB_STATE_NORMAL.equalsIgnoreCase( job.getState() );
 
-        final String action = isRunning ? "pauseJob" : "resumeJob";
-        controlJobs( selectedJobs, action, RequestBuilder.POST, false );
+        final String action = isRunning ? "pauseJobs" : "resumeJobs";
+        controlJobs( selectedJobs, action, false );
       }
     } );
     controlScheduleButton.setEnabled( false );
@@ -1165,7 +1165,7 @@ public class SchedulesPanel extends SimplePanel {
     MessageDialogBox messageDialog = new MessageDialogBox( title, message, false, true, true );
     messageDialog.center();
 
-    controlJobs( jobs, "triggerNow", RequestBuilder.POST, true );
+    controlJobs( jobs, "triggerJobsNow", true );
   }
 
   private Set<JsJob> getExecutableJobs( Map<String, List<JsJob>> candidateJobs, Response response ) {
@@ -1233,7 +1233,7 @@ public class SchedulesPanel extends SimplePanel {
 
     prompt.setCallback( new IDialogCallback() {
       public void okPressed() {
-        controlJobs( jobs, "removeJob", RequestBuilder.DELETE, true );
+        controlJobs( jobs, "removeJobs", true );
         prompt.hide();
       }
 
@@ -1246,39 +1246,46 @@ public class SchedulesPanel extends SimplePanel {
     prompt.center();
   }
 
-  private void controlJobs( final Set<JsJob> jobs, String function, final Method method, final boolean refreshData ) {
-    for ( final JsJob job : jobs ) {
-      RequestBuilder builder =
-        createRequestBuilder( method, ScheduleHelper.getPluginContextURL(), "api/scheduler/" + function );
+  private void controlJobs( final Set<JsJob> jobs, String function, final boolean refreshData ) {
+    RequestBuilder builder =
+      createRequestBuilder( RequestBuilder.POST, ScheduleHelper.getPluginContextURL(), "api/scheduler/" + function );
+    builder.setHeader( CONTENT_TYPE, APPLICATION_JSON );
+    builder.setHeader( ACCEPT, APPLICATION_JSON );
 
-      builder.setHeader( CONTENT_TYPE, APPLICATION_JSON );
+    JSONObject requestData = new JSONObject();
+    requestData.put( "jobIds", getIds( jobs ) );
 
-      JSONObject startJobRequest = new JSONObject();
-      startJobRequest.put( "jobId", new JSONString( job.getJobId() ) );
+    try {
+      builder.sendRequest( requestData.toString(), new RequestCallback() {
 
-      try {
-        builder.sendRequest( startJobRequest.toString(), new RequestCallback() {
+        public void onError( Request request, Throwable exception ) {
+          // showError(exception);
+        }
 
-          public void onError( Request request, Throwable exception ) {
-            // showError(exception);
-          }
+        public void onResponseReceived( Request request, Response response ) {
+          if ( response.getStatusCode() == Response.SC_OK ) {
+            JSONObject responseObj = new JSONObject( JsonUtils.safeEval( response.getText() ) );
+            Map<String, String> changes = SchedulerUiUtil.getMapFromJSONResponse( responseObj, "changes" );
 
-          public void onResponseReceived( Request request, Response response ) {
-            final String jobState = response.getText();
+            for ( JsJob job : jobs ) {
+              String jobState = changes.get( job.getJobId() );
 
-            job.setState( jobState );
-            table.redraw();
+              if ( jobState != null && !JOB_STATE_UNKNOWN_ERROR.equals( jobState ) ) {
+                job.setState( jobState );
+                updateJobScheduleButtonStyle( jobState );
+              }
+            }
+          }
 
-            updateJobScheduleButtonStyle( jobState );
+          table.redraw();
 
-            if ( refreshData ) {
-              refresh();
-            }
+          if ( refreshData ) {
+            refresh();
           }
-        } );
-      } catch ( RequestException e ) {
-        // showError(e);
-      }
+        }
+      } );
+    } catch ( RequestException e ) {
+      // showError(e);
     }
   }
 